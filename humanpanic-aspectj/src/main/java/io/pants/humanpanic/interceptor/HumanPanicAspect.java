@@ -0,0 +1,40 @@
+package io.pants.humanpanic.interceptor;
+
+import io.pants.humanpanic.HumanPanic;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.UserNotifier;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+
+/**
+ * AspectJ aspect that intercepts methods annotated with @HumanPanic
+ * and provides human-friendly error handling
+ */
+@Aspect
+@Slf4j
+public class HumanPanicAspect {
+
+    private final PanicHandler panicHandler;
+
+    public HumanPanicAspect(CrashReporter crashReporter, UserNotifier userNotifier) {
+        this.panicHandler = new PanicHandler(crashReporter, userNotifier);
+    }
+
+    @Around("@annotation(io.pants.humanpanic.HumanPanic)")
+    public Object handlePanic(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            Method method = signature.getMethod();
+            HumanPanic annotation = method.getAnnotation(HumanPanic.class);
+
+            return panicHandler.handle(throwable, annotation, method, joinPoint.getArgs(), signature.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.BacktraceStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Serialising one report of a crash storm with its 80 frames inline, versus storing the
+ * (already known) backtrace by hash and serialising the report with only the reference
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BacktraceStoreBenchmark {
+
+    private static final int FRAMES = 80;
+
+    private final JsonReportEncoder encoder = new JsonReportEncoder(false);
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private Path directory;
+    private BacktraceStore store;
+    private CrashReport report;
+    private CrashReport referencing;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-backtrace-bench");
+        store = new BacktraceStore(directory);
+        report = new CrashReport();
+        report.setName("bench");
+        report.setCause("java.lang.IllegalStateException: storm");
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.layer" + (i % 8) + ".Component" + i);
+            frame.setMethod("invoke" + (i % 5));
+            frame.setFile("Component" + i + ".java");
+            frame.setLine(100 + i);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        referencing = new CrashReport();
+        referencing.setName(report.getName());
+        referencing.setCause(report.getCause());
+        store.put(frames);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int inline() throws IOException {
+        buffer.reset();
+        encoder.encode(report, buffer);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int referenced() throws IOException {
+        buffer.reset();
+        referencing.setBacktraceRef(store.put(report.getBacktrace()));
+        encoder.encode(referencing, buffer);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,61 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.Breadcrumbs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording a breadcrumb from four threads, against formatting it right away into a
+ * shared locked deque. Run with -prof gc to see the allocation per breadcrumb.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BreadcrumbBenchmark {
+
+    private final Deque<String> locked = new ArrayDeque<>();
+    private final String order = "order-8812";
+    private long attempt;
+
+    @Benchmark
+    public void constantMessage() {
+        Breadcrumbs.breadcrumb("checkout started");
+    }
+
+    @Benchmark
+    public void withArguments() {
+        Breadcrumbs.breadcrumb("loaded {} attempt {}", order, "3");
+    }
+
+    @Benchmark
+    public void withLong() {
+        Breadcrumbs.breadcrumb("attempt {}", attempt++);
+    }
+
+    @Benchmark
+    public void formattedIntoLockedDeque() {
+        String message = String.format("loaded %s attempt %s", order, "3");
+        synchronized (locked) {
+            if (locked.size() == Breadcrumbs.RING_SLOTS) {
+                locked.removeFirst();
+            }
+            locked.addLast(message);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.collector.CollectorServer;
+import io.pants.humanpanic.collector.ReportStore;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Collector throughput in reports per second, with several nodes uploading batches of 64
+ * reports spread over 1000 distinct failures.
+ *
+ * ingest measures the store alone (parse, fingerprint, dedupe, append); upload goes through
+ * HTTP with gzipped NDJSON bodies, the way HttpUploadSink sends them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class CollectorIngestBenchmark {
+
+    private static final int BATCH = 64;
+    private static final int FAILURES = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Collector {
+        Path directory;
+        CollectorServer server;
+        URI endpoint;
+        List<byte[]> lines;
+        byte[] body;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("humanpanic-collector-bench");
+            server = new CollectorServer(new InetSocketAddress("127.0.0.1", 0), new ReportStore(directory));
+            server.start();
+            endpoint = URI.create("http://127.0.0.1:" + server.getPort() + "/reports");
+
+            JsonReportEncoder encoder = new JsonReportEncoder(false);
+            lines = new ArrayList<>();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                for (int i = 0; i < BATCH; i++) {
+                    ByteArrayOutputStream line = new ByteArrayOutputStream();
+                    encoder.encode(report(i * 17 % FAILURES), line);
+                    lines.add(line.toByteArray());
+                    gzip.write(line.toByteArray());
+                    gzip.write('\n');
+                }
+            }
+            body = compressed.toByteArray();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Node {
+        final HttpClient client = HttpClient.newHttpClient();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ReportStore.IngestResult ingest(Collector collector) throws IOException {
+        return collector.server.getStore().ingest(collector.lines, null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int upload(Collector collector, Node node) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(collector.endpoint)
+                .header("Content-Type", "application/x-ndjson")
+                .header("Content-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(collector.body))
+                .build();
+        return node.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static CrashReport report(int failure) {
+        CrashReport report = new CrashReport();
+        report.setName("bench-app");
+        report.setVersion("1.0.0");
+        report.setCause("java.lang.IllegalStateException: failure " + failure);
+        CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+        method.setClassName("com.example.Service" + failure);
+        method.setMethodName("handle");
+        report.setMethod(method);
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.Layer" + i);
+            frame.setMethod("call");
+            frame.setFile("Layer" + i + ".java");
+            frame.setLine(40 + i);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        return report;
+    }
+}
@@ -0,0 +1,75 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+import io.pants.humanpanic.jackson.YamlConfigLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration resolution cost.
+ *
+ * The cold benchmarks run once per fresh JVM, so they include class loading and
+ * interpreted execution, which is what a CLI tool pays on every start.
+ * application.properties is on the benchmark classpath.
+ */
+public class ConfigLoadBenchmark {
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(20)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public AppMetadata coldLoadProperties() {
+        return new NonSpringConfigLoader().getMetadata();
+    }
+
+    /**
+     * Same as coldLoadProperties with the YAML layer enabled but no application.yml present,
+     * Jackson YAML must not be initialised in that case
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(20)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public AppMetadata coldLoadWithYamlSupport() {
+        return new YamlConfigLoader().getMetadata();
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmLoader {
+        NonSpringConfigLoader loader;
+
+        @Setup
+        public void setUp() {
+            loader = new NonSpringConfigLoader();
+        }
+    }
+
+    /**
+     * Reload with every file already memoized, the cost of a watcher triggered reload
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(1)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public AppMetadata warmReload(WarmLoader state) {
+        state.loader.loadConfiguration();
+        return state.loader.getMetadata();
+    }
+}
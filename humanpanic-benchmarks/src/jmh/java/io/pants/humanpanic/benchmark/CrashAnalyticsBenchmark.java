@@ -0,0 +1,138 @@
+package io.pants.humanpanic.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.pants.humanpanic.cli.CrashAnalyzer;
+import io.pants.humanpanic.cli.CrashStats;
+import io.pants.humanpanic.jackson.JacksonReportEncoder;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Aggregating 200,000 stored reports (12 frames each, 500 distinct failures, 3 versions) from
+ * NDJSON segments: CrashAnalyzer's streaming scan against reading the segments line by line and
+ * binding every report with Jackson databind, as the collector does on ingest
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@State(Scope.Benchmark)
+public class CrashAnalyticsBenchmark {
+
+    private static final int REPORTS = 200_000;
+
+    private Path directory;
+    private CrashAnalyzer analyzer;
+    private ObjectReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-analytics-bench");
+        analyzer = CrashAnalyzer.builder().build();
+        reader = new JacksonReportEncoder(new ObjectMapper()).getObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(CrashReport.class);
+        try (SegmentedLogSink log = new SegmentedLogSink(directory, new JsonReportEncoder(false),
+                SegmentedLogSink.DEFAULT_SEGMENT_BYTES)) {
+            List<CrashReport> batch = new ArrayList<>();
+            for (int i = 0; i < REPORTS; i++) {
+                batch.add(report(i));
+                if (batch.size() == 10_000) {
+                    log.write(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CrashStats streaming() throws IOException {
+        return analyzer.analyze(List.of(directory));
+    }
+
+    @Benchmark
+    public Map<Long, long[]> databind() throws IOException {
+        Map<Long, long[]> counts = new HashMap<>();
+        Map<String, long[]> versions = new TreeMap<>();
+        for (Path segment : SegmentedLogSink.segments(directory)) {
+            try (BufferedReader lines = Files.newBufferedReader(segment)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    CrashReport report = reader.readValue(line);
+                    counts.computeIfAbsent(CrashFingerprint.of(report), key -> new long[1])[0]++;
+                    versions.computeIfAbsent(report.getVersion(), key -> new long[1])[0]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static CrashReport report(int i) {
+        CrashReport report = new CrashReport();
+        report.setName("orders");
+        report.setVersion("1." + (i % 3) + ".0");
+        report.setCause("java.lang.IllegalStateException: order " + i + " could not be shipped");
+        CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+        method.setClassName("com.example.Service" + (i % 50));
+        method.setMethodName("handle");
+        report.setMethod(method);
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int f = 0; f < 12; f++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.layer" + f + ".Handler" + (f == 0 ? i % 500 : f));
+            frame.setMethod("process");
+            frame.setFile("Handler.java");
+            frame.setLine(40 + f);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        CrashReport.SystemInfo system = new CrashReport.SystemInfo();
+        system.setJavaVersion("21.0.1");
+        system.setJavaVendor("Eclipse Adoptium");
+        system.setOsName("Linux");
+        system.setOsArch("amd64");
+        system.setProcessors(8);
+        report.setSystemInfo(system);
+        report.setApplicationInfo(Map.of("authors", "Orders Team", "homepage", "https://example.com"));
+        return report;
+    }
+}
@@ -0,0 +1,101 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.index.CrashIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Query latency over an index of one million crashes spread over 30 days,
+ * 1000 distinct fingerprints and 50 methods
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class CrashIndexBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final Instant END = Instant.parse("2026-03-31T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(30);
+
+    private Path directory;
+    private CrashIndex index;
+    private CrashIndex.Query fingerprintAllTime;
+    private CrashIndex.Query fingerprintToday;
+    private CrashIndex.Query methodToday;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-index-bench");
+        index = new CrashIndex(directory);
+        long step = SPAN.toMillis() / ENTRIES;
+        Instant start = END.minus(SPAN);
+        List<CrashIndex.Entry> batch = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            batch.add(new CrashIndex.Entry(i % 1000, start.plusMillis(i * step), "com.example.Service" + (i % 50) + ".handle",
+                    "java.lang.IllegalStateException", "crash-reports/crash-" + i + ".json"));
+            if (batch.size() == 100_000) {
+                index.appendAll(batch);
+                batch.clear();
+            }
+        }
+        Instant today = END.minus(Duration.ofDays(1));
+        fingerprintAllTime = CrashIndex.Query.builder().fingerprint(42L).build();
+        fingerprintToday = CrashIndex.Query.builder().fingerprint(42L).from(today).build();
+        methodToday = CrashIndex.Query.builder().method("com.example.Service7.handle").from(today).build();
+        index.count(fingerprintAllTime);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long countFingerprintAllTime() throws IOException {
+        return index.count(fingerprintAllTime);
+    }
+
+    @Benchmark
+    public long countFingerprintToday() throws IOException {
+        return index.count(fingerprintToday);
+    }
+
+    @Benchmark
+    public long countMethodToday() throws IOException {
+        return index.count(methodToday);
+    }
+
+    @Benchmark
+    public List<CrashIndex.Entry> latestTenOfFingerprint() throws IOException {
+        return index.find(fingerprintAllTime, 10);
+    }
+}
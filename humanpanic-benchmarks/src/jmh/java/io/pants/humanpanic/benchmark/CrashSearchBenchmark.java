@@ -0,0 +1,129 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.TermIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over an index of one million crashes spread over 30 days, with the terms
+ * CrashIndex.append would keep for them: 500 distinct handler frames, 20 exception classes,
+ * 3 versions and about 30 terms per crash
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class CrashSearchBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int BATCH = 50_000;
+    private static final Instant END = Instant.parse("2026-03-31T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(30);
+    private static final String[] EXCEPTIONS = {"IllegalStateException", "IllegalArgumentException", "SocketException",
+            "ConnectionResetException", "TimeoutException"};
+
+    private Path directory;
+    private TermIndex terms;
+    private CrashIndex index;
+    private CrashIndex.Query today;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-search-bench");
+        terms = new TermIndex(directory);
+        index = new CrashIndex(directory, terms);
+        long step = SPAN.toMillis() / ENTRIES;
+        Instant start = END.minus(SPAN);
+        List<CrashIndex.Entry> entries = new ArrayList<>();
+        List<List<String>> documents = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            String exception = EXCEPTIONS[i % EXCEPTIONS.length] + (i % 4);
+            entries.add(new CrashIndex.Entry(i % 1000, start.plusMillis(i * step), "com.example.Service" + (i % 50) + ".handle",
+                    "java.lang." + exception, "crash-reports/crash-" + i + ".json"));
+            documents.add(terms(i, exception));
+            if (entries.size() == BATCH) {
+                terms.addAll(index.appendAll(entries), documents);
+                entries.clear();
+                documents.clear();
+            }
+        }
+        // Merge what is left in the log now, not in the background while measuring
+        terms.compact();
+        today = CrashIndex.Query.builder().from(END.minus(Duration.ofDays(1))).build();
+        index.search("java", 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<CrashIndex.Entry> rareFrameAndCommonWord() throws IOException {
+        return index.search("Handler417 java", 20);
+    }
+
+    @Benchmark
+    public List<CrashIndex.Entry> causeAndVersion() throws IOException {
+        return index.search("ConnectionReset version:1.2", 20);
+    }
+
+    @Benchmark
+    public List<CrashIndex.Entry> causeAndVersionToday() throws IOException {
+        return index.search("ConnectionReset version:1.2", today, 20);
+    }
+
+    @Benchmark
+    public long[] allOfTwoCommonTerms() throws IOException {
+        return terms.search(List.of("exception", "service"), 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Terms CrashTerms would take from a report with such a cause, 12 frames and version
+     */
+    private static List<String> terms(int i, String exception) {
+        List<String> terms = new ArrayList<>(List.of("java", "lang", exception.toLowerCase(), "exception",
+                "order", "could", "not", "be", "shipped", "com", "example", "handler", "process"));
+        for (String part : exception.split("(?<=[a-z])(?=[A-Z])")) {
+            terms.add(part.toLowerCase());
+        }
+        terms.add("handler" + (i % 500));
+        terms.add("service");
+        terms.add("service" + (i % 50));
+        for (int layer = 0; layer < 10; layer++) {
+            terms.add("layer" + layer);
+        }
+        String version = "1." + (i % 3);
+        terms.addAll(List.of("version:1", "version:" + version, "version:" + version + ".0"));
+        return terms;
+    }
+}
@@ -0,0 +1,103 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.Durability;
+import io.pants.humanpanic.sink.FileReportSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reports per second FileReportSink sustains for each Durability, written the way an
+ * AsyncReportSink writer thread does: batches of 16 reports, each followed by a flush
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class FileDurabilityBenchmark {
+
+    private static final int BATCH = 16;
+
+    @Param({"NONE", "GROUP_COMMIT", "PER_REPORT"})
+    public Durability durability;
+
+    private Path directory;
+    private FileReportSink sink;
+    private List<CrashReport> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-durability-bench");
+        sink = FileReportSink.builder().directory(directory).durability(durability).build();
+        batch = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            CrashReport report = new CrashReport();
+            report.setName("bench");
+            report.setCause("java.lang.IllegalStateException: load " + i);
+            List<CrashReport.StackFrame> frames = new ArrayList<>();
+            for (int f = 0; f < 40; f++) {
+                CrashReport.StackFrame frame = new CrashReport.StackFrame();
+                frame.setClassName("com.example.Component" + f);
+                frame.setMethod("invoke");
+                frame.setFile("Component" + f + ".java");
+                frame.setLine(100 + f);
+                frames.add(frame);
+            }
+            report.setBacktrace(frames);
+            batch.add(report);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        sink.close();
+        delete(false);
+        sink = FileReportSink.builder().directory(directory).durability(durability).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sink.close();
+        delete(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void writeBatch() throws IOException {
+        sink.write(batch);
+        sink.flush();
+    }
+
+    private void delete(boolean includingDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                if (includingDirectory || !path.equals(directory)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
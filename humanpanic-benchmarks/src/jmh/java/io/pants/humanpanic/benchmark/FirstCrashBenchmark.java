@@ -0,0 +1,78 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+import io.pants.humanpanic.reporter.CrashPathWarmer;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.InitStrategy;
+import io.pants.humanpanic.reporter.UserNotifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first crash in a process under each init strategy, compared with steady state.
+ * Reports are written to crash-reports/ in the benchmark working directory.
+ */
+public class FirstCrashBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Panic {
+        @Param({"LAZY", "EAGER"})
+        String strategy;
+
+        CrashReporter crashReporter;
+        UserNotifier userNotifier;
+        Throwable throwable;
+        Method method;
+
+        @Setup
+        public void setUp() throws Exception {
+            NonSpringConfigLoader loader = new NonSpringConfigLoader();
+            AppMetadataProvider provider = loader;
+            crashReporter = new CrashReporter(provider);
+            userNotifier = new UserNotifier(provider);
+            new CrashPathWarmer(crashReporter, userNotifier).initialize(InitStrategy.valueOf(strategy));
+
+            throwable = new IllegalArgumentException("benchmark crash");
+            method = FirstCrashBenchmark.class.getMethod("firstCrash", Panic.class);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(20)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public String firstCrash(Panic panic) {
+        return crash(panic);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(1)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String steadyState(Panic panic) {
+        return crash(panic);
+    }
+
+    private static String crash(Panic panic) {
+        String path = panic.crashReporter.createReport(panic.throwable, panic.method);
+        panic.userNotifier.notifyWithReport("benchmark", path);
+        return path;
+    }
+}
@@ -0,0 +1,67 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.RecentCrashBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Four threads appending to one RecentCrashBuffer while a fifth queries the newest ten reports
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Group)
+public class RecentCrashBufferBenchmark {
+
+    private RecentCrashBuffer buffer;
+    private CrashReport report;
+
+    @Setup
+    public void setUp() {
+        buffer = new RecentCrashBuffer();
+        report = new CrashReport();
+        report.setName("orders-service");
+        report.setCause("java.lang.IllegalStateException: Order 8812 is already closed");
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.layer" + (i % 6) + ".Component");
+            frame.setMethod("invoke" + (i % 4));
+            frame.setFile("Component.java");
+            frame.setLine(100 + i);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(4)
+    public boolean append() {
+        return buffer.append(report);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public List<RecentCrashBuffer.Crash> query() {
+        return buffer.recent(10);
+    }
+}
@@ -0,0 +1,110 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.FileReportSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time per stored report for each compression level ("none" writes plain JSON). Compressing sinks
+ * gzip on a writer thread of their own, so every invocation writes a batch of reports to a fresh
+ * sink and closes it, which waits for that thread. The average file size of each level is printed
+ * when an iteration ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ReportCompressionBenchmark {
+
+    private static final int REPORTS = 100;
+
+    @Param({"none", "1", "6", "9"})
+    public String level;
+
+    private Path directory;
+    private List<CrashReport> report;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("humanpanic-compression-bench");
+        CrashReport crash = new CrashReport();
+        crash.setName("orders-service");
+        crash.setExplanation("orders-service had a problem and crashed.");
+        crash.setCause("java.lang.IllegalStateException: Order 8812 is already closed");
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("org.springframework.web.servlet.layer" + (i % 6) + ".Dispatcher");
+            frame.setMethod("invoke" + (i % 4));
+            frame.setFile("Dispatcher.java");
+            frame.setLine(300 + i);
+            frames.add(frame);
+        }
+        crash.setBacktrace(frames);
+        report = List.of(crash);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        long files = 0;
+        long bytes = 0;
+        try (Stream<Path> stored = Files.list(directory)) {
+            for (Path path : stored.toList()) {
+                files++;
+                bytes += Files.size(path);
+                Files.delete(path);
+            }
+        }
+        System.out.printf("%nlevel %s: %d bytes per report%n", level, files == 0 ? 0 : bytes / files);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void writeReports() throws IOException {
+        FileReportSink sink = newSink();
+        for (int i = 0; i < REPORTS; i++) {
+            sink.write(report);
+        }
+        sink.close();
+    }
+
+    private FileReportSink newSink() {
+        return FileReportSink.builder()
+                .directory(directory)
+                .compressionLevel(level.equals("none") ? null : Integer.valueOf(level))
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.BinaryReportEncoder;
+import io.pants.humanpanic.reporter.BinaryReportReader;
+import io.pants.humanpanic.reporter.JsonReportDecoder;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of a typical 60 frame report in the pretty JSON layout, compact JSON and
+ * the binary format. The encoded sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ReportFormatBenchmark {
+
+    private static final int FRAMES = 60;
+
+    private final JsonReportEncoder pretty = new JsonReportEncoder();
+    private final JsonReportEncoder compact = new JsonReportEncoder(false);
+    private final BinaryReportEncoder binary = new BinaryReportEncoder();
+    private final JsonReportDecoder jsonDecoder = new JsonReportDecoder();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+    private CrashReport report;
+    private byte[] prettyBytes;
+    private byte[] binaryBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        report = report();
+        prettyBytes = encode(pretty);
+        binaryBytes = encode(binary);
+        System.out.printf("%nEncoded sizes: pretty JSON %d bytes, compact JSON %d bytes, binary %d bytes%n",
+                prettyBytes.length, encode(compact).length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public int encodePrettyJson() throws IOException {
+        return encode(pretty).length;
+    }
+
+    @Benchmark
+    public int encodeCompactJson() throws IOException {
+        return encode(compact).length;
+    }
+
+    @Benchmark
+    public int encodeBinary() throws IOException {
+        return encode(binary).length;
+    }
+
+    @Benchmark
+    public CrashReport decodeJson() throws IOException {
+        return jsonDecoder.decode(prettyBytes);
+    }
+
+    @Benchmark
+    public CrashReport decodeBinary() throws IOException {
+        return BinaryReportReader.decode(binaryBytes);
+    }
+
+    private byte[] encode(ReportEncoder encoder) throws IOException {
+        buffer.reset();
+        encoder.encode(report, buffer);
+        return buffer.toByteArray();
+    }
+
+    private static CrashReport report() {
+        CrashReport report = new CrashReport();
+        report.setName("orders-service");
+        report.setOperatingSystem("Linux 6.1.0 (amd64)");
+        report.setVersion("4.12.0");
+        report.setExplanation("orders-service had a problem and crashed. To help us diagnose the problem "
+                + "you can send us a crash report.");
+        report.setCause("java.lang.IllegalStateException: Order 8812 is already closed");
+        CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+        method.setClassName("com.example.orders.OrderService");
+        method.setMethodName("close");
+        report.setMethod(method);
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName(i < 10 ? "com.example.orders.OrderService"
+                    : "org.springframework.web.servlet.layer" + (i % 6) + ".Dispatcher");
+            frame.setMethod(i < 10 ? "close" : "invoke" + (i % 4));
+            frame.setFile(i < 10 ? "OrderService.java" : "Dispatcher.java");
+            frame.setLine(i < 10 ? 120 + i : 300 + (i % 6));
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        CrashReport.SystemInfo info = new CrashReport.SystemInfo();
+        info.setJavaVersion("21.0.1");
+        info.setJavaVendor("Eclipse Adoptium");
+        info.setOsName("Linux");
+        info.setOsVersion("6.1.0");
+        info.setOsArch("amd64");
+        info.setMaxMemoryMb(4096);
+        info.setTotalMemoryMb(1024);
+        info.setFreeMemoryMb(312);
+        info.setProcessors(8);
+        info.setUptimeMs(86_400_000L);
+        report.setSystemInfo(info);
+        Map<String, String> application = new LinkedHashMap<>();
+        application.put("name", "orders-service");
+        application.put("version", "4.12.0");
+        application.put("authors", "Orders team <orders@example.com>");
+        application.put("homepage", "https://example.com/orders");
+        report.setApplicationInfo(application);
+        return report;
+    }
+}
@@ -0,0 +1,74 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportLimits;
+import io.pants.humanpanic.sink.ReportSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build and JSON-encode the report of an exception carrying a 20 MB message, with the
+ * default ReportLimits and without limits
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ReportLimitsBenchmark {
+
+    @Param({"default", "unlimited"})
+    public String limits;
+
+    private CrashReporter reporter;
+    private Throwable throwable;
+
+    @Setup
+    public void setUp() {
+        AppMetadata metadata = new AppMetadata("orders-service", "1.0.0", new String[]{"Team"}, "", "", "");
+        JsonReportEncoder encoder = new JsonReportEncoder();
+        ReportSink sink = new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) throws IOException {
+                for (CrashReport report : reports) {
+                    encoder.encode(report, OutputStream.nullOutputStream());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public boolean retainsReports() {
+                return false;
+            }
+        };
+        reporter = new CrashReporter(() -> metadata, sink, null,
+                limits.equals("default") ? ReportLimits.DEFAULT : ReportLimits.UNLIMITED);
+        throwable = new IllegalStateException("INSERT INTO events VALUES " + "(1, 'payload'), ".repeat(1_300_000));
+    }
+
+    @Benchmark
+    public String handleCrash() {
+        return reporter.createReport(throwable, null);
+    }
+}
@@ -0,0 +1,88 @@
+package io.pants.humanpanic.benchmark;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.sink.NullReportSink;
+import io.pants.humanpanic.sink.ReportSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per handled crash with reports taken from the pool ("pooled") or built anew because the
+ * sink keeps them ("fresh"), for a 60 frame backtrace. The bytes allocated per crash are printed
+ * when an iteration ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class ReportPoolingBenchmark {
+
+    @Param({"pooled", "fresh"})
+    public String reports;
+
+    private CrashReporter reporter;
+    private Throwable throwable;
+    private long operations;
+    private long allocatedBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AppMetadata metadata = new AppMetadata("orders-service", "1.0.0", new String[]{"Team"}, "", "", "");
+        ReportSink sink = reports.equals("pooled") ? NullReportSink.INSTANCE : new ReportSink() {
+            @Override
+            public void write(List<CrashReport> batch) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        reporter = new CrashReporter(() -> metadata, sink);
+        throwable = nested(60);
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        operations = 0;
+        allocatedBefore = allocatedBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printAllocation() {
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%n%s: %d bytes per crash%n", reports, operations == 0 ? 0 : allocated / operations);
+    }
+
+    @Benchmark
+    public String handleCrash() {
+        operations++;
+        return reporter.createReport(throwable, null);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static Throwable nested(int depth) {
+        return depth == 0 ? new IllegalStateException("upstream timed out") : nested(depth - 1);
+    }
+}
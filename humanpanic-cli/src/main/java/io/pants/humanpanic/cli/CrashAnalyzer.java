@@ -0,0 +1,185 @@
+package io.pants.humanpanic.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.pants.humanpanic.sink.BacktraceStore;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Scans stored reports in parallel and aggregates them into CrashStats.
+ *
+ * The given paths are expanded into sources first: every crash-*.json and crash-*.json.gz report
+ * file, every NDJSON segment (SegmentedLogSink, the sidecar and collector stores, redirected
+ * StdoutNdjsonSink output) cut into line-aligned ranges of about chunkBytes, and every zip bundle
+ * written by ReportCompactor. The sources are then scanned as a parallel stream on a dedicated
+ * ForkJoinPool; each worker fills its own CrashStats with its own ReportScanner and the partial
+ * results are merged pairwise as the fork-join tasks complete, so no counter is shared.
+ *
+ * Reports that refer to a BacktraceStore are resolved against the backtraces directory next to
+ * them, so they get the same fingerprint as in the crash index.
+ */
+@Slf4j
+public class CrashAnalyzer {
+
+    public static final int DEFAULT_CHUNK_BYTES = 8 * 1024 * 1024;
+    private static final int BOUNDARY_READ_BYTES = 64 * 1024;
+
+    @Getter
+    private final int threads;
+    @Getter
+    private final int chunkBytes;
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * threads defaults to the number of processors, chunkBytes to DEFAULT_CHUNK_BYTES
+     */
+    @Builder
+    private CrashAnalyzer(Integer threads, Integer chunkBytes) {
+        if (threads != null && threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (chunkBytes != null && chunkBytes < 1) {
+            throw new IllegalArgumentException("chunkBytes must be at least 1");
+        }
+        this.threads = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkBytes = chunkBytes != null ? chunkBytes : DEFAULT_CHUNK_BYTES;
+    }
+
+    /**
+     * Scans every report under the given files and directories
+     */
+    public CrashStats analyze(List<Path> paths) throws IOException {
+        List<BacktraceStore> stores = new ArrayList<>();
+        try {
+            List<ReportScanner.Source> sources = new ArrayList<>();
+            for (Path path : paths) {
+                addSources(path, sources, stores);
+            }
+            return scan(sources);
+        } finally {
+            for (BacktraceStore store : stores) {
+                store.close();
+            }
+        }
+    }
+
+    private CrashStats scan(List<ReportScanner.Source> sources) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> sources.parallelStream().collect(CrashStats::new, this::scan, CrashStats::merge))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning crash reports", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to scan crash reports", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void scan(CrashStats stats, ReportScanner.Source source) {
+        try {
+            new ReportScanner(factory).scan(source, stats);
+        } catch (IOException e) {
+            // One unreadable file must not abort the scan of the others
+            log.warn("Skipping unreadable {}, error = {}", source.path(), e.getMessage());
+            stats.addUnreadable();
+        }
+    }
+
+    private void addSources(Path path, List<ReportScanner.Source> sources, List<BacktraceStore> stores)
+            throws IOException {
+        if (!Files.isDirectory(path)) {
+            if (!Files.isRegularFile(path)) {
+                throw new IOException("No such file or directory: " + path);
+            }
+            Path parent = path.toAbsolutePath().getParent();
+            addFile(path, backtraces(parent, stores), sources);
+            return;
+        }
+        ReportScanner.Backtraces backtraces = backtraces(path, stores);
+        Path backtraceDirectory = path.resolve(BacktraceStore.DIRECTORY_NAME);
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.startsWith(backtraceDirectory) && Files.isRegularFile(file)) {
+                    addFile(file, backtraces, sources);
+                }
+            }
+        }
+    }
+
+    private void addFile(Path file, ReportScanner.Backtraces backtraces, List<ReportScanner.Source> sources)
+            throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".json") || name.endsWith(".json.gz")) {
+            sources.add(new ReportScanner.Source(ReportScanner.Kind.REPORT, file, 0, 0, backtraces));
+        } else if (name.endsWith(SegmentedLogSink.SEGMENT_SUFFIX)) {
+            addChunks(file, backtraces, sources);
+        } else if (name.endsWith(".zip")) {
+            sources.add(new ReportScanner.Source(ReportScanner.Kind.BUNDLE, file, 0, 0, backtraces));
+        }
+    }
+
+    /**
+     * Cuts a segment into ranges of about chunkBytes, each ending after a line break
+     */
+    private void addChunks(Path segment, ReportScanner.Backtraces backtraces, List<ReportScanner.Source> sources)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_READ_BYTES);
+            long start = 0;
+            while (start < size) {
+                long end = start + chunkBytes >= size ? size : lineEnd(channel, start + chunkBytes - 1, size, buffer);
+                sources.add(new ReportScanner.Source(ReportScanner.Kind.SEGMENT, segment, start, end, backtraces));
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Position after the first line break at or after from, or size when there is none
+     */
+    private static long lineEnd(FileChannel channel, long from, long size, ByteBuffer buffer) throws IOException {
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ReportScanner.Backtraces backtraces(Path directory, List<BacktraceStore> stores) {
+        Path backtraceDirectory = directory.resolve(BacktraceStore.DIRECTORY_NAME);
+        if (!Files.isDirectory(backtraceDirectory)) {
+            return null;
+        }
+        BacktraceStore store = new BacktraceStore(backtraceDirectory);
+        stores.add(store);
+        return new ReportScanner.Backtraces(store);
+    }
+}
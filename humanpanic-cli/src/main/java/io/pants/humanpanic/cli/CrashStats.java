@@ -0,0 +1,182 @@
+package io.pants.humanpanic.cli;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregates over scanned reports.
+ *
+ * Every worker fills its own instance and the instances are merged when the scan is done, so
+ * counting needs no locks. Per report only the fingerprint entry, its version counter and a
+ * per-minute counter are touched; method and exception names are kept once per fingerprint and
+ * the per-method and per-version totals are summed from the fingerprints on demand.
+ */
+public class CrashStats {
+
+    public static final String UNKNOWN = "unknown";
+    private static final long MINUTE_MS = 60_000;
+
+    @Getter
+    private long reports;
+    @Getter
+    private long unreadable;
+
+    /**
+     * Reports without a time: no breadcrumbs and stored in a segment, which keeps no per-record time
+     */
+    @Getter
+    private long undated;
+
+    private final Map<Long, FingerprintStats> fingerprints = new HashMap<>();
+    private final Map<Long, long[]> minutes = new HashMap<>();
+
+    /**
+     * Counts one report. method is the declaring class and method name, timestamp is -1 when unknown.
+     */
+    public void add(long fingerprint, String exception, String method, String version, long timestamp) {
+        reports++;
+        FingerprintStats stats = fingerprints.get(fingerprint);
+        if (stats == null) {
+            stats = new FingerprintStats(fingerprint, exception, method);
+            fingerprints.put(fingerprint, stats);
+        }
+        stats.count++;
+        stats.versions.computeIfAbsent(version != null ? version : UNKNOWN, key -> new long[1])[0]++;
+        if (timestamp < 0) {
+            undated++;
+            return;
+        }
+        stats.firstSeen = Math.min(stats.firstSeen, timestamp);
+        stats.lastSeen = Math.max(stats.lastSeen, timestamp);
+        minutes.computeIfAbsent(Math.floorDiv(timestamp, MINUTE_MS), key -> new long[1])[0]++;
+    }
+
+    public void addUnreadable() {
+        unreadable++;
+    }
+
+    /**
+     * Adds the counts of another instance to this one
+     */
+    public void merge(CrashStats other) {
+        reports += other.reports;
+        unreadable += other.unreadable;
+        undated += other.undated;
+        other.fingerprints.forEach((fingerprint, theirs) -> {
+            FingerprintStats ours = fingerprints.get(fingerprint);
+            if (ours == null) {
+                fingerprints.put(fingerprint, theirs);
+                return;
+            }
+            ours.count += theirs.count;
+            ours.firstSeen = Math.min(ours.firstSeen, theirs.firstSeen);
+            ours.lastSeen = Math.max(ours.lastSeen, theirs.lastSeen);
+            theirs.versions.forEach((version, count) ->
+                    ours.versions.computeIfAbsent(version, key -> new long[1])[0] += count[0]);
+        });
+        other.minutes.forEach((minute, count) -> minutes.computeIfAbsent(minute, key -> new long[1])[0] += count[0]);
+    }
+
+    public int getFingerprintCount() {
+        return fingerprints.size();
+    }
+
+    /**
+     * The most frequent fingerprints, most frequent first
+     */
+    public List<FingerprintStats> topFingerprints(int limit) {
+        List<FingerprintStats> top = new ArrayList<>(fingerprints.values());
+        top.sort(Comparator.comparingLong(FingerprintStats::getCount).reversed()
+                .thenComparingLong(FingerprintStats::getFingerprint));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    /**
+     * Reports per @HumanPanic method, most frequent first
+     */
+    public List<Count> topMethods(int limit) {
+        Map<String, long[]> methods = new HashMap<>();
+        for (FingerprintStats stats : fingerprints.values()) {
+            methods.computeIfAbsent(stats.method != null ? stats.method : UNKNOWN, key -> new long[1])[0] += stats.count;
+        }
+        return top(methods, limit);
+    }
+
+    /**
+     * Reports per application version, most frequent first
+     */
+    public List<Count> topVersions(int limit) {
+        Map<String, long[]> versions = new HashMap<>();
+        for (FingerprintStats stats : fingerprints.values()) {
+            stats.versions.forEach((version, count) ->
+                    versions.computeIfAbsent(version, key -> new long[1])[0] += count[0]);
+        }
+        return top(versions, limit);
+    }
+
+    /**
+     * Dated reports per bucket, keyed by the start of the bucket in the given zone. unit must be
+     * MINUTES, HOURS or DAYS.
+     */
+    public SortedMap<Instant, Long> histogram(ChronoUnit unit, ZoneId zone) {
+        if (unit != ChronoUnit.MINUTES && unit != ChronoUnit.HOURS && unit != ChronoUnit.DAYS) {
+            throw new IllegalArgumentException("unit must be MINUTES, HOURS or DAYS");
+        }
+        SortedMap<Instant, Long> histogram = new TreeMap<>();
+        minutes.forEach((minute, count) -> {
+            Instant start = Instant.ofEpochMilli(minute * MINUTE_MS).atZone(zone).truncatedTo(unit).toInstant();
+            histogram.merge(start, count[0], Long::sum);
+        });
+        return histogram;
+    }
+
+    private static List<Count> top(Map<String, long[]> counts, int limit) {
+        List<Count> top = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> top.add(new Count(key, count[0])));
+        top.sort(Comparator.comparingLong(Count::count).reversed().thenComparing(Count::key));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    /**
+     * Counters of one fingerprint. firstSeen and lastSeen are epoch milliseconds of its dated
+     * reports, Long.MAX_VALUE and Long.MIN_VALUE when none was dated.
+     */
+    @Getter
+    public static final class FingerprintStats {
+        private final long fingerprint;
+        private final String exception;
+        private final String method;
+        private long count;
+        private long firstSeen = Long.MAX_VALUE;
+        private long lastSeen = Long.MIN_VALUE;
+        @Getter(AccessLevel.NONE)
+        private final Map<String, long[]> versions = new HashMap<>();
+
+        FingerprintStats(long fingerprint, String exception, String method) {
+            this.fingerprint = fingerprint;
+            this.exception = exception;
+            this.method = method;
+        }
+
+        /**
+         * Versions this fingerprint was reported from, in order
+         */
+        public List<String> getVersions() {
+            return new ArrayList<>(new TreeMap<>(versions).keySet());
+        }
+    }
+
+    public record Count(String key, long count) {
+    }
+}
@@ -0,0 +1,168 @@
+package io.pants.humanpanic.cli;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.sink.FileReportSink;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Command line front end of CrashAnalyzer.
+ *
+ *   humanpanic-cli [--top n] [--bucket minute|hour|day] [--threads n] [path ...]
+ *
+ * Scans the given directories, segments and bundles (crash-reports by default) and prints the top
+ * fingerprints, the reports per method and per version and a histogram of reports over time, in
+ * the system time zone. Exits with 2 on bad arguments and 1 when a path cannot be scanned.
+ */
+public final class HumanPanicCli {
+
+    public static final int DEFAULT_TOP = 10;
+    private static final int BAR_WIDTH = 40;
+    private static final String USAGE =
+            "Usage: humanpanic-cli [--top n] [--bucket minute|hour|day] [--threads n] [path ...]";
+
+    private HumanPanicCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the tool and returns its exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        int top = DEFAULT_TOP;
+        ChronoUnit bucket = ChronoUnit.HOURS;
+        Integer threads = null;
+        List<Path> paths = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--top" -> top = positive(value(args, ++i));
+                    case "--threads" -> threads = positive(value(args, ++i));
+                    case "--bucket" -> bucket = bucket(value(args, ++i));
+                    case "--help", "-h" -> {
+                        out.println(USAGE);
+                        return 0;
+                    }
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        paths.add(Paths.get(args[i]));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (paths.isEmpty()) {
+            paths.add(FileReportSink.DEFAULT_DIRECTORY);
+        }
+
+        CrashAnalyzer analyzer = CrashAnalyzer.builder().threads(threads).build();
+        long started = System.nanoTime();
+        CrashStats stats;
+        try {
+            stats = analyzer.analyze(paths);
+        } catch (IOException e) {
+            err.println("Failed to scan crash reports: " + e.getMessage());
+            return 1;
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        print(stats, top, bucket, ZoneId.systemDefault(), elapsedMs, analyzer.getThreads(), out);
+        return 0;
+    }
+
+    private static void print(CrashStats stats, int top, ChronoUnit bucket, ZoneId zone, long elapsedMs, int threads,
+                              PrintStream out) {
+        out.printf(Locale.ROOT, "%,d reports, %,d fingerprints, %,d unreadable, scanned in %.1f s on %d threads%n",
+                stats.getReports(), stats.getFingerprintCount(), stats.getUnreadable(), elapsedMs / 1000.0, threads);
+
+        out.println();
+        out.println("Top fingerprints");
+        out.printf(Locale.ROOT, "%12s  %-16s  %-40s  %-40s  %s%n", "count", "fingerprint", "exception", "method", "versions");
+        for (CrashStats.FingerprintStats fingerprint : stats.topFingerprints(top)) {
+            out.printf(Locale.ROOT, "%,12d  %-16s  %-40s  %-40s  %s%n", fingerprint.getCount(),
+                    CrashFingerprint.toHex(fingerprint.getFingerprint()), orUnknown(fingerprint.getException()),
+                    orUnknown(fingerprint.getMethod()), String.join(", ", fingerprint.getVersions()));
+        }
+
+        out.println();
+        out.println("Reports per method");
+        printCounts(stats.topMethods(top), out);
+
+        out.println();
+        out.println("Reports per version");
+        printCounts(stats.topVersions(top), out);
+
+        out.println();
+        String unit = bucket == ChronoUnit.DAYS ? "day" : bucket == ChronoUnit.HOURS ? "hour" : "minute";
+        out.printf(Locale.ROOT, "Reports per %s (%s)%n", unit, zone);
+        SortedMap<Instant, Long> histogram = stats.histogram(bucket, zone);
+        long max = histogram.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
+                bucket == ChronoUnit.DAYS ? "yyyy-MM-dd" : "yyyy-MM-dd HH:mm").withZone(zone);
+        for (Map.Entry<Instant, Long> entry : histogram.entrySet()) {
+            int width = (int) Math.max(1, entry.getValue() * BAR_WIDTH / max);
+            out.printf(Locale.ROOT, "%-16s  %,12d  %s%n", formatter.format(entry.getKey()), entry.getValue(),
+                    "#".repeat(width));
+        }
+        if (stats.getUndated() > 0) {
+            out.printf(Locale.ROOT, "%-16s  %,12d%n", "undated", stats.getUndated());
+        }
+    }
+
+    private static void printCounts(List<CrashStats.Count> counts, PrintStream out) {
+        for (CrashStats.Count count : counts) {
+            out.printf(Locale.ROOT, "%,12d  %s%n", count.count(), count.key());
+        }
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : CrashStats.UNKNOWN;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int positive(String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number, got " + value);
+    }
+
+    private static ChronoUnit bucket(String value) {
+        return switch (value) {
+            case "minute" -> ChronoUnit.MINUTES;
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            default -> throw new IllegalArgumentException("Unknown bucket " + value + ", expected minute, hour or day");
+        };
+    }
+}
@@ -0,0 +1,369 @@
+package io.pants.humanpanic.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.BacktraceStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Streams the fields the analytics need out of stored reports with a Jackson JsonParser.
+ *
+ * Only the cause (up to its colon), the method, the class and method of the first
+ * CrashFingerprint.FRAMES frames, the version and the breadcrumb times are read; everything else
+ * is skipped token by token without being bound. The fingerprint is computed by CrashFingerprint
+ * over one scratch CrashReport that is reused for every report, so it is the same fingerprint the
+ * crash index and the collector use. Not thread-safe, every worker uses its own scanner.
+ */
+final class ReportScanner {
+
+    private final JsonFactory factory;
+    private final CrashReport scratch = new CrashReport();
+    private final CrashReport.MethodInfo scratchMethod = new CrashReport.MethodInfo();
+    private final CrashReport.StackFrame[] framePool = new CrashReport.StackFrame[CrashFingerprint.FRAMES];
+    private final List<CrashReport.StackFrame> frames = new ArrayList<>(CrashFingerprint.FRAMES);
+
+    ReportScanner(JsonFactory factory) {
+        this.factory = factory;
+        for (int i = 0; i < framePool.length; i++) {
+            framePool[i] = new CrashReport.StackFrame();
+        }
+    }
+
+    /**
+     * Adds the reports of one source to the stats. Reports that do not parse are counted as
+     * unreadable; a source that cannot be read at all throws.
+     */
+    void scan(Source source, CrashStats stats) throws IOException {
+        switch (source.kind()) {
+            case REPORT -> {
+                byte[] data = Files.readAllBytes(source.path());
+                scanReport(source, unpack(source.path().toString(), data),
+                        Files.getLastModifiedTime(source.path()).toMillis(), stats);
+            }
+            case SEGMENT -> scanSegment(source, stats);
+            case BUNDLE -> scanBundle(source, stats);
+        }
+    }
+
+    private void scanSegment(Source source, CrashStats stats) throws IOException {
+        byte[] data = new byte[Math.toIntExact(source.end() - source.start())];
+        try (FileChannel channel = FileChannel.open(source.path(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, source.start() + buffer.position()) < 0) {
+                    throw new IOException("Segment " + source.path() + " shrank while it was scanned");
+                }
+            }
+        }
+        // One parser for the whole range, records are root-level values separated by line breaks.
+        // After a torn or malformed record, parsing restarts on the line that follows it.
+        int position = 0;
+        while (position < data.length) {
+            int recordStart = position;
+            try (JsonParser parser = factory.createParser(data, position, data.length - position)) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    recordStart = position + (int) parser.currentTokenLocation().getByteOffset();
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IOException("Not a crash report");
+                    }
+                    // Segments keep no time per record, only breadcrumbs can date them
+                    parseReport(parser, source.backtraces(), -1, true, stats);
+                }
+                position = data.length;
+            } catch (IOException e) {
+                stats.addUnreadable();
+                position = lineEnd(data, recordStart);
+            }
+        }
+    }
+
+    private void scanBundle(Source source, CrashStats stats) throws IOException {
+        try (ZipFile zip = new ZipFile(source.path().toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                byte[] data;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    data = unpack(entry.getName(), in.readAllBytes());
+                } catch (IOException e) {
+                    stats.addUnreadable();
+                    continue;
+                }
+                FileTime modified = entry.getLastModifiedTime();
+                scanReport(source, data, modified != null ? modified.toMillis() : -1, stats);
+            }
+        }
+    }
+
+    private void scanReport(Source source, byte[] data, long modified, CrashStats stats) {
+        if (data == null) {
+            stats.addUnreadable();
+            return;
+        }
+        try (JsonParser parser = factory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Not a crash report");
+            }
+            parseReport(parser, source.backtraces(), modified, false, stats);
+        } catch (IOException e) {
+            stats.addUnreadable();
+        }
+    }
+
+    /**
+     * Reads one report object, the parser is at its START_OBJECT. The report is dated by its newest
+     * breadcrumb, or by fallbackTime (-1 for none) when it has no breadcrumbs. With singleLine a
+     * report that spans lines is rejected: it is a torn record that swallowed the next one.
+     */
+    private void parseReport(JsonParser parser, Backtraces backtraces, long fallbackTime, boolean singleLine,
+                             CrashStats stats) throws IOException {
+        int line = parser.currentTokenLocation().getLineNr();
+        String exception = null;
+        String version = null;
+        String backtraceRef = null;
+        boolean hasMethod = false;
+        boolean hasBacktrace = false;
+        long newestBreadcrumb = -1;
+        scratchMethod.setClassName(null);
+        scratchMethod.setMethodName(null);
+        frames.clear();
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "cause" -> exception = token == JsonToken.VALUE_STRING ? exceptionClass(parser) : text(parser);
+                case "version" -> version = text(parser);
+                case "backtrace_ref" -> backtraceRef = text(parser);
+                case "method" -> {
+                    hasMethod = token == JsonToken.START_OBJECT;
+                    if (hasMethod) {
+                        parseMethod(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "backtrace" -> {
+                    hasBacktrace = token == JsonToken.START_ARRAY;
+                    if (hasBacktrace) {
+                        parseFrames(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "breadcrumbs" -> {
+                    if (token == JsonToken.START_ARRAY) {
+                        newestBreadcrumb = parseBreadcrumbs(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (singleLine && parser.currentTokenLocation().getLineNr() != line) {
+            throw new IOException("Record spans several lines");
+        }
+        if (!hasBacktrace && backtraceRef != null && backtraces != null) {
+            List<CrashReport.StackFrame> stored = backtraces.frames(backtraceRef);
+            if (stored != null) {
+                hasBacktrace = true;
+                frames.addAll(stored.subList(0, Math.min(CrashFingerprint.FRAMES, stored.size())));
+            }
+        }
+
+        scratch.setCause(exception);
+        scratch.setMethod(hasMethod ? scratchMethod : null);
+        scratch.setBacktrace(hasBacktrace ? frames : null);
+        long fingerprint = CrashFingerprint.of(scratch);
+        String method = hasMethod ? scratchMethod.getClassName() + "." + scratchMethod.getMethodName() : null;
+        stats.add(fingerprint, exception, method, version, newestBreadcrumb >= 0 ? newestBreadcrumb : fallbackTime);
+    }
+
+    private void parseMethod(JsonParser parser) throws IOException {
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "class" -> scratchMethod.setClassName(text(parser));
+                case "method" -> scratchMethod.setMethodName(text(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseFrames(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT || frames.size() == CrashFingerprint.FRAMES) {
+                // A null frame still takes one of the fingerprinted slots
+                if (token == JsonToken.VALUE_NULL && frames.size() < CrashFingerprint.FRAMES) {
+                    frames.add(null);
+                }
+                parser.skipChildren();
+                continue;
+            }
+            CrashReport.StackFrame frame = framePool[frames.size()];
+            frame.setClassName(null);
+            frame.setMethod(null);
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                parser.nextToken();
+                switch (field) {
+                    case "class" -> frame.setClassName(text(parser));
+                    case "method" -> frame.setMethod(text(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            frames.add(frame);
+        }
+    }
+
+    private static long parseBreadcrumbs(JsonParser parser) throws IOException {
+        long newest = -1;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                if (field.equals("timestamp_ms") && value == JsonToken.VALUE_NUMBER_INT) {
+                    newest = Math.max(newest, parser.getLongValue());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * The string value at the parser, or null for anything else, which is skipped
+     */
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * The class part of a "class: message" cause, without materialising the message
+     */
+    private static String exceptionClass(JsonParser parser) throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] == ':') {
+                return new String(text, offset, i);
+            }
+        }
+        return new String(text, offset, length);
+    }
+
+    /**
+     * Index after the first line break at or after from, or the length when there is none
+     */
+    private static int lineEnd(byte[] data, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return data.length;
+    }
+
+    /**
+     * The JSON of a stored report, inflated when its name ends in .gz; null when it does not inflate
+     */
+    private static byte[] unpack(String name, byte[] stored) {
+        if (!name.endsWith(".gz")) {
+            return stored;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A unit of work: a report file, a line-aligned byte range of a segment, or a bundle
+     */
+    record Source(Kind kind, Path path, long start, long end, Backtraces backtraces) {
+    }
+
+    enum Kind {
+        /**
+         * One crash-*.json or crash-*.json.gz report
+         */
+        REPORT,
+        /**
+         * NDJSON records between start and end
+         */
+        SEGMENT,
+        /**
+         * A zip of reports as written by ReportCompactor
+         */
+        BUNDLE
+    }
+
+    /**
+     * The BacktraceStore next to scanned reports, with the frames of each hash read once and
+     * shared by every worker. A backtrace that is missing or cannot be read leaves the report
+     * without frames.
+     */
+    static final class Backtraces {
+
+        private static final List<CrashReport.StackFrame> MISSING = List.of();
+
+        private final BacktraceStore store;
+        private final Map<String, List<CrashReport.StackFrame>> frames = new ConcurrentHashMap<>();
+
+        Backtraces(BacktraceStore store) {
+            this.store = store;
+        }
+
+        List<CrashReport.StackFrame> frames(String hash) {
+            List<CrashReport.StackFrame> found = frames.computeIfAbsent(hash, key -> {
+                try {
+                    List<CrashReport.StackFrame> stored = store.get(key);
+                    return stored != null ? stored : MISSING;
+                } catch (IOException e) {
+                    // Counted like a missing backtrace, the fingerprint then lacks the frames
+                    return MISSING;
+                }
+            });
+            return found == MISSING ? null : found;
+        }
+    }
+}
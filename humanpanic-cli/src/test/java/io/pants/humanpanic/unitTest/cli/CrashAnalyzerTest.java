@@ -0,0 +1,174 @@
+package io.pants.humanpanic.unitTest.cli;
+
+import io.pants.humanpanic.cli.CrashAnalyzer;
+import io.pants.humanpanic.cli.CrashStats;
+import io.pants.humanpanic.cli.HumanPanicCli;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.BacktraceStore;
+import io.pants.humanpanic.sink.BacktraceStoreSink;
+import io.pants.humanpanic.sink.FileReportSink;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrashAnalyzer and HumanPanicCli
+ */
+class CrashAnalyzerTest {
+
+    private static final Instant NOON = Instant.parse("2026-10-18T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAggregatesReportFilesSegmentsAndBundles() throws Exception {
+        CrashReport jobs = report("java.lang.IllegalStateException: queue full", "run", "1.2.0");
+        CrashReport login = report("java.lang.IllegalArgumentException: bad user", "login", "1.3.0");
+
+        // Pretty-printed report files, dated by their modification time
+        try (FileReportSink files = new FileReportSink(directory, new JsonReportEncoder())) {
+            files.write(List.of(jobs, login));
+        }
+        try (var reports = Files.list(directory)) {
+            for (Path file : reports.toList()) {
+                Files.setLastModifiedTime(file, FileTime.from(NOON));
+            }
+        }
+
+        // Small segments cut into small chunks, with a torn record between two good ones and one at the end
+        CrashReport dated = report("java.lang.IllegalStateException: again", "run", "1.3.0");
+        CrashReport.Breadcrumb breadcrumb = new CrashReport.Breadcrumb();
+        breadcrumb.setTimestampMs(NOON.plus(90, ChronoUnit.MINUTES).toEpochMilli());
+        breadcrumb.setMessage("polling");
+        dated.setBreadcrumbs(List.of(breadcrumb));
+        Path segments = directory.resolve("sidecar");
+        try (SegmentedLogSink log = new SegmentedLogSink(segments, new JsonReportEncoder(false), 2048)) {
+            List<CrashReport> batch = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                batch.add(i == 0 ? dated : jobs);
+            }
+            log.write(batch);
+        }
+        List<Path> written = SegmentedLogSink.segments(segments);
+        assertTrue(written.size() > 1);
+        List<String> first = new ArrayList<>(Files.readAllLines(written.get(0)));
+        first.add(1, "{\"name\":\"app\",\"cause\":");
+        Files.write(written.get(0), first);
+        Files.writeString(written.get(written.size() - 1), "{\"name\":\"torn", StandardOpenOption.APPEND);
+
+        // A bundle as packed by ReportCompactor, one entry per report
+        Path bundles = Files.createDirectories(directory.resolve("bundles"));
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(bundles.resolve("crash-2026-10-17.zip")))) {
+            ZipEntry entry = new ZipEntry("crash-2026-10-17-08-00-00.json");
+            entry.setLastModifiedTime(FileTime.from(NOON.minus(1, ChronoUnit.DAYS)));
+            zip.putNextEntry(entry);
+            new JsonReportEncoder().encode(login, zip);
+            zip.closeEntry();
+        }
+
+        CrashStats stats = CrashAnalyzer.builder().threads(4).chunkBytes(1024).build().analyze(List.of(directory));
+
+        assertEquals(23, stats.getReports());
+        assertEquals(2, stats.getUnreadable());
+        assertEquals(19, stats.getUndated());
+        assertEquals(2, stats.getFingerprintCount());
+
+        CrashStats.FingerprintStats top = stats.topFingerprints(1).get(0);
+        assertEquals(CrashFingerprint.of(jobs), top.getFingerprint());
+        assertEquals(21, top.getCount());
+        assertEquals("java.lang.IllegalStateException", top.getException());
+        assertEquals("com.example.Jobs.run", top.getMethod());
+        assertEquals(List.of("1.2.0", "1.3.0"), top.getVersions());
+        assertEquals(NOON.toEpochMilli(), top.getFirstSeen());
+
+        assertEquals(new CrashStats.Count("com.example.Jobs.run", 21), stats.topMethods(10).get(0));
+        assertEquals(List.of(new CrashStats.Count("1.2.0", 20), new CrashStats.Count("1.3.0", 3)), stats.topVersions(10));
+        assertEquals(Map.of(NOON.minus(1, ChronoUnit.DAYS), 1L, NOON, 2L, NOON.plus(1, ChronoUnit.HOURS), 1L),
+                stats.histogram(ChronoUnit.HOURS, ZoneOffset.UTC));
+        assertEquals(Map.of(NOON.minus(36, ChronoUnit.HOURS), 1L, NOON.minus(12, ChronoUnit.HOURS), 3L),
+                stats.histogram(ChronoUnit.DAYS, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testStoredBacktracesKeepTheirFingerprint() throws Exception {
+        CrashReport report = report("java.lang.IllegalStateException: boom", "run", "1.0.0");
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.Layer" + i);
+            frame.setMethod("call");
+            frame.setLine(i);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        long expected = CrashFingerprint.of(report);
+
+        try (BacktraceStore store = new BacktraceStore(directory.resolve(BacktraceStore.DIRECTORY_NAME));
+             BacktraceStoreSink sink = new BacktraceStoreSink(new FileReportSink(directory, new JsonReportEncoder()), store)) {
+            sink.write(List.of(report));
+        }
+        try (var files = Files.list(directory)) {
+            Path stored = files.filter(file -> file.toString().endsWith(".json")).findFirst().orElseThrow();
+            assertTrue(Files.readString(stored).contains("backtrace_ref"));
+        }
+
+        CrashStats stats = CrashAnalyzer.builder().build().analyze(List.of(directory));
+
+        assertEquals(1, stats.getReports());
+        assertEquals(expected, stats.topFingerprints(1).get(0).getFingerprint());
+    }
+
+    @Test
+    void testCliPrintsAggregates() throws Exception {
+        try (FileReportSink files = new FileReportSink(directory, new JsonReportEncoder())) {
+            files.write(List.of(report("java.lang.IllegalStateException: queue full", "run", "1.2.0")));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(OutputStream.nullOutputStream());
+
+        assertEquals(0, HumanPanicCli.run(new String[]{"--top", "5", "--bucket", "day", directory.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), err));
+        String printed = out.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.startsWith("1 reports, 1 fingerprints, 0 unreadable"));
+        assertTrue(printed.contains("java.lang.IllegalStateException"));
+        assertTrue(printed.contains("com.example.Jobs.run"));
+        assertTrue(printed.contains("Reports per day"));
+
+        assertEquals(2, HumanPanicCli.run(new String[]{"--bucket", "week"}, new PrintStream(out), err));
+        assertEquals(1, HumanPanicCli.run(new String[]{directory.resolve("missing").toString()}, new PrintStream(out), err));
+    }
+
+    private static CrashReport report(String cause, String method, String version) {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setVersion(version);
+        report.setCause(cause);
+        CrashReport.MethodInfo info = new CrashReport.MethodInfo();
+        info.setClassName(method.equals("run") ? "com.example.Jobs" : "com.example.Accounts");
+        info.setMethodName(method);
+        report.setMethod(info);
+        return report;
+    }
+}
@@ -0,0 +1,242 @@
+package io.pants.humanpanic.collector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.pants.humanpanic.model.CrashFingerprint;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP front end of the collector, one virtual thread per request.
+ *
+ * POST /reports             NDJSON batch as sent by HttpUploadSink (gzip optional, Idempotency-Key honoured),
+ *                           answers 202 with the IngestResult
+ * GET  /fingerprints?limit  the most frequent fingerprints as FingerprintSummary objects
+ * GET  /fingerprints/{hex}  {"summary": ..., "report": ...} with the stored sample report
+ *
+ * Storage failures answer 503 so uploaders retry the batch later. TCP_NODELAY is switched on
+ * unless sun.net.httpserver.nodelay says otherwise: with Nagle's algorithm every small response
+ * waits for a delayed ACK, about 40 ms per batch.
+ */
+@Slf4j
+public class CollectorServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8650;
+    public static final Path DEFAULT_STORE = Paths.get("crash-reports", "collector");
+    public static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(10);
+    static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int BACKLOG = 1024;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final InetSocketAddress address;
+    @Getter
+    private final ReportStore store;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService checkpointer;
+
+    public CollectorServer(InetSocketAddress address, ReportStore store) {
+        this.address = address;
+        this.store = store;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path directory = args.length > 1 ? Paths.get(args[1]) : DEFAULT_STORE;
+        CollectorServer collector = new CollectorServer(new InetSocketAddress(port), new ReportStore(directory));
+        Runtime.getRuntime().addShutdownHook(new Thread(collector::closeQuietly, "humanpanic-collector-shutdown"));
+        collector.start();
+        log.info("HumanPanic collector listening on port {}, storing reports in {}", collector.getPort(),
+                directory.toAbsolutePath());
+    }
+
+    public synchronized void start() throws IOException {
+        // Read once, when the first HttpServer of the JVM is created
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/reports", this::handleReports);
+        server.createContext("/fingerprints", this::handleFingerprints);
+        server.start();
+
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "humanpanic-collector-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = CHECKPOINT_INTERVAL.toMillis();
+        checkpointer.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The bound port, useful when started on port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.close();
+        checkpointer.shutdownNow();
+        server = null;
+        store.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.error("Failed to stop collector, error = {}", e.getMessage());
+        }
+    }
+
+    private void checkpoint() {
+        try {
+            store.checkpoint();
+        } catch (IOException e) {
+            log.error("Failed to checkpoint fingerprint index, error = {}", e.getMessage());
+        }
+    }
+
+    private void handleReports(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body;
+            try (InputStream in = body(exchange)) {
+                body = in.readNBytes(MAX_BODY_BYTES + 1);
+            } catch (IOException e) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            if (body.length > MAX_BODY_BYTES) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            ReportStore.IngestResult result;
+            try {
+                result = store.ingest(lines(body), exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            } catch (IOException e) {
+                log.error("Failed to store crash reports, error = {}", e.getMessage());
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            respond(exchange, 202, mapper.writeValueAsBytes(result));
+        }
+    }
+
+    private void handleFingerprints(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String hex = path.length() > "/fingerprints/".length() ? path.substring("/fingerprints/".length()) : "";
+            if (hex.isEmpty()) {
+                respond(exchange, 200, mapper.writeValueAsBytes(store.top(limit(exchange.getRequestURI().getQuery()))));
+                return;
+            }
+            long fingerprint;
+            try {
+                fingerprint = CrashFingerprint.fromHex(hex);
+            } catch (NumberFormatException e) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            FingerprintSummary summary = store.summary(fingerprint);
+            byte[] sample = summary != null ? store.sample(fingerprint) : null;
+            if (sample == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            response.write("{\"summary\":".getBytes(StandardCharsets.UTF_8));
+            response.write(mapper.writeValueAsBytes(summary));
+            response.write(",\"report\":".getBytes(StandardCharsets.UTF_8));
+            response.write(sample);
+            response.write('}');
+            respond(exchange, 200, response.toByteArray());
+        }
+    }
+
+    private static InputStream body(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        return "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(in, 8192) : in;
+    }
+
+    /**
+     * Splits an NDJSON body into its non-empty lines
+     */
+    private static List<byte[]> lines(byte[] body) {
+        List<byte[]> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= body.length; i++) {
+            if (i == body.length || body[i] == '\n') {
+                int end = i > start && body[i - 1] == '\r' ? i - 1 : i;
+                if (end > start) {
+                    lines.add(Arrays.copyOfRange(body, start, end));
+                }
+                start = i + 1;
+            }
+        }
+        return lines;
+    }
+
+    private static int limit(String query) {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("limit=")) {
+                    try {
+                        return Math.max(0, Integer.parseInt(parameter.substring("limit=".length())));
+                    } catch (NumberFormatException e) {
+                        return DEFAULT_LIMIT;
+                    }
+                }
+            }
+        }
+        return DEFAULT_LIMIT;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.pants.humanpanic.collector;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fingerprint to counters and the location of the one stored sample report.
+ *
+ * Not thread-safe, ReportStore guards it. The index is checkpointed to a file together with the
+ * log offset it covers; records appended after the last checkpoint are re-indexed from the log.
+ */
+final class FingerprintIndex {
+
+    private static final int MAGIC = 0x48504649;
+    private static final int VERSION = 1;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long coveredOffset;
+    private boolean dirty;
+
+    Entry get(long fingerprint) {
+        return entries.get(fingerprint);
+    }
+
+    void put(long fingerprint, Entry entry) {
+        entries.put(fingerprint, entry);
+        dirty = true;
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Log offset up to which every stored record is indexed
+     */
+    long getCoveredOffset() {
+        return coveredOffset;
+    }
+
+    void setCoveredOffset(long coveredOffset) {
+        this.coveredOffset = coveredOffset;
+        dirty = true;
+    }
+
+    List<FingerprintSummary> summaries() {
+        List<FingerprintSummary> summaries = new ArrayList<>(entries.size());
+        entries.forEach((fingerprint, entry) -> summaries.add(entry.summary(fingerprint)));
+        return summaries;
+    }
+
+    /**
+     * Writes the index to a temp file and moves it into place, so a crash leaves the previous checkpoint intact
+     */
+    void save(Path file) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredOffset);
+            out.writeInt(entries.size());
+            for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeLong(e.getKey());
+                out.writeLong(entry.count);
+                out.writeLong(entry.firstSeen);
+                out.writeLong(entry.lastSeen);
+                out.writeUTF(entry.segment);
+                out.writeLong(entry.position);
+                out.writeUTF(entry.exception);
+                out.writeUTF(entry.method);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * Reads a checkpoint, or returns an empty index when there is none yet
+     */
+    static FingerprintIndex load(Path file) throws IOException {
+        FingerprintIndex index = new FingerprintIndex();
+        if (!Files.exists(file)) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported fingerprint index " + file);
+            }
+            index.coveredOffset = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                long fingerprint = in.readLong();
+                Entry entry = new Entry();
+                entry.count = in.readLong();
+                entry.firstSeen = in.readLong();
+                entry.lastSeen = in.readLong();
+                entry.segment = in.readUTF();
+                entry.position = in.readLong();
+                entry.exception = in.readUTF();
+                entry.method = in.readUTF();
+                index.entries.put(fingerprint, entry);
+            }
+        }
+        return index;
+    }
+
+    static final class Entry {
+        long count;
+        long firstSeen;
+        long lastSeen;
+        String segment;
+        long position;
+        String exception;
+        String method;
+
+        FingerprintSummary summary(long fingerprint) {
+            return new FingerprintSummary(CrashFingerprint.toHex(fingerprint), count, firstSeen, lastSeen,
+                    exception, method);
+        }
+    }
+}
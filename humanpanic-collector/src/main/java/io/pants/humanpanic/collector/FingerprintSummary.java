@@ -0,0 +1,9 @@
+package io.pants.humanpanic.collector;
+
+/**
+ * What the collector knows about one failure: how often it was reported, when it was first and
+ * last seen (epoch milliseconds, collector clock) and what it looks like
+ */
+public record FingerprintSummary(String fingerprint, long count, long firstSeen, long lastSeen,
+                                 String exception, String method) {
+}
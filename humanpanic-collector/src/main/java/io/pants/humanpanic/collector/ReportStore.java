@@ -0,0 +1,285 @@
+package io.pants.humanpanic.collector;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.pants.humanpanic.jackson.JacksonReportEncoder;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fingerprint-deduplicated report storage shared by every node.
+ *
+ * The first report of each fingerprint is appended to a SegmentedLogSink; later ones, from any
+ * node, only bump the counters in the FingerprintIndex. Reports are parsed and fingerprinted on
+ * the calling thread, only the index update and the append run under the store lock, so ingest
+ * scales with the number of request threads. A batch whose idempotency key was already seen
+ * (an upload retried or replayed from a spool) is acknowledged without counting it again; keys
+ * are remembered in memory only, for the most recent MAX_IDEMPOTENCY_KEYS batches.
+ *
+ * The index is checkpointed to fingerprints.idx by checkpoint() and close(). On open, records
+ * appended after the checkpoint are indexed again from the log, so a crash only loses the
+ * duplicate counts since the last checkpoint, and deleting the index rebuilds it from scratch.
+ */
+@Slf4j
+public class ReportStore implements Closeable {
+
+    public static final String INDEX_FILE = "fingerprints.idx";
+    static final int MAX_IDEMPOTENCY_KEYS = 65_536;
+
+    @Getter
+    private final Path directory;
+    private final SegmentedLogSink reportLog;
+    private final Path indexFile;
+    private final ObjectReader reader;
+    private final FingerprintIndex index;
+
+    private final Map<String, Boolean> recentKeys = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_IDEMPOTENCY_KEYS;
+        }
+    };
+
+    public ReportStore(Path directory) throws IOException {
+        this(directory, SegmentedLogSink.DEFAULT_SEGMENT_BYTES);
+    }
+
+    public ReportStore(Path directory, long maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.reportLog = new SegmentedLogSink(directory, new JsonReportEncoder(false), maxSegmentBytes);
+        this.indexFile = directory.resolve(INDEX_FILE);
+        ObjectMapper mapper = new JacksonReportEncoder(new ObjectMapper()).getObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.reader = mapper.readerFor(CrashReport.class);
+        Files.createDirectories(directory);
+        this.index = recover();
+    }
+
+    /**
+     * Ingests one batch of single-line JSON reports. A null key disables the idempotency check.
+     */
+    public IngestResult ingest(List<byte[]> records, String idempotencyKey) throws IOException {
+        List<Parsed> parsed = new ArrayList<>(records.size());
+        int rejected = 0;
+        for (byte[] record : records) {
+            try {
+                CrashReport report = reader.readValue(record);
+                parsed.add(new Parsed(CrashFingerprint.of(report), report, record));
+            } catch (IOException e) {
+                rejected++;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (idempotencyKey != null && recentKeys.containsKey(idempotencyKey)) {
+                return new IngestResult(0, 0, 0, rejected, true);
+            }
+            List<byte[]> fresh = new ArrayList<>();
+            List<FingerprintIndex.Entry> freshEntries = new ArrayList<>();
+            Map<Long, FingerprintIndex.Entry> pending = new LinkedHashMap<>();
+            int duplicates = 0;
+            for (Parsed report : parsed) {
+                FingerprintIndex.Entry entry = index.get(report.fingerprint());
+                if (entry == null) {
+                    entry = pending.get(report.fingerprint());
+                }
+                if (entry != null) {
+                    entry.count++;
+                    entry.lastSeen = now;
+                    duplicates++;
+                    continue;
+                }
+                entry = newEntry(report.report(), now);
+                pending.put(report.fingerprint(), entry);
+                fresh.add(report.record());
+                freshEntries.add(entry);
+            }
+
+            if (!fresh.isEmpty()) {
+                List<SegmentedLogSink.RecordLocation> locations = reportLog.writeEncoded(fresh);
+                reportLog.flush();
+                for (int i = 0; i < locations.size(); i++) {
+                    freshEntries.get(i).segment = locations.get(i).segment().getFileName().toString();
+                    freshEntries.get(i).position = locations.get(i).position();
+                }
+                pending.forEach(index::put);
+                index.setCoveredOffset(locations.get(locations.size() - 1).offset() + 1);
+            }
+            index.markDirty();
+            if (idempotencyKey != null) {
+                recentKeys.put(idempotencyKey, Boolean.TRUE);
+            }
+            return new IngestResult(parsed.size(), fresh.size(), duplicates, rejected, false);
+        }
+    }
+
+    /**
+     * The most frequently reported fingerprints, most frequent first
+     */
+    public List<FingerprintSummary> top(int limit) {
+        List<FingerprintSummary> summaries;
+        synchronized (this) {
+            summaries = index.summaries();
+        }
+        summaries.sort(Comparator.comparingLong(FingerprintSummary::count).reversed()
+                .thenComparing(FingerprintSummary::fingerprint));
+        return summaries.subList(0, Math.min(limit, summaries.size()));
+    }
+
+    /**
+     * Counters for one fingerprint, or null when it was never reported
+     */
+    public synchronized FingerprintSummary summary(long fingerprint) {
+        FingerprintIndex.Entry entry = index.get(fingerprint);
+        return entry != null ? entry.summary(fingerprint) : null;
+    }
+
+    /**
+     * The stored sample report of a fingerprint as single-line JSON, or null when it was never reported
+     */
+    public byte[] sample(long fingerprint) throws IOException {
+        String segment;
+        long position;
+        synchronized (this) {
+            FingerprintIndex.Entry entry = index.get(fingerprint);
+            if (entry == null) {
+                return null;
+            }
+            segment = entry.segment;
+            position = entry.position;
+        }
+        return SegmentedLogSink.readRecord(directory.resolve(segment), position);
+    }
+
+    public synchronized int getFingerprintCount() {
+        return index.size();
+    }
+
+    /**
+     * Persists the index if it changed since the last checkpoint
+     */
+    public synchronized void checkpoint() throws IOException {
+        index.save(indexFile);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        reportLog.close();
+        checkpoint();
+    }
+
+    /**
+     * Loads the last checkpoint and indexes whatever the log holds beyond it
+     */
+    private FingerprintIndex recover() throws IOException {
+        FingerprintIndex recovered;
+        try {
+            recovered = FingerprintIndex.load(indexFile);
+        } catch (IOException e) {
+            log.warn("Rebuilding unreadable fingerprint index {}, error = {}", indexFile, e.getMessage());
+            recovered = new FingerprintIndex();
+        }
+        long covered = recovered.getCoveredOffset();
+        List<Path> segments = SegmentedLogSink.segments(directory);
+        long now = System.currentTimeMillis();
+        long reindexed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long base = SegmentedLogSink.baseOffset(segments.get(i));
+            long end = i + 1 < segments.size() ? SegmentedLogSink.baseOffset(segments.get(i + 1)) : Long.MAX_VALUE;
+            if (end <= covered) {
+                continue;
+            }
+            long offset = reindex(recovered, segments.get(i), base, Math.max(0, covered - base), now);
+            reindexed += offset - Math.max(base, covered);
+            covered = Math.max(covered, offset);
+        }
+        if (covered != recovered.getCoveredOffset()) {
+            recovered.setCoveredOffset(covered);
+            log.info("Indexed {} stored reports not covered by {}", reindexed, indexFile);
+        }
+        return recovered;
+    }
+
+    /**
+     * Indexes the complete records of a segment from the skip-th on and returns the offset after the last one
+     */
+    private long reindex(FingerprintIndex target, Path segment, long base, long skip, long now) throws IOException {
+        String name = segment.getFileName().toString();
+        long offset = base;
+        long position = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                byte[] record = line.toByteArray();
+                long start = position;
+                position += record.length + 1;
+                line.reset();
+                if (offset++ - base < skip || record.length == 0) {
+                    continue;
+                }
+                try {
+                    CrashReport report = reader.readValue(record);
+                    long fingerprint = CrashFingerprint.of(report);
+                    FingerprintIndex.Entry entry = target.get(fingerprint);
+                    if (entry != null) {
+                        entry.count++;
+                        continue;
+                    }
+                    entry = newEntry(report, now);
+                    entry.segment = name;
+                    entry.position = start;
+                    target.put(fingerprint, entry);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable record {} in {}", offset - 1, segment);
+                }
+            }
+        }
+        return offset;
+    }
+
+    private static FingerprintIndex.Entry newEntry(CrashReport report, long now) {
+        FingerprintIndex.Entry entry = new FingerprintIndex.Entry();
+        entry.count = 1;
+        entry.firstSeen = now;
+        entry.lastSeen = now;
+        String exception = CrashFingerprint.exceptionClass(report.getCause());
+        entry.exception = exception != null ? exception : "";
+        CrashReport.MethodInfo method = report.getMethod();
+        entry.method = method != null ? method.getClassName() + "." + method.getMethodName() : "";
+        return entry;
+    }
+
+    private record Parsed(long fingerprint, CrashReport report, byte[] record) {
+    }
+
+    /**
+     * Outcome of one batch: accepted reports split into newly stored and duplicate fingerprints,
+     * plus lines that were not valid reports. replayed is true when the batch had been ingested before.
+     */
+    public record IngestResult(int accepted, int stored, int duplicates, int rejected, boolean replayed) {
+    }
+}
@@ -0,0 +1,129 @@
+package io.pants.humanpanic.unitTest.collector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.pants.humanpanic.collector.CollectorServer;
+import io.pants.humanpanic.collector.ReportStore;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.HttpUploadSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * In-process tests for the collector with HttpUploadSink clients playing the nodes
+ */
+class CollectorServerTest {
+
+    @TempDir
+    Path directory;
+
+    private CollectorServer collector;
+    private URI base;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        collector = new CollectorServer(new InetSocketAddress("127.0.0.1", 0), new ReportStore(directory));
+        collector.start();
+        base = URI.create("http://127.0.0.1:" + collector.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        collector.close();
+    }
+
+    @Test
+    void testDeduplicatesAcrossNodes() throws Exception {
+        List<HttpUploadSink> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            nodes.add(HttpUploadSink.builder().endpoint(base.resolve("/reports")).build());
+        }
+        for (int round = 0; round < 5; round++) {
+            for (HttpUploadSink node : nodes) {
+                node.write(List.of(
+                        report("java.lang.IllegalStateException: round " + round, "A"),
+                        report("java.lang.NullPointerException", "B")));
+            }
+        }
+        for (HttpUploadSink node : nodes) {
+            node.close();
+            assertEquals(10, node.getUploadedCount());
+        }
+
+        assertEquals(2, collector.getStore().getFingerprintCount());
+        JsonNode top = get("/fingerprints?limit=1");
+        assertEquals(1, top.size());
+        assertEquals(15, top.get(0).get("count").asLong());
+    }
+
+    @Test
+    void testServesSampleReport() throws Exception {
+        HttpUploadSink node = HttpUploadSink.builder().endpoint(base.resolve("/reports")).build();
+        node.write(List.of(report("java.lang.IllegalStateException: boom", "A")));
+        node.close();
+
+        String fingerprint = get("/fingerprints").get(0).get("fingerprint").asText();
+        JsonNode detail = get("/fingerprints/" + fingerprint);
+
+        assertEquals(1, detail.get("summary").get("count").asLong());
+        assertEquals("java.lang.IllegalStateException: boom", detail.get("report").get("cause").asText());
+    }
+
+    @Test
+    void testUnknownFingerprintIsNotFound() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(base.resolve("/fingerprints/00000000000000ff")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    void testPlainNdjsonWithIdempotencyKey() throws Exception {
+        String body = "{\"name\":\"app\",\"cause\":\"java.lang.IllegalStateException\"}\n";
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/reports"))
+                            .header("Idempotency-Key", "batch-1")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(202, response.statusCode());
+            assertEquals(i == 1, mapper.readTree(response.body()).get("replayed").asBoolean());
+        }
+
+        assertEquals(1, get("/fingerprints").get(0).get("count").asLong());
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve(path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return mapper.readTree(response.body());
+    }
+
+    private static CrashReport report(String cause, String method) {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause(cause);
+        CrashReport.MethodInfo info = new CrashReport.MethodInfo();
+        info.setClassName("com.example.Service");
+        info.setMethodName(method);
+        report.setMethod(info);
+        return report;
+    }
+}
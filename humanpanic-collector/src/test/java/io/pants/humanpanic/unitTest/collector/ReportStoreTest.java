@@ -0,0 +1,142 @@
+package io.pants.humanpanic.unitTest.collector;
+
+import io.pants.humanpanic.collector.FingerprintSummary;
+import io.pants.humanpanic.collector.ReportStore;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportStore
+ */
+class ReportStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStoresFirstReportPerFingerprint() throws Exception {
+        try (ReportStore store = new ReportStore(directory)) {
+            ReportStore.IngestResult result = store.ingest(List.of(
+                    encode(report("java.lang.IllegalStateException: first", "A")),
+                    encode(report("java.lang.IllegalStateException: second", "A")),
+                    encode(report("java.lang.IllegalArgumentException: other", "B"))), null);
+
+            assertEquals(3, result.accepted());
+            assertEquals(2, result.stored());
+            assertEquals(1, result.duplicates());
+            assertEquals(2, store.getFingerprintCount());
+
+            FingerprintSummary top = store.top(1).get(0);
+            assertEquals(2, top.count());
+            assertEquals("java.lang.IllegalStateException", top.exception());
+            assertEquals("com.example.Service.A", top.method());
+
+            String sample = new String(store.sample(CrashFingerprint.fromHex(top.fingerprint())), StandardCharsets.UTF_8);
+            assertTrue(sample.contains("first"));
+        }
+        assertEquals(2, Files.readAllLines(SegmentedLogSink.segments(directory).get(0)).size());
+    }
+
+    @Test
+    void testRepeatedIdempotencyKeyIsNotCountedTwice() throws Exception {
+        try (ReportStore store = new ReportStore(directory)) {
+            List<byte[]> batch = List.of(encode(report("java.lang.IllegalStateException: a", "A")));
+            assertFalse(store.ingest(batch, "key-1").replayed());
+            assertTrue(store.ingest(batch, "key-1").replayed());
+            store.ingest(batch, "key-2");
+
+            assertEquals(2, store.top(10).get(0).count());
+        }
+    }
+
+    @Test
+    void testMalformedLinesAreRejected() throws Exception {
+        try (ReportStore store = new ReportStore(directory)) {
+            ReportStore.IngestResult result = store.ingest(List.of(
+                    "not json".getBytes(StandardCharsets.UTF_8),
+                    encode(report("java.lang.IllegalStateException: a", "A"))), null);
+
+            assertEquals(1, result.accepted());
+            assertEquals(1, result.rejected());
+        }
+    }
+
+    @Test
+    void testIndexSurvivesRestart() throws Exception {
+        try (ReportStore store = new ReportStore(directory)) {
+            store.ingest(List.of(encode(report("java.lang.IllegalStateException: a", "A")),
+                    encode(report("java.lang.IllegalStateException: b", "A"))), null);
+        }
+        try (ReportStore store = new ReportStore(directory)) {
+            assertEquals(1, store.getFingerprintCount());
+            assertEquals(2, store.top(1).get(0).count());
+            store.ingest(List.of(encode(report("java.lang.IllegalStateException: c", "A"))), null);
+            assertEquals(3, store.top(1).get(0).count());
+        }
+    }
+
+    @Test
+    void testIndexIsRebuiltFromLog() throws Exception {
+        try (ReportStore store = new ReportStore(directory, 200)) {
+            for (String method : List.of("A", "B", "C", "D")) {
+                store.ingest(List.of(encode(report("java.lang.IllegalStateException: " + method, method))), null);
+            }
+        }
+        assertTrue(SegmentedLogSink.segments(directory).size() > 1);
+        Files.delete(directory.resolve(ReportStore.INDEX_FILE));
+
+        try (ReportStore store = new ReportStore(directory, 200)) {
+            assertEquals(4, store.getFingerprintCount());
+            for (FingerprintSummary summary : store.top(10)) {
+                String sample = new String(store.sample(CrashFingerprint.fromHex(summary.fingerprint())),
+                        StandardCharsets.UTF_8);
+                assertTrue(sample.contains(summary.method().substring(summary.method().length() - 1) + "\""));
+            }
+        }
+    }
+
+    @Test
+    void testRecordsAfterCheckpointAreReindexed() throws Exception {
+        try (ReportStore store = new ReportStore(directory)) {
+            store.ingest(List.of(encode(report("java.lang.IllegalStateException: a", "A"))), null);
+        }
+        // Another report reached the log but the process died before the next checkpoint
+        try (SegmentedLogSink log = new SegmentedLogSink(directory)) {
+            log.write(List.of(report("java.lang.IllegalStateException: b", "B")));
+        }
+
+        try (ReportStore store = new ReportStore(directory)) {
+            assertEquals(2, store.getFingerprintCount());
+        }
+    }
+
+    private static CrashReport report(String cause, String method) {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause(cause);
+        CrashReport.MethodInfo info = new CrashReport.MethodInfo();
+        info.setClassName("com.example.Service");
+        info.setMethodName(method);
+        report.setMethod(info);
+        return report;
+    }
+
+    private static byte[] encode(CrashReport report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonReportEncoder(false).encode(report, out);
+        return out.toByteArray();
+    }
+}
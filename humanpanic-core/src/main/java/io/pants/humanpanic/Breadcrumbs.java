@@ -0,0 +1,237 @@
+package io.pants.humanpanic;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.ArgumentRenderer;
+import io.pants.humanpanic.sink.AsyncReportSink;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * What a thread did just before it panicked. Call breadcrumb(...) along the way; CrashReporter
+ * copies the calling thread's latest breadcrumbs into every report it builds.
+ *
+ * Breadcrumbs go into rings of preallocated slots. Recording one takes an atomic increment and a
+ * few stores, no lock, and allocates nothing unless an argument needs boxing; the message is only
+ * formatted, slf4j style with {} placeholders, when a report is encoded. Arguments are referenced
+ * until their slot is overwritten, so a message shows its arguments as they are when it is
+ * formatted, at crash time or later, not as they were when the breadcrumb was recorded. Each
+ * argument is rendered by an ArgumentRenderer, bounded like a captured argument, and only an
+ * AsyncReportSink writer thread calls toString on it.
+ *
+ * A platform thread gets its own ring of RING_SLOTS slots. Virtual threads can be counted in
+ * millions, so instead of a ring each they share VIRTUAL_STRIPES rings of VIRTUAL_STRIPE_SLOTS
+ * slots, chosen by thread id. Every slot records its thread, so a report only shows its own
+ * thread's breadcrumbs, but busy neighbours on the same stripe can push them out sooner.
+ */
+public final class Breadcrumbs {
+
+    public static final int RING_SLOTS = 32;
+    public static final int VIRTUAL_STRIPES = 64;
+    public static final int VIRTUAL_STRIPE_SLOTS = 256;
+
+    private static final int MESSAGE = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    private static final int LONG = 3;
+    private static final int MANY = 4;
+
+    private static final ThreadLocal<Ring> PLATFORM = ThreadLocal.withInitial(() -> new Ring(RING_SLOTS));
+    private static final AtomicReferenceArray<Ring> VIRTUAL = new AtomicReferenceArray<>(VIRTUAL_STRIPES);
+
+    private Breadcrumbs() {
+    }
+
+    public static void breadcrumb(String message) {
+        ring().record(MESSAGE, message, null, null, 0);
+    }
+
+    public static void breadcrumb(String format, Object argument) {
+        ring().record(ONE, format, argument, null, 0);
+    }
+
+    public static void breadcrumb(String format, Object first, Object second) {
+        ring().record(TWO, format, first, second, 0);
+    }
+
+    /**
+     * Keeps the value unboxed, so counters and ids cost no allocation either
+     */
+    public static void breadcrumb(String format, long value) {
+        ring().record(LONG, format, null, null, value);
+    }
+
+    public static void breadcrumb(String format, Object... arguments) {
+        ring().record(MANY, format, arguments, null, 0);
+    }
+
+    /**
+     * The calling thread's breadcrumbs that are still in its ring, oldest first, formatted with
+     * ArgumentRenderer.DEFAULT
+     */
+    public static List<CrashReport.Breadcrumb> snapshot() {
+        ArgumentRenderer.Rendering rendering = AsyncReportSink.onWriterThread()
+                ? ArgumentRenderer.DEFAULT.start() : ArgumentRenderer.DEFAULT.startWithoutToString();
+        List<CrashReport.Breadcrumb> found = new ArrayList<>();
+        for (Recorded recorded : recorded()) {
+            CrashReport.Breadcrumb breadcrumb = new CrashReport.Breadcrumb();
+            breadcrumb.setTimestampMs(recorded.timestampMs());
+            breadcrumb.setMessage(recorded.message(rendering));
+            found.add(breadcrumb);
+        }
+        return found;
+    }
+
+    /**
+     * The calling thread's breadcrumbs that are still in its ring, oldest first, not formatted yet
+     */
+    public static List<Recorded> recorded() {
+        return ring().snapshot(Thread.currentThread().threadId());
+    }
+
+    /**
+     * Forgets the calling thread's breadcrumbs, for threads that are reused for unrelated work
+     */
+    public static void clear() {
+        ring().forget(Thread.currentThread().threadId());
+    }
+
+    private static Ring ring() {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            return PLATFORM.get();
+        }
+        // Thread ids are sequential, spread them before picking a stripe
+        int stripe = (int) (thread.threadId() * 0x9E3779B97F4A7C15L >>> 58) & (VIRTUAL_STRIPES - 1);
+        Ring ring = VIRTUAL.get(stripe);
+        if (ring == null) {
+            VIRTUAL.compareAndSet(stripe, null, new Ring(VIRTUAL_STRIPE_SLOTS));
+            ring = VIRTUAL.get(stripe);
+        }
+        return ring;
+    }
+
+    /**
+     * A breadcrumb as recorded, its arguments still referenced; arguments is null for a plain message
+     */
+    public record Recorded(long timestampMs, String format, Object[] arguments) {
+
+        /**
+         * Formats {} placeholders in order, extra arguments are ignored and missing ones stay {}
+         */
+        public String message(ArgumentRenderer.Rendering rendering) {
+            if (format == null || arguments == null || arguments.length == 0) {
+                return format;
+            }
+            StringBuilder out = new StringBuilder(format.length() + 16 * arguments.length);
+            int from = 0;
+            int next = 0;
+            int at;
+            while (next < arguments.length && (at = format.indexOf("{}", from)) >= 0) {
+                out.append(format, from, at).append(rendering.renderText(arguments[next++]));
+                from = at + 2;
+            }
+            return out.append(format, from, format.length()).toString();
+        }
+    }
+
+    /**
+     * Slots in parallel arrays. A slot's stamp is its sequence number plus one once published and
+     * WRITING while a writer fills it, like a per-slot sequence lock: readers keep a slot only when
+     * its stamp is the expected one before and after they read it. A writer that finds its slot
+     * still being filled by a writer the ring lapped drops its breadcrumb rather than wait.
+     */
+    private static final class Ring {
+
+        private static final long WRITING = -1;
+        private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private final int mask;
+        private final AtomicLong sequence = new AtomicLong();
+        private final long[] stamps;
+        private final long[] threads;
+        private final long[] times;
+        private final long[] values;
+        private final int[] kinds;
+        private final String[] messages;
+        private final Object[] firsts;
+        private final Object[] seconds;
+
+        Ring(int slots) {
+            this.mask = slots - 1;
+            this.stamps = new long[slots];
+            this.threads = new long[slots];
+            this.times = new long[slots];
+            this.values = new long[slots];
+            this.kinds = new int[slots];
+            this.messages = new String[slots];
+            this.firsts = new Object[slots];
+            this.seconds = new Object[slots];
+        }
+
+        void record(int kind, String message, Object first, Object second, long value) {
+            long seq = sequence.getAndIncrement();
+            int slot = (int) seq & mask;
+            long stamp = (long) STAMPS.getAcquire(stamps, slot);
+            if (stamp == WRITING || !STAMPS.compareAndSet(stamps, slot, stamp, WRITING)) {
+                return;
+            }
+            threads[slot] = Thread.currentThread().threadId();
+            times[slot] = System.currentTimeMillis();
+            kinds[slot] = kind;
+            messages[slot] = message;
+            firsts[slot] = first;
+            seconds[slot] = second;
+            values[slot] = value;
+            STAMPS.setRelease(stamps, slot, seq + 1);
+        }
+
+        List<Recorded> snapshot(long thread) {
+            long newest = sequence.get() - 1;
+            List<Recorded> found = new ArrayList<>();
+            for (long seq = Math.max(0, newest - mask); seq <= newest; seq++) {
+                int slot = (int) seq & mask;
+                if ((long) STAMPS.getAcquire(stamps, slot) != seq + 1) {
+                    continue;
+                }
+                long owner = threads[slot];
+                long time = times[slot];
+                int kind = kinds[slot];
+                String message = messages[slot];
+                Object first = firsts[slot];
+                Object second = seconds[slot];
+                long value = values[slot];
+                VarHandle.acquireFence();
+                if (owner != thread || (long) STAMPS.getAcquire(stamps, slot) != seq + 1) {
+                    continue;
+                }
+                found.add(new Recorded(time, message, switch (kind) {
+                    case ONE -> new Object[]{first};
+                    case TWO -> new Object[]{first, second};
+                    case LONG -> new Object[]{value};
+                    case MANY -> first instanceof Object[] array ? array : null;
+                    default -> null;
+                }));
+            }
+            return found;
+        }
+
+        void forget(long thread) {
+            for (int slot = 0; slot <= mask; slot++) {
+                long stamp = (long) STAMPS.getAcquire(stamps, slot);
+                if (stamp != WRITING && threads[slot] == thread
+                        && STAMPS.compareAndSet(stamps, slot, stamp, WRITING)) {
+                    messages[slot] = null;
+                    firsts[slot] = null;
+                    seconds[slot] = null;
+                    // Never matches a sequence again
+                    STAMPS.setRelease(stamps, slot, 0L);
+                }
+            }
+        }
+    }
+}
@@ -16,4 +16,9 @@ public @interface HumanPanic {
     boolean createCrashReport() default true;
     int exitCode() default 0;
     boolean silent() default false;
+
+    /**
+     * Adds the call's arguments to the crash report, rendered within ArgumentRenderer's limits
+     */
+    boolean captureArguments() default false;
 }
@@ -0,0 +1,53 @@
+package io.pants.humanpanic.config;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of the application metadata.
+ * Loaders publish a new snapshot through a single volatile reference instead of
+ * mutating fields, so readers always see a consistent set of values.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class AppMetadata {
+    private final String name;
+
+    private final String version;
+
+    @Getter(AccessLevel.NONE)
+    private final String[] authors;
+
+    private final String homepage;
+
+    private final String supportUrl;
+
+    private final String issueUrl;
+
+    /**
+     * Creates the default snapshot used until configuration has been loaded
+     */
+    public AppMetadata() {
+        this("Unknown Application", "Unknown Version", new String[]{"Unknown Authors"},
+                "Unknown Homepage", "Unknown Support-URL", "Unknown Issue_URL");
+    }
+
+    @Builder(toBuilder = true)
+    public AppMetadata(String name, String version, String[] authors,
+                       String homepage, String supportUrl, String issueUrl) {
+        this.name = name;
+        this.version = version;
+        this.authors = authors != null ? authors.clone() : null;
+        this.homepage = homepage;
+        this.supportUrl = supportUrl;
+        this.issueUrl = issueUrl;
+    }
+
+    public String[] getAuthors() {
+        return authors != null ? authors.clone() : null;
+    }
+}
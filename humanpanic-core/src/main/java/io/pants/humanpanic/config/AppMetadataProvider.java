@@ -0,0 +1,10 @@
+package io.pants.humanpanic.config;
+
+/**
+ * Source of the application metadata used in crash reports and user notifications.
+ * Implemented by the Spring ConfigLoader and by the dependency-free NonSpringConfigLoader.
+ */
+public interface AppMetadataProvider {
+
+    AppMetadata getMetadata();
+}
@@ -0,0 +1,24 @@
+package io.pants.humanpanic.config;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One layer of application configuration.
+ * Keys are app.* property names in canonical form, see ConfigSources.canonicalKey.
+ */
+public interface ConfigSource {
+
+    /**
+     * Returns the properties this source defines, or an empty map if the source is absent
+     */
+    Map<String, String> read();
+
+    /**
+     * Files whose changes read() would pick up, for watching; empty for sources without such files
+     */
+    default List<Path> files() {
+        return List.of();
+    }
+}
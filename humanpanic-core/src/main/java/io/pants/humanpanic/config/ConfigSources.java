@@ -0,0 +1,270 @@
+package io.pants.humanpanic.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Built-in configuration sources. None of them needs anything beyond the JDK.
+ *
+ * This class sits on the startup path of CLI tools, so it avoids lambdas and only
+ * initialises the logging stack when there is actually an error to report.
+ */
+public final class ConfigSources {
+
+    private ConfigSources() {
+    }
+
+    /**
+     * Canonical form of a property name: lower case without '-' and '_',
+     * so app.support-url, app.supportUrl and APP_SUPPORT_URL all match
+     */
+    public static String canonicalKey(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '-' && c != '_') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * app.* entries from the JVM system properties
+     */
+    public static ConfigSource systemProperties() {
+        return new SystemPropertiesSource();
+    }
+
+    /**
+     * APP_* environment variables, e.g. APP_NAME or APP_ISSUE_URL
+     */
+    public static ConfigSource environment() {
+        return environment(System.getenv());
+    }
+
+    /**
+     * APP_* entries of the given environment map
+     */
+    public static ConfigSource environment(Map<String, String> env) {
+        return new EnvironmentSource(env);
+    }
+
+    /**
+     * A .properties file from the classpath, or from the working directory if it is not on the classpath
+     */
+    public static ConfigSource propertiesFile(String fileName) {
+        return new CachedFileSource(fileName, Paths.get(fileName), new PropertiesParser());
+    }
+
+    /**
+     * Implementation-Title and Implementation-Version of the jar containing the given class
+     */
+    public static ConfigSource manifest(Class<?> anchor) {
+        return new ManifestSource(anchor);
+    }
+
+    private static void logReadFailure(Object file, IOException e) {
+        Logger log = LoggerFactory.getLogger(ConfigSources.class);
+        log.error("Failed to read {}, error = {}", file, e.getMessage());
+    }
+
+    private static final class SystemPropertiesSource implements ConfigSource {
+        @Override
+        public Map<String, String> read() {
+            Map<String, String> values = new HashMap<>();
+            for (String name : System.getProperties().stringPropertyNames()) {
+                if (name.startsWith("app.")) {
+                    values.put(canonicalKey(name), System.getProperty(name));
+                }
+            }
+            return values;
+        }
+    }
+
+    private static final class EnvironmentSource implements ConfigSource {
+        private final Map<String, String> env;
+
+        private EnvironmentSource(Map<String, String> env) {
+            this.env = env;
+        }
+
+        @Override
+        public Map<String, String> read() {
+            Map<String, String> values = new HashMap<>();
+            for (Map.Entry<String, String> entry : env.entrySet()) {
+                String name = entry.getKey();
+                if (name.startsWith("APP_")) {
+                    values.put("app.".concat(canonicalKey(name.substring(4))), entry.getValue());
+                }
+            }
+            return values;
+        }
+    }
+
+    private static final class ManifestSource implements ConfigSource {
+        private final Class<?> anchor;
+
+        private ManifestSource(Class<?> anchor) {
+            this.anchor = anchor;
+        }
+
+        @Override
+        public Map<String, String> read() {
+            Map<String, String> values = new HashMap<>();
+            Package pkg = anchor.getPackage();
+            if (pkg != null) {
+                if (pkg.getImplementationTitle() != null) {
+                    values.put("app.name", pkg.getImplementationTitle());
+                }
+                if (pkg.getImplementationVersion() != null) {
+                    values.put("app.version", pkg.getImplementationVersion());
+                }
+            }
+            return values;
+        }
+    }
+
+    private static final class PropertiesParser implements Parser {
+        @Override
+        public Map<String, String> parse(InputStream in) throws IOException {
+            Properties props = new Properties();
+            props.load(in);
+            Map<String, String> values = new HashMap<>();
+            for (String name : props.stringPropertyNames()) {
+                if (name.startsWith("app.")) {
+                    values.put(canonicalKey(name), props.getProperty(name));
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Parses a configuration file from an input stream
+     */
+    @FunctionalInterface
+    public interface Parser {
+        Map<String, String> parse(InputStream in) throws IOException;
+    }
+
+    /**
+     * File backed source that parses its file at most once per change.
+     * The classpath resource wins over the file at path. A resource inside a jar is parsed once;
+     * a resource that is a plain file, or the file at path when there is no resource, is read on
+     * every call and parsed again only when its contents differ from the last read.
+     */
+    public static final class CachedFileSource implements ConfigSource {
+
+        private final String resourceName;
+        private final Path path;
+        private final Parser parser;
+
+        /**
+         * Where read() takes its values from, looked up on first use
+         */
+        private volatile Location location;
+        private volatile FileEntry fileEntry;
+
+        public CachedFileSource(String resourceName, Path path, Parser parser) {
+            this.resourceName = resourceName;
+            this.path = path;
+            this.parser = parser;
+        }
+
+        @Override
+        public Map<String, String> read() {
+            Location current = location();
+            return current.values() != null ? current.values() : readFile(current.file());
+        }
+
+        @Override
+        public List<Path> files() {
+            Path file = location().file();
+            return file != null ? List.of(file) : List.of();
+        }
+
+        private Location location() {
+            Location current = location;
+            if (current == null) {
+                current = locate();
+                location = current;
+            }
+            return current;
+        }
+
+        private Location locate() {
+            URL resource = resourceName != null
+                    ? ConfigSources.class.getClassLoader().getResource(resourceName) : null;
+            if (resource == null) {
+                return new Location(path, null);
+            }
+            if ("file".equals(resource.getProtocol())) {
+                try {
+                    return new Location(Paths.get(resource.toURI()), null);
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // Not a path after all, read it once like a jar entry
+                }
+            }
+            Map<String, String> values;
+            try (InputStream in = resource.openStream()) {
+                values = Map.copyOf(parser.parse(in));
+            } catch (IOException e) {
+                logReadFailure(resourceName, e);
+                values = Map.of();
+            }
+            return new Location(null, values);
+        }
+
+        private Map<String, String> readFile(Path file) {
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file);
+            } catch (NoSuchFileException e) {
+                return Map.of();
+            } catch (IOException e) {
+                logReadFailure(file, e);
+                return Map.of();
+            }
+
+            FileEntry entry = fileEntry;
+            if (entry != null && Arrays.equals(entry.content(), content)) {
+                return entry.values();
+            }
+
+            Map<String, String> values;
+            try (InputStream in = new ByteArrayInputStream(content)) {
+                values = Map.copyOf(parser.parse(in));
+            } catch (IOException e) {
+                logReadFailure(file, e);
+                values = Map.of();
+            }
+            fileEntry = new FileEntry(content, values);
+            return values;
+        }
+
+        /**
+         * Either a file to read on every call or the values of a resource that cannot change
+         */
+        private record Location(Path file, Map<String, String> values) {
+        }
+
+        private record FileEntry(byte[] content, Map<String, String> values) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.pants.humanpanic.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Watches configuration files with a WatchService and runs a reload callback when one changes.
+ * Files may live in different directories, each directory is registered once.
+ * The callback is expected to build a new AppMetadata snapshot and swap it in, so readers never block.
+ */
+@Slf4j
+public class MetadataFileWatcher implements Closeable {
+
+    private final WatchService watchService;
+    private final Set<Path> files;
+    private final Runnable reload;
+    private final Thread thread;
+
+    public MetadataFileWatcher(Path directory, Set<String> fileNames, Runnable reload) throws IOException {
+        this(resolve(directory, fileNames), reload);
+    }
+
+    public MetadataFileWatcher(Collection<Path> files, Runnable reload) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> absolute = new HashSet<>();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : files) {
+            Path path = file.toAbsolutePath().normalize();
+            absolute.add(path);
+            directories.add(path.getParent());
+        }
+        this.files = Set.copyOf(absolute);
+        this.reload = reload;
+
+        try {
+            for (Path directory : directories) {
+                if (!Files.isDirectory(directory)) {
+                    continue;
+                }
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+
+        this.thread = new Thread(this::run, "humanpanic-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path path && files.contains(directory.resolve(path))) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    try {
+                        reload.run();
+                    } catch (RuntimeException e) {
+                        log.error("Failed to reload configuration, error = {}", e.getMessage());
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher closed
+        }
+    }
+
+    private static Set<Path> resolve(Path directory, Set<String> fileNames) {
+        Set<Path> files = new HashSet<>();
+        for (String fileName : fileNames) {
+            files.add(directory.resolve(fileName));
+        }
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
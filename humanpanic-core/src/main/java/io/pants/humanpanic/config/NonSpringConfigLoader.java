@@ -0,0 +1,115 @@
+package io.pants.humanpanic.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration loader for non-Spring environments.
+ * Use this when Spring context is not available.
+ *
+ * Sources are merged in a single pass, highest precedence first: system properties,
+ * environment, application.yml (with humanpanic-jackson's YamlConfigLoader),
+ * application.properties and finally the manifest. Each file is parsed once and
+ * memoized until its contents change. Every constructor loads the configuration, so
+ * getMetadata() is never null unless set to null.
+ */
+@Getter
+@Setter
+public class NonSpringConfigLoader implements AppMetadataProvider {
+
+    private static final String NAME = "app.name";
+    private static final String VERSION = "app.version";
+    private static final String AUTHORS = "app.authors";
+    private static final String HOMEPAGE = "app.homepage";
+    private static final String SUPPORT_URL = "app.supporturl";
+    private static final String ISSUE_URL = "app.issueurl";
+    private static final List<String> KEYS = List.of(NAME, VERSION, AUTHORS, HOMEPAGE, SUPPORT_URL, ISSUE_URL);
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<ConfigSource> sources;
+
+    private volatile AppMetadata metadata;
+
+    public NonSpringConfigLoader() {
+        this((ConfigSource) null);
+    }
+
+    /**
+     * @param yamlSource source for application.yml, or null when YAML is not supported
+     */
+    protected NonSpringConfigLoader(ConfigSource yamlSource) {
+        List<ConfigSource> layers = new ArrayList<>();
+        layers.add(ConfigSources.systemProperties());
+        layers.add(ConfigSources.environment());
+        if (yamlSource != null) {
+            layers.add(yamlSource);
+        }
+        layers.add(ConfigSources.propertiesFile("application.properties"));
+        layers.add(ConfigSources.manifest(getClass()));
+        this.sources = List.copyOf(layers);
+        loadConfiguration();
+    }
+
+    /**
+     * Creates a loader over an explicit list of sources, highest precedence first
+     */
+    public NonSpringConfigLoader(List<ConfigSource> sources) {
+        this.sources = List.copyOf(sources);
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        Map<String, String> merged = new HashMap<>();
+        for (ConfigSource source : sources) {
+            Map<String, String> values = source.read();
+            for (String key : KEYS) {
+                if (!merged.containsKey(key)) {
+                    String value = values.get(key);
+                    if (value != null) {
+                        merged.put(key, value);
+                    }
+                }
+            }
+            if (merged.size() == KEYS.size()) {
+                break;
+            }
+        }
+
+        AppMetadata defaults = new AppMetadata();
+        String authors = merged.get(AUTHORS);
+
+        // Publish the new snapshot in one write
+        metadata = defaults.toBuilder()
+                .name(merged.getOrDefault(NAME, defaults.getName()))
+                .version(merged.getOrDefault(VERSION, defaults.getVersion()))
+                .authors(authors != null ? authors.split(",\\s*") : defaults.getAuthors())
+                .homepage(merged.getOrDefault(HOMEPAGE, defaults.getHomepage()))
+                .supportUrl(merged.getOrDefault(SUPPORT_URL, defaults.getSupportUrl()))
+                .issueUrl(merged.getOrDefault(ISSUE_URL, defaults.getIssueUrl()))
+                .build();
+    }
+
+    /**
+     * Reloads the configuration whenever a file the sources read changes: application.yml or
+     * application.properties in the working directory, or their classpath copy when that is a
+     * plain file. Close the returned watcher to stop.
+     */
+    public MetadataFileWatcher watch() throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (ConfigSource source : sources) {
+            files.addAll(source.files());
+        }
+        return new MetadataFileWatcher(files, this::loadConfiguration);
+    }
+}
@@ -0,0 +1,696 @@
+package io.pants.humanpanic.index;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportDecoder;
+import io.pants.humanpanic.reporter.SecretRedactor;
+import io.pants.humanpanic.sink.BacktraceStore;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Append-only index of every crash, answering "how often did X crash since Y" without listing
+ * or parsing report files.
+ *
+ * crash-index.bin holds a 16 byte header followed by fixed 40 byte entries:
+ * [long fingerprint][long timestamp ms][int method ref][int exception ref][long location ref][int CRC32C][int unused].
+ * Method and exception class names are interned in crash-index.names and report locations are
+ * stored in crash-index.locations, both as [int length][UTF-8] records referenced by offset.
+ * Timestamps never decrease (a clock step back is clamped to the previous entry), so time ranges
+ * are found by binary search over the memory-mapped entries and only the range is scanned.
+ *
+ * Appends from several processes are serialised with a lock on crash-index.lock; tryAppend gives
+ * up instead of waiting for it, which is how IndexAppender keeps crashing threads off it. Queries map the
+ * entry file and verify the checksums of entries they have not seen before; a damaged index is
+ * verified again under the lock, so a write in progress is not mistaken for damage, and then
+ * rebuilt from the stored reports. A torn entry at the end is ignored and overwritten.
+ *
+ * A rebuild holds the lock, writes new files next to the index and moves them into place, then
+ * bumps the generation kept in crash-index.lock. Other processes see the new generation and
+ * reopen the files under the lock before their next append or query, so none of them keeps
+ * appending to a replaced file.
+ *
+ * Given a TermIndex, appended reports are also tokenized into it, keyed by entry number, so
+ * search() finds crashes by the words of their redacted cause, frame classes and version.
+ */
+@Slf4j
+public class CrashIndex implements Closeable {
+
+    public static final String INDEX_FILE = "crash-index.bin";
+    public static final String NAMES_FILE = "crash-index.names";
+    public static final String LOCATIONS_FILE = "crash-index.locations";
+    public static final String LOCK_FILE = "crash-index.lock";
+    static final String REBUILD_SUFFIX = ".rebuild";
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 40;
+    private static final int MAGIC = 0x48504958;
+    private static final int VERSION = 1;
+    private static final int CHECKSUMMED_BYTES = 32;
+    private static final int NONE = -1;
+    private static final int WRITE_CHUNK_ENTRIES = 4096;
+
+    @Getter
+    private final Path directory;
+    @Getter
+    private final TermIndex terms;
+
+    private FileChannel lock;
+    private long generation;
+    private FileChannel entries;
+    private FileChannel names;
+    private FileChannel locations;
+    private final Map<String, Integer> nameRefs = new HashMap<>();
+    private final Map<Integer, String> namesByRef = new HashMap<>();
+    private long namesLoaded;
+    private MappedByteBuffer mapped;
+    private long verifiedEntries;
+
+    public CrashIndex(Path directory) {
+        this(directory, null);
+    }
+
+    /**
+     * An index that also keeps the terms of appended reports in the given TermIndex, usually one over the same directory
+     */
+    public CrashIndex(Path directory, TermIndex terms) {
+        this.directory = directory;
+        this.terms = terms;
+    }
+
+    /**
+     * Indexes one report at the current time
+     */
+    public void append(CrashReport report, String location) throws IOException {
+        append(prepare(report, location));
+    }
+
+    /**
+     * Takes what the index keeps of a report at the current time, so the report can go to a sink
+     * that changes or recycles it before append(Indexed) is called. The cause is redacted with
+     * SecretRedactor.DEFAULT before it is tokenized.
+     */
+    public Indexed prepare(CrashReport report, String location) {
+        return prepare(report, location, SecretRedactor.DEFAULT);
+    }
+
+    /**
+     * Same as above, redacting the cause with the redactor the sink's RedactingReportSink uses
+     */
+    public Indexed prepare(CrashReport report, String location, SecretRedactor redactor) {
+        Entry entry = new Entry(CrashFingerprint.of(report), Instant.now(),
+                methodName(report.getMethod()), CrashFingerprint.exceptionClass(report.getCause()), location);
+        return new Indexed(entry, terms != null ? CrashTerms.of(report, redactor) : List.of());
+    }
+
+    public void append(Indexed indexed) throws IOException {
+        long number = appendAll(List.of(indexed.entry()));
+        if (terms != null) {
+            terms.add(number, indexed.terms());
+        }
+    }
+
+    /**
+     * Appends entries under the file lock, in the given order, and returns the entry number of the first
+     */
+    public synchronized long appendAll(Collection<Entry> batch) throws IOException {
+        open();
+        try (FileLock ignored = lock.lock()) {
+            reopenIfRebuilt();
+            return appendLocked(batch);
+        }
+    }
+
+    /**
+     * Appends the batch and its terms like append(Indexed), unless another instance or process
+     * holds the lock right now: then nothing is written and -1 is returned, for callers that
+     * retry later instead of waiting. Opening the index may still wait for the lock.
+     */
+    public long tryAppend(List<Indexed> batch) throws IOException {
+        long first;
+        synchronized (this) {
+            open();
+            FileLock held;
+            try {
+                held = lock.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Held by another instance in this JVM
+                return -1;
+            }
+            if (held == null) {
+                return -1;
+            }
+            try (held) {
+                reopenIfRebuilt();
+                first = appendLocked(batch.stream().map(Indexed::entry).toList());
+            }
+        }
+        if (terms != null) {
+            terms.addAll(first, batch.stream().map(Indexed::terms).toList());
+        }
+        return first;
+    }
+
+    /**
+     * Number of indexed crashes matching the query
+     */
+    public synchronized long count(Query query) throws IOException {
+        Scan scan = scan(query);
+        long matches = 0;
+        for (long i = scan.from(); i < scan.to(); i++) {
+            if (scan.matches(mapped, i)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Matching crashes, newest first, at most limit of them
+     */
+    public synchronized List<Entry> find(Query query, int limit) throws IOException {
+        Scan scan = scan(query);
+        List<Entry> found = new ArrayList<>();
+        for (long i = scan.to() - 1; i >= scan.from() && found.size() < limit; i--) {
+            if (scan.matches(mapped, i)) {
+                found.add(entry(i));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Crashes whose exception class, frame class names and version have every word of text, newest first, at
+     * most limit of them; see CrashTerms for how words match. Needs a TermIndex.
+     */
+    public List<Entry> search(String text, int limit) throws IOException {
+        return search(text, Query.builder().build(), limit);
+    }
+
+    /**
+     * Crashes matching both text, as in search(text, limit), and query
+     */
+    public synchronized List<Entry> search(String text, Query query, int limit) throws IOException {
+        if (terms == null) {
+            throw new IllegalStateException("Crash index " + directory + " has no term index to search");
+        }
+        Scan scan = scan(query);
+        long[] matches = terms.search(CrashTerms.query(text), scan.from(), scan.to());
+        List<Entry> found = new ArrayList<>();
+        for (int i = matches.length - 1; i >= 0 && found.size() < limit; i--) {
+            if (scan.matches(mapped, matches[i])) {
+                found.add(entry(matches[i]));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Up to max entries in index order starting at entry number from, for consumers that follow the index incrementally
+     */
+    public synchronized List<Entry> read(long from, int max) throws IOException {
+        scan(Query.builder().build());
+        List<Entry> read = new ArrayList<>();
+        for (long i = from; i < verifiedEntries && read.size() < max; i++) {
+            read.add(entry(i));
+        }
+        return read;
+    }
+
+    /**
+     * Number of entries, verified or not
+     */
+    public synchronized long size() throws IOException {
+        open();
+        refresh();
+        return (entries.size() - HEADER_BYTES) / ENTRY_BYTES;
+    }
+
+    /**
+     * Throws the index away and indexes the stored reports again, oldest first: the crash-*.json
+     * (and gzipped crash-*.json.gz) files in the directory and the reports ReportCompactor packed into bundles, timed by their
+     * modification time. Reports whose frames live in the BacktraceStore next to them are resolved
+     * first, so they keep their fingerprint. The TermIndex, if any, is rebuilt along. Returns the number of reports indexed.
+     * Runs under the index lock, appends from other processes wait for it and then go to the new index.
+     */
+    public synchronized long rebuild() throws IOException {
+        open();
+        try (FileLock ignored = lock.lock()) {
+            return rebuildLocked();
+        }
+    }
+
+    /**
+     * Writes the index of the stored reports to .rebuild files and moves them over the index files
+     */
+    private long rebuildLocked() throws IOException {
+        List<Indexed> rebuilt = readStoredReports();
+        closeChannels();
+        try {
+            openChannels(REBUILD_SUFFIX, true);
+            writeFully(entries, header(), 0);
+            appendLocked(rebuilt.stream().map(Indexed::entry).toList());
+            for (FileChannel channel : new FileChannel[] {entries, names, locations}) {
+                channel.force(true);
+            }
+            closeChannels();
+            for (String file : List.of(NAMES_FILE, LOCATIONS_FILE, INDEX_FILE)) {
+                Files.move(directory.resolve(file + REBUILD_SUFFIX), directory.resolve(file),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            generation = readGeneration() + 1;
+            writeFully(lock, ByteBuffer.allocate(Long.BYTES).putLong(0, generation), 0);
+            lock.force(true);
+        } finally {
+            closeChannels();
+            openChannels("", false);
+        }
+        if (terms != null) {
+            terms.clear();
+            terms.addAll(0, rebuilt.stream().map(Indexed::terms).toList());
+        }
+        log.info("Rebuilt crash index in {} from {} reports", directory, rebuilt.size());
+        return rebuilt.size();
+    }
+
+    /**
+     * The stored reports, oldest first
+     */
+    private List<Indexed> readStoredReports() throws IOException {
+        JsonReportDecoder decoder = new JsonReportDecoder();
+        List<Indexed> rebuilt = new ArrayList<>();
+        try (BacktraceStore backtraces = new BacktraceStore(directory.resolve(BacktraceStore.DIRECTORY_NAME))) {
+            for (Path file : list(directory, "crash-*{.json,.json.gz}")) {
+                try {
+                    rebuilt.add(indexed(backtraces.resolve(decoder.decode(json(file.toString(), Files.readAllBytes(file)))),
+                            Files.getLastModifiedTime(file).toMillis(), file));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable crash report {}, error = {}", file, e.getMessage());
+                }
+            }
+            for (Path bundle : list(directory.resolve(ReportCompactor.BUNDLE_DIRECTORY), "crash-*.zip")) {
+                try (ZipFile zip = new ZipFile(bundle.toFile())) {
+                    Enumeration<? extends ZipEntry> packed = zip.entries();
+                    while (packed.hasMoreElements()) {
+                        ZipEntry report = packed.nextElement();
+                        try (InputStream in = zip.getInputStream(report)) {
+                            rebuilt.add(indexed(backtraces.resolve(decoder.decode(json(report.getName(), in.readAllBytes()))),
+                                    report.getLastModifiedTime().toMillis(), directory.resolve(report.getName())));
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable crash report bundle {}, error = {}", bundle, e.getMessage());
+                }
+            }
+        }
+        rebuilt.sort(Comparator.comparing((Indexed indexed) -> indexed.entry().timestamp())
+                .thenComparing(indexed -> indexed.entry().location()));
+        return rebuilt;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannels();
+        if (lock != null) {
+            lock.close();
+            lock = null;
+        }
+        if (terms != null) {
+            terms.close();
+        }
+    }
+
+    private Indexed indexed(CrashReport report, long modified, Path location) {
+        Entry entry = new Entry(CrashFingerprint.of(report), Instant.ofEpochMilli(modified),
+                methodName(report.getMethod()), CrashFingerprint.exceptionClass(report.getCause()),
+                location.toAbsolutePath().toString());
+        return new Indexed(entry, terms != null ? CrashTerms.of(report, SecretRedactor.DEFAULT) : List.of());
+    }
+
+    private static byte[] json(String name, byte[] stored) throws IOException {
+        if (!name.endsWith(".gz")) {
+            return stored;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static List<Path> list(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+                stream.forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Declaring class and method name, as in com.example.Service.handle
+     */
+    public static String methodName(CrashReport.MethodInfo method) {
+        return method == null ? null : method.getClassName() + "." + method.getMethodName();
+    }
+
+    private void open() throws IOException {
+        if (lock != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        lock = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileLock ignored = lock.lock()) {
+            generation = readGeneration();
+            openChannels("", false);
+            if (entries.size() < HEADER_BYTES) {
+                writeFully(entries, header(), 0);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                entries.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    log.warn("Crash index {} has an unknown format, rebuilding it", directory.resolve(INDEX_FILE));
+                    rebuildLocked();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void openChannels(String suffix, boolean truncate) throws IOException {
+        StandardOpenOption[] options = truncate
+                ? new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        entries = FileChannel.open(directory.resolve(INDEX_FILE + suffix), options);
+        names = FileChannel.open(directory.resolve(NAMES_FILE + suffix), options);
+        locations = FileChannel.open(directory.resolve(LOCATIONS_FILE + suffix), options);
+        nameRefs.clear();
+        namesByRef.clear();
+        namesLoaded = 0;
+        mapped = null;
+        verifiedEntries = 0;
+    }
+
+    private void closeChannels() throws IOException {
+        for (FileChannel channel : new FileChannel[] {entries, names, locations}) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        entries = null;
+        names = null;
+        locations = null;
+        mapped = null;
+    }
+
+    /**
+     * Generation of the index files, bumped by every rebuild; 0 before the first
+     */
+    private long readGeneration() throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+        return lock.read(value, 0) == Long.BYTES ? value.getLong(0) : 0;
+    }
+
+    /**
+     * Reopens the index files after another process rebuilt them, under the lock
+     */
+    private void refresh() throws IOException {
+        if (readGeneration() != generation) {
+            try (FileLock ignored = lock.lock()) {
+                reopenIfRebuilt();
+            }
+        }
+    }
+
+    private void reopenIfRebuilt() throws IOException {
+        long current = readGeneration();
+        if (current != generation) {
+            closeChannels();
+            openChannels("", false);
+            generation = current;
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).clear();
+    }
+
+    /**
+     * Appends entries at the end of the index; the caller holds the lock
+     */
+    private long appendLocked(Collection<Entry> batch) throws IOException {
+        loadNames();
+        long count = (entries.size() - HEADER_BYTES) / ENTRY_BYTES;
+        long first = count;
+        long last = count > 0 ? readTimestamp(count - 1) : Long.MIN_VALUE;
+        long position = HEADER_BYTES + count * ENTRY_BYTES;
+        ByteBuffer chunk = ByteBuffer.allocate(Math.min(batch.size(), WRITE_CHUNK_ENTRIES) * ENTRY_BYTES);
+        CRC32C crc = new CRC32C();
+        for (Entry entry : batch) {
+            last = Math.max(last, entry.timestamp().toEpochMilli());
+            int start = chunk.position();
+            chunk.putLong(entry.fingerprint())
+                    .putLong(last)
+                    .putInt(nameRef(entry.method()))
+                    .putInt(nameRef(entry.exceptionClass()))
+                    .putLong(locationRef(entry.location()));
+            crc.reset();
+            crc.update(chunk.array(), start, CHECKSUMMED_BYTES);
+            chunk.putInt((int) crc.getValue()).putInt(0);
+            if (!chunk.hasRemaining()) {
+                position += writeFully(entries, chunk.flip(), position);
+                chunk.clear();
+            }
+        }
+        if (chunk.position() > 0) {
+            writeFully(entries, chunk.flip(), position);
+        }
+        return first;
+    }
+
+    /**
+     * Maps any new entries, verifies them and narrows the query's time range by binary search
+     */
+    private Scan scan(Query query) throws IOException {
+        open();
+        refresh();
+        loadNames();
+        long count = (entries.size() - HEADER_BYTES) / ENTRY_BYTES;
+        if (mapped == null || count > verifiedEntries) {
+            mapped = entries.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + count * ENTRY_BYTES);
+            if (!verify(verifiedEntries, count)) {
+                try (FileLock ignored = lock.lock()) {
+                    // Without the lock a rebuild or an append in progress can look like damage
+                    reopenIfRebuilt();
+                    loadNames();
+                    count = (entries.size() - HEADER_BYTES) / ENTRY_BYTES;
+                    mapped = entries.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + count * ENTRY_BYTES);
+                    if (!verify(verifiedEntries, count)) {
+                        log.warn("Crash index {} is damaged, rebuilding it", directory.resolve(INDEX_FILE));
+                        rebuildLocked();
+                    }
+                }
+                return scan(query);
+            }
+            verifiedEntries = count;
+        }
+
+        int method = NONE;
+        int exception = NONE;
+        if (query.method() != null) {
+            Integer ref = nameRefs.get(query.method());
+            if (ref == null) {
+                return Scan.EMPTY;
+            }
+            method = ref;
+        }
+        if (query.exceptionClass() != null) {
+            Integer ref = nameRefs.get(query.exceptionClass());
+            if (ref == null) {
+                return Scan.EMPTY;
+            }
+            exception = ref;
+        }
+        long from = query.from() != null ? lowerBound(query.from().toEpochMilli(), verifiedEntries) : 0;
+        long to = query.to() != null ? lowerBound(query.to().toEpochMilli(), verifiedEntries) : verifiedEntries;
+        return new Scan(from, to, query.fingerprint(), method, exception);
+    }
+
+    private Entry entry(long index) throws IOException {
+        int offset = offset(index);
+        return new Entry(mapped.getLong(offset), Instant.ofEpochMilli(mapped.getLong(offset + 8)),
+                namesByRef.get(mapped.getInt(offset + 16)), namesByRef.get(mapped.getInt(offset + 20)),
+                readLocation(mapped.getLong(offset + 24)));
+    }
+
+    private boolean verify(long from, long to) {
+        CRC32C crc = new CRC32C();
+        for (long i = from; i < to; i++) {
+            int offset = offset(i);
+            crc.reset();
+            crc.update(mapped.slice(offset, CHECKSUMMED_BYTES));
+            if ((int) crc.getValue() != mapped.getInt(offset + CHECKSUMMED_BYTES)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * First entry with a timestamp at or after the given one
+     */
+    private long lowerBound(long timestamp, long count) {
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (mapped.getLong(offset(middle) + 8) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Loads names appended since the last call, by this or another process
+     */
+    private void loadNames() throws IOException {
+        long size = names.size();
+        while (namesLoaded + Integer.BYTES <= size) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            names.read(length, namesLoaded);
+            int bytes = length.getInt(0);
+            if (bytes < 0 || namesLoaded + Integer.BYTES + bytes > size) {
+                break;
+            }
+            ByteBuffer value = ByteBuffer.allocate(bytes);
+            names.read(value, namesLoaded + Integer.BYTES);
+            String name = new String(value.array(), StandardCharsets.UTF_8);
+            nameRefs.putIfAbsent(name, (int) namesLoaded);
+            namesByRef.put((int) namesLoaded, name);
+            namesLoaded += Integer.BYTES + bytes;
+        }
+    }
+
+    private int nameRef(String name) throws IOException {
+        if (name == null) {
+            return NONE;
+        }
+        Integer ref = nameRefs.get(name);
+        if (ref != null) {
+            return ref;
+        }
+        int offset = (int) names.size();
+        writeFully(names, record(name), offset);
+        nameRefs.put(name, offset);
+        namesByRef.put(offset, name);
+        namesLoaded = names.size();
+        return offset;
+    }
+
+    private long locationRef(String location) throws IOException {
+        if (location == null) {
+            return NONE;
+        }
+        long offset = locations.size();
+        writeFully(locations, record(location), offset);
+        return offset;
+    }
+
+    private String readLocation(long ref) throws IOException {
+        if (ref == NONE) {
+            return null;
+        }
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        locations.read(length, ref);
+        ByteBuffer value = ByteBuffer.allocate(length.getInt(0));
+        locations.read(value, ref + Integer.BYTES);
+        return new String(value.array(), StandardCharsets.UTF_8);
+    }
+
+    private long readTimestamp(long index) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+        entries.read(timestamp, offset(index) + 8);
+        return timestamp.getLong(0);
+    }
+
+    private static ByteBuffer record(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static int offset(long index) {
+        return (int) (HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    /**
+     * One indexed crash; method is "class.method", location is where the report was stored, if anywhere
+     */
+    public record Entry(long fingerprint, Instant timestamp, String method, String exceptionClass, String location) {
+    }
+
+    /**
+     * Conjunction of the set criteria; from is inclusive, to exclusive, unset fields match everything
+     */
+    @Builder
+    public record Query(Long fingerprint, String method, String exceptionClass, Instant from, Instant to) {
+    }
+
+    /**
+     * An entry and its terms, taken from a report before it is written
+     */
+    public record Indexed(Entry entry, List<String> terms) {
+    }
+
+    private record Scan(long from, long to, Long fingerprint, int method, int exception) {
+        static final Scan EMPTY = new Scan(0, 0, null, NONE, NONE);
+
+        boolean matches(MappedByteBuffer mapped, long index) {
+            int offset = offset(index);
+            return (fingerprint == null || mapped.getLong(offset) == fingerprint)
+                    && (method == NONE || mapped.getInt(offset + 16) == method)
+                    && (exception == NONE || mapped.getInt(offset + 20) == exception);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.pants.humanpanic.index;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.SecretRedactor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Terms TermIndex keeps for a report: the lowercase words of its cause and frame class names,
+ * camelCase words also split into their parts (ConnectionResetException gives
+ * connectionresetexception, connection, reset and exception), and its version as dotted prefixes
+ * (2.3.1 gives version:2, version:2.3 and version:2.3.1). Numbers and single letters are left out,
+ * they only make the postings longer. The cause is tokenized after the SecretRedactor ran over it,
+ * since a RedactingReportSink only removes its secrets once the terms were taken.
+ */
+final class CrashTerms {
+
+    static final String VERSION_PREFIX = "version:";
+    static final int MAX_TERM_CHARS = 64;
+    static final int MAX_TERMS = 512;
+
+    private CrashTerms() {
+    }
+
+    static List<String> of(CrashReport report, SecretRedactor redactor) {
+        Set<String> terms = new LinkedHashSet<>();
+        String cause = report.getCause();
+        words(cause != null ? redactor.redact(cause) : null, true, terms);
+        if (report.getBacktrace() != null) {
+            for (CrashReport.StackFrame frame : report.getBacktrace()) {
+                if (frame != null) {
+                    words(frame.getClassName(), true, terms);
+                }
+            }
+        }
+        Map<String, String> applicationInfo = report.getApplicationInfo();
+        String version = applicationInfo != null ? applicationInfo.get("version") : null;
+        version(version != null ? version : report.getVersion(), terms);
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Terms all of which a match must have. A camelCase word stands for its parts, so
+     * "ConnectionReset" also finds "Connection reset"; version:2.3 is taken as is.
+     */
+    static List<String> query(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : text.trim().split("\\s+")) {
+                if (word.regionMatches(true, 0, VERSION_PREFIX, 0, VERSION_PREFIX.length())) {
+                    if (word.length() > VERSION_PREFIX.length()) {
+                        terms.add(word.toLowerCase(Locale.ROOT));
+                    }
+                } else {
+                    words(word, false, terms);
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static void version(String version, Set<String> terms) {
+        if (version == null || version.isBlank()) {
+            return;
+        }
+        String term = VERSION_PREFIX + version.trim().toLowerCase(Locale.ROOT);
+        for (int dot = term.indexOf('.'); dot > 0; dot = term.indexOf('.', dot + 1)) {
+            add(term.substring(0, dot), terms);
+        }
+        add(term, terms);
+    }
+
+    /**
+     * Adds the letter and digit runs of text; indexing adds a camelCase run and its parts, a query only its parts
+     */
+    private static void words(String text, boolean indexing, Set<String> terms) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                word(text, start, i, indexing, terms);
+                start = -1;
+            }
+        }
+    }
+
+    private static void word(String text, int start, int end, boolean indexing, Set<String> terms) {
+        int parts = 0;
+        int partStart = start;
+        for (int i = start + 1; i <= end; i++) {
+            if (i == end || isPartStart(text, i, end)) {
+                parts++;
+                if (parts > 1 || i < end) {
+                    add(text.substring(partStart, i), terms);
+                }
+                partStart = i;
+            }
+        }
+        if (parts == 1 || indexing) {
+            add(text.substring(start, end), terms);
+        }
+    }
+
+    /**
+     * Whether a new camelCase part starts at index: aB, or the B of ABc as in HTTPServer
+     */
+    private static boolean isPartStart(String text, int index, int end) {
+        char current = text.charAt(index);
+        char previous = text.charAt(index - 1);
+        if (!Character.isUpperCase(current)) {
+            return false;
+        }
+        return Character.isLowerCase(previous)
+                || (Character.isUpperCase(previous) && index + 1 < end && Character.isLowerCase(text.charAt(index + 1)));
+    }
+
+    private static void add(String term, Set<String> terms) {
+        if (term.length() < 2 || term.length() > MAX_TERM_CHARS || terms.size() >= MAX_TERMS) {
+            return;
+        }
+        boolean digits = true;
+        for (int i = 0; i < term.length() && digits; i++) {
+            digits = Character.isDigit(term.charAt(i));
+        }
+        if (!digits) {
+            terms.add(term.toLowerCase(Locale.ROOT));
+        }
+    }
+}
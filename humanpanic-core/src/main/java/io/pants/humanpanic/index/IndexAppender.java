@@ -0,0 +1,181 @@
+package io.pants.humanpanic.index;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends to a CrashIndex on a thread of its own, so a crashing thread never opens, rebuilds or
+ * waits for the index.
+ *
+ * offer only enqueues; when the queue is full or the appender is closed the entry is dropped and
+ * counted. The appender thread takes whatever has queued up (at most MAX_BATCH entries) and
+ * appends it with CrashIndex.tryAppend. While another instance or process holds the index lock,
+ * for a rebuild, a janitor or a compactor pass, the batch is kept and retried every RETRY_MS.
+ * Pending entries are appended on close and from a shutdown hook, giving up after
+ * DRAIN_TIMEOUT_MS. The index itself stays open, it belongs to the caller.
+ */
+@Slf4j
+public class IndexAppender implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int MAX_BATCH = 256;
+    public static final String THREAD_NAME = "humanpanic-indexer";
+    private static final long POLL_MS = 50;
+    private static final long RETRY_MS = 20;
+    private static final long DRAIN_TIMEOUT_MS = 2000;
+
+    @Getter
+    private final CrashIndex index;
+    private final BlockingQueue<CrashIndex.Indexed> queue;
+    private final Thread appender;
+    private final Thread shutdownHook;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Entries accepted by offer and entries appended or given up on, guarded by this
+     */
+    private long offered;
+    private long finished;
+    private boolean closed;
+
+    public IndexAppender(CrashIndex index) {
+        this(index, DEFAULT_CAPACITY);
+    }
+
+    public IndexAppender(CrashIndex index, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.index = index;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.appender = new Thread(this::run, THREAD_NAME);
+        this.appender.setDaemon(true);
+        this.appender.start();
+        this.shutdownHook = new Thread(this::drain, THREAD_NAME + "-drain");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues the entry without blocking; false when it was dropped
+     */
+    public boolean offer(CrashIndex.Indexed indexed) {
+        boolean open;
+        boolean queued;
+        synchronized (this) {
+            open = !closed;
+            queued = open && queue.offer(indexed);
+            if (queued) {
+                offered++;
+            }
+        }
+        if (!queued) {
+            dropped.incrementAndGet();
+            log.warn(open ? "Crash index queue for {} is full, crash not indexed"
+                    : "Crash index appender for {} is closed, crash not indexed", index.getDirectory());
+        }
+        return queued;
+    }
+
+    /**
+     * Waits until every entry offered so far has been appended or given up on; false on timeout
+     */
+    public synchronized boolean await(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long target = offered;
+        while (finished < target) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return false;
+            }
+            wait(remainingMs);
+        }
+        return true;
+    }
+
+    /**
+     * Entries dropped because the queue was full, the appender was closed or appending failed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        drain();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down
+        }
+    }
+
+    private void drain() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            appender.join(DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (appender.isAlive()) {
+            log.warn("Timed out appending to crash index {}, {} crashes not indexed", index.getDirectory(), queue.size());
+        }
+    }
+
+    private synchronized boolean done() {
+        return closed && queue.isEmpty();
+    }
+
+    private void run() {
+        List<CrashIndex.Indexed> batch = new ArrayList<>(MAX_BATCH);
+        while (!batch.isEmpty() || !done()) {
+            try {
+                if (batch.isEmpty()) {
+                    CrashIndex.Indexed first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                if (append(batch)) {
+                    finish(batch.size());
+                    batch.clear();
+                } else {
+                    Thread.sleep(RETRY_MS);
+                }
+            } catch (InterruptedException e) {
+                // Never interrupted by this class, keep appending
+            }
+        }
+    }
+
+    /**
+     * False while the lock is held elsewhere; a batch that fails to append is dropped
+     */
+    private boolean append(List<CrashIndex.Indexed> batch) {
+        try {
+            return index.tryAppend(batch) >= 0;
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to index {} crashes in {}, error = {}", batch.size(), index.getDirectory(), e.getMessage());
+            dropped.addAndGet(batch.size());
+            return true;
+        }
+    }
+
+    private synchronized void finish(int count) {
+        finished += count;
+        notifyAll();
+    }
+}
@@ -0,0 +1,310 @@
+package io.pants.humanpanic.index;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs report files older than minAge into one compressed bundle per day,
+ * bundles/crash-&lt;yyyy-MM-dd&gt;.zip in the index directory.
+ *
+ * Every report is its own deflated zip entry, and the zip central directory at the end of the
+ * bundle is the footer index: read() seeks straight to one report without inflating the others.
+ * Reports to pack are taken from the CrashIndex in order and grouped by the day of their own
+ * timestamp, up to the first entry whose day is not yet entirely older than minAge. The position
+ * reached is kept in compaction.position, so every run only looks at entries it has not handled
+ * yet. A RetentionJanitor counts the bundles against its quotas and deletes them when they age out.
+ *
+ * A bundle is written to a temp file, forced to disk and moved into place before the loose files
+ * are deleted. After a crash in between, the next run finds the files already bundled and only
+ * deletes them. Index entries keep pointing at the original locations; read() resolves them.
+ */
+@Slf4j
+public class ReportCompactor implements Closeable {
+
+    public static final String THREAD_NAME = "humanpanic-compactor";
+    public static final String BUNDLE_DIRECTORY = "bundles";
+    public static final Duration DEFAULT_MIN_AGE = Duration.ofDays(7);
+    public static final Duration DEFAULT_INTERVAL = Duration.ofHours(1);
+    private static final String POSITION_FILE = "compaction.position";
+    private static final int READ_BATCH = 10_000;
+    /**
+     * Entries grouped in memory before their days are packed and the position is saved
+     */
+    private static final int MAX_PENDING = 100_000;
+
+    private final CrashIndex index;
+    @Getter
+    private final Path bundleDirectory;
+    private final Duration minAge;
+    private final int level;
+    private final ZoneId zone;
+    private final Duration interval;
+    private final Clock clock;
+
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Only the index is required. level is a Deflater level (default BEST_COMPRESSION) and zone
+     * decides where days begin (default the system zone).
+     */
+    @Builder
+    private ReportCompactor(CrashIndex index, Duration minAge, Integer level, ZoneId zone, Duration interval,
+                            Clock clock) {
+        if (index == null) {
+            throw new IllegalArgumentException("index is required");
+        }
+        this.index = index;
+        this.bundleDirectory = index.getDirectory().resolve(BUNDLE_DIRECTORY);
+        this.minAge = minAge != null ? minAge : DEFAULT_MIN_AGE;
+        this.level = level != null ? level : Deflater.BEST_COMPRESSION;
+        this.zone = zone != null ? zone : ZoneId.systemDefault();
+        this.interval = interval != null ? interval : DEFAULT_INTERVAL;
+        this.clock = clock != null ? clock : Clock.systemUTC();
+    }
+
+    /**
+     * Runs the compactor every interval on a low-priority daemon thread and returns the thread
+     */
+    public synchronized Thread start() {
+        Thread compactor = new Thread(this::loop, THREAD_NAME);
+        compactor.setDaemon(true);
+        compactor.setPriority(Thread.MIN_PRIORITY);
+        thread = compactor;
+        compactor.start();
+        return compactor;
+    }
+
+    /**
+     * Bundles every complete day older than minAge that was not bundled yet. Returns the number of reports packed.
+     */
+    public synchronized int runOnce() throws IOException {
+        long cursor = readPosition();
+        if (index.size() < cursor) {
+            // The index was rebuilt, its entries were renumbered
+            cursor = 0;
+        }
+        long cutoff = clock.millis() - minAge.toMillis();
+        // Index order is only roughly time order: a report is stamped before it is written and
+        // indexed, and other processes append to the same index. Every entry goes to the bundle of
+        // its own day, and a day that is packed again later is merged into its existing bundle.
+        Map<LocalDate, List<CrashIndex.Entry>> days = new TreeMap<>();
+        int pending = 0;
+        int packed = 0;
+        while (!closed) {
+            List<CrashIndex.Entry> entries = index.read(cursor + pending, READ_BATCH);
+            boolean reachedCutoff = false;
+            for (CrashIndex.Entry entry : entries) {
+                LocalDate day = entry.timestamp().atZone(zone).toLocalDate();
+                if (day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() > cutoff) {
+                    // Entries after this one wait for a later run, whichever day they belong to
+                    reachedCutoff = true;
+                    break;
+                }
+                days.computeIfAbsent(day, key -> new ArrayList<>()).add(entry);
+                pending++;
+            }
+            boolean done = reachedCutoff || entries.size() < READ_BATCH;
+            if (done || pending >= MAX_PENDING) {
+                for (Map.Entry<LocalDate, List<CrashIndex.Entry>> day : days.entrySet()) {
+                    if (closed) {
+                        return packed;
+                    }
+                    packed += compact(day.getKey(), day.getValue());
+                }
+                cursor += pending;
+                writePosition(cursor);
+                days.clear();
+                pending = 0;
+            }
+            if (done) {
+                break;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * The stored report of an index entry, from its file or from the bundle it was packed into;
+     * null when it is neither
+     */
+    public byte[] read(CrashIndex.Entry entry) throws IOException {
+        if (entry.location() == null) {
+            return null;
+        }
+        Path file = Paths.get(entry.location());
+        if (Files.exists(file)) {
+            return Files.readAllBytes(file);
+        }
+        Path bundle = bundlePath(entry.timestamp().atZone(zone).toLocalDate());
+        if (!Files.exists(bundle)) {
+            return null;
+        }
+        try (ZipFile zip = new ZipFile(bundle.toFile())) {
+            ZipEntry packed = zip.getEntry(file.getFileName().toString());
+            if (packed == null) {
+                return null;
+            }
+            try (InputStream in = zip.getInputStream(packed)) {
+                return in.readAllBytes();
+            }
+        }
+    }
+
+    public Path bundlePath(LocalDate day) {
+        return bundleDirectory.resolve("crash-" + day + ".zip");
+    }
+
+    /**
+     * Stops the background thread, an ongoing run stops after the day it is packing
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread compactor = thread;
+        if (compactor != null) {
+            compactor.interrupt();
+            try {
+                compactor.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void loop() {
+        while (!closed) {
+            try {
+                int packed = runOnce();
+                if (packed > 0) {
+                    log.info("Packed {} crash reports into bundles in {}", packed, bundleDirectory);
+                }
+            } catch (IOException e) {
+                log.error("Crash report compaction failed, error = {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the day's loose report files to its bundle, then deletes them
+     */
+    private int compact(LocalDate day, List<CrashIndex.Entry> entries) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (CrashIndex.Entry entry : entries) {
+            if (entry.location() != null) {
+                Path file = Paths.get(entry.location());
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            return 0;
+        }
+
+        Files.createDirectories(bundleDirectory);
+        Path bundle = bundlePath(day);
+        Path temp = bundle.resolveSibling(bundle.getFileName() + ".tmp");
+        Set<String> names = new HashSet<>();
+        int added = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(temp))) {
+            zip.setLevel(level);
+            if (Files.exists(bundle)) {
+                copyBundle(bundle, zip, names);
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!names.add(name)) {
+                    continue;
+                }
+                ZipEntry packed = new ZipEntry(name);
+                packed.setLastModifiedTime(Files.getLastModifiedTime(file));
+                zip.putNextEntry(packed);
+                Files.copy(file, zip);
+                zip.closeEntry();
+                added++;
+            }
+            zip.setComment("HumanPanic crash reports of " + day);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, bundle, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        return added;
+    }
+
+    private static void copyBundle(Path bundle, ZipOutputStream zip, Set<String> names) throws IOException {
+        try (ZipFile existing = new ZipFile(bundle.toFile())) {
+            Enumeration<? extends ZipEntry> packed = existing.entries();
+            while (packed.hasMoreElements()) {
+                ZipEntry entry = packed.nextElement();
+                names.add(entry.getName());
+                ZipEntry copy = new ZipEntry(entry.getName());
+                copy.setLastModifiedTime(entry.getLastModifiedTime());
+                zip.putNextEntry(copy);
+                try (InputStream in = existing.getInputStream(entry)) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private long readPosition() throws IOException {
+        Path file = bundleDirectory.resolve(POSITION_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed compaction position {}", file);
+            return 0;
+        }
+    }
+
+    private void writePosition(long cursor) throws IOException {
+        Files.createDirectories(bundleDirectory);
+        Path temp = bundleDirectory.resolve(POSITION_FILE + ".tmp");
+        Files.writeString(temp, cursor + "\n", StandardCharsets.UTF_8);
+        Files.move(temp, bundleDirectory.resolve(POSITION_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
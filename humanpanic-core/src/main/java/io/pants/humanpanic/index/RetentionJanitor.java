@@ -0,0 +1,414 @@
+package io.pants.humanpanic.index;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Background service that deletes old report files so crash-reports cannot fill the disk.
+ *
+ * Policies, each optional: maxTotalBytes, maxCount, maxAge and keepPerFingerprint (the newest N
+ * reports of each failure). Report files are learned from the CrashIndex incrementally: every run
+ * reads only the entries appended since the previous one and stats each new report once, so the
+ * directory is never listed. Whenever a policy is violated the oldest reports go first.
+ *
+ * An entry can be indexed before its file exists (behind an AsyncReportSink or a group commit).
+ * Such entries are kept pending and stat'ed again on every run until the file shows up, and are
+ * only given up once they are PENDING_TIMEOUT old.
+ *
+ * Bundles a ReportCompactor wrote to bundles/ count too: every run lists that directory (one file
+ * per day) and opens the bundles that changed since the previous run, counting their bytes and
+ * reports and dropping the loose files they took in. A bundle is as old as the newest report in
+ * it and is deleted as a whole, in age order with the loose files; keepPerFingerprint only
+ * applies to loose files.
+ *
+ * Deletions are paced to at most deletesPerSecond, a backlog is worked off over several runs
+ * instead of in one I/O burst. Only report files are deleted; their index entries stay, so crash
+ * counts keep covering the full history.
+ */
+@Slf4j
+public class RetentionJanitor implements Closeable {
+
+    public static final String THREAD_NAME = "humanpanic-retention";
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(1);
+    public static final int DEFAULT_DELETES_PER_SECOND = 50;
+    public static final Duration PENDING_TIMEOUT = Duration.ofHours(1);
+    private static final int READ_BATCH = 10_000;
+
+    private final CrashIndex index;
+    private final Path bundleDirectory;
+    private final Long maxTotalBytes;
+    private final Long maxCount;
+    private final Duration maxAge;
+    private final Integer keepPerFingerprint;
+    private final long pauseNanos;
+    private final Duration interval;
+    private final Clock clock;
+
+    /**
+     * Live report files, oldest first; deleted ones are skipped lazily
+     */
+    private final ArrayDeque<Report> reports = new ArrayDeque<>();
+    private final Map<Long, ArrayDeque<Report>> byFingerprint = new HashMap<>();
+    private final ArrayDeque<Report> excess = new ArrayDeque<>();
+    /**
+     * Bundles by path, as of the last listing of bundleDirectory
+     */
+    private final Map<Path, Report> bundles = new HashMap<>();
+    /**
+     * Entries whose file did not exist yet when they were read, in index order
+     */
+    private final ArrayDeque<CrashIndex.Entry> pending = new ArrayDeque<>();
+    private long cursor;
+    private long totalBytes;
+    private long count;
+    private long deleted;
+
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Only the index is required; policies left unset are not enforced
+     */
+    @Builder
+    private RetentionJanitor(CrashIndex index, Long maxTotalBytes, Long maxCount, Duration maxAge,
+                             Integer keepPerFingerprint, Integer deletesPerSecond, Duration interval, Clock clock) {
+        if (index == null) {
+            throw new IllegalArgumentException("index is required");
+        }
+        this.index = index;
+        this.bundleDirectory = index.getDirectory().resolve(ReportCompactor.BUNDLE_DIRECTORY);
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxCount = maxCount;
+        this.maxAge = maxAge;
+        this.keepPerFingerprint = keepPerFingerprint;
+        this.pauseNanos = TimeUnit.SECONDS.toNanos(1)
+                / (deletesPerSecond != null ? deletesPerSecond : DEFAULT_DELETES_PER_SECOND);
+        this.interval = interval != null ? interval : DEFAULT_INTERVAL;
+        this.clock = clock != null ? clock : Clock.systemUTC();
+    }
+
+    /**
+     * Runs the janitor every interval on a low-priority daemon thread and returns the thread
+     */
+    public synchronized Thread start() {
+        Thread janitor = new Thread(this::loop, THREAD_NAME);
+        janitor.setDaemon(true);
+        janitor.setPriority(Thread.MIN_PRIORITY);
+        thread = janitor;
+        janitor.start();
+        return janitor;
+    }
+
+    /**
+     * Catches up with the index and deletes until every policy holds. Returns the number of files deleted.
+     */
+    public synchronized int runOnce() throws IOException {
+        catchUp();
+        int removed = 0;
+        while (!closed) {
+            Report victim = nextVictim();
+            if (victim == null) {
+                break;
+            }
+            if (removed > 0) {
+                LockSupport.parkNanos(pauseNanos);
+            }
+            if (delete(victim)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Deleted {} old crash reports, {} left using {} bytes", removed, count, totalBytes);
+        }
+        return removed;
+    }
+
+    public synchronized long getTrackedCount() {
+        return count;
+    }
+
+    public synchronized long getTrackedBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getDeletedCount() {
+        return deleted;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops the background thread, an ongoing run stops before its next deletion
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread janitor = thread;
+        if (janitor != null) {
+            janitor.interrupt();
+            try {
+                janitor.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void loop() {
+        while (!closed) {
+            try {
+                runOnce();
+            } catch (IOException e) {
+                log.error("Crash report retention failed, error = {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tracks the report files of index entries appended since the last run, then the bundles
+     */
+    private void catchUp() throws IOException {
+        if (index.size() < cursor) {
+            // The index was rebuilt, start the bookkeeping over
+            reports.clear();
+            byFingerprint.clear();
+            excess.clear();
+            pending.clear();
+            bundles.clear();
+            cursor = 0;
+            totalBytes = 0;
+            count = 0;
+        }
+        for (int i = pending.size(); i > 0; i--) {
+            track(pending.pollFirst());
+        }
+        List<CrashIndex.Entry> entries;
+        do {
+            entries = index.read(cursor, READ_BATCH);
+            cursor += entries.size();
+            for (CrashIndex.Entry entry : entries) {
+                track(entry);
+            }
+        } while (entries.size() == READ_BATCH);
+        scanBundles();
+    }
+
+    /**
+     * Tracks new and rewritten bundles and forgets removed ones; loose files packed into a
+     * changed bundle stop being counted on their own
+     */
+    private void scanBundles() throws IOException {
+        Set<Path> listed = new HashSet<>();
+        Set<String> packed = new HashSet<>();
+        if (Files.isDirectory(bundleDirectory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(bundleDirectory, "crash-*.zip")) {
+                for (Path path : stream) {
+                    if (trackBundle(path, packed)) {
+                        listed.add(path);
+                    }
+                }
+            }
+        }
+        for (Report bundle : new ArrayList<>(bundles.values())) {
+            if (!listed.contains(bundle.path)) {
+                forget(bundle);
+            }
+        }
+        if (!packed.isEmpty()) {
+            for (Report report : reports) {
+                if (!report.deleted && packed.contains(report.path.getFileName().toString())) {
+                    forget(report);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the bundle unless it is unchanged since the last run and adds the names of a changed
+     * bundle's reports to packed; false when it vanished
+     */
+    private boolean trackBundle(Path path, Set<String> packed) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Deleted since it was listed
+            return false;
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        Report known = bundles.get(path);
+        if (known != null && known.size == attributes.size() && known.modified == modified) {
+            return true;
+        }
+        int reportCount = 0;
+        long newest = 0;
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                reportCount++;
+                newest = Math.max(newest, entry.getLastModifiedTime() != null
+                        ? entry.getLastModifiedTime().toMillis() : modified);
+                if (!reports.isEmpty()) {
+                    packed.add(entry.getName());
+                }
+            }
+        } catch (IOException e) {
+            // Being replaced, keep what was counted before
+            log.warn("Failed to read crash report bundle {}, error = {}", path, e.getMessage());
+            return known != null;
+        }
+        if (known != null) {
+            forget(known);
+        }
+        Report bundle = new Report(0, reportCount > 0 ? newest : modified, path, attributes.size(), reportCount, modified);
+        bundles.put(path, bundle);
+        totalBytes += bundle.size;
+        count += bundle.reports;
+        return true;
+    }
+
+    private void track(CrashIndex.Entry entry) {
+        if (entry.location() == null) {
+            return;
+        }
+        Path path = Paths.get(entry.location());
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (IOException e) {
+            // Not written yet, never written, or already deleted
+            if (clock.millis() - entry.timestamp().toEpochMilli() < PENDING_TIMEOUT.toMillis()) {
+                pending.addLast(entry);
+            }
+            return;
+        }
+        Report report = new Report(entry.fingerprint(), entry.timestamp().toEpochMilli(), path, size);
+        reports.addLast(report);
+        totalBytes += size;
+        count++;
+        if (keepPerFingerprint != null) {
+            ArrayDeque<Report> same = byFingerprint.computeIfAbsent(entry.fingerprint(), key -> new ArrayDeque<>());
+            same.addLast(report);
+            if (same.size() > keepPerFingerprint) {
+                excess.addLast(same.pollFirst());
+            }
+        }
+    }
+
+    private Report nextVictim() {
+        while (!excess.isEmpty()) {
+            Report report = excess.pollFirst();
+            if (!report.deleted) {
+                return report;
+            }
+        }
+        while (!reports.isEmpty() && reports.peekFirst().deleted) {
+            reports.pollFirst();
+        }
+        Report oldest = reports.peekFirst();
+        for (Report bundle : bundles.values()) {
+            if (oldest == null || bundle.timestamp < oldest.timestamp) {
+                oldest = bundle;
+            }
+        }
+        if (oldest == null) {
+            return null;
+        }
+        boolean tooOld = maxAge != null && oldest.timestamp < clock.millis() - maxAge.toMillis();
+        boolean tooMany = maxCount != null && count > maxCount;
+        boolean tooLarge = maxTotalBytes != null && totalBytes > maxTotalBytes;
+        return tooOld || tooMany || tooLarge ? oldest : null;
+    }
+
+    /**
+     * False when the file was already gone, packed into a bundle or removed by someone else
+     */
+    private boolean delete(Report report) {
+        boolean removed = false;
+        try {
+            Files.delete(report.path);
+            removed = true;
+            deleted++;
+        } catch (NoSuchFileException e) {
+            // Just stop accounting for it
+        } catch (IOException e) {
+            log.warn("Failed to delete crash report {}, error = {}", report.path, e.getMessage());
+        }
+        forget(report);
+        return removed;
+    }
+
+    private void forget(Report report) {
+        report.deleted = true;
+        totalBytes -= report.size;
+        count -= report.reports;
+        bundles.remove(report.path, report);
+        ArrayDeque<Report> same = byFingerprint.get(report.fingerprint);
+        if (same != null) {
+            same.remove(report);
+            if (same.isEmpty()) {
+                byFingerprint.remove(report.fingerprint);
+            }
+        }
+    }
+
+    private static final class Report {
+        final long fingerprint;
+        final long timestamp;
+        final Path path;
+        final long size;
+        /**
+         * 1 for a loose file, the number of entries for a bundle
+         */
+        final int reports;
+        /**
+         * Last modified time of a bundle when it was read, 0 for a loose file
+         */
+        final long modified;
+        boolean deleted;
+
+        Report(long fingerprint, long timestamp, Path path, long size) {
+            this(fingerprint, timestamp, path, size, 1, 0);
+        }
+
+        Report(long fingerprint, long timestamp, Path path, long size, int reports, long modified) {
+            this.fingerprint = fingerprint;
+            this.timestamp = timestamp;
+            this.path = path;
+            this.size = size;
+            this.reports = reports;
+            this.modified = modified;
+        }
+    }
+}
@@ -0,0 +1,671 @@
+package io.pants.humanpanic.index;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Inverted index from terms to CrashIndex entry numbers, for full-text searches over crashes
+ * without reading any report.
+ *
+ * New documents are appended to crash-terms-&lt;generation&gt;.log as [int length][int CRC32C]
+ * [long entry][terms, UTF-8, one per line] records, and kept in memory as per-term postings. Once
+ * the log passes compactLogBytes it is merged into crash-terms.postings, which holds a 32 byte
+ * header, the postings of every term as varint deltas of ascending entry numbers, and a sorted
+ * term dictionary ([varint length][UTF-8][varint offset][varint count] per term). The merge runs
+ * on a thread of its own and streams one term at a time from a snapshot of the postings and the
+ * log, writing the next generation to a temporary file without holding any lock. Under the lock
+ * it then copies the log records appended since the snapshot to the log of the next generation
+ * and moves the file into place; a query therefore reads the memory-mapped postings plus the
+ * short log tail.
+ *
+ * Appends and generation switches from several processes are serialised with a lock on
+ * crash-terms.lock; readers notice a new generation by its header. When two processes merge at
+ * once, the one that switches first wins and the other drops its file. A torn log record at the end is ignored and
+ * overwritten by the next append. Conjunctive queries intersect the postings rarest term first.
+ */
+@Slf4j
+public class TermIndex implements Closeable {
+
+    public static final String POSTINGS_FILE = "crash-terms.postings";
+    public static final String LOCK_FILE = "crash-terms.lock";
+    public static final long DEFAULT_COMPACT_LOG_BYTES = 4L * 1024 * 1024;
+    static final String LOG_PREFIX = "crash-terms-";
+    static final String LOG_SUFFIX = ".log";
+    static final int HEADER_BYTES = 32;
+    private static final int MAGIC = 0x48505458;
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String COMPACTOR_THREAD_NAME = "humanpanic-term-compactor";
+
+    @Getter
+    private final Path directory;
+    private final long compactLogBytes;
+
+    private FileChannel lock;
+    private FileChannel logChannel;
+
+    // Loaded generation of crash-terms.postings and its dictionary and mapped postings
+    private long generation = -1;
+    private Segment segment = Segment.EMPTY;
+
+    // Postings of the log records read so far
+    private final Map<String, Postings> tail = new HashMap<>();
+    private long logLoaded;
+
+    // Whether a background merge is running
+    private boolean compacting;
+
+    public TermIndex(Path directory) {
+        this(directory, DEFAULT_COMPACT_LOG_BYTES);
+    }
+
+    public TermIndex(Path directory, long compactLogBytes) {
+        if (compactLogBytes < 1) {
+            throw new IllegalArgumentException("compactLogBytes must be at least 1");
+        }
+        this.directory = directory;
+        this.compactLogBytes = compactLogBytes;
+    }
+
+    /**
+     * Indexes the terms of one entry
+     */
+    public void add(long entry, Collection<String> documentTerms) throws IOException {
+        addAll(entry, List.of(documentTerms));
+    }
+
+    /**
+     * Indexes the terms of consecutive entries, the first one being firstEntry
+     */
+    public synchronized void addAll(long firstEntry, List<? extends Collection<String>> documents) throws IOException {
+        open();
+        try (FileLock ignored = lock.lock()) {
+            refresh();
+            if (logChannel.size() > logLoaded) {
+                // A process died mid-record, overwrite the torn tail
+                logChannel.truncate(logLoaded);
+            }
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            CRC32C crc = new CRC32C();
+            long entry = firstEntry;
+            for (Collection<String> document : documents) {
+                byte[] text = String.join("\n", document).getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + Long.BYTES + text.length);
+                record.putInt(Long.BYTES + text.length).putInt(0).putLong(entry++).put(text);
+                crc.reset();
+                crc.update(record.array(), RECORD_HEADER_BYTES, Long.BYTES + text.length);
+                record.putInt(Integer.BYTES, (int) crc.getValue());
+                records.write(record.array(), 0, record.capacity());
+            }
+            writeFully(logChannel, ByteBuffer.wrap(records.toByteArray()), logLoaded);
+            readLog();
+        }
+        if (logLoaded >= compactLogBytes && !compacting) {
+            compacting = true;
+            Thread compactor = new Thread(this::compactInBackground, COMPACTOR_THREAD_NAME);
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+    }
+
+    /**
+     * Entries in [from, to) that have every one of the terms, in ascending order. No terms match nothing.
+     */
+    public synchronized long[] search(Collection<String> queryTerms, long from, long to) throws IOException {
+        if (queryTerms.isEmpty() || from >= to) {
+            return new long[0];
+        }
+        open();
+        refresh();
+        List<Cursor> cursors = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            Cursor cursor = cursor(term);
+            if (cursor.size() == 0) {
+                return new long[0];
+            }
+            cursors.add(cursor);
+        }
+        cursors.sort((a, b) -> Long.compare(a.size(), b.size()));
+
+        // Candidates from the rarest term, narrowed by each of the others
+        Cursor rarest = cursors.get(0);
+        long[] matches = new long[(int) Math.min(rarest.size(), Integer.MAX_VALUE)];
+        int found = 0;
+        long entry;
+        while ((entry = rarest.advance(from)) != Long.MAX_VALUE && entry < to) {
+            matches[found++] = entry;
+            from = entry + 1;
+        }
+        for (int c = 1; c < cursors.size() && found > 0; c++) {
+            Cursor cursor = cursors.get(c);
+            int kept = 0;
+            for (int i = 0; i < found; i++) {
+                long next = cursor.advance(matches[i]);
+                if (next == Long.MAX_VALUE) {
+                    break;
+                }
+                if (next == matches[i]) {
+                    matches[kept++] = next;
+                }
+            }
+            found = kept;
+        }
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * Number of distinct terms, compacted or not
+     */
+    public synchronized int getTermCount() throws IOException {
+        open();
+        refresh();
+        int count = segment.terms.length;
+        for (String term : tail.keySet()) {
+            if (Arrays.binarySearch(segment.terms, term) < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merges the log into the postings file now, on the calling thread and under the lock, instead
+     * of in the background once it reaches compactLogBytes
+     */
+    public synchronized void compact() throws IOException {
+        open();
+        try (FileLock ignored = lock.lock()) {
+            refresh();
+            if (!tail.isEmpty()) {
+                switchGeneration(generation + 1, writeGeneration(generation + 1, segment, tail), logLoaded);
+            }
+        }
+    }
+
+    /**
+     * Drops every term, for when the entries are renumbered
+     */
+    public synchronized void clear() throws IOException {
+        open();
+        try (FileLock ignored = lock.lock()) {
+            refresh();
+            switchGeneration(generation + 1, writeGeneration(generation + 1, Segment.EMPTY, Map.of()), logLoaded);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : new FileChannel[] {lock, logChannel}) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        lock = null;
+        logChannel = null;
+        generation = -1;
+        segment = Segment.EMPTY;
+        tail.clear();
+        logLoaded = 0;
+    }
+
+    private void open() throws IOException {
+        if (lock != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        lock = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Loads a generation written since the last call and reads log records appended since then
+     */
+    private void refresh() throws IOException {
+        long missingLog = -1;
+        long missing;
+        while ((missing = refreshGeneration(missingLog)) >= 0) {
+            missingLog = missing;
+        }
+        readLog();
+    }
+
+    /**
+     * Switches to the generation in the postings header, -1 when done. The log of a later generation
+     * is written before its postings, so a missing one means a newer generation replaced it since
+     * the header was read: its generation is returned to read the header again rather than create
+     * an empty log, unless it was already missing the time before.
+     */
+    private long refreshGeneration(long missingLog) throws IOException {
+        Path file = directory.resolve(POSTINGS_FILE);
+        long current = 0;
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("Term index " + file + " has an unknown format");
+                }
+                current = header.getLong(8);
+                if (current != generation) {
+                    load(channel, header.getLong(16), header.getInt(24));
+                }
+            }
+        }
+        if (current != generation || logChannel == null) {
+            FileChannel opened;
+            try {
+                opened = current == 0 || current == missingLog
+                        ? FileChannel.open(logPath(current), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                        : FileChannel.open(logPath(current), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (NoSuchFileException e) {
+                return current;
+            }
+            if (logChannel != null) {
+                logChannel.close();
+            }
+            generation = current;
+            logChannel = opened;
+            tail.clear();
+            logLoaded = 0;
+            if (current == 0) {
+                segment = Segment.EMPTY;
+            }
+        }
+        return -1;
+    }
+
+    private void load(FileChannel channel, long dictionaryOffset, int termCount) throws IOException {
+        MappedByteBuffer postings = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        String[] loadedTerms = new String[termCount];
+        int[] loadedOffsets = new int[termCount];
+        int[] loadedCounts = new int[termCount];
+        ByteBuffer dictionary = postings.duplicate().position((int) dictionaryOffset);
+        for (int i = 0; i < termCount; i++) {
+            byte[] term = new byte[(int) readVarint(dictionary)];
+            dictionary.get(term);
+            loadedTerms[i] = new String(term, StandardCharsets.UTF_8);
+            loadedOffsets[i] = (int) readVarint(dictionary);
+            loadedCounts[i] = (int) readVarint(dictionary);
+        }
+        segment = new Segment(postings, loadedTerms, loadedOffsets, loadedCounts);
+    }
+
+    /**
+     * Adds the complete records appended to the log since the last call to the tail
+     */
+    private void readLog() throws IOException {
+        long size = logChannel.size();
+        if (size <= logLoaded) {
+            return;
+        }
+        ByteBuffer data = ByteBuffer.allocate(Math.toIntExact(size - logLoaded));
+        while (data.hasRemaining() && logChannel.read(data, logLoaded + data.position()) > 0) {
+            // Read up to the size seen above
+        }
+        data.flip();
+        CRC32C crc = new CRC32C();
+        while (data.remaining() >= RECORD_HEADER_BYTES) {
+            int start = data.position();
+            int length = data.getInt(start);
+            if (length < Long.BYTES || length > data.remaining() - RECORD_HEADER_BYTES) {
+                break;
+            }
+            crc.reset();
+            crc.update(data.array(), start + RECORD_HEADER_BYTES, length);
+            if ((int) crc.getValue() != data.getInt(start + Integer.BYTES)) {
+                break;
+            }
+            long entry = data.getLong(start + RECORD_HEADER_BYTES);
+            int textStart = start + RECORD_HEADER_BYTES + Long.BYTES;
+            int textEnd = start + RECORD_HEADER_BYTES + length;
+            int termStart = textStart;
+            for (int i = textStart; i <= textEnd; i++) {
+                if (i == textEnd || data.get(i) == '\n') {
+                    if (i > termStart) {
+                        String term = new String(data.array(), termStart, i - termStart, StandardCharsets.UTF_8);
+                        tail.computeIfAbsent(term, key -> new Postings()).add(entry);
+                    }
+                    termStart = i + 1;
+                }
+            }
+            data.position(textEnd);
+            logLoaded += RECORD_HEADER_BYTES + length;
+        }
+    }
+
+    /**
+     * Merges a snapshot of the postings and the log without holding the lock, then switches to the
+     * merged generation unless another instance or process switched first or this one was closed
+     */
+    private void compactInBackground() {
+        Path temp = null;
+        try {
+            long base;
+            Segment merged;
+            Map<String, Postings> snapshot = new HashMap<>();
+            long mergedBytes;
+            synchronized (this) {
+                if (lock == null) {
+                    return;
+                }
+                refresh();
+                if (tail.isEmpty()) {
+                    return;
+                }
+                base = generation;
+                merged = segment;
+                tail.forEach((term, postings) -> snapshot.put(term, postings.copy()));
+                mergedBytes = logLoaded;
+            }
+            temp = writeGeneration(base + 1, merged, snapshot);
+            synchronized (this) {
+                if (lock == null) {
+                    return;
+                }
+                try (FileLock ignored = lock.lock()) {
+                    refresh();
+                    if (generation == base) {
+                        switchGeneration(base + 1, temp, mergedBytes);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to merge term log in {}, error = {}", directory, e.getMessage());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}, error = {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the postings of generation next, those of segment merged with tailPostings, to a new
+     * temporary file and returns it
+     */
+    private Path writeGeneration(long next, Segment segment, Map<String, Postings> tailPostings) throws IOException {
+        Path file = directory.resolve(POSTINGS_FILE);
+        Path temp = Files.createTempFile(directory, POSTINGS_FILE + ".", ".tmp");
+        String[] tailTerms = tailPostings.keySet().toArray(new String[0]);
+        Arrays.sort(tailTerms);
+        String[] segmentTerms = segment.terms;
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        int termCount = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            CountingOutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel.position(HEADER_BYTES)), 64 * 1024));
+            int s = 0;
+            int t = 0;
+            while (s < segmentTerms.length || t < tailTerms.length) {
+                int order = s == segmentTerms.length ? 1 : t == tailTerms.length ? -1
+                        : segmentTerms[s].compareTo(tailTerms[t]);
+                String term = order <= 0 ? segmentTerms[s] : tailTerms[t];
+                Cursor cursor = new Cursor(segment, order <= 0 ? s : -1, order >= 0 ? tailPostings.get(tailTerms[t]) : null);
+                long offset = HEADER_BYTES + out.count;
+                long count = 0;
+                long previous = 0;
+                long entry;
+                long from = 0;
+                while ((entry = cursor.advance(from)) != Long.MAX_VALUE) {
+                    writeVarint(out, entry - previous);
+                    previous = entry;
+                    from = entry + 1;
+                    count++;
+                }
+                byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                writeVarint(dictionary, bytes.length);
+                dictionary.write(bytes);
+                writeVarint(dictionary, offset);
+                writeVarint(dictionary, count);
+                termCount++;
+                if (order <= 0) {
+                    s++;
+                }
+                if (order >= 0) {
+                    t++;
+                }
+            }
+            long dictionaryOffset = HEADER_BYTES + out.count;
+            if (dictionaryOffset + dictionary.size() > Integer.MAX_VALUE) {
+                throw new IOException("Term index " + file + " would exceed 2 GiB");
+            }
+            dictionary.writeTo(out);
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION)
+                    .putLong(next).putLong(dictionaryOffset).putInt(termCount);
+            writeFully(channel, header.clear(), 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Under the lock: starts the log of generation next with the records past mergedBytes, which the
+     * written postings lack, and moves the postings into place
+     */
+    private void switchGeneration(long next, Path written, long mergedBytes) throws IOException {
+        ByteBuffer unmerged = ByteBuffer.allocate(Math.toIntExact(logLoaded - mergedBytes));
+        while (unmerged.hasRemaining() && logChannel.read(unmerged, mergedBytes + unmerged.position()) > 0) {
+            // Read the records appended since the snapshot
+        }
+        try (FileChannel nextLog = FileChannel.open(logPath(next), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(nextLog, unmerged.flip(), 0);
+            nextLog.force(true);
+        }
+        Files.move(written, directory.resolve(POSTINGS_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        refresh();
+        // The merged log, and any a reader recreated after an earlier switch deleted it
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path previousLog : logs) {
+                if (logGeneration(previousLog) < next) {
+                    try {
+                        Files.deleteIfExists(previousLog);
+                    } catch (IOException e) {
+                        log.warn("Failed to delete merged term log {}, error = {}", previousLog, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+
+    /**
+     * Generation of a crash-terms-&lt;generation&gt;.log file, Long.MAX_VALUE for any other name
+     */
+    private static long logGeneration(Path logFile) {
+        String name = logFile.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Cursor cursor(String term) {
+        int index = Arrays.binarySearch(segment.terms, term);
+        return new Cursor(segment, index, tail.get(term));
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    /**
+     * Walks the ascending union of a term's compacted postings (decoded as it goes) and its tail postings
+     */
+    private static final class Cursor {
+
+        private final ByteBuffer segment;
+        private final int segmentCount;
+        private final Postings tailPostings;
+        private int segmentRead;
+        private long segmentValue = -1;
+        private int tailIndex;
+
+        Cursor(Segment source, int termIndex, Postings tailPostings) {
+            if (termIndex >= 0) {
+                segment = source.postings.duplicate().position(source.offsets[termIndex]);
+                segmentCount = source.counts[termIndex];
+            } else {
+                segment = null;
+                segmentCount = 0;
+            }
+            this.tailPostings = tailPostings;
+            if (tailPostings != null) {
+                tailPostings.sort();
+            }
+        }
+
+        long size() {
+            return segmentCount + (tailPostings != null ? tailPostings.size : 0);
+        }
+
+        /**
+         * First entry at or after target, Long.MAX_VALUE when there is none
+         */
+        long advance(long target) {
+            while (segmentValue < target && segmentRead < segmentCount) {
+                segmentValue = (segmentRead == 0 ? 0 : segmentValue) + readVarint(segment);
+                segmentRead++;
+            }
+            long fromSegment = segmentValue >= target ? segmentValue : Long.MAX_VALUE;
+            long fromTail = Long.MAX_VALUE;
+            if (tailPostings != null) {
+                while (tailIndex < tailPostings.size && tailPostings.values[tailIndex] < target) {
+                    tailIndex++;
+                }
+                if (tailIndex < tailPostings.size) {
+                    fromTail = tailPostings.values[tailIndex];
+                }
+            }
+            return Math.min(fromSegment, fromTail);
+        }
+    }
+
+    /**
+     * Growable list of entry numbers, sorted on demand since processes may append out of order
+     */
+    private static final class Postings {
+        private long[] values = new long[4];
+        private int size;
+        private boolean sorted = true;
+
+        void add(long entry) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (size > 0 && values[size - 1] > entry) {
+                sorted = false;
+            }
+            values[size++] = entry;
+        }
+
+        void sort() {
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+        }
+
+        Postings copy() {
+            Postings copy = new Postings();
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            copy.sorted = sorted;
+            return copy;
+        }
+    }
+
+    /**
+     * A loaded generation of crash-terms.postings; never changed, so a merge can read it unlocked
+     */
+    private record Segment(ByteBuffer postings, String[] terms, int[] offsets, int[] counts) {
+        static final Segment EMPTY = new Segment(null, new String[0], new int[0], new int[0]);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -3,8 +3,6 @@ package io.pants.humanpanic.interceptor;
 import io.pants.humanpanic.HumanPanic;
 import io.pants.humanpanic.reporter.CrashReporter;
 import io.pants.humanpanic.reporter.UserNotifier;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Component;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
@@ -14,12 +12,16 @@ import java.lang.reflect.Proxy;
 /**
  * Dynamic proxy implementation for @HumanPanic annotation.
  */
-@RequiredArgsConstructor
 public class HumanPanicProxy implements InvocationHandler {
 
     private Object target;
     private final CrashReporter crashReporter;
     private final UserNotifier userNotifier;
+    private final PanicHandler panicHandler;
+
+    public HumanPanicProxy(CrashReporter crashReporter, UserNotifier userNotifier) {
+        this(null, crashReporter, userNotifier);
+    }
 
     /**
      * Private constructor for creating instances
@@ -28,6 +30,7 @@ public class HumanPanicProxy implements InvocationHandler {
         this.target = target;
         this.crashReporter = crashReporter;
         this.userNotifier = userNotifier;
+        this.panicHandler = new PanicHandler(crashReporter, userNotifier);
     }
 
     /**
@@ -123,63 +126,10 @@ public class HumanPanicProxy implements InvocationHandler {
         try {
             return method.invoke(target, args);
         } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
-            handleException(cause, annotation, method);
-
-            if (annotation.exitCode() != 0) {
-                System.exit(annotation.exitCode());
-            }
-
-            return getDefaultReturnValue(method.getReturnType());
+            return panicHandler.handle(e.getCause(), annotation, method, args, method.getReturnType());
         } catch (Exception e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
-            handleException(cause, annotation, method);
-
-            if (annotation.exitCode() != 0) {
-                System.exit(annotation.exitCode());
-            }
-
-            return getDefaultReturnValue(method.getReturnType());
+            return panicHandler.handle(cause, annotation, method, args, method.getReturnType());
         }
     }
-
-    private void handleException(Throwable throwable, HumanPanic annotation, Method method) {
-        if (annotation.createCrashReport()) {
-            String reportPath = crashReporter.createReport(throwable, method);
-            if (!annotation.silent()) {
-                userNotifier.notifyWithReport(
-                        annotation.message().isEmpty() ? "An error occurred" : annotation.message(),
-                        reportPath
-                );
-            }
-        } else if (!annotation.silent()) {
-            userNotifier.notify(
-                    annotation.message().isEmpty() ? "An error occurred" : annotation.message(),
-                    throwable
-            );
-        }
-
-        if (annotation.printStackTrace()) {
-            throwable.printStackTrace();
-        }
-    }
-
-    private Object getDefaultReturnValue(Class<?> returnType) {
-        if (returnType == void.class || returnType == Void.class) {
-            return null;
-        }
-
-        if (returnType.isPrimitive()) {
-            if (returnType == boolean.class) return false;
-            if (returnType == byte.class) return (byte) 0;
-            if (returnType == short.class) return (short) 0;
-            if (returnType == int.class) return 0;
-            if (returnType == long.class) return 0L;
-            if (returnType == float.class) return 0.0f;
-            if (returnType == double.class) return 0.0d;
-            if (returnType == char.class) return '\u0000';
-        }
-
-        return null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package io.pants.humanpanic.interceptor;
+
+import io.pants.humanpanic.HumanPanic;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.UserNotifier;
+import lombok.RequiredArgsConstructor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Panic policy shared by every interceptor: writes the crash report, notifies the user,
+ * honours printStackTrace and exitCode and supplies the default return value.
+ */
+@RequiredArgsConstructor
+public class PanicHandler {
+
+    private static final String DEFAULT_MESSAGE = "An error occurred";
+
+    private final CrashReporter crashReporter;
+    private final UserNotifier userNotifier;
+
+    /**
+     * Handles a throwable raised by a @HumanPanic method and returns the value the caller should see
+     */
+    public Object handle(Throwable throwable, HumanPanic annotation, Method method, Class<?> returnType) {
+        return handle(throwable, annotation, method, null, returnType);
+    }
+
+    /**
+     * Same as above, the arguments of the failed call go into the report when the annotation asks
+     * for captureArguments. They are only read when a crash happens.
+     */
+    public Object handle(Throwable throwable, HumanPanic annotation, Method method, Object[] arguments,
+                         Class<?> returnType) {
+        handleException(throwable, annotation, method, annotation.captureArguments() ? arguments : null);
+
+        if (annotation.exitCode() != 0) {
+            System.exit(annotation.exitCode());
+        }
+
+        return getDefaultReturnValue(returnType);
+    }
+
+    private void handleException(Throwable throwable, HumanPanic annotation, Method method, Object[] arguments) {
+        String message = annotation.message().isEmpty() ? DEFAULT_MESSAGE : annotation.message();
+
+        if (annotation.createCrashReport()) {
+            String reportPath = arguments != null
+                    ? crashReporter.createReport(throwable, method, arguments)
+                    : crashReporter.createReport(throwable, method);
+            if (!annotation.silent()) {
+                userNotifier.notifyWithReport(message, reportPath);
+            }
+        } else if (!annotation.silent()) {
+            userNotifier.notify(message, throwable);
+        }
+
+        if (annotation.printStackTrace()) {
+            throwable.printStackTrace();
+        }
+    }
+
+    private Object getDefaultReturnValue(Class<?> returnType) {
+        if (returnType == void.class || returnType == Void.class) {
+            return null;
+        }
+
+        if (returnType.isPrimitive()) {
+            if (returnType == boolean.class) return false;
+            if (returnType == byte.class) return (byte) 0;
+            if (returnType == short.class) return (short) 0;
+            if (returnType == int.class) return 0;
+            if (returnType == long.class) return 0L;
+            if (returnType == float.class) return 0.0f;
+            if (returnType == double.class) return 0.0d;
+            if (returnType == char.class) return '\u0000';
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package io.pants.humanpanic.model;
+
+import java.util.List;
+
+/**
+ * Groups reports of the same failure.
+ *
+ * The fingerprint is a 64-bit FNV-1a hash over the exception class, the @HumanPanic method and
+ * the class and method of the top frames. Messages and line numbers are left out, so the same
+ * bug keeps its fingerprint across inputs and small code changes.
+ */
+public final class CrashFingerprint {
+
+    public static final int FRAMES = 8;
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private CrashFingerprint() {
+    }
+
+    public static long of(CrashReport report) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, exceptionClass(report.getCause()));
+        CrashReport.MethodInfo method = report.getMethod();
+        if (method != null) {
+            hash = mix(hash, method.getClassName());
+            hash = mix(hash, method.getMethodName());
+        }
+        List<CrashReport.StackFrame> frames = report.getBacktrace();
+        if (frames != null) {
+            for (int i = 0; i < Math.min(FRAMES, frames.size()); i++) {
+                CrashReport.StackFrame frame = frames.get(i);
+                if (frame != null) {
+                    hash = mix(hash, frame.getClassName());
+                    hash = mix(hash, frame.getMethod());
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Fixed width lowercase hex, the form used in file names and APIs
+     */
+    public static String toHex(long fingerprint) {
+        String hex = Long.toHexString(fingerprint);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    public static long fromHex(String hex) {
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    /**
+     * The exception class name from a "class: message" cause
+     */
+    public static String exceptionClass(String cause) {
+        if (cause == null) {
+            return null;
+        }
+        int colon = cause.indexOf(':');
+        return colon < 0 ? cause : cause.substring(0, colon);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                hash = (hash ^ (c & 0xff)) * PRIME;
+                hash = (hash ^ (c >>> 8)) * PRIME;
+            }
+        }
+        // Separator so ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xff) * PRIME;
+    }
+}
@@ -1,86 +1,95 @@
 package io.pants.humanpanic.model;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Crash report model. Field order and JSON names are defined by the encoders,
+ * see JsonReportEncoder for the on-disk layout.
+ */
 @Getter
 @Setter
 public class CrashReport {
-    @JsonProperty("name")
     private String name;
 
-    @JsonProperty("operating_system")
     private String operatingSystem;
 
-    @JsonProperty("version")
     private String version;
 
-    @JsonProperty("explanation")
     private String explanation;
 
-    @JsonProperty("cause")
     private String cause;
 
-    @JsonProperty("method")
     private MethodInfo method;
 
-    @JsonProperty("backtrace")
     private List<StackFrame> backtrace;
 
-    @JsonProperty("system_info")
+    /**
+     * Hash of the backtrace in a BacktraceStore when the frames were stored there instead of inline
+     */
+    private String backtraceRef;
+
     private SystemInfo systemInfo;
 
-    @JsonProperty("application_info")
     private Map<String, String> applicationInfo;
 
+    /**
+     * What the crashing thread recorded through Breadcrumbs before the crash, oldest first
+     */
+    private List<Breadcrumb> breadcrumbs;
+
     @Getter
     @Setter
     public static class MethodInfo {
-        @JsonProperty("class")
         private String className;
-        @JsonProperty("method")
         private String methodName;
+
+        /**
+         * Arguments of the call when @HumanPanic captures them. Captured values are only rendered
+         * to strings when an encoder first reads the list.
+         */
+        private List<Argument> arguments;
+    }
+
+    @Getter
+    @Setter
+    public static class Argument {
+        private String name;
+        private String type;
+        private String value;
+    }
+
+    @Getter
+    @Setter
+    public static class Breadcrumb {
+        private long timestampMs;
+        private String message;
     }
 
     @Getter
     @Setter
     public static class StackFrame {
-        @JsonProperty("class")
         private String className;
-        @JsonProperty("method")
         private String method;
-        @JsonProperty("file")
         private String file;
-        @JsonProperty("line")
         private Integer line;
     }
 
     @Getter
     @Setter
     public static class SystemInfo {
-        @JsonProperty("java_version")
         private String javaVersion;
-        @JsonProperty("java_vendor")
         private String javaVendor;
-        @JsonProperty("os_name")
         private String osName;
-        @JsonProperty("os_version")
         private String osVersion;
-        @JsonProperty("os_arch")
         private String osArch;
-        @JsonProperty("max_memory_mb")
         private long maxMemoryMb;
-        @JsonProperty("total_memory_mb")
         private long totalMemoryMb;
-        @JsonProperty("free_memory_mb")
         private long freeMemoryMb;
-        @JsonProperty("processors")
         private int processors;
-        @JsonProperty("uptime_ms")
         private long uptimeMs;
     }
 }
@@ -0,0 +1,182 @@
+package io.pants.humanpanic.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reusable crash reports for the failure path, so a steady stream of handled crashes does not
+ * allocate a report, its method and system info, a frame list and one object per frame each time.
+ *
+ * The pool is striped: a thread looks for a free report in its own stripe first, and reports
+ * released by another thread (an AsyncReportSink writer) land in the first free slot. Slots are
+ * taken and returned with a single atomic swap, a full pool lets released reports be collected.
+ *
+ * Pooled reports are reference counted. acquire hands out one reference; whoever passes a report
+ * on to a later thread takes another with retain, and the report returns to the pool when the
+ * last holder calls release. Holders only release what no sink keeps using afterwards, see
+ * ReportSink.retainsReports. retain and release ignore reports that did not come from a pool.
+ */
+public class CrashReportPool {
+
+    public static final int DEFAULT_STRIPES = 8;
+    public static final int DEFAULT_REPORTS_PER_STRIPE = 4;
+
+    private final AtomicReferenceArray<Pooled> slots;
+    private final int stripes;
+    private final int perStripe;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public CrashReportPool() {
+        this(DEFAULT_STRIPES, DEFAULT_REPORTS_PER_STRIPE);
+    }
+
+    public CrashReportPool(int stripes, int reportsPerStripe) {
+        if (stripes <= 0 || reportsPerStripe <= 0) {
+            throw new IllegalArgumentException("Stripes and reports per stripe must be positive");
+        }
+        this.stripes = stripes;
+        this.perStripe = reportsPerStripe;
+        this.slots = new AtomicReferenceArray<>(stripes * reportsPerStripe);
+    }
+
+    /**
+     * A report with every field cleared, holding one reference
+     */
+    public CrashReport acquire() {
+        int length = slots.length();
+        int start = stripe() * perStripe;
+        for (int i = 0; i < length; i++) {
+            int slot = (start + i) % length;
+            if (slots.get(slot) != null) {
+                Pooled report = slots.getAndSet(slot, null);
+                if (report != null) {
+                    reused.incrementAndGet();
+                    report.clear();
+                    report.references.set(1);
+                    return report;
+                }
+            }
+        }
+        created.incrementAndGet();
+        Pooled report = new Pooled(this);
+        report.references.set(1);
+        return report;
+    }
+
+    /**
+     * Takes another reference to a pooled report
+     */
+    public static void retain(CrashReport report) {
+        if (report instanceof Pooled pooled) {
+            pooled.references.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops a reference; the last one returns the report to its pool
+     */
+    public static void release(CrashReport report) {
+        if (report instanceof Pooled pooled && pooled.references.decrementAndGet() == 0) {
+            // Captured arguments must not outlive the report in the pool
+            pooled.spareMethod.setArguments(null);
+            pooled.pool.offer(pooled);
+        }
+    }
+
+    /**
+     * The report's own method info when it is pooled, otherwise a new one
+     */
+    public static CrashReport.MethodInfo methodInfo(CrashReport report) {
+        return report instanceof Pooled pooled ? pooled.spareMethod : new CrashReport.MethodInfo();
+    }
+
+    /**
+     * The report's own system info when it is pooled, otherwise a new one
+     */
+    public static CrashReport.SystemInfo systemInfo(CrashReport report) {
+        return report instanceof Pooled pooled ? pooled.spareSystemInfo : new CrashReport.SystemInfo();
+    }
+
+    /**
+     * A backtrace of size frames for the caller to fill in. A pooled report reuses its list and
+     * the frame objects of earlier reports, so only frames beyond its deepest backtrace are new.
+     */
+    public static List<CrashReport.StackFrame> backtrace(CrashReport report, int size) {
+        if (!(report instanceof Pooled pooled)) {
+            List<CrashReport.StackFrame> frames = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                frames.add(new CrashReport.StackFrame());
+            }
+            return frames;
+        }
+        while (pooled.spareFrames.size() < size) {
+            pooled.spareFrames.add(new CrashReport.StackFrame());
+        }
+        pooled.spareBacktrace.clear();
+        for (int i = 0; i < size; i++) {
+            pooled.spareBacktrace.add(pooled.spareFrames.get(i));
+        }
+        return pooled.spareBacktrace;
+    }
+
+    /**
+     * Reports built because no pooled one was free
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    private void offer(Pooled report) {
+        int length = slots.length();
+        int start = stripe() * perStripe;
+        for (int i = 0; i < length; i++) {
+            if (slots.compareAndSet((start + i) % length, null, report)) {
+                return;
+            }
+        }
+    }
+
+    private int stripe() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+
+    /**
+     * A report together with the structures it reuses. Field names must not match a CrashReport
+     * property, or Jackson would pick them up as that property and lose its JSON name.
+     */
+    private static final class Pooled extends CrashReport {
+
+        private final CrashReportPool pool;
+        private final AtomicInteger references = new AtomicInteger();
+        private final CrashReport.MethodInfo spareMethod = new CrashReport.MethodInfo();
+        private final CrashReport.SystemInfo spareSystemInfo = new CrashReport.SystemInfo();
+        private final ArrayList<CrashReport.StackFrame> spareFrames = new ArrayList<>();
+        private final ArrayList<CrashReport.StackFrame> spareBacktrace = new ArrayList<>();
+
+        private Pooled(CrashReportPool pool) {
+            this.pool = pool;
+        }
+
+        private void clear() {
+            setName(null);
+            setOperatingSystem(null);
+            setVersion(null);
+            setExplanation(null);
+            setCause(null);
+            setMethod(null);
+            setBacktrace(null);
+            setBacktraceRef(null);
+            setSystemInfo(null);
+            setApplicationInfo(null);
+            setBreadcrumbs(null);
+        }
+    }
+}
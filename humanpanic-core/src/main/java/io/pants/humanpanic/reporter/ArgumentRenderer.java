@@ -0,0 +1,263 @@
+package io.pants.humanpanic.reporter;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.lang.reflect.Array;
+import java.security.Key;
+import java.time.Duration;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns captured method arguments into bounded strings for a crash report.
+ *
+ * Strings, boxed primitives, enums and a few JDK value types are rendered directly; arrays,
+ * collections and maps show at most maxElements elements and nest at most maxDepth levels, deeper
+ * ones only show their type and size. Every other object goes through its toString on a helper
+ * thread, and all toString calls of one report share toStringBudget: a call that overruns it is
+ * abandoned and rendered as a marker, so a slow or hanging toString cannot stall the writer.
+ * A rendering started with startWithoutToString, for threads that must not wait at all, shows
+ * such objects as TO_STRING_SKIPPED instead of calling toString.
+ * Instances of redactedTypes (char[] and java.security.Key by default) are never rendered.
+ * Each rendered argument is capped at maxArgumentBytes like ReportLimits caps other fields.
+ */
+@Getter
+public final class ArgumentRenderer {
+
+    public static final int DEFAULT_MAX_ARGUMENT_BYTES = 1024;
+    public static final int DEFAULT_MAX_DEPTH = 2;
+    public static final int DEFAULT_MAX_ELEMENTS = 16;
+    public static final Duration DEFAULT_TO_STRING_BUDGET = Duration.ofMillis(100);
+    public static final Set<Class<?>> DEFAULT_REDACTED_TYPES = Set.of(char[].class, Key.class);
+    public static final String REDACTED = "[redacted]";
+    public static final String TO_STRING_SKIPPED = "[toString skipped, not rendered on a writer thread]";
+    public static final String THREAD_NAME = "humanpanic-argument-render";
+    private static final int MAX_TO_STRING_THREADS = 2;
+
+    public static final ArgumentRenderer DEFAULT = builder().build();
+
+    /**
+     * Runs toString calls that may hang; a hung call keeps its thread, later calls get others
+     * up to the limit and are rendered as unavailable beyond it
+     */
+    private static final ThreadPoolExecutor TO_STRING = new ThreadPoolExecutor(0, MAX_TO_STRING_THREADS,
+            30, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final int maxArgumentBytes;
+    private final int maxDepth;
+    private final int maxElements;
+    private final Duration toStringBudget;
+    private final Set<Class<?>> redactedTypes;
+
+    @Builder
+    private ArgumentRenderer(Integer maxArgumentBytes, Integer maxDepth, Integer maxElements,
+                             Duration toStringBudget, Set<Class<?>> redactedTypes) {
+        if (maxArgumentBytes != null && maxArgumentBytes < ReportLimits.MIN_FIELD_BYTES) {
+            throw new IllegalArgumentException("maxArgumentBytes must be at least " + ReportLimits.MIN_FIELD_BYTES + " bytes");
+        }
+        if ((maxDepth != null && maxDepth < 0) || (maxElements != null && maxElements < 0)) {
+            throw new IllegalArgumentException("maxDepth and maxElements must not be negative");
+        }
+        this.maxArgumentBytes = maxArgumentBytes != null ? maxArgumentBytes : DEFAULT_MAX_ARGUMENT_BYTES;
+        this.maxDepth = maxDepth != null ? maxDepth : DEFAULT_MAX_DEPTH;
+        this.maxElements = maxElements != null ? maxElements : DEFAULT_MAX_ELEMENTS;
+        this.toStringBudget = toStringBudget != null ? toStringBudget : DEFAULT_TO_STRING_BUDGET;
+        this.redactedTypes = redactedTypes != null ? Set.copyOf(redactedTypes) : DEFAULT_REDACTED_TYPES;
+    }
+
+    /**
+     * Starts rendering the arguments of one report, whose toString calls share one time budget
+     */
+    public Rendering start() {
+        return new Rendering(System.nanoTime() + toStringBudget.toNanos(), true);
+    }
+
+    /**
+     * Starts rendering without calling any toString, values are still bounded the same way
+     */
+    public Rendering startWithoutToString() {
+        return new Rendering(0, false);
+    }
+
+    /**
+     * Renders the arguments of one report
+     */
+    public final class Rendering {
+
+        private final long deadline;
+        private final boolean callToString;
+
+        private Rendering(long deadline, boolean callToString) {
+            this.deadline = deadline;
+            this.callToString = callToString;
+        }
+
+        public String render(Object value) {
+            StringBuilder out = new StringBuilder();
+            append(out, value, 0);
+            return ReportLimits.truncate(out.toString(), maxArgumentBytes);
+        }
+
+        /**
+         * Like render, but text goes in as it is, without quotes, for values placed into a message
+         */
+        public String renderText(Object value) {
+            if (value instanceof CharSequence text && !redacted(value)) {
+                return ReportLimits.truncate(text.subSequence(0, (int) Math.min(text.length(), maxArgumentBytes + 1L))
+                        .toString(), maxArgumentBytes);
+            }
+            return render(value);
+        }
+
+        private void append(StringBuilder out, Object value, int depth) {
+            if (full(out)) {
+                return;
+            }
+            if (value == null) {
+                out.append("null");
+            } else if (redacted(value)) {
+                out.append(REDACTED);
+            } else if (value instanceof CharSequence text) {
+                out.append('"').append(text, 0, (int) Math.min(text.length(), maxArgumentBytes + 1L)).append('"');
+            } else if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                    || value instanceof UUID || value instanceof Class<?> || trustedTemporal(value)) {
+                if (value.getClass().getClassLoader() == null) {
+                    out.append(value);
+                } else {
+                    out.append(budgetedToString(value));
+                }
+            } else if (value instanceof Enum<?> constant) {
+                out.append(constant.name());
+            } else if (value.getClass().isArray()) {
+                appendArray(out, value, depth);
+            } else if (value instanceof Collection<?> collection) {
+                appendElements(out, collection, collection, collection.size(), depth, '[', ']');
+            } else if (value instanceof Map<?, ?> map) {
+                appendElements(out, map, map.entrySet(), map.size(), depth, '{', '}');
+            } else if (value instanceof Map.Entry<?, ?> entry) {
+                append(out, entry.getKey(), depth);
+                out.append('=');
+                append(out, entry.getValue(), depth);
+            } else {
+                out.append(budgetedToString(value));
+            }
+        }
+
+        private void appendArray(StringBuilder out, Object array, int depth) {
+            int length = Array.getLength(array);
+            if (depth >= maxDepth) {
+                out.append(array.getClass().getComponentType().getTypeName()).append('[').append(length).append(']');
+                return;
+            }
+            out.append('[');
+            int shown = Math.min(length, maxElements);
+            for (int i = 0; i < shown && !full(out); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                append(out, Array.get(array, i), depth + 1);
+            }
+            more(out, length - shown);
+            out.append(']');
+        }
+
+        private void appendElements(StringBuilder out, Object container, Collection<?> elements, int size, int depth,
+                                    char open, char close) {
+            if (depth >= maxDepth) {
+                out.append(container.getClass().getSimpleName()).append("(size=").append(size).append(')');
+                return;
+            }
+            out.append(open);
+            int shown = 0;
+            try {
+                Iterator<?> iterator = elements.iterator();
+                while (iterator.hasNext() && shown < maxElements && !full(out)) {
+                    if (shown > 0) {
+                        out.append(", ");
+                    }
+                    append(out, iterator.next(), depth + 1);
+                    shown++;
+                }
+            } catch (RuntimeException e) {
+                // Concurrently modified or a broken collection, show what was read
+                out.append("[unrenderable: ").append(e.getClass().getName()).append(']');
+            }
+            more(out, size - shown);
+            out.append(close);
+        }
+
+        private void more(StringBuilder out, int remaining) {
+            if (remaining > 0) {
+                out.append(", ... ").append(remaining).append(" more");
+            }
+        }
+
+        private boolean full(StringBuilder out) {
+            return out.length() > maxArgumentBytes;
+        }
+
+        private String budgetedToString(Object value) {
+            if (!callToString) {
+                return TO_STRING_SKIPPED;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return "[toString skipped, time budget used up]";
+            }
+            Future<String> future;
+            try {
+                future = TO_STRING.submit(value::toString);
+            } catch (RejectedExecutionException e) {
+                return "[toString unavailable]";
+            }
+            try {
+                String text = future.get(remaining, TimeUnit.NANOSECONDS);
+                return text != null ? text : "null";
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return "[toString timed out]";
+            } catch (ExecutionException e) {
+                return "[toString threw " + e.getCause().getClass().getName() + "]";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return "[toString interrupted]";
+            }
+        }
+    }
+
+    /**
+     * Whether the value is an instance of a redacted type
+     */
+    public boolean redacted(Object value) {
+        for (Class<?> type : redactedTypes) {
+            if (type.isInstance(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * java.time values render cheaply and contain no user data beyond the value itself
+     */
+    private static boolean trustedTemporal(Object value) {
+        return value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time.");
+    }
+}
@@ -0,0 +1,61 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts binary crash reports back to the JSON layout, one report per line (compact) or
+ * one indented report after the other (pretty).
+ *
+ * From the command line: BinaryReportConverter [--pretty] &lt;input&gt; [&lt;output&gt;],
+ * writing to stdout when no output is given.
+ */
+public final class BinaryReportConverter {
+
+    private BinaryReportConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean pretty = args.length > 0 && args[0].equals("--pretty");
+        int first = pretty ? 1 : 0;
+        if (args.length <= first) {
+            System.err.println("Usage: BinaryReportConverter [--pretty] <input> [<output>]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[first]);
+        OutputStream out = args.length > first + 1 ? Files.newOutputStream(Paths.get(args[first + 1])) : System.out;
+        try (InputStream in = Files.newInputStream(input)) {
+            long converted = toJson(in, out, new JsonReportEncoder(pretty));
+            System.err.println("Converted " + converted + " crash reports from " + input);
+        } finally {
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Writes every report in the binary stream with the given encoder, each followed by a line break.
+     * Returns the number of reports converted.
+     */
+    public static long toJson(InputStream in, OutputStream out, ReportEncoder encoder) throws IOException {
+        BinaryReportReader reader = new BinaryReportReader(in);
+        OutputStream buffered = new BufferedOutputStream(out);
+        long converted = 0;
+        CrashReport report;
+        while ((report = reader.read()) != null) {
+            encoder.encode(report, buffered);
+            buffered.write('\n');
+            converted++;
+        }
+        buffered.flush();
+        return converted;
+    }
+}
@@ -0,0 +1,227 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a crash report, for storage and transport where JSON is too large
+ * or too slow. BinaryReportReader reads it back and BinaryReportConverter turns it into the
+ * JSON layout.
+ *
+ * Every report is one self-contained record, so records can simply be concatenated:
+ * [byte 0xB7][byte version][varint body length][body]. The body starts with a string table,
+ * [varint count] and [varint UTF-8 length][bytes] per string, in order of first use. Every string
+ * field after it is a varint reference: 0 for null, otherwise the table index plus one. Then come,
+ * in JsonReportEncoder order: name, operating system, version, explanation, cause; the method
+ * ([byte present][class][method]); the backtrace ([varint size + 1], 0 for null) whose frames are
+ * a varint tag, 0 for a null frame, 1 for a new frame followed by class, method, file and
+ * [varint line + 1 zig-zag encoded, 0 for none], or k + 2 to repeat the k-th distinct frame;
+ * the backtrace reference; the system info ([byte present], five strings, the memory figures,
+ * processors and uptime as zig-zag varints); and the application info ([varint size + 1], then
+ * key and value per entry). The method's arguments follow, appended after the first release:
+ * [varint size + 1], 0 when the method or its arguments are missing, then name, type and value per
+ * argument, and the breadcrumbs: [varint size + 1], 0 for none, then a zig-zag timestamp and the
+ * message per breadcrumb. Readers skip whatever a newer version appends to the body.
+ */
+public class BinaryReportEncoder implements ReportEncoder {
+
+    public static final int MAGIC = 0xB7;
+    public static final int VERSION = 1;
+
+    @Override
+    public void encode(CrashReport report, OutputStream out) throws IOException {
+        encode(report, out, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Encodes the report with only the first maxFrames frames of its backtrace, so a caller short
+     * of room can shorten a report without copying it
+     */
+    public void encode(CrashReport report, OutputStream out, int maxFrames) throws IOException {
+        if (maxFrames < 0) {
+            throw new IllegalArgumentException("maxFrames must not be negative");
+        }
+        Strings strings = new Strings();
+        Buffer fields = new Buffer(512);
+        fields.string(strings, report.getName());
+        fields.string(strings, report.getOperatingSystem());
+        fields.string(strings, report.getVersion());
+        fields.string(strings, report.getExplanation());
+        fields.string(strings, report.getCause());
+        writeMethod(fields, strings, report.getMethod());
+        writeBacktrace(fields, strings, report.getBacktrace(), maxFrames);
+        fields.string(strings, report.getBacktraceRef());
+        writeSystemInfo(fields, strings, report.getSystemInfo());
+        writeMap(fields, strings, report.getApplicationInfo());
+        writeArguments(fields, strings, report.getMethod());
+        writeBreadcrumbs(fields, strings, report.getBreadcrumbs());
+
+        Buffer table = new Buffer(fields.size() * 2);
+        table.varint(strings.values.size());
+        for (String value : strings.values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            table.varint(bytes.length);
+            table.write(bytes, 0, bytes.length);
+        }
+
+        Buffer header = new Buffer(2 + 5);
+        header.write(MAGIC);
+        header.write(VERSION);
+        header.varint(table.size() + fields.size());
+        header.writeTo(out);
+        table.writeTo(out);
+        fields.writeTo(out);
+        out.flush();
+    }
+
+    private static void writeMethod(Buffer b, Strings strings, CrashReport.MethodInfo method) {
+        b.write(method == null ? 0 : 1);
+        if (method != null) {
+            b.string(strings, method.getClassName());
+            b.string(strings, method.getMethodName());
+        }
+    }
+
+    private static void writeBacktrace(Buffer b, Strings strings, List<CrashReport.StackFrame> frames,
+                                       int maxFrames) {
+        if (frames == null) {
+            b.varint(0);
+            return;
+        }
+        int size = Math.min(frames.size(), maxFrames);
+        b.varint(size + 1L);
+        Map<FrameKey, Integer> distinct = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            CrashReport.StackFrame frame = frames.get(i);
+            if (frame == null) {
+                b.varint(0);
+                continue;
+            }
+            FrameKey key = new FrameKey(frame.getClassName(), frame.getMethod(), frame.getFile(), frame.getLine());
+            Integer seen = distinct.get(key);
+            if (seen != null) {
+                b.varint(seen + 2L);
+                continue;
+            }
+            distinct.put(key, distinct.size());
+            b.varint(1);
+            b.string(strings, frame.getClassName());
+            b.string(strings, frame.getMethod());
+            b.string(strings, frame.getFile());
+            b.varint(frame.getLine() == null ? 0 : zigZag(frame.getLine()) + 1);
+        }
+    }
+
+    private static void writeSystemInfo(Buffer b, Strings strings, CrashReport.SystemInfo info) {
+        b.write(info == null ? 0 : 1);
+        if (info == null) {
+            return;
+        }
+        b.string(strings, info.getJavaVersion());
+        b.string(strings, info.getJavaVendor());
+        b.string(strings, info.getOsName());
+        b.string(strings, info.getOsVersion());
+        b.string(strings, info.getOsArch());
+        b.varint(zigZag(info.getMaxMemoryMb()));
+        b.varint(zigZag(info.getTotalMemoryMb()));
+        b.varint(zigZag(info.getFreeMemoryMb()));
+        b.varint(zigZag(info.getProcessors()));
+        b.varint(zigZag(info.getUptimeMs()));
+    }
+
+    private static void writeMap(Buffer b, Strings strings, Map<String, String> map) {
+        if (map == null) {
+            b.varint(0);
+            return;
+        }
+        b.varint(map.size() + 1L);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            b.string(strings, entry.getKey());
+            b.string(strings, entry.getValue());
+        }
+    }
+
+    private static void writeArguments(Buffer b, Strings strings, CrashReport.MethodInfo method) {
+        List<CrashReport.Argument> arguments = method != null ? method.getArguments() : null;
+        if (arguments == null) {
+            b.varint(0);
+            return;
+        }
+        b.varint(arguments.size() + 1L);
+        for (CrashReport.Argument argument : arguments) {
+            b.string(strings, argument.getName());
+            b.string(strings, argument.getType());
+            b.string(strings, argument.getValue());
+        }
+    }
+
+    private static void writeBreadcrumbs(Buffer b, Strings strings, List<CrashReport.Breadcrumb> breadcrumbs) {
+        if (breadcrumbs == null) {
+            b.varint(0);
+            return;
+        }
+        b.varint(breadcrumbs.size() + 1L);
+        for (CrashReport.Breadcrumb breadcrumb : breadcrumbs) {
+            b.varint(zigZag(breadcrumb.getTimestampMs()));
+            b.string(strings, breadcrumb.getMessage());
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * String table in order of first use
+     */
+    private static final class Strings {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int ref(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                values.add(value);
+                ref = values.size();
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void string(Strings strings, String value) {
+            varint(strings.ref(value));
+        }
+    }
+
+    private record FrameKey(String className, String method, String file, Integer line) {
+    }
+}
@@ -0,0 +1,268 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams reports out of concatenated BinaryReportEncoder records, one record in memory at a time.
+ * Records of a newer version are rejected, extra fields a newer writer appends to a body are skipped.
+ */
+public class BinaryReportReader implements Closeable {
+
+    public static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final InputStream in;
+
+    public BinaryReportReader(InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    }
+
+    /**
+     * The next report, or null at the end of the stream
+     */
+    public CrashReport read() throws IOException {
+        int magic = in.read();
+        if (magic < 0) {
+            return null;
+        }
+        if (magic != BinaryReportEncoder.MAGIC) {
+            throw new IOException("Not a binary crash report record");
+        }
+        int version = in.read();
+        if (version < 0) {
+            throw new EOFException("Truncated binary crash report record");
+        }
+        if (version > BinaryReportEncoder.VERSION) {
+            throw new IOException("Unsupported binary crash report version " + version);
+        }
+        long length = streamVarint();
+        if (length > MAX_RECORD_BYTES) {
+            throw new IOException("Binary crash report record of " + length + " bytes exceeds the limit");
+        }
+        byte[] body = in.readNBytes((int) length);
+        if (body.length < length) {
+            throw new EOFException("Truncated binary crash report record");
+        }
+        return new Body(body).report();
+    }
+
+    /**
+     * Decodes a single record
+     */
+    public static CrashReport decode(byte[] record) throws IOException {
+        try (BinaryReportReader reader = new BinaryReportReader(new ByteArrayInputStream(record))) {
+            CrashReport report = reader.read();
+            if (report == null) {
+                throw new EOFException("Empty binary crash report");
+            }
+            return report;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long streamVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated binary crash report record");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary crash report record");
+    }
+
+    /**
+     * Cursor over one record body
+     */
+    private static final class Body {
+        private final byte[] data;
+        private int position;
+        private String[] strings;
+
+        Body(byte[] data) {
+            this.data = data;
+        }
+
+        CrashReport report() throws IOException {
+            int count = count(varint());
+            strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                int length = count(varint());
+                require(length);
+                strings[i] = new String(data, position, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+
+            CrashReport report = new CrashReport();
+            report.setName(string());
+            report.setOperatingSystem(string());
+            report.setVersion(string());
+            report.setExplanation(string());
+            report.setCause(string());
+            if (flag()) {
+                CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+                method.setClassName(string());
+                method.setMethodName(string());
+                report.setMethod(method);
+            }
+            report.setBacktrace(backtrace());
+            report.setBacktraceRef(string());
+            if (flag()) {
+                report.setSystemInfo(systemInfo());
+            }
+            long size = varint();
+            if (size > 0) {
+                Map<String, String> info = new LinkedHashMap<>();
+                for (long i = 1; i < size; i++) {
+                    info.put(string(), string());
+                }
+                report.setApplicationInfo(info);
+            }
+            // Records written before arguments were captured end here
+            if (position < data.length) {
+                long arguments = varint();
+                if (arguments > 0 && report.getMethod() != null) {
+                    List<CrashReport.Argument> values = new ArrayList<>();
+                    for (long i = 1; i < arguments; i++) {
+                        CrashReport.Argument argument = new CrashReport.Argument();
+                        argument.setName(string());
+                        argument.setType(string());
+                        argument.setValue(string());
+                        values.add(argument);
+                    }
+                    report.getMethod().setArguments(values);
+                }
+            }
+            if (position < data.length) {
+                long breadcrumbs = varint();
+                if (breadcrumbs > 0) {
+                    List<CrashReport.Breadcrumb> values = new ArrayList<>();
+                    for (long i = 1; i < breadcrumbs; i++) {
+                        CrashReport.Breadcrumb breadcrumb = new CrashReport.Breadcrumb();
+                        breadcrumb.setTimestampMs(BinaryReportEncoder.unZigZag(varint()));
+                        breadcrumb.setMessage(string());
+                        values.add(breadcrumb);
+                    }
+                    report.setBreadcrumbs(values);
+                }
+            }
+            return report;
+        }
+
+        private List<CrashReport.StackFrame> backtrace() throws IOException {
+            long size = varint();
+            if (size == 0) {
+                return null;
+            }
+            List<CrashReport.StackFrame> frames = new ArrayList<>(count(Math.min(size - 1, data.length)));
+            List<CrashReport.StackFrame> distinct = new ArrayList<>();
+            for (long i = 1; i < size; i++) {
+                long tag = varint();
+                if (tag == 0) {
+                    frames.add(null);
+                } else if (tag == 1) {
+                    CrashReport.StackFrame frame = new CrashReport.StackFrame();
+                    frame.setClassName(string());
+                    frame.setMethod(string());
+                    frame.setFile(string());
+                    long line = varint();
+                    frame.setLine(line == 0 ? null : (int) BinaryReportEncoder.unZigZag(line - 1));
+                    distinct.add(frame);
+                    frames.add(frame);
+                } else {
+                    long index = tag - 2;
+                    if (index < 0 || index >= distinct.size()) {
+                        throw new IOException("Binary crash report refers to an unknown frame");
+                    }
+                    frames.add(copy(distinct.get((int) index)));
+                }
+            }
+            return frames;
+        }
+
+        private CrashReport.SystemInfo systemInfo() throws IOException {
+            CrashReport.SystemInfo info = new CrashReport.SystemInfo();
+            info.setJavaVersion(string());
+            info.setJavaVendor(string());
+            info.setOsName(string());
+            info.setOsVersion(string());
+            info.setOsArch(string());
+            info.setMaxMemoryMb(BinaryReportEncoder.unZigZag(varint()));
+            info.setTotalMemoryMb(BinaryReportEncoder.unZigZag(varint()));
+            info.setFreeMemoryMb(BinaryReportEncoder.unZigZag(varint()));
+            info.setProcessors((int) BinaryReportEncoder.unZigZag(varint()));
+            info.setUptimeMs(BinaryReportEncoder.unZigZag(varint()));
+            return info;
+        }
+
+        private String string() throws IOException {
+            long ref = varint();
+            if (ref == 0) {
+                return null;
+            }
+            if (ref < 0 || ref > strings.length) {
+                throw new IOException("Binary crash report refers to an unknown string");
+            }
+            return strings[(int) ref - 1];
+        }
+
+        private boolean flag() throws IOException {
+            require(1);
+            return data[position++] != 0;
+        }
+
+        private long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in binary crash report record");
+        }
+
+        private void require(int bytes) throws EOFException {
+            if (position + bytes > data.length) {
+                throw new EOFException("Truncated binary crash report record");
+            }
+        }
+
+        private int count(long value) throws IOException {
+            if (value < 0 || value > data.length) {
+                throw new IOException("Binary crash report count out of range");
+            }
+            return (int) value;
+        }
+
+        private static CrashReport.StackFrame copy(CrashReport.StackFrame frame) {
+            CrashReport.StackFrame copy = new CrashReport.StackFrame();
+            copy.setClassName(frame.getClassName());
+            copy.setMethod(frame.getMethod());
+            copy.setFile(frame.getFile());
+            copy.setLine(frame.getLine());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arguments of a crashed call, kept as references until the report is encoded; those past what
+ * the report budget leaves room for are dropped.
+ * The first read renders all of them with the ArgumentRenderer and the result is kept. Only an
+ * AsyncReportSink writer thread calls toString on them: read anywhere else, such as on the
+ * failing thread by a synchronous sink or a RedactingReportSink in front of the queue, objects
+ * that need their toString are rendered as ArgumentRenderer.TO_STRING_SKIPPED, so the failing
+ * thread never spends the toString budget.
+ */
+final class CapturedArguments extends AbstractList<CrashReport.Argument> {
+
+    private final Parameter[] parameters;
+    private final Object[] values;
+    private final ArgumentRenderer renderer;
+    private final int maxValueBytes;
+
+    /**
+     * Largest encoded size the kept arguments can render to
+     */
+    @Getter
+    private final long maxBytes;
+
+    private List<CrashReport.Argument> rendered;
+
+    private CapturedArguments(Parameter[] parameters, Object[] values, ArgumentRenderer renderer, int maxValueBytes,
+                              long maxBytes) {
+        this.parameters = parameters;
+        this.values = values;
+        this.renderer = renderer;
+        this.maxValueBytes = maxValueBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Keeps the leading arguments that fit in allowance bytes with at least ReportLimits.MIN_FIELD_BYTES
+     * for each value, and caps their values to share what their names and types leave
+     */
+    static CapturedArguments within(Method method, Object[] values, ArgumentRenderer renderer, long allowance) {
+        Parameter[] parameters = method.getParameters();
+        long fixed = 0;
+        int kept = 0;
+        while (kept < values.length) {
+            long bytes = ReportLimits.ARGUMENT_OVERHEAD_BYTES + ReportLimits.estimate(name(parameters, kept))
+                    + ReportLimits.estimate(type(parameters, values, kept));
+            if (fixed + bytes + (kept + 1L) * ReportLimits.MIN_FIELD_BYTES > allowance) {
+                break;
+            }
+            fixed += bytes;
+            kept++;
+        }
+        int maxValueBytes = kept > 0
+                ? (int) Math.min(renderer.getMaxArgumentBytes(), (allowance - fixed) / kept) : renderer.getMaxArgumentBytes();
+        // The caller may reuse its array, the values themselves are only referenced
+        return new CapturedArguments(parameters, Arrays.copyOf(values, kept), renderer, maxValueBytes,
+                fixed + (long) kept * maxValueBytes);
+    }
+
+    @Override
+    public CrashReport.Argument get(int index) {
+        return rendered().get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    private synchronized List<CrashReport.Argument> rendered() {
+        if (rendered == null) {
+            ArgumentRenderer.Rendering rendering = AsyncReportSink.onWriterThread()
+                    ? renderer.start() : renderer.startWithoutToString();
+            List<CrashReport.Argument> arguments = new ArrayList<>(values.length);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                CrashReport.Argument argument = new CrashReport.Argument();
+                argument.setName(name(parameters, i));
+                argument.setType(type(parameters, values, i));
+                argument.setValue(ReportLimits.truncate(rendering.render(value), maxValueBytes));
+                arguments.add(argument);
+            }
+            rendered = arguments;
+        }
+        return rendered;
+    }
+
+    private static String name(Parameter[] parameters, int index) {
+        return index < parameters.length ? parameters[index].getName() : "arg" + index;
+    }
+
+    private static String type(Parameter[] parameters, Object[] values, int index) {
+        Object value = values[index];
+        return value != null ? value.getClass().getTypeName()
+                : index < parameters.length ? parameters[index].getType().getTypeName() : null;
+    }
+}
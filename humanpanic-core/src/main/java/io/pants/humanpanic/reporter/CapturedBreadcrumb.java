@@ -0,0 +1,116 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.Breadcrumbs;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.AsyncReportSink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A breadcrumb of a crash report whose arguments are kept as references until the report is
+ * encoded, capped at maxBreadcrumbBytes.
+ * The first read of any breadcrumb of a report formats all of them with one ArgumentRenderer
+ * rendering, the way CapturedArguments renders arguments: toString is only called on an
+ * AsyncReportSink writer thread, within the renderer's toString budget. Messages without
+ * arguments are formatted right away.
+ */
+final class CapturedBreadcrumb extends CrashReport.Breadcrumb {
+
+    private final Group group;
+    private final long maxBytes;
+    private Breadcrumbs.Recorded recorded;
+
+    private CapturedBreadcrumb(Group group, Breadcrumbs.Recorded recorded, long maxBytes) {
+        this.group = group;
+        this.maxBytes = maxBytes;
+        setTimestampMs(recorded.timestampMs());
+        if (recorded.arguments() == null) {
+            super.setMessage(ReportLimits.truncate(recorded.format(), group.maxMessageBytes));
+        } else {
+            this.recorded = recorded;
+        }
+    }
+
+    /**
+     * Keeps the newest breadcrumbs whose largest possible size fits in allowance bytes, oldest first
+     */
+    static List<CapturedBreadcrumb> within(List<Breadcrumbs.Recorded> recorded, ArgumentRenderer renderer,
+                                           int maxMessageBytes, long allowance) {
+        Group group = new Group(renderer, maxMessageBytes);
+        long bytes = 0;
+        for (int i = recorded.size() - 1; i >= 0; i--) {
+            Breadcrumbs.Recorded breadcrumb = recorded.get(i);
+            long maxBytes = breadcrumb.arguments() == null
+                    ? ReportLimits.estimate(ReportLimits.truncate(breadcrumb.format(), maxMessageBytes))
+                    : Math.min(maxMessageBytes, ReportLimits.estimate(breadcrumb.format())
+                    + (long) breadcrumb.arguments().length * renderer.getMaxArgumentBytes());
+            if (bytes + ReportLimits.BREADCRUMB_OVERHEAD_BYTES + maxBytes > allowance) {
+                break;
+            }
+            bytes += ReportLimits.BREADCRUMB_OVERHEAD_BYTES + maxBytes;
+            group.breadcrumbs.add(new CapturedBreadcrumb(group, breadcrumb, maxBytes));
+        }
+        Collections.reverse(group.breadcrumbs);
+        return group.breadcrumbs;
+    }
+
+    /**
+     * Largest encoded size the message can render to; not a bean getter, so encoders that
+     * serialize getters do not pick it up
+     */
+    long maxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String getMessage() {
+        group.render();
+        return super.getMessage();
+    }
+
+    @Override
+    public void setMessage(String message) {
+        group.render();
+        super.setMessage(message);
+    }
+
+    private void setRendered(String message) {
+        super.setMessage(message);
+    }
+
+    /**
+     * The breadcrumbs of one report, rendered together
+     */
+    private static final class Group {
+
+        private final ArgumentRenderer renderer;
+        private final int maxMessageBytes;
+        private final List<CapturedBreadcrumb> breadcrumbs = new ArrayList<>();
+        private boolean rendered;
+
+        Group(ArgumentRenderer renderer, int maxMessageBytes) {
+            this.renderer = renderer;
+            this.maxMessageBytes = maxMessageBytes;
+        }
+
+        synchronized void render() {
+            if (rendered) {
+                return;
+            }
+            rendered = true;
+            ArgumentRenderer.Rendering rendering = null;
+            for (CapturedBreadcrumb breadcrumb : breadcrumbs) {
+                if (breadcrumb.recorded == null) {
+                    continue;
+                }
+                if (rendering == null) {
+                    rendering = AsyncReportSink.onWriterThread() ? renderer.start() : renderer.startWithoutToString();
+                }
+                breadcrumb.setRendered(ReportLimits.truncate(breadcrumb.recorded.message(rendering), maxMessageBytes));
+                breadcrumb.recorded = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.pants.humanpanic.reporter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Pre-warms the crash path so the first real crash is as fast as later ones.
+ * A synthetic report is run through the CrashReporter and UserNotifier, but it is
+ * encoded into a null sink and the rendered text is discarded: no report is written and nothing is logged.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CrashPathWarmer {
+
+    public static final String THREAD_NAME = "humanpanic-warmup";
+
+    /**
+     * Enough rounds to get past the one-off costs without keeping the warm-up thread busy
+     */
+    private static final int WARM_ROUNDS = 20;
+
+    private final CrashReporter crashReporter;
+    private final UserNotifier userNotifier;
+
+    /**
+     * Applies the strategy. Returns the warm-up thread for BACKGROUND_WARM and null otherwise.
+     */
+    public Thread initialize(InitStrategy strategy) {
+        switch (strategy) {
+            case EAGER:
+                warm();
+                return null;
+            case BACKGROUND_WARM:
+                Thread thread = new Thread(this::warm, THREAD_NAME);
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.start();
+                return thread;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Runs synthetic reports through the crash path on the calling thread
+     */
+    public void warm() {
+        long start = System.nanoTime();
+        try {
+            Method method = CrashPathWarmer.class.getMethod("warm");
+            Throwable throwable = new IllegalStateException("HumanPanic warm-up");
+            for (int i = 0; i < WARM_ROUNDS; i++) {
+                crashReporter.warmUp(throwable, method);
+                userNotifier.formatWithReport(null, "crash-reports/crash-warmup.json");
+                userNotifier.format(null, throwable);
+            }
+            log.debug("Crash path warmed in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | NoSuchMethodException | RuntimeException e) {
+            log.warn("Failed to warm the crash path, error = {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.Breadcrumbs;
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.IndexAppender;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.model.CrashReportPool;
+import io.pants.humanpanic.sink.FileReportSink;
+import io.pants.humanpanic.sink.RecentCrashBuffer;
+import io.pants.humanpanic.sink.ReportSink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Creates crash reports similar to Rust's human-panic and passes them to a ReportSink,
+ * by default one JSON file per report in the crash-reports directory.
+ * Given a CrashIndex, every crash the sink accepted is also recorded in the index by an
+ * IndexAppender, so the crashing thread never waits for the index; close stops it. That includes
+ * crashes whose report the sink chose not to store, such as a DedupingReportSink's repeats, but
+ * a rebuild of the index from the stored reports loses those again.
+ * Reports come from a CrashReportPool and go back to it once the sink is done with them, unless
+ * the sink keeps them (ReportSink.retainsReports). ReportLimits caps the size of every report.
+ * Every report carries the Breadcrumbs the calling thread recorded before the crash.
+ */
+@Slf4j
+public class CrashReporter implements Closeable {
+
+    private final AppMetadataProvider configLoader;
+    private final ReportSink sink;
+    private final CrashIndex index;
+    private final ReportLimits limits;
+    private final SecretRedactor redactor;
+    private final IndexAppender indexer;
+    private final CrashReportPool pool = new CrashReportPool();
+
+    /**
+     * Report sections that only depend on the metadata, built once per snapshot
+     */
+    private volatile MetadataSections sections;
+
+    /**
+     * Writes report files to crash-reports
+     */
+    public CrashReporter(AppMetadataProvider configLoader) {
+        this(configLoader, new FileReportSink());
+    }
+
+    public CrashReporter(AppMetadataProvider configLoader, ReportEncoder encoder) {
+        this(configLoader, new FileReportSink(FileReportSink.DEFAULT_DIRECTORY, encoder));
+    }
+
+    /**
+     * Crashes are not indexed unless an index is given
+     */
+    public CrashReporter(AppMetadataProvider configLoader, ReportSink sink) {
+        this(configLoader, sink, null);
+    }
+
+    public CrashReporter(AppMetadataProvider configLoader, ReportSink sink, CrashIndex index) {
+        this(configLoader, sink, index, ReportLimits.DEFAULT);
+    }
+
+    /**
+     * The index, if any, stays open when the reporter is closed, it belongs to the caller
+     */
+    public CrashReporter(AppMetadataProvider configLoader, ReportSink sink, CrashIndex index, ReportLimits limits) {
+        this(configLoader, sink, index, limits, SecretRedactor.DEFAULT);
+    }
+
+    /**
+     * The redactor is the one the sink's RedactingReportSink uses; the index only keeps the words
+     * of the cause it leaves
+     */
+    public CrashReporter(AppMetadataProvider configLoader, ReportSink sink, CrashIndex index, ReportLimits limits,
+                         SecretRedactor redactor) {
+        this.configLoader = configLoader;
+        this.sink = sink;
+        this.index = index;
+        this.limits = limits;
+        this.redactor = redactor;
+        this.indexer = index != null ? new IndexAppender(index) : null;
+    }
+
+    /**
+     * Builds the report and hands it to the sink.
+     * Returns where the user can find the report, or null when the sink gives no location or writing failed.
+     * A report the sink failed to write is kept in RecentCrashBuffer.shared() instead.
+     */
+    public String createReport(Throwable throwable, Method method) {
+        return createReport(throwable, method, null);
+    }
+
+    /**
+     * Same as above and records the arguments of the failed call. They stay references until the
+     * report is encoded, see ReportLimits.getArguments for how they are rendered.
+     */
+    public String createReport(Throwable throwable, Method method, Object[] arguments) {
+        CrashReport report = generateReport(throwable, method, arguments);
+        boolean recycle = !sink.retainsReports();
+        try {
+            String location = sink.location(report);
+            // Taken before the sink can redact or recycle the report
+            CrashIndex.Indexed indexed = index != null ? index.prepare(report, location, redactor) : null;
+            sink.write(List.of(report));
+            sink.flush();
+            if (indexed != null) {
+                indexer.offer(indexed);
+            }
+            return location;
+        } catch (IOException e) {
+            log.error("Failed to create crash report, error =  {}", e.getMessage());
+            sink.discard(report);
+            if (RecentCrashBuffer.shared().append(report)) {
+                log.warn("Kept the crash report in memory, see RecentCrashBuffer.shared()");
+            }
+            return null;
+        } finally {
+            if (recycle) {
+                CrashReportPool.release(report);
+            }
+        }
+    }
+
+    /**
+     * Waits until every crash reported so far is in the index; false on timeout or without an index
+     */
+    public boolean awaitIndexed(Duration timeout) throws InterruptedException {
+        return indexer != null && indexer.await(timeout);
+    }
+
+    /**
+     * Appends the crashes still queued for the index and stops the index appender
+     */
+    @Override
+    public void close() {
+        if (indexer != null) {
+            indexer.close();
+        }
+    }
+
+    /**
+     * Runs a report through the sink's serialisation path without storing it
+     */
+    void warmUp(Throwable throwable, Method method) throws IOException {
+        CrashReport report = generateReport(throwable, method, null);
+        try {
+            sink.warmUp(report);
+        } finally {
+            if (!sink.retainsReports()) {
+                CrashReportPool.release(report);
+            }
+        }
+    }
+
+    private CrashReport generateReport(Throwable throwable, Method method, Object[] arguments) {
+        CrashReport report = pool.acquire();
+        AppMetadata metadata = configLoader.getMetadata();
+        MetadataSections metadataSections = sectionsFor(metadata);
+
+        // Basic info
+        report.setName(metadataSections.name());
+        report.setOperatingSystem(System.getProperty("os.name") + " " +
+                System.getProperty("os.version"));
+        report.setVersion(metadataSections.version());
+        report.setExplanation(metadataSections.explanation());
+
+        // The message, breadcrumbs and arguments in turn get at most half of the budget they leave,
+        // less the marker frame
+        long budget = limits.getMaxReportBytes() - ReportLimits.FRAME_OVERHEAD_BYTES;
+        long used = ReportLimits.REPORT_OVERHEAD_BYTES + metadataSections.bytes()
+                + ReportLimits.estimate(report.getOperatingSystem())
+                + (method != null ? ReportLimits.estimate(method.getDeclaringClass().getName())
+                + ReportLimits.estimate(method.getName()) : 0);
+        String message = throwable.getMessage();
+        report.setCause(throwable.getClass().getName() + ": " + (message != null
+                ? ReportLimits.truncate(message, ReportLimits.share(limits.getMaxMessageBytes(), budget - used))
+                : "No message"));
+        used += ReportLimits.estimate(report.getCause());
+
+        // Breadcrumbs of the thread reporting the crash, the failing one when called by an interceptor,
+        // the newest ones that fit at their largest possible size; formatted when first read
+        List<CapturedBreadcrumb> breadcrumbs = CapturedBreadcrumb.within(Breadcrumbs.recorded(), limits.getArguments(),
+                limits.getMaxBreadcrumbBytes(), (budget - used) / 2);
+        report.setBreadcrumbs(breadcrumbs.isEmpty() ? null : new ArrayList<>(breadcrumbs));
+        for (CapturedBreadcrumb breadcrumb : breadcrumbs) {
+            used += ReportLimits.BREADCRUMB_OVERHEAD_BYTES + breadcrumb.maxBytes();
+        }
+
+        // Method info
+        if (method != null) {
+            CrashReport.MethodInfo methodInfo = CrashReportPool.methodInfo(report);
+            methodInfo.setClassName(method.getDeclaringClass().getName());
+            methodInfo.setMethodName(method.getName());
+            CapturedArguments captured = arguments != null
+                    ? CapturedArguments.within(method, arguments, limits.getArguments(), (budget - used) / 2) : null;
+            methodInfo.setArguments(captured);
+            report.setMethod(methodInfo);
+            used += captured != null ? captured.getMaxBytes() : 0;
+        }
+
+        // Stack trace, as many frames as the report budget leaves room for
+        StackTraceElement[] elements = throwable.getStackTrace();
+        int kept = 0;
+        while (kept < elements.length) {
+            used += frameBytes(elements[kept]);
+            // Leaves room for the marker frame
+            if (used + ReportLimits.FRAME_OVERHEAD_BYTES > limits.getMaxReportBytes()) {
+                break;
+            }
+            kept++;
+        }
+        int omitted = elements.length - kept;
+        List<CrashReport.StackFrame> frames = CrashReportPool.backtrace(report, omitted > 0 ? kept + 1 : kept);
+        for (int i = 0; i < kept; i++) {
+            StackTraceElement element = elements[i];
+            CrashReport.StackFrame frame = frames.get(i);
+            frame.setClassName(ReportLimits.truncate(element.getClassName(), limits.getMaxFrameBytes()));
+            frame.setMethod(ReportLimits.truncate(element.getMethodName(), limits.getMaxFrameBytes()));
+            frame.setFile(ReportLimits.truncate(element.getFileName(), limits.getMaxFrameBytes()));
+            Integer line = frame.getLine();
+            if (line == null || line != element.getLineNumber()) {
+                // A reused frame keeps its boxed line when the crash site repeats
+                frame.setLine(element.getLineNumber());
+            }
+        }
+        if (omitted > 0) {
+            CrashReport.StackFrame marker = frames.get(kept);
+            marker.setClassName(ReportLimits.TRUNCATED_FRAMES_CLASS);
+            marker.setMethod(omitted + " more frames");
+            marker.setFile(null);
+            marker.setLine(null);
+        }
+        report.setBacktrace(frames);
+
+        // System info
+        CrashReport.SystemInfo systemInfo = CrashReportPool.systemInfo(report);
+        Properties props = System.getProperties();
+        systemInfo.setJavaVersion(props.getProperty("java.version"));
+        systemInfo.setJavaVendor(props.getProperty("java.vendor"));
+        systemInfo.setOsName(props.getProperty("os.name"));
+        systemInfo.setOsVersion(props.getProperty("os.version"));
+        systemInfo.setOsArch(props.getProperty("os.arch"));
+
+        Runtime runtime = Runtime.getRuntime();
+        systemInfo.setMaxMemoryMb(runtime.maxMemory() / 1024 / 1024);
+        systemInfo.setTotalMemoryMb(runtime.totalMemory() / 1024 / 1024);
+        systemInfo.setFreeMemoryMb(runtime.freeMemory() / 1024 / 1024);
+        systemInfo.setProcessors(runtime.availableProcessors());
+
+        RuntimeMXBean runtimeMxBean = ManagementFactory.getRuntimeMXBean();
+        systemInfo.setUptimeMs(runtimeMxBean.getUptime());
+
+        report.setSystemInfo(systemInfo);
+
+        // Application info
+        report.setApplicationInfo(metadataSections.applicationInfo());
+
+        return report;
+    }
+
+    /**
+     * Returns the cached sections for this snapshot, rebuilding them when the snapshot has been swapped
+     */
+    private MetadataSections sectionsFor(AppMetadata metadata) {
+        MetadataSections cached = sections;
+        if (cached == null || cached.metadata() != metadata) {
+            cached = buildSections(metadata);
+            sections = cached;
+        }
+        return cached;
+    }
+
+    private MetadataSections buildSections(AppMetadata metadata) {
+        int cap = limits.applicationInfoCap();
+        String name = ReportLimits.truncate(metadata.getName(), cap);
+        String version = ReportLimits.truncate(metadata.getVersion(), cap);
+        String explanation = "Well, this is embarrassing.\n\n" +
+                name + " had a problem and crashed. To help us diagnose " +
+                "the problem you can send us a crash report.\n\n" +
+                "We have generated a report file at the location below. Please include " +
+                "this file in your bug report.";
+
+        Map<String, String> appInfo = new LinkedHashMap<>();
+        appInfo.put("name", name);
+        appInfo.put("version", version);
+        appInfo.put("authors", ReportLimits.truncate(String.join(", ", metadata.getAuthors()), cap));
+        if (!metadata.getHomepage().isEmpty()) {
+            appInfo.put("homepage", ReportLimits.truncate(metadata.getHomepage(), cap));
+        }
+        if (!metadata.getSupportUrl().isEmpty()) {
+            appInfo.put("support", ReportLimits.truncate(metadata.getSupportUrl(), cap));
+        }
+        if (!metadata.getIssueUrl().isEmpty()) {
+            appInfo.put("issues", ReportLimits.truncate(metadata.getIssueUrl(), cap));
+        }
+
+        long bytes = ReportLimits.estimate(name) + ReportLimits.estimate(version) + ReportLimits.estimate(explanation);
+        for (Map.Entry<String, String> entry : appInfo.entrySet()) {
+            bytes += ReportLimits.estimate(entry.getKey()) + ReportLimits.estimate(entry.getValue());
+        }
+        return new MetadataSections(metadata, name, version, explanation, Collections.unmodifiableMap(appInfo), bytes);
+    }
+
+    /**
+     * Estimated encoded size of a frame with its strings capped
+     */
+    private long frameBytes(StackTraceElement element) {
+        int cap = limits.getMaxFrameBytes();
+        return ReportLimits.FRAME_OVERHEAD_BYTES
+                + Math.min(cap, ReportLimits.estimate(element.getClassName()))
+                + Math.min(cap, ReportLimits.estimate(element.getMethodName()))
+                + Math.min(cap, ReportLimits.estimate(element.getFileName()));
+    }
+
+    /**
+     * bytes estimates the size of the capped name, version, explanation and application info
+     */
+    private record MetadataSections(AppMetadata metadata, String name, String version, String explanation,
+                                    Map<String, String> applicationInfo, long bytes) {
+    }
+}
\ No newline at end of file
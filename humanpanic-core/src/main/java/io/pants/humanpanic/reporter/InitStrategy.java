@@ -0,0 +1,53 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.config.ConfigSources;
+
+/**
+ * Controls when the crash path (report model, encoder, formatters, notifier text) is loaded.
+ */
+public enum InitStrategy {
+
+    /**
+     * Nothing is loaded until the first crash. Startup pays nothing, the first crash pays everything.
+     */
+    LAZY,
+
+    /**
+     * The crash path is warmed synchronously on the thread that initialises HumanPanic.
+     */
+    EAGER,
+
+    /**
+     * The crash path is warmed on a low-priority daemon thread so startup is not delayed.
+     */
+    BACKGROUND_WARM;
+
+    /**
+     * System property read by {@link #configured()}
+     */
+    public static final String PROPERTY = "humanpanic.init-strategy";
+
+    /**
+     * Parses "lazy", "eager" or "background-warm" (case, '-' and '_' are ignored).
+     * Null or unknown values fall back to LAZY.
+     */
+    public static InitStrategy parse(String value) {
+        if (value == null) {
+            return LAZY;
+        }
+        String key = ConfigSources.canonicalKey(value.trim());
+        for (InitStrategy strategy : values()) {
+            if (ConfigSources.canonicalKey(strategy.name()).equals(key)) {
+                return strategy;
+            }
+        }
+        return LAZY;
+    }
+
+    /**
+     * Strategy selected through the humanpanic.init-strategy system property, LAZY when unset
+     */
+    public static InitStrategy configured() {
+        return parse(System.getProperty(PROPERTY));
+    }
+}
@@ -0,0 +1,295 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dependency-free reader for reports in the JsonReportEncoder layout, pretty or compact.
+ * Unknown fields are skipped, so reports written by newer versions still load.
+ * Meant for tooling that reads stored reports back (index rebuilds, conversions), not for hot paths.
+ */
+public class JsonReportDecoder {
+
+    public CrashReport decode(byte[] json) throws IOException {
+        return decode(new String(json, StandardCharsets.UTF_8));
+    }
+
+    public CrashReport decode(String json) throws IOException {
+        Parser parser = new Parser(json);
+        Object value = parser.value();
+        parser.end();
+        if (!(value instanceof Map<?, ?> fields)) {
+            throw new IOException("Crash report must be a JSON object");
+        }
+        CrashReport report = new CrashReport();
+        report.setName(string(fields.get("name")));
+        report.setOperatingSystem(string(fields.get("operating_system")));
+        report.setVersion(string(fields.get("version")));
+        report.setExplanation(string(fields.get("explanation")));
+        report.setCause(string(fields.get("cause")));
+        if (fields.get("method") instanceof Map<?, ?> method) {
+            CrashReport.MethodInfo info = new CrashReport.MethodInfo();
+            info.setClassName(string(method.get("class")));
+            info.setMethodName(string(method.get("method")));
+            if (method.get("arguments") instanceof List<?> arguments) {
+                List<CrashReport.Argument> values = new ArrayList<>(arguments.size());
+                for (Object element : arguments) {
+                    values.add(element instanceof Map<?, ?> argument ? argument(argument) : null);
+                }
+                info.setArguments(values);
+            }
+            report.setMethod(info);
+        }
+        if (fields.get("backtrace") instanceof List<?> backtrace) {
+            List<CrashReport.StackFrame> frames = new ArrayList<>(backtrace.size());
+            for (Object element : backtrace) {
+                frames.add(element instanceof Map<?, ?> frame ? frame(frame) : null);
+            }
+            report.setBacktrace(frames);
+        }
+        report.setBacktraceRef(string(fields.get("backtrace_ref")));
+        if (fields.get("system_info") instanceof Map<?, ?> system) {
+            report.setSystemInfo(systemInfo(system));
+        }
+        if (fields.get("application_info") instanceof Map<?, ?> application) {
+            Map<String, String> info = new LinkedHashMap<>();
+            application.forEach((key, entry) -> info.put((String) key, string(entry)));
+            report.setApplicationInfo(info);
+        }
+        if (fields.get("breadcrumbs") instanceof List<?> breadcrumbs) {
+            List<CrashReport.Breadcrumb> values = new ArrayList<>(breadcrumbs.size());
+            for (Object element : breadcrumbs) {
+                if (element instanceof Map<?, ?> breadcrumb) {
+                    CrashReport.Breadcrumb crumb = new CrashReport.Breadcrumb();
+                    crumb.setTimestampMs(number(breadcrumb.get("timestamp_ms")));
+                    crumb.setMessage(string(breadcrumb.get("message")));
+                    values.add(crumb);
+                }
+            }
+            report.setBreadcrumbs(values);
+        }
+        return report;
+    }
+
+    private static CrashReport.StackFrame frame(Map<?, ?> fields) {
+        CrashReport.StackFrame frame = new CrashReport.StackFrame();
+        frame.setClassName(string(fields.get("class")));
+        frame.setMethod(string(fields.get("method")));
+        frame.setFile(string(fields.get("file")));
+        frame.setLine(fields.get("line") instanceof Number line ? line.intValue() : null);
+        return frame;
+    }
+
+    private static CrashReport.Argument argument(Map<?, ?> fields) {
+        CrashReport.Argument argument = new CrashReport.Argument();
+        argument.setName(string(fields.get("name")));
+        argument.setType(string(fields.get("type")));
+        argument.setValue(string(fields.get("value")));
+        return argument;
+    }
+
+    private static CrashReport.SystemInfo systemInfo(Map<?, ?> fields) {
+        CrashReport.SystemInfo info = new CrashReport.SystemInfo();
+        info.setJavaVersion(string(fields.get("java_version")));
+        info.setJavaVendor(string(fields.get("java_vendor")));
+        info.setOsName(string(fields.get("os_name")));
+        info.setOsVersion(string(fields.get("os_version")));
+        info.setOsArch(string(fields.get("os_arch")));
+        info.setMaxMemoryMb(number(fields.get("max_memory_mb")));
+        info.setTotalMemoryMb(number(fields.get("total_memory_mb")));
+        info.setFreeMemoryMb(number(fields.get("free_memory_mb")));
+        info.setProcessors((int) number(fields.get("processors")));
+        info.setUptimeMs(number(fields.get("uptime_ms")));
+        return info;
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    /**
+     * Recursive descent parser producing maps, lists, strings, longs, doubles, booleans and nulls
+     */
+    private static final class Parser {
+        private final String json;
+        private int pos;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Object value() throws IOException {
+            skipWhitespace();
+            if (pos >= json.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = json.charAt(pos);
+            switch (c) {
+                case '{':
+                    return object();
+                case '[':
+                    return array();
+                case '"':
+                    return string();
+                case 't':
+                    literal("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    literal("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    literal("null");
+                    return null;
+                default:
+                    return number();
+            }
+        }
+
+        void end() throws IOException {
+            skipWhitespace();
+            if (pos < json.length()) {
+                throw error("Trailing content");
+            }
+        }
+
+        private Map<String, Object> object() throws IOException {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return fields;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                fields.put(name, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return fields;
+                }
+            }
+        }
+
+        private List<Object> array() throws IOException {
+            List<Object> elements = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return elements;
+            }
+            while (true) {
+                elements.add(value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return elements;
+                }
+            }
+        }
+
+        private String string() throws IOException {
+            pos++;
+            StringBuilder value = new StringBuilder();
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 't' -> value.append('\t');
+                    case 'r' -> value.append('\r');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Number number() throws IOException {
+            int start = pos;
+            while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String text = json.substring(start, pos);
+            try {
+                if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+                    return Double.parseDouble(text);
+                }
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                throw error("Invalid value");
+            }
+        }
+
+        private void literal(String literal) throws IOException {
+            if (!json.startsWith(literal, pos)) {
+                throw error("Invalid value");
+            }
+            pos += literal.length();
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private char peek() {
+            return pos < json.length() ? json.charAt(pos) : '\0';
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at position " + pos);
+        }
+    }
+}
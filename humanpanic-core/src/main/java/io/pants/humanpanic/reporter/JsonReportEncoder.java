@@ -0,0 +1,283 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dependency-free JSON encoder for crash reports.
+ * Produces the same indented layout as Jackson's default pretty printer,
+ * so reports look identical whichever encoder wrote them.
+ * The compact form matches Jackson without indentation and never contains a line break,
+ * which is what line-delimited sinks need.
+ * backtrace_ref is only written for reports whose frames live in a BacktraceStore.
+ */
+public class JsonReportEncoder implements ReportEncoder {
+
+    private static final String INDENT = "  ";
+
+    private final boolean pretty;
+
+    public JsonReportEncoder() {
+        this(true);
+    }
+
+    public JsonReportEncoder(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    @Override
+    public void encode(CrashReport report, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeReport(writer, report);
+        writer.flush();
+    }
+
+    private void writeReport(Writer w, CrashReport report) throws IOException {
+        w.write('{');
+        field(w, 1, "name", true);
+        string(w, report.getName());
+        field(w, 1, "operating_system", false);
+        string(w, report.getOperatingSystem());
+        field(w, 1, "version", false);
+        string(w, report.getVersion());
+        field(w, 1, "explanation", false);
+        string(w, report.getExplanation());
+        field(w, 1, "cause", false);
+        string(w, report.getCause());
+        field(w, 1, "method", false);
+        writeMethod(w, report.getMethod());
+        field(w, 1, "backtrace", false);
+        writeBacktrace(w, report.getBacktrace());
+        if (report.getBacktraceRef() != null) {
+            field(w, 1, "backtrace_ref", false);
+            string(w, report.getBacktraceRef());
+        }
+        field(w, 1, "system_info", false);
+        writeSystemInfo(w, report.getSystemInfo());
+        field(w, 1, "application_info", false);
+        writeMap(w, 1, report.getApplicationInfo());
+        if (report.getBreadcrumbs() != null) {
+            field(w, 1, "breadcrumbs", false);
+            writeBreadcrumbs(w, report.getBreadcrumbs());
+        }
+        close(w, 0, '}');
+    }
+
+    private void writeMethod(Writer w, CrashReport.MethodInfo method) throws IOException {
+        if (method == null) {
+            w.write("null");
+            return;
+        }
+        w.write('{');
+        field(w, 2, "class", true);
+        string(w, method.getClassName());
+        field(w, 2, "method", false);
+        string(w, method.getMethodName());
+        List<CrashReport.Argument> arguments = method.getArguments();
+        if (arguments != null) {
+            field(w, 2, "arguments", false);
+            writeArguments(w, arguments);
+        }
+        close(w, 1, '}');
+    }
+
+    private void writeArguments(Writer w, List<CrashReport.Argument> arguments) throws IOException {
+        if (arguments.isEmpty()) {
+            w.write(pretty ? "[ ]" : "[]");
+            return;
+        }
+        w.write(pretty ? "[ " : "[");
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                w.write(pretty ? ", " : ",");
+            }
+            CrashReport.Argument argument = arguments.get(i);
+            w.write('{');
+            field(w, 3, "name", true);
+            string(w, argument.getName());
+            field(w, 3, "type", false);
+            string(w, argument.getType());
+            field(w, 3, "value", false);
+            string(w, argument.getValue());
+            close(w, 2, '}');
+        }
+        w.write(pretty ? " ]" : "]");
+    }
+
+    private void writeBacktrace(Writer w, List<CrashReport.StackFrame> frames) throws IOException {
+        if (frames == null) {
+            w.write("null");
+            return;
+        }
+        if (frames.isEmpty()) {
+            w.write(pretty ? "[ ]" : "[]");
+            return;
+        }
+        w.write(pretty ? "[ " : "[");
+        for (int i = 0; i < frames.size(); i++) {
+            if (i > 0) {
+                w.write(pretty ? ", " : ",");
+            }
+            writeFrame(w, frames.get(i));
+        }
+        w.write(pretty ? " ]" : "]");
+    }
+
+    private void writeFrame(Writer w, CrashReport.StackFrame frame) throws IOException {
+        if (frame == null) {
+            w.write("null");
+            return;
+        }
+        w.write('{');
+        field(w, 2, "class", true);
+        string(w, frame.getClassName());
+        field(w, 2, "method", false);
+        string(w, frame.getMethod());
+        field(w, 2, "file", false);
+        string(w, frame.getFile());
+        field(w, 2, "line", false);
+        w.write(frame.getLine() == null ? "null" : frame.getLine().toString());
+        close(w, 1, '}');
+    }
+
+    private void writeBreadcrumbs(Writer w, List<CrashReport.Breadcrumb> breadcrumbs) throws IOException {
+        if (breadcrumbs.isEmpty()) {
+            w.write(pretty ? "[ ]" : "[]");
+            return;
+        }
+        w.write(pretty ? "[ " : "[");
+        for (int i = 0; i < breadcrumbs.size(); i++) {
+            if (i > 0) {
+                w.write(pretty ? ", " : ",");
+            }
+            CrashReport.Breadcrumb breadcrumb = breadcrumbs.get(i);
+            w.write('{');
+            field(w, 2, "timestamp_ms", true);
+            w.write(Long.toString(breadcrumb.getTimestampMs()));
+            field(w, 2, "message", false);
+            string(w, breadcrumb.getMessage());
+            close(w, 1, '}');
+        }
+        w.write(pretty ? " ]" : "]");
+    }
+
+    private void writeSystemInfo(Writer w, CrashReport.SystemInfo info) throws IOException {
+        if (info == null) {
+            w.write("null");
+            return;
+        }
+        w.write('{');
+        field(w, 2, "java_version", true);
+        string(w, info.getJavaVersion());
+        field(w, 2, "java_vendor", false);
+        string(w, info.getJavaVendor());
+        field(w, 2, "os_name", false);
+        string(w, info.getOsName());
+        field(w, 2, "os_version", false);
+        string(w, info.getOsVersion());
+        field(w, 2, "os_arch", false);
+        string(w, info.getOsArch());
+        field(w, 2, "max_memory_mb", false);
+        w.write(Long.toString(info.getMaxMemoryMb()));
+        field(w, 2, "total_memory_mb", false);
+        w.write(Long.toString(info.getTotalMemoryMb()));
+        field(w, 2, "free_memory_mb", false);
+        w.write(Long.toString(info.getFreeMemoryMb()));
+        field(w, 2, "processors", false);
+        w.write(Integer.toString(info.getProcessors()));
+        field(w, 2, "uptime_ms", false);
+        w.write(Long.toString(info.getUptimeMs()));
+        close(w, 1, '}');
+    }
+
+    private void writeMap(Writer w, int depth, Map<String, String> map) throws IOException {
+        if (map == null) {
+            w.write("null");
+            return;
+        }
+        if (map.isEmpty()) {
+            w.write(pretty ? "{ }" : "{}");
+            return;
+        }
+        w.write('{');
+        boolean first = true;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            field(w, depth + 1, entry.getKey(), first);
+            string(w, entry.getValue());
+            first = false;
+        }
+        close(w, depth, '}');
+    }
+
+    private void field(Writer w, int depth, String name, boolean first) throws IOException {
+        if (!first) {
+            w.write(',');
+        }
+        if (pretty) {
+            w.write('\n');
+            indent(w, depth);
+        }
+        string(w, name);
+        w.write(pretty ? " : " : ":");
+    }
+
+    private void close(Writer w, int depth, char bracket) throws IOException {
+        if (pretty) {
+            w.write('\n');
+            indent(w, depth);
+        }
+        w.write(bracket);
+    }
+
+    private void indent(Writer w, int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            w.write(INDENT);
+        }
+    }
+
+    /**
+     * Writes a JSON string literal, escaping like Jackson does by default
+     */
+    private static void string(Writer w, String value) throws IOException {
+        if (value == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String escape = null;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c < 0x20) {
+                escape = switch (c) {
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    case '\b' -> "\\b";
+                    case '\f' -> "\\f";
+                    default -> String.format("\\u%04X", (int) c);
+                };
+            }
+            if (escape != null) {
+                w.write(value, start, i - start);
+                w.write(escape);
+                start = i + 1;
+            }
+        }
+        w.write(value, start, length - start);
+        w.write('"');
+    }
+}
@@ -0,0 +1,15 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Serializes a crash report. The built-in JsonReportEncoder has no dependencies,
+ * humanpanic-jackson provides a Jackson backed alternative with the same layout.
+ */
+public interface ReportEncoder {
+
+    void encode(CrashReport report, OutputStream out) throws IOException;
+}
@@ -0,0 +1,195 @@
+package io.pants.humanpanic.reporter;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Size caps applied while a report is built, so neither a 20 MB exception message nor a runaway
+ * backtrace can make a report slow to encode or large to store.
+ *
+ * Every cap counts UTF-8 bytes: maxMessageBytes for the exception message, maxFrameBytes for each
+ * class, method and file name of a frame, maxApplicationInfoBytes for the application name,
+ * version and each application info value, maxBreadcrumbBytes for each formatted breadcrumb. A
+ * capped string keeps its beginning and ends with a marker giving its original length in
+ * characters. maxReportBytes then bounds the whole report, by the estimated pretty-printed JSON
+ * size, which is exact up to JSON escaping. The fixed caps only apply as far as it leaves room:
+ * application info takes at most a quarter of it, then the message, the breadcrumbs (newest kept)
+ * and the captured arguments each get at most half of what is left at their turn, and frames that
+ * do not fit in the rest are replaced by one marker frame counting them. Captured arguments are
+ * rendered within the caps of the arguments renderer and counted at their largest possible size;
+ * arguments that do not fit at MIN_FIELD_BYTES each are left out.
+ */
+@Getter
+public final class ReportLimits {
+
+    public static final int DEFAULT_MAX_REPORT_BYTES = 256 * 1024;
+    public static final int DEFAULT_MAX_MESSAGE_BYTES = 16 * 1024;
+    public static final int DEFAULT_MAX_FRAME_BYTES = 1024;
+    public static final int DEFAULT_MAX_APPLICATION_INFO_BYTES = 4 * 1024;
+    public static final int DEFAULT_MAX_BREADCRUMB_BYTES = 512;
+    public static final String TRUNCATED_FRAMES_CLASS = "[truncated]";
+
+    /**
+     * Smallest cap, leaves room for the marker
+     */
+    static final int MIN_FIELD_BYTES = 64;
+
+    /**
+     * Smallest maxReportBytes, leaves room for REPORT_OVERHEAD_BYTES and a capped message and frames
+     */
+    public static final int MIN_REPORT_BYTES = 4 * 1024;
+
+    /**
+     * Capped application info strings in a report: the name appears three times (name, explanation
+     * and application info), the version twice, authors, homepage, support and issues once
+     */
+    static final int APPLICATION_INFO_STRINGS = 9;
+
+    /**
+     * JSON keys, punctuation and indentation around the strings of one pretty-printed frame,
+     * its line number included
+     */
+    static final int FRAME_OVERHEAD_BYTES = 112;
+
+    /**
+     * Everything besides frames and the capped strings: keys, system info and the method
+     */
+    static final int REPORT_OVERHEAD_BYTES = 1024;
+
+    /**
+     * JSON keys, punctuation and indentation around the strings of one pretty-printed argument
+     */
+    static final int ARGUMENT_OVERHEAD_BYTES = 80;
+
+    /**
+     * JSON keys, punctuation, indentation and the timestamp of one pretty-printed breadcrumb
+     */
+    static final int BREADCRUMB_OVERHEAD_BYTES = 72;
+
+    public static final ReportLimits DEFAULT = builder().build();
+
+    /**
+     * No caps, reports keep everything the application throws
+     */
+    public static final ReportLimits UNLIMITED = builder()
+            .maxReportBytes(Integer.MAX_VALUE)
+            .maxMessageBytes(Integer.MAX_VALUE)
+            .maxFrameBytes(Integer.MAX_VALUE)
+            .maxApplicationInfoBytes(Integer.MAX_VALUE)
+            .maxBreadcrumbBytes(Integer.MAX_VALUE)
+            .arguments(ArgumentRenderer.builder().maxArgumentBytes(Integer.MAX_VALUE).build())
+            .build();
+
+    private final int maxReportBytes;
+    private final int maxMessageBytes;
+    private final int maxFrameBytes;
+    private final int maxApplicationInfoBytes;
+    private final int maxBreadcrumbBytes;
+    private final ArgumentRenderer arguments;
+
+    @Builder
+    private ReportLimits(Integer maxReportBytes, Integer maxMessageBytes, Integer maxFrameBytes,
+                         Integer maxApplicationInfoBytes, Integer maxBreadcrumbBytes, ArgumentRenderer arguments) {
+        if (maxReportBytes != null && maxReportBytes < MIN_REPORT_BYTES) {
+            throw new IllegalArgumentException("maxReportBytes must be at least " + MIN_REPORT_BYTES + " bytes");
+        }
+        this.maxReportBytes = maxReportBytes != null ? maxReportBytes : DEFAULT_MAX_REPORT_BYTES;
+        this.maxMessageBytes = valid("maxMessageBytes", maxMessageBytes, DEFAULT_MAX_MESSAGE_BYTES);
+        this.maxFrameBytes = valid("maxFrameBytes", maxFrameBytes, DEFAULT_MAX_FRAME_BYTES);
+        this.maxApplicationInfoBytes = valid("maxApplicationInfoBytes", maxApplicationInfoBytes,
+                DEFAULT_MAX_APPLICATION_INFO_BYTES);
+        this.maxBreadcrumbBytes = valid("maxBreadcrumbBytes", maxBreadcrumbBytes, DEFAULT_MAX_BREADCRUMB_BYTES);
+        this.arguments = arguments != null ? arguments : ArgumentRenderer.DEFAULT;
+    }
+
+    /**
+     * The value itself when its UTF-8 encoding fits maxBytes, otherwise its longest prefix that
+     * fits together with the marker " ...[truncated, N chars]". Never splits a surrogate pair.
+     */
+    public static String truncate(String value, int maxBytes) {
+        // Three bytes per char is the UTF-8 worst case, a surrogate pair takes four for two chars
+        if (value == null || value.length() * 3L <= maxBytes || fitting(value, maxBytes) == value.length()) {
+            return value;
+        }
+        String marker = " ...[truncated, " + value.length() + " chars]";
+        return value.substring(0, fitting(value, Math.max(0, maxBytes - marker.length()))) + marker;
+    }
+
+    /**
+     * Cap of each application info string, maxApplicationInfoBytes unless that would let them take
+     * more than a quarter of maxReportBytes
+     */
+    int applicationInfoCap() {
+        return Math.max(MIN_FIELD_BYTES, Math.min(maxApplicationInfoBytes, maxReportBytes / 4 / APPLICATION_INFO_STRINGS));
+    }
+
+    /**
+     * A cap no larger than cap and half of the bytes left, but at least MIN_FIELD_BYTES
+     */
+    static int share(int cap, long left) {
+        return (int) Math.max(MIN_FIELD_BYTES, Math.min(cap, left / 2));
+    }
+
+    /**
+     * Size of a string in the encoded report, its UTF-8 length; exact unless JSON escapes some of it
+     */
+    static long estimate(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = value.length();
+        long bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // Four bytes for the two chars of a pair
+                bytes++;
+            } else if (c >= 0x800) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of leading chars whose UTF-8 encoding fits maxBytes
+     */
+    private static int fitting(String value, int maxBytes) {
+        int bytes = 0;
+        int end = 0;
+        int length = value.length();
+        while (end < length) {
+            char c = value.charAt(end);
+            int size;
+            int chars = 1;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c) && end + 1 < length && Character.isLowSurrogate(value.charAt(end + 1))) {
+                size = 4;
+                chars = 2;
+            } else {
+                size = 3;
+            }
+            if (bytes + size > maxBytes) {
+                break;
+            }
+            bytes += size;
+            end += chars;
+        }
+        return end;
+    }
+
+    private static int valid(String name, Integer value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value < MIN_FIELD_BYTES) {
+            throw new IllegalArgumentException(name + " must be at least " + MIN_FIELD_BYTES + " bytes");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,168 @@
+package io.pants.humanpanic.reporter;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.AppMetadataProvider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Consumer;
+
+/**
+ * Displays human-friendly panic messages like Rust's human-panic.
+ * Messages go to the logger by default, any other output can be passed in.
+ * Unless told that the sink sends reports on its own (ReportSink.sendsReports), the report footer
+ * promises that no error collection happens automatically.
+ */
+@Slf4j
+public class UserNotifier {
+
+    private final AppMetadataProvider configLoader;
+    private final Consumer<String> output;
+    private final boolean sendsReports;
+
+    /**
+     * Text that only depends on the metadata, rendered once per snapshot
+     */
+    private volatile RenderedText rendered;
+
+    public UserNotifier(AppMetadataProvider configLoader) {
+        this(configLoader, false);
+    }
+
+    public UserNotifier(AppMetadataProvider configLoader, boolean sendsReports) {
+        this(configLoader, UserNotifier::logMessage, sendsReports);
+    }
+
+    public UserNotifier(AppMetadataProvider configLoader, Consumer<String> output) {
+        this(configLoader, output, false);
+    }
+
+    public UserNotifier(AppMetadataProvider configLoader, Consumer<String> output, boolean sendsReports) {
+        this.configLoader = configLoader;
+        this.output = output;
+        this.sendsReports = sendsReports;
+    }
+
+    public void notifyWithReport(String customMessage, String reportPath) {
+        output.accept(formatWithReport(customMessage, reportPath));
+    }
+
+    public void notify(String message, Throwable throwable) {
+        output.accept(format(message, throwable));
+    }
+
+    String formatWithReport(String customMessage, String reportPath) {
+        RenderedText text = renderedFor(configLoader.getMetadata());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(text.reportHeader());
+
+        if (customMessage != null && !customMessage.isEmpty() && !customMessage.equals("An error occurred")) {
+            sb.append(customMessage).append("\n");
+            sb.append("\n");
+        }
+
+        if (reportPath != null) {
+            sb.append("We have generated a report file at:\n");
+            sb.append("\n");
+            sb.append("  ").append(reportPath).append("\n");
+            sb.append("\n");
+        }
+
+        sb.append(text.reportFooter());
+
+        return sb.toString();
+    }
+
+    String format(String message, Throwable throwable) {
+        RenderedText text = renderedFor(configLoader.getMetadata());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(text.errorHeader());
+
+        if (message != null && !message.isEmpty() && !message.equals("An error occurred")) {
+            sb.append("  ").append(message).append("\n");
+        }
+
+        sb.append("  ").append(throwable.getClass().getSimpleName()).append("\n");
+        if (throwable.getMessage() != null) {
+            sb.append("  ").append(throwable.getMessage()).append("\n");
+        }
+        sb.append("\n");
+        sb.append("The application will continue running.\n");
+
+        return sb.toString();
+    }
+
+    private static void logMessage(String message) {
+        log.info("{}", message);
+    }
+
+    /**
+     * Returns the cached text for this snapshot, re-rendering when the snapshot has been swapped
+     */
+    private RenderedText renderedFor(AppMetadata metadata) {
+        RenderedText text = rendered;
+        if (text == null || text.metadata() != metadata) {
+            text = render(metadata, sendsReports);
+            rendered = text;
+        }
+        return text;
+    }
+
+    private static RenderedText render(AppMetadata metadata, boolean sendsReports) {
+        StringBuilder header = new StringBuilder();
+        header.append("\n");
+        header.append("Well, this is embarrassing.\n");
+        header.append("\n");
+        header.append(metadata.getName()).append(" had a problem and crashed. To help us diagnose\n");
+        header.append("the problem you can send us a crash report.\n");
+        header.append("\n");
+
+        StringBuilder footer = new StringBuilder();
+        footer.append("Submit an issue or email with the subject of:\n");
+        footer.append("\n");
+        footer.append("  ").append(metadata.getName()).append(" Crash Report\n");
+        footer.append("\n");
+
+        if (!metadata.getIssueUrl().isEmpty()) {
+            footer.append("- Open an issue at:\n");
+            footer.append("    ").append(metadata.getIssueUrl()).append("\n");
+            footer.append("\n");
+        }
+
+        if (!metadata.getSupportUrl().isEmpty()) {
+            footer.append("- Get help at:\n");
+            footer.append("    ").append(metadata.getSupportUrl()).append("\n");
+            footer.append("\n");
+        }
+
+        String[] authors = metadata.getAuthors();
+        if (authors != null && authors.length > 0 && !authors[0].equals("Unknown")) {
+            footer.append("- Contact the authors:\n");
+            for (String author : authors) {
+                footer.append("    ").append(author).append("\n");
+            }
+            footer.append("\n");
+        }
+
+        if (sendsReports) {
+            footer.append("Crash reports are also sent to the developers automatically.\n");
+            footer.append("In order to improve the software, we still rely on people to tell us what happened.\n");
+        } else {
+            footer.append("We take privacy seriously, and do not perform any automated error collection.\n");
+            footer.append("In order to improve the software, we rely on people to submit reports.\n");
+        }
+        footer.append("\n");
+        footer.append("Thank you kindly!\n");
+
+        String errorHeader = "\n" +
+                "Well, this is embarrassing.\n" +
+                "\n" +
+                metadata.getName() + " encountered an error:\n";
+
+        return new RenderedText(metadata, header.toString(), footer.toString(), errorHeader);
+    }
+
+    private record RenderedText(AppMetadata metadata, String reportHeader, String reportFooter, String errorHeader) {
+    }
+}
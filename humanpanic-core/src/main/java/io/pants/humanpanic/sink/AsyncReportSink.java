@@ -0,0 +1,214 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.model.CrashReportPool;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gives a sink its own bounded queue and writer thread.
+ *
+ * write only enqueues and never blocks the crashing thread; when the queue is full the report
+ * is dropped and counted. The writer drains whatever has queued up (at most maxBatch reports),
+ * hands it to the delegate as one batch and flushes it. Pending reports are drained on close
+ * and from a shutdown hook, so System.exit after a crash does not lose them. Enqueueing and
+ * closing exclude each other, so a report accepted by write is always seen by the writer; one
+ * that arrives after close is dropped and counted like one that finds the queue full.
+ *
+ * Queued pooled reports are held with CrashReportPool.retain and released once the delegate has
+ * written them, so the crashing thread can hand its report back to the pool right away. A batch
+ * the delegate fails to write is kept in RecentCrashBuffer.shared() before it is released.
+ */
+@Slf4j
+public class AsyncReportSink implements ReportSink {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 64;
+    private static final long POLL_MS = 50;
+    private static final long DRAIN_TIMEOUT_MS = 2000;
+
+    @Getter
+    private final ReportSink delegate;
+    private final BlockingQueue<CrashReport> queue;
+    private final int maxBatch;
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * Read-held while enqueueing, write-held to close the queue
+     */
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final AtomicBoolean delegateClosed = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public AsyncReportSink(ReportSink delegate) {
+        this(delegate, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public AsyncReportSink(ReportSink delegate, int capacity, int maxBatch) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.writer = new WriterThread(this::run, "humanpanic-sink-" + delegate.getClass().getSimpleName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+        this.shutdownHook = new Thread(this::drain, "humanpanic-sink-drain");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) {
+        for (CrashReport report : reports) {
+            CrashReportPool.retain(report);
+            boolean open;
+            boolean queued;
+            gate.readLock().lock();
+            try {
+                open = !closed;
+                queued = open && queue.offer(report);
+            } finally {
+                gate.readLock().unlock();
+            }
+            if (!queued) {
+                delegate.discard(report);
+                CrashReportPool.release(report);
+                dropped.incrementAndGet();
+                log.warn(open ? "Crash report queue for {} is full, report dropped"
+                        : "Crash report sink {} is closed, report dropped", delegate.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Does not block: the writer thread flushes the delegate after every batch
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public String location(CrashReport report) {
+        return delegate.location(report);
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        delegate.discard(report);
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        delegate.warmUp(report);
+    }
+
+    /**
+     * Queued reports are held through the pool, so this only depends on the delegate
+     */
+    @Override
+    public boolean retainsReports() {
+        return delegate.retainsReports();
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return delegate.sendsReports();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The shutdown hook may have drained already, the delegate still has to be closed once
+        drain();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down
+        }
+        if (delegateClosed.compareAndSet(false, true)) {
+            delegate.close();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Whether the calling thread is the writer thread of an AsyncReportSink, where work a sink
+     * must keep off the crashing thread can run
+     */
+    public static boolean onWriterThread() {
+        return Thread.currentThread() instanceof WriterThread;
+    }
+
+    private void drain() {
+        gate.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        try {
+            writer.join(DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Timed out draining crash reports for {}", delegate.getClass().getSimpleName());
+        }
+    }
+
+    private void run() {
+        List<CrashReport> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                CrashReport first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Never interrupted by this class, keep draining
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<CrashReport> batch) {
+        try {
+            delegate.write(batch);
+            delegate.flush();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write {} crash reports to {}, keeping them in the recent crash buffer, error = {}",
+                    batch.size(), delegate.getClass().getSimpleName(), e.getMessage());
+            RecentCrashBuffer recent = RecentCrashBuffer.shared();
+            for (CrashReport report : batch) {
+                recent.append(report);
+            }
+        }
+        if (!delegate.retainsReports()) {
+            for (CrashReport report : batch) {
+                CrashReportPool.release(report);
+            }
+        }
+    }
+
+    private static final class WriterThread extends Thread {
+        WriterThread(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed store that keeps each distinct backtrace once.
+ *
+ * A backtrace is addressed by the first 128 bits of the SHA-256 of its normalised frames (class,
+ * method, file and line, absent values kept distinct from empty ones), in hex. It is stored as
+ * &lt;hash[0..2]&gt;/&lt;hash&gt;.bt holding [int frame count] and then [int class ref][int method ref]
+ * [int file ref][int line] per frame. The refs point into frames.dict, a dictionary of the frame
+ * strings shared by every backtrace, kept as [int length][UTF-8] records referenced by offset the
+ * way CrashIndex interns its names.
+ *
+ * The dictionary is appended under a file lock so several processes can share the store, and a
+ * backtrace file is written to a temporary name and moved into place, so readers never see a
+ * partial one. Backtraces are never deleted: their number is bounded by the distinct failures,
+ * not by the number of reports.
+ */
+@Slf4j
+public class BacktraceStore implements Closeable {
+
+    public static final String DIRECTORY_NAME = "backtraces";
+    public static final String DICTIONARY_FILE = "frames.dict";
+    static final String SUFFIX = ".bt";
+    static final int HASH_BYTES = 16;
+    private static final int NONE = -1;
+    private static final int NULL_FRAME = -2;
+    private static final int NO_LINE = Integer.MIN_VALUE;
+    private static final int MAX_KNOWN = 65_536;
+
+    @Getter
+    private final Path directory;
+
+    /**
+     * Hashes already on disk, so a crash storm of one failure only pays for the hash
+     */
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> refs = new HashMap<>();
+    private final Map<Integer, String> strings = new HashMap<>();
+    private FileChannel dictionary;
+    private long loaded;
+
+    /**
+     * @param directory where backtraces and the dictionary live, by convention the backtraces
+     *                  directory next to the reports
+     */
+    public BacktraceStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Stores the backtrace unless it is already there and returns its hash
+     */
+    public String put(List<CrashReport.StackFrame> frames) throws IOException {
+        String hash = hash(frames);
+        if (known.contains(hash)) {
+            return hash;
+        }
+        synchronized (this) {
+            Path file = path(hash);
+            if (!Files.exists(file)) {
+                write(file, frames);
+            }
+        }
+        if (known.size() >= MAX_KNOWN) {
+            known.clear();
+        }
+        known.add(hash);
+        return hash;
+    }
+
+    /**
+     * The frames stored under the hash, or null when there is no such backtrace
+     */
+    public synchronized List<CrashReport.StackFrame> get(String hash) throws IOException {
+        Path file = path(hash);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        int count = data.getInt();
+        int[] refsInFile = new int[count * 4];
+        data.asIntBuffer().get(refsInFile);
+        open();
+        loadDictionary();
+        List<CrashReport.StackFrame> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int classRef = refsInFile[i * 4];
+            if (classRef == NULL_FRAME) {
+                frames.add(null);
+                continue;
+            }
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName(string(classRef));
+            frame.setMethod(string(refsInFile[i * 4 + 1]));
+            frame.setFile(string(refsInFile[i * 4 + 2]));
+            int line = refsInFile[i * 4 + 3];
+            frame.setLine(line == NO_LINE ? null : line);
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    /**
+     * Puts the stored frames back into a report that refers to them and clears the reference.
+     * Reports with inline frames are returned as they are; a missing backtrace is logged and the
+     * report is returned without frames.
+     */
+    public CrashReport resolve(CrashReport report) throws IOException {
+        String hash = report.getBacktraceRef();
+        if (hash == null || report.getBacktrace() != null) {
+            return report;
+        }
+        List<CrashReport.StackFrame> frames = get(hash);
+        if (frames == null) {
+            log.warn("Backtrace {} is missing from {}", hash, directory);
+            return report;
+        }
+        report.setBacktrace(frames);
+        report.setBacktraceRef(null);
+        return report;
+    }
+
+    /**
+     * Number of distinct strings in the frame dictionary
+     */
+    public synchronized int getDictionarySize() throws IOException {
+        open();
+        loadDictionary();
+        return strings.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (dictionary != null) {
+            dictionary.close();
+            dictionary = null;
+        }
+        refs.clear();
+        strings.clear();
+        loaded = 0;
+    }
+
+    /**
+     * Content address of a backtrace: 32 lowercase hex digits
+     */
+    public static String hash(List<CrashReport.StackFrame> frames) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(frames == null ? NONE : frames.size());
+        digest.update(count.array());
+        if (frames != null) {
+            for (CrashReport.StackFrame frame : frames) {
+                if (frame == null) {
+                    digest.update((byte) 0);
+                    continue;
+                }
+                digest.update((byte) 1);
+                update(digest, frame.getClassName());
+                update(digest, frame.getMethod());
+                update(digest, frame.getFile());
+                ByteBuffer line = ByteBuffer.allocate(Integer.BYTES)
+                        .putInt(frame.getLine() == null ? NO_LINE : frame.getLine());
+                digest.update(line.array());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, HASH_BYTES);
+    }
+
+    private void write(Path file, List<CrashReport.StackFrame> frames) throws IOException {
+        int size = frames == null ? 0 : frames.size();
+        ByteBuffer data = ByteBuffer.allocate(Integer.BYTES * (1 + size * 4)).putInt(size);
+        open();
+        try (FileLock ignored = dictionary.lock()) {
+            loadDictionary();
+            for (int i = 0; i < size; i++) {
+                CrashReport.StackFrame frame = frames.get(i);
+                if (frame == null) {
+                    data.putInt(NULL_FRAME).putInt(NONE).putInt(NONE).putInt(NO_LINE);
+                    continue;
+                }
+                data.putInt(ref(frame.getClassName()))
+                        .putInt(ref(frame.getMethod()))
+                        .putInt(ref(frame.getFile()))
+                        .putInt(frame.getLine() == null ? NO_LINE : frame.getLine());
+            }
+        }
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        Files.write(temp, data.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void open() throws IOException {
+        if (dictionary != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        dictionary = FileChannel.open(directory.resolve(DICTIONARY_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Loads strings appended since the last call, by this or another process
+     */
+    private void loadDictionary() throws IOException {
+        long size = dictionary.size();
+        while (loaded + Integer.BYTES <= size) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            dictionary.read(length, loaded);
+            int bytes = length.getInt(0);
+            if (bytes < 0 || loaded + Integer.BYTES + bytes > size) {
+                break;
+            }
+            ByteBuffer value = ByteBuffer.allocate(bytes);
+            dictionary.read(value, loaded + Integer.BYTES);
+            String string = new String(value.array(), StandardCharsets.UTF_8);
+            refs.putIfAbsent(string, (int) loaded);
+            strings.put((int) loaded, string);
+            loaded += Integer.BYTES + bytes;
+        }
+    }
+
+    /**
+     * Offset of the string in the dictionary, appending it first when it is new. Needs the file lock.
+     */
+    private int ref(String string) throws IOException {
+        if (string == null) {
+            return NONE;
+        }
+        Integer ref = refs.get(string);
+        if (ref != null) {
+            return ref;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+        int offset = (int) dictionary.size();
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += dictionary.write(record, position);
+        }
+        refs.put(string, offset);
+        strings.put(offset, string);
+        loaded = dictionary.size();
+        return offset;
+    }
+
+    private String string(int ref) throws IOException {
+        if (ref == NONE) {
+            return null;
+        }
+        String string = strings.get(ref);
+        if (string == null) {
+            throw new IOException("Backtrace refers to a frame string missing from " + directory.resolve(DICTIONARY_FILE));
+        }
+        return string;
+    }
+
+    private Path path(String hash) {
+        if (hash.length() != HASH_BYTES * 2 || !hash.chars().allMatch(HexFormat::isHexDigit)) {
+            throw new IllegalArgumentException("Not a backtrace hash: " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + SUFFIX);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
@@ -0,0 +1,118 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Storage mode that writes each distinct backtrace once to a BacktraceStore and hands the delegate
+ * reports that carry only its hash in backtrace_ref.
+ *
+ * During a crash storm every report after the first costs one hash of the frames instead of
+ * encoding and writing all of them again. The delegate sees copies, the caller's reports keep their
+ * frames. When the store cannot be written the report is passed on with its frames inline.
+ * Read stored reports back through BacktraceStore.resolve before fingerprinting them.
+ */
+@Slf4j
+public class BacktraceStoreSink implements ReportSink {
+
+    @Getter
+    private final ReportSink delegate;
+    @Getter
+    private final BacktraceStore store;
+
+    /**
+     * Copies handed to delegate.location(), so write passes the delegate the same instance
+     */
+    private final Map<CrashReport, CrashReport> stored = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public BacktraceStoreSink(ReportSink delegate, BacktraceStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        List<CrashReport> copies = new ArrayList<>(reports.size());
+        for (CrashReport report : reports) {
+            CrashReport copy = stored.remove(report);
+            copies.add(copy != null ? copy : store(report));
+        }
+        delegate.write(copies);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return delegate.retainsReports();
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return delegate.sendsReports();
+    }
+
+    @Override
+    public String location(CrashReport report) {
+        CrashReport copy = store(report);
+        stored.put(report, copy);
+        return delegate.location(copy);
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        CrashReport copy = stored.remove(report);
+        delegate.discard(copy != null ? copy : report);
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        BacktraceStore.hash(report.getBacktrace());
+        delegate.warmUp(report);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            store.close();
+        }
+    }
+
+    private CrashReport store(CrashReport report) {
+        if (report.getBacktrace() == null) {
+            return report;
+        }
+        String hash;
+        try {
+            hash = store.put(report.getBacktrace());
+        } catch (IOException e) {
+            log.warn("Failed to store backtrace in {}, keeping it inline, error = {}", store.getDirectory(), e.getMessage());
+            return report;
+        }
+        CrashReport copy = new CrashReport();
+        copy.setName(report.getName());
+        copy.setOperatingSystem(report.getOperatingSystem());
+        copy.setVersion(report.getVersion());
+        copy.setExplanation(report.getExplanation());
+        copy.setCause(report.getCause());
+        copy.setMethod(report.getMethod());
+        copy.setBacktraceRef(hash);
+        copy.setSystemInfo(report.getSystemInfo());
+        copy.setApplicationInfo(report.getApplicationInfo());
+        copy.setBreadcrumbs(report.getBreadcrumbs());
+        return copy;
+    }
+}
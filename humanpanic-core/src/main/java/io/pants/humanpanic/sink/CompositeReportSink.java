@@ -0,0 +1,128 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans every batch out to several sinks.
+ *
+ * A failing sink is logged and skipped so the others still get the report; an IOException is
+ * only raised when every sink failed. Use async() to give each sink its own queue and writer
+ * thread, so one slow sink does not stall the rest.
+ */
+@Slf4j
+public class CompositeReportSink implements ReportSink {
+
+    @Getter
+    private final List<ReportSink> sinks;
+
+    public CompositeReportSink(List<ReportSink> sinks) {
+        this.sinks = List.copyOf(sinks);
+    }
+
+    /**
+     * Wraps each sink in its own AsyncReportSink
+     */
+    public static CompositeReportSink async(ReportSink... sinks) {
+        List<ReportSink> wrapped = new ArrayList<>(sinks.length);
+        for (ReportSink sink : sinks) {
+            wrapped.add(sink instanceof AsyncReportSink ? sink : new AsyncReportSink(sink));
+        }
+        return new CompositeReportSink(wrapped);
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        IOException failure = null;
+        int failed = 0;
+        for (ReportSink sink : sinks) {
+            try {
+                sink.write(reports);
+            } catch (IOException e) {
+                log.error("Failed to write crash reports to {}, error = {}", sink.getClass().getSimpleName(), e.getMessage());
+                failure = failure == null ? e : failure;
+                failed++;
+            }
+        }
+        if (failure != null && failed == sinks.size()) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        IOException failure = null;
+        int failed = 0;
+        for (ReportSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                log.error("Failed to flush {}, error = {}", sink.getClass().getSimpleName(), e.getMessage());
+                failure = failure == null ? e : failure;
+                failed++;
+            }
+        }
+        if (failure != null && failed == sinks.size()) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The first location any sink provides
+     */
+    @Override
+    public String location(CrashReport report) {
+        String location = null;
+        for (ReportSink sink : sinks) {
+            String candidate = sink.location(report);
+            if (location == null) {
+                location = candidate;
+            }
+        }
+        return location;
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        for (ReportSink sink : sinks) {
+            sink.discard(report);
+        }
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return sinks.stream().anyMatch(ReportSink::retainsReports);
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return sinks.stream().anyMatch(ReportSink::sendsReports);
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        for (ReportSink sink : sinks) {
+            sink.warmUp(report);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ReportSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
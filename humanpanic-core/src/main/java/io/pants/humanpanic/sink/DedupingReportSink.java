@@ -0,0 +1,107 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Writes only the first report of each fingerprint per window, across every process sharing the
+ * counter file; later ones just increment the shared counter.
+ *
+ * A process fan-out that fails for the same reason at the same moment (a cron job, a CI matrix)
+ * leaves one full report instead of one per process. Suppressed reports get no location, so the
+ * user is not pointed at a file that was never written.
+ */
+@Slf4j
+public class DedupingReportSink implements ReportSink {
+
+    @Getter
+    private final ReportSink delegate;
+    private final SharedCrashCounters counters;
+
+    /**
+     * Decisions taken by location() for reports that have not been written yet
+     */
+    private final Map<CrashReport, Boolean> decisions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public DedupingReportSink(ReportSink delegate, SharedCrashCounters counters) {
+        this.delegate = delegate;
+        this.counters = counters;
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        List<CrashReport> first = new ArrayList<>(reports.size());
+        for (CrashReport report : reports) {
+            Boolean decision = decisions.remove(report);
+            if (decision != null ? decision : claim(report)) {
+                first.add(report);
+            }
+        }
+        if (!first.isEmpty()) {
+            delegate.write(first);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return delegate.retainsReports();
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return delegate.sendsReports();
+    }
+
+    @Override
+    public String location(CrashReport report) {
+        boolean first = claim(report);
+        decisions.put(report, first);
+        return first ? delegate.location(report) : null;
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        if (Boolean.TRUE.equals(decisions.remove(report))) {
+            delegate.discard(report);
+        }
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        CrashFingerprint.of(report);
+        delegate.warmUp(report);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            counters.close();
+        }
+    }
+
+    private boolean claim(CrashReport report) {
+        long fingerprint = CrashFingerprint.of(report);
+        SharedCrashCounters.Claim claim = counters.record(fingerprint);
+        if (!claim.first()) {
+            log.info("Crash {} was already reported within the window, occurrence {} only counted",
+                    CrashFingerprint.toHex(fingerprint), claim.count());
+        }
+        return claim.first();
+    }
+}
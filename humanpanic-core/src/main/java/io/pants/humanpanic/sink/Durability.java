@@ -0,0 +1,24 @@
+package io.pants.humanpanic.sink;
+
+/**
+ * How hard a sink works to keep written reports across a power loss or kernel panic.
+ * Surviving a crash of the JVM itself only needs the data to reach the OS, which every mode does.
+ */
+public enum Durability {
+
+    /**
+     * Leaves flushing to the OS, reports written shortly before a power loss can be lost
+     */
+    NONE,
+
+    /**
+     * Syncs reports in batches, once enough have queued up or the oldest has waited long enough.
+     * A power loss loses at most that window.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Syncs every report before the next one is written
+     */
+    PER_REPORT
+}
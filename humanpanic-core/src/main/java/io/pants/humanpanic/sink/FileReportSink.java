@@ -0,0 +1,542 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one crash-&lt;timestamp&gt;.json file per report, the layout HumanPanic has always used.
+ * Reports written within the same second get a -1, -2, ... suffix instead of overwriting each other.
+ *
+ * A name is reserved by creating &lt;name&gt;.reserved exclusively, so sinks in other instances or
+ * processes sharing the directory bump the suffix instead of picking the same name; the marker is
+ * removed once the report is in place, or by discard when the report is dropped before it is
+ * written. Markers and temporary files older than STALE_AFTER, left behind by a process that was
+ * killed mid-write or mid-group, are swept when the sink is created. Every report is written to its own uniquely named .tmp file
+ * and renamed into place, so a crash mid-write never leaves a partial report behind. The Durability decides when reports are synced:
+ * never (NONE, the default), each one before its rename (PER_REPORT), or in groups (GROUP_COMMIT).
+ * Grouped reports stay in their temporary files until the group is committed: once
+ * groupCommitReports have queued up or the oldest has waited groupCommitInterval, every file is
+ * synced, renamed and the directory synced once. flush does not cut a group short, close and a
+ * shutdown hook commit it.
+ *
+ * With a compressionLevel (0-9, or -1 for the zlib default) reports are gzipped as they are encoded
+ * and stored as crash-&lt;timestamp&gt;.json.gz. Compression never runs on the failing thread: unless
+ * write is called on an AsyncReportSink writer thread already, the sink hands the reports to a
+ * writer thread of its own, started on first use and drained by close. Deflaters and their
+ * buffers are pooled and reused across reports, one per concurrent writer.
+ */
+@Slf4j
+public class FileReportSink implements ReportSink {
+
+    public static final Path DEFAULT_DIRECTORY = Paths.get("crash-reports");
+    public static final Duration DEFAULT_GROUP_COMMIT_INTERVAL = Duration.ofMillis(50);
+    public static final int DEFAULT_GROUP_COMMIT_REPORTS = 64;
+    public static final String COMMIT_THREAD_NAME = "humanpanic-group-commit";
+    public static final String JSON_EXTENSION = ".json";
+    public static final String GZIP_EXTENSION = ".json.gz";
+    public static final Duration STALE_AFTER = Duration.ofHours(1);
+    private static final int GZIP_BUFFER_BYTES = 16 * 1024;
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String RESERVED_SUFFIX = ".reserved";
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+
+    @Getter
+    private final Path directory;
+    private final ReportEncoder encoder;
+    @Getter
+    private final Durability durability;
+    private final long groupCommitNanos;
+    private final int groupCommitReports;
+    private final Integer compressionLevel;
+    private final String extension;
+
+    /**
+     * Idle gzip streams; each write takes one for itself, so crashing threads never share a Deflater
+     */
+    private final Deque<ReusableGzipStream> gzipStreams = new ArrayDeque<>();
+
+    /**
+     * Paths handed out by location() and not written yet. Weak so reports dropped before
+     * reaching write do not pin their reservation.
+     */
+    private final Map<CrashReport, Path> reserved = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private String lastTimestamp;
+    private int sequence;
+    private volatile boolean fileSystemWarm;
+
+    /**
+     * Reports of the group waiting to be committed, in write order
+     */
+    private final List<Staged> group = new ArrayList<>();
+    private long groupStartedAt;
+    private Thread committer;
+    private boolean closed;
+
+    /**
+     * Writer thread that gzips the reports handed over by write, when compressing
+     */
+    private AsyncReportSink compressor;
+
+    public FileReportSink() {
+        this(DEFAULT_DIRECTORY, new JsonReportEncoder());
+    }
+
+    public FileReportSink(Path directory, ReportEncoder encoder) {
+        this(directory, encoder, null, null, null, null);
+    }
+
+    /**
+     * Everything is optional: DEFAULT_DIRECTORY, the pretty JsonReportEncoder, Durability.NONE,
+     * the DEFAULT_GROUP_COMMIT_* values and no compression
+     */
+    @Builder
+    private FileReportSink(Path directory, ReportEncoder encoder, Durability durability,
+                           Duration groupCommitInterval, Integer groupCommitReports, Integer compressionLevel) {
+        if (compressionLevel != null && (compressionLevel < -1 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("compressionLevel must be between -1 and 9");
+        }
+        this.directory = directory != null ? directory : DEFAULT_DIRECTORY;
+        this.encoder = encoder != null ? encoder : new JsonReportEncoder();
+        this.durability = durability != null ? durability : Durability.NONE;
+        this.groupCommitNanos = (groupCommitInterval != null ? groupCommitInterval : DEFAULT_GROUP_COMMIT_INTERVAL).toNanos();
+        this.groupCommitReports = groupCommitReports != null ? groupCommitReports : DEFAULT_GROUP_COMMIT_REPORTS;
+        this.compressionLevel = compressionLevel;
+        this.extension = compressionLevel != null ? GZIP_EXTENSION : JSON_EXTENSION;
+        sweep();
+    }
+
+    /**
+     * Reserves the report's name; null when the directory cannot be written, write then reports the failure
+     */
+    @Override
+    public String location(CrashReport report) {
+        try {
+            Path path = reserve();
+            // A pooled report handed out again before its earlier reservation was written or discarded
+            release(reserved.put(report, path));
+            return path.toAbsolutePath().toString();
+        } catch (IOException e) {
+            log.debug("Cannot reserve a crash report name in {}, error = {}", directory, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        release(reserved.remove(report));
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        AsyncReportSink handOff = compressionLevel != null && !AsyncReportSink.onWriterThread() ? compressor() : null;
+        if (handOff != null) {
+            handOff.write(reports);
+            return;
+        }
+        List<Path> paths = new ArrayList<>(reports.size());
+        for (CrashReport report : reports) {
+            Path path = reserved.remove(report);
+            paths.add(path != null ? path : reserve());
+        }
+
+        for (int i = 0; i < reports.size(); i++) {
+            Path path = paths.get(i);
+            Path temp = Files.createTempFile(directory, path.getFileName() + ".", TEMP_SUFFIX);
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    encode(reports.get(i), out);
+                }
+                if (durability == Durability.GROUP_COMMIT) {
+                    stage(new Staged(temp, path));
+                    continue;
+                }
+                if (durability == Durability.PER_REPORT) {
+                    force(temp);
+                }
+                // Only replaces a file this sink reserved, no other writer can have picked the name
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                // The rest of the batch is not written either
+                for (Path unwritten : paths.subList(i, paths.size())) {
+                    release(unwritten);
+                }
+                throw e;
+            }
+            Files.deleteIfExists(reservation(path));
+            if (durability == Durability.PER_REPORT) {
+                syncDirectory();
+            }
+        }
+    }
+
+    /**
+     * Every file is closed as soon as it is written. A group is only committed once it is due.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!group.isEmpty() && (group.size() >= groupCommitReports || System.nanoTime() - groupStartedAt >= groupCommitNanos)) {
+            commit();
+        }
+    }
+
+    /**
+     * Commits the pending group and stops the commit thread
+     */
+    @Override
+    public void close() throws IOException {
+        AsyncReportSink handOff;
+        synchronized (this) {
+            handOff = compressor;
+            closed = true;
+        }
+        // Outside the lock, the writer thread needs it to finish the reports still queued
+        if (handOff != null) {
+            handOff.close();
+        }
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            thread = committer;
+            // Streams still in use are ended by their writers when they hand them back
+            for (ReusableGzipStream stream : gzipStreams) {
+                stream.end();
+            }
+            gzipStreams.clear();
+            commit();
+        }
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reports written but not yet renamed into place, waiting for their group commit
+     */
+    public synchronized int getUncommittedCount() {
+        return group.size();
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+
+    /**
+     * Encodes into a null stream, and once opens and deletes a temporary file so the first
+     * real report does not pay for loading the file channel classes
+     */
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        Files.exists(directory);
+        String.format("crash-%s%s", LocalDateTime.now().format(FORMATTER), extension);
+        if (compressionLevel == null) {
+            encoder.encode(report, OutputStream.nullOutputStream());
+        } else {
+            // Its own deflater, the writer thread may be using the sink's at the same time
+            ReusableGzipStream warm = new ReusableGzipStream(compressionLevel, GZIP_BUFFER_BYTES);
+            warm.start(OutputStream.nullOutputStream());
+            encoder.encode(report, warm);
+            warm.finish();
+            warm.end();
+        }
+
+        if (!fileSystemWarm) {
+            Path probe = Files.createTempFile("humanpanic-warmup", ".json");
+            try (OutputStream out = Files.newOutputStream(probe)) {
+                out.flush();
+                if (durability != Durability.NONE) {
+                    force(probe);
+                }
+            } finally {
+                Files.deleteIfExists(probe);
+            }
+            fileSystemWarm = true;
+        }
+    }
+
+    /**
+     * Claims the next free name by creating its marker exclusively. A name whose report already
+     * exists is skipped, its writer has removed the marker after moving the report into place.
+     */
+    private Path reserve() throws IOException {
+        if (!Files.exists(directory)) {
+            Files.createDirectories(directory);
+        }
+        while (true) {
+            Path path = nextPath();
+            Path marker = reservation(path);
+            try {
+                Files.createFile(marker);
+            } catch (FileAlreadyExistsException e) {
+                // Reserved by another sink or process
+                continue;
+            }
+            if (!Files.exists(path)) {
+                return path;
+            }
+            Files.deleteIfExists(marker);
+        }
+    }
+
+    /**
+     * Null once closed, late reports are then written on the calling thread
+     */
+    private synchronized AsyncReportSink compressor() {
+        if (compressor == null && !closed) {
+            compressor = new AsyncReportSink(new Compressor());
+        }
+        return closed ? null : compressor;
+    }
+
+    private void release(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(reservation(path));
+        } catch (IOException e) {
+            log.debug("Cannot remove reservation of {}, error = {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Removes markers and temporary files older than STALE_AFTER. Live ones belong to reports
+     * being written right now, by this or another process, and are far younger.
+     */
+    private void sweep() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - STALE_AFTER.toMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "crash-*{" + RESERVED_SUFFIX + "," + TEMP_SUFFIX + "}")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    log.debug("Cannot remove stale {}, error = {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot sweep {}, error = {}", directory, e.getMessage());
+        }
+    }
+
+    private synchronized Path nextPath() {
+        String timestamp = LocalDateTime.now().format(FORMATTER);
+        if (timestamp.equals(lastTimestamp)) {
+            sequence++;
+            return directory.resolve(String.format("crash-%s-%d%s", timestamp, sequence, extension));
+        }
+        lastTimestamp = timestamp;
+        sequence = 0;
+        return directory.resolve(String.format("crash-%s%s", timestamp, extension));
+    }
+
+    private void encode(CrashReport report, OutputStream out) throws IOException {
+        if (compressionLevel == null) {
+            encoder.encode(report, out);
+            return;
+        }
+        ReusableGzipStream stream;
+        synchronized (this) {
+            stream = gzipStreams.poll();
+        }
+        if (stream == null) {
+            stream = new ReusableGzipStream(compressionLevel, GZIP_BUFFER_BYTES);
+        }
+        boolean reusable = false;
+        try {
+            stream.start(out);
+            encoder.encode(report, stream);
+            stream.finish();
+            reusable = true;
+        } finally {
+            synchronized (this) {
+                if (reusable && !closed) {
+                    gzipStreams.push(stream);
+                } else {
+                    stream.end();
+                }
+            }
+        }
+    }
+
+    private synchronized void stage(Staged staged) throws IOException {
+        if (group.isEmpty()) {
+            groupStartedAt = System.nanoTime();
+        }
+        group.add(staged);
+        if (group.size() >= groupCommitReports || closed) {
+            commit();
+            return;
+        }
+        if (committer == null) {
+            committer = new Thread(this::commitLoop, COMMIT_THREAD_NAME);
+            committer.setDaemon(true);
+            committer.start();
+            // System.exit right after a crash must not leave the group in its temporary files
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeQuietly, COMMIT_THREAD_NAME + "-shutdown"));
+        }
+        notifyAll();
+    }
+
+    /**
+     * Syncs every file of the group, renames them into place and syncs the directory once.
+     * A file that cannot be synced is still renamed, it is only less durable.
+     */
+    private synchronized void commit() throws IOException {
+        if (group.isEmpty()) {
+            return;
+        }
+        for (Staged staged : group) {
+            try {
+                force(staged.temp());
+            } catch (IOException e) {
+                log.warn("Failed to sync crash report {}, error = {}", staged.temp(), e.getMessage());
+            }
+        }
+        IOException failure = null;
+        for (Staged staged : group) {
+            try {
+                Files.move(staged.temp(), staged.target(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(reservation(staged.target()));
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        group.clear();
+        syncDirectory();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Commits a group once its oldest report has waited groupCommitInterval, even when nothing else is written
+     */
+    private synchronized void commitLoop() {
+        while (!closed) {
+            try {
+                if (group.isEmpty()) {
+                    wait();
+                    continue;
+                }
+                long remaining = groupStartedAt + groupCommitNanos - System.nanoTime();
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    continue;
+                }
+                commit();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                log.error("Failed to commit crash reports, error = {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.error("Failed to commit crash reports on shutdown, error = {}", e.getMessage());
+        }
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Makes the renames durable. Not every platform can open a directory, there the renames are left to the OS.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot sync directory {}, error = {}", directory, e.getMessage());
+        }
+    }
+
+    private static Path reservation(Path target) {
+        return target.resolveSibling(target.getFileName() + RESERVED_SUFFIX);
+    }
+
+    /**
+     * What the compressor's writer thread writes to: this sink, called where it may compress
+     */
+    private final class Compressor implements ReportSink {
+
+        @Override
+        public void write(List<CrashReport> reports) throws IOException {
+            FileReportSink.this.write(reports);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            FileReportSink.this.flush();
+        }
+
+        @Override
+        public void discard(CrashReport report) {
+            FileReportSink.this.discard(report);
+        }
+
+        @Override
+        public boolean retainsReports() {
+            return false;
+        }
+
+        /**
+         * The file sink's own close commits what the writer thread left staged
+         */
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * A report written to temp, to be renamed to its reserved target when the group is committed
+     */
+    private record Staged(Path temp, Path target) {
+    }
+}
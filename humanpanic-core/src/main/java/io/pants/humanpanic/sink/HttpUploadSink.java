@@ -0,0 +1,325 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opt-in sink that uploads reports to a collector over HTTP.
+ *
+ * Each batch becomes one POST: compact JSON reports, one per line, gzipped
+ * (Content-Type application/x-ndjson, Content-Encoding gzip). At most maxInFlight requests
+ * are outstanding, retries included; write blocks for a free slot, so wrap this sink in an
+ * AsyncReportSink and let its bounded queue absorb bursts. Failed requests (I/O errors, 408,
+ * 429 and 5xx) are retried with full-jitter exponential backoff. Compressed batches waiting
+ * for a slot or a retry count against memoryBudgetBytes; a batch that would exceed it is dropped.
+ *
+ * With a ReportSpool configured, batches that run out of retries or memory budget are spooled to
+ * disk instead of dropped, and whatever earlier processes left in the spool is replayed in the
+ * background (at most replayConcurrency requests at a time) as soon as the sink is built.
+ * Every request carries an Idempotency-Key header so the receiver can drop replayed duplicates.
+ */
+@Slf4j
+public class HttpUploadSink implements ReportSink {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(500);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 8L * 1024 * 1024;
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    public static final int DEFAULT_REPLAY_CONCURRENCY = 2;
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI endpoint;
+    private final HttpClient client;
+    private final ReportEncoder encoder;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final long memoryBudgetBytes;
+    private final Duration requestTimeout;
+    private final Map<String, String> headers;
+    private final ReportSpool spool;
+    private final SpoolReplayer replayer;
+
+    private final Semaphore inFlight;
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong uploaded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spooled = new AtomicLong();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    /**
+     * Only the endpoint is required, everything else falls back to the DEFAULT_* values,
+     * a compact JsonReportEncoder, a new HttpClient and no spool. Headers HttpClient refuses to
+     * send, such as Host or Content-Length, are rejected here rather than on every upload.
+     */
+    @Builder
+    private HttpUploadSink(URI endpoint, HttpClient client, ReportEncoder encoder, Integer maxInFlight,
+                           Integer maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                           Long memoryBudgetBytes, Duration requestTimeout, Map<String, String> headers,
+                           ReportSpool spool, Integer replayConcurrency) {
+        if (endpoint == null) {
+            throw new IllegalArgumentException("endpoint is required");
+        }
+        this.endpoint = endpoint;
+        this.client = client != null ? client : HttpClient.newBuilder()
+                .connectTimeout(DEFAULT_REQUEST_TIMEOUT)
+                .build();
+        this.encoder = encoder != null ? encoder : new JsonReportEncoder(false);
+        this.maxInFlight = maxInFlight != null ? maxInFlight : DEFAULT_MAX_IN_FLIGHT;
+        this.maxAttempts = maxAttempts != null ? maxAttempts : DEFAULT_MAX_ATTEMPTS;
+        this.initialBackoff = initialBackoff != null ? initialBackoff : DEFAULT_INITIAL_BACKOFF;
+        this.maxBackoff = maxBackoff != null ? maxBackoff : DEFAULT_MAX_BACKOFF;
+        this.memoryBudgetBytes = memoryBudgetBytes != null ? memoryBudgetBytes : DEFAULT_MEMORY_BUDGET_BYTES;
+        this.requestTimeout = requestTimeout != null ? requestTimeout : DEFAULT_REQUEST_TIMEOUT;
+        this.headers = headers != null ? Map.copyOf(headers) : Map.of();
+        HttpRequest.Builder check = HttpRequest.newBuilder(endpoint);
+        this.headers.forEach((name, value) -> {
+            try {
+                check.header(name, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("header " + name + " cannot be sent: " + e.getMessage(), e);
+            }
+        });
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.spool = spool;
+        if (spool != null) {
+            replayer = new SpoolReplayer(spool, this::replay,
+                    replayConcurrency != null ? replayConcurrency : DEFAULT_REPLAY_CONCURRENCY);
+            replayer.start();
+        } else {
+            replayer = null;
+        }
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        if (reports.isEmpty()) {
+            return;
+        }
+        byte[] body = compress(reports);
+        if (bufferedBytes.addAndGet(body.length) > memoryBudgetBytes) {
+            bufferedBytes.addAndGet(-body.length);
+            log.warn("Upload memory budget of {} bytes exhausted", memoryBudgetBytes);
+            spoolOrDrop(body, reports.size());
+            return;
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            bufferedBytes.addAndGet(-body.length);
+            Thread.currentThread().interrupt();
+            spoolOrDrop(body, reports.size());
+            throw new IOException("Interrupted while waiting for an upload slot", e);
+        }
+        Upload upload = new Upload(body, reports.size(), UUID.randomUUID().toString(), true, new CompletableFuture<>());
+        send(upload, 1);
+    }
+
+    /**
+     * Requests complete in the background, flush does not wait for them
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Reports are compressed into the request body before write returns
+     */
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return true;
+    }
+
+    /**
+     * Waits a few seconds for outstanding uploads and retries to finish, then closes the spool
+     */
+    @Override
+    public void close() throws IOException {
+        if (replayer != null) {
+            replayer.stop();
+        }
+        try {
+            if (inFlight.tryAcquire(maxInFlight, CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+            } else {
+                log.warn("Closed with crash report uploads still in flight");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        compress(List.of(report));
+    }
+
+    public long getUploadedCount() {
+        return uploaded.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Reports written to the spool because they could not be uploaded
+     */
+    public long getSpooledCount() {
+        return spooled.get();
+    }
+
+    /**
+     * Compressed bytes held for uploads that have not completed yet
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    private synchronized byte[] compress(List<CrashReport> reports) throws IOException {
+        buffer.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 8192)) {
+            OutputStream shield = new OutputStream() {
+                // Some encoders close the stream they are given, the gzip trailer must still follow
+                @Override
+                public void write(int b) throws IOException {
+                    gzip.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    gzip.write(b, off, len);
+                }
+            };
+            for (CrashReport report : reports) {
+                encoder.encode(report, shield);
+                gzip.write('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Sends one spooled batch. Replays are not spooled again when they fail, the record simply stays in the spool.
+     */
+    private CompletableFuture<Boolean> replay(ReportSpool.Record record, String key) {
+        Upload upload = new Upload(record.payload(), record.reports(), key, false, new CompletableFuture<>());
+        send(upload, 1);
+        return upload.result();
+    }
+
+    /**
+     * A request that cannot even be started fails for good, so the upload still releases its slot and budget
+     */
+    private void send(Upload upload, int attempt) {
+        CompletableFuture<HttpResponse<Void>> pending;
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/x-ndjson")
+                    .header("Content-Encoding", "gzip")
+                    .header("Idempotency-Key", upload.idempotencyKey())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(upload.body()));
+            headers.forEach(request::header);
+            pending = client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            log.error("Failed to start upload of {} crash reports, error = {}", upload.reports(), e.getMessage());
+            if (upload.live()) {
+                spoolOrDrop(upload.body(), upload.reports());
+            }
+            finish(upload, false);
+            return;
+        }
+
+        pending.whenComplete((response, error) -> {
+            if (error == null && response.statusCode() / 100 == 2) {
+                uploaded.addAndGet(upload.reports());
+                finish(upload, true);
+            } else if (attempt < maxAttempts && (error != null || isRetryable(response.statusCode()))) {
+                retry(upload, attempt);
+            } else {
+                log.error("Failed to upload {} crash reports after {} attempts, {}", upload.reports(), attempt,
+                        error != null ? "error = " + error.getMessage() : "status = " + response.statusCode());
+                if (upload.live()) {
+                    spoolOrDrop(upload.body(), upload.reports());
+                }
+                finish(upload, false);
+            }
+        });
+    }
+
+    /**
+     * Full jitter: a random delay between zero and the capped exponential backoff
+     */
+    private void retry(Upload upload, int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 30));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        CompletableFuture.runAsync(() -> send(upload, attempt + 1),
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void finish(Upload upload, boolean delivered) {
+        if (upload.live()) {
+            bufferedBytes.addAndGet(-upload.body().length);
+            inFlight.release();
+        }
+        upload.result().complete(delivered);
+    }
+
+    private void spoolOrDrop(byte[] body, int reports) {
+        try {
+            if (spool != null && spool.append(body, reports)) {
+                spooled.addAndGet(reports);
+                return;
+            }
+        } catch (IOException e) {
+            log.error("Failed to spool crash reports, error = {}", e.getMessage());
+        }
+        dropped.addAndGet(reports);
+        log.warn("Dropped {} crash reports", reports);
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    /**
+     * live is false for spool replays, which neither hold an in-flight slot nor go back into the spool
+     */
+    private record Upload(byte[] body, int reports, String idempotencyKey, boolean live,
+                          CompletableFuture<Boolean> result) {
+    }
+}
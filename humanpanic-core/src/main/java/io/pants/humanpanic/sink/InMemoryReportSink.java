@@ -0,0 +1,63 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps reports in memory. Meant for tests: awaitReports replaces polling the report directory.
+ */
+public class InMemoryReportSink implements ReportSink {
+
+    private final List<CrashReport> reports = new ArrayList<>();
+    private int batches;
+    private int flushes;
+
+    @Override
+    public synchronized void write(List<CrashReport> reports) {
+        this.reports.addAll(reports);
+        batches++;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void flush() {
+        flushes++;
+    }
+
+    public synchronized List<CrashReport> getReports() {
+        return new ArrayList<>(reports);
+    }
+
+    public synchronized int getBatchCount() {
+        return batches;
+    }
+
+    public synchronized int getFlushCount() {
+        return flushes;
+    }
+
+    /**
+     * Waits until at least count reports have been written or the timeout expires,
+     * then returns everything written so far
+     */
+    public synchronized List<CrashReport> awaitReports(int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (reports.size() < count) {
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                break;
+            }
+            wait(remainingMs);
+        }
+        return getReports();
+    }
+
+    public synchronized void clear() {
+        reports.clear();
+        batches = 0;
+        flushes = 0;
+    }
+}
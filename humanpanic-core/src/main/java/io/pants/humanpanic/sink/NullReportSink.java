@@ -0,0 +1,29 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.util.List;
+
+/**
+ * Discards every report
+ */
+public final class NullReportSink implements ReportSink {
+
+    public static final NullReportSink INSTANCE = new NullReportSink();
+
+    private NullReportSink() {
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+}
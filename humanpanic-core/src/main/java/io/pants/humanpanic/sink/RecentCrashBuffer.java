@@ -0,0 +1,306 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.BinaryReportEncoder;
+import io.pants.humanpanic.reporter.BinaryReportReader;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The last N crash reports, kept off-heap so they survive a read-only or failing disk without
+ * adding to the garbage collector's work.
+ *
+ * One direct buffer is split into fixed slots of
+ * [long stamp][long fingerprint][long timestamp ms][int length][int truncated][BinaryReportEncoder record].
+ * Writers claim a sequence number with one atomic increment and own slot sequence % slots; the
+ * stamp works as a per-slot sequence lock: a compare-and-set marks the slot as being written,
+ * a release store publishes it. Readers copy a slot and keep it only when the stamp did not move,
+ * so queries never block writers and never see a half-written report. A writer that would have to
+ * wait for a slower writer lapped by the ring drops its report instead, and a report too large for
+ * a slot is stored with a shortened backtrace. Each thread encodes into a slot-sized scratch
+ * buffer of its own that is copied into the claimed slot in one bulk put, so appending allocates
+ * no byte arrays and the slot is held only for the copy.
+ *
+ * Use it as a sink of its own, next to the disk sinks in a CompositeReportSink. CrashReporter also
+ * keeps every report its sink failed to write in shared().
+ */
+@Slf4j
+public class RecentCrashBuffer implements ReportSink {
+
+    public static final int DEFAULT_SLOTS = 64;
+    public static final int DEFAULT_SLOT_BYTES = 16 * 1024;
+    static final int HEADER_BYTES = 32;
+    private static final int FINGERPRINT = 8;
+    private static final int TIMESTAMP = 16;
+    private static final int LENGTH = 24;
+    private static final int TRUNCATED = 28;
+    private static final int MAX_SPINS = 1_000;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static volatile RecentCrashBuffer shared;
+
+    private final ByteBuffer ring;
+    @Getter
+    private final int slots;
+    @Getter
+    private final int slotBytes;
+    private final BinaryReportEncoder encoder = new BinaryReportEncoder();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ThreadLocal<Scratch> scratch;
+
+    public RecentCrashBuffer() {
+        this(DEFAULT_SLOTS, DEFAULT_SLOT_BYTES);
+    }
+
+    /**
+     * @param slotBytes room per report including the 32 byte slot header, a multiple of 8
+     */
+    public RecentCrashBuffer(int slots, int slotBytes) {
+        if (slots <= 0 || slotBytes < 2 * HEADER_BYTES || slotBytes % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Need at least one slot of a multiple of 8 bytes, at least 64");
+        }
+        if ((long) slots * slotBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring buffer larger than 2 GiB");
+        }
+        this.slots = slots;
+        this.slotBytes = slotBytes;
+        this.ring = ByteBuffer.allocateDirect(slots * slotBytes).order(ByteOrder.nativeOrder());
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(slotBytes - HEADER_BYTES));
+    }
+
+    /**
+     * The process-wide buffer with the default size, allocated on first use
+     */
+    public static RecentCrashBuffer shared() {
+        RecentCrashBuffer buffer = shared;
+        if (buffer == null) {
+            synchronized (RecentCrashBuffer.class) {
+                buffer = shared;
+                if (buffer == null) {
+                    buffer = new RecentCrashBuffer();
+                    shared = buffer;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Keeps the report, overwriting the oldest one once the ring is full.
+     * Returns false when the report was dropped.
+     */
+    public boolean append(CrashReport report) {
+        Scratch encoded = encode(report);
+        if (encoded == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        long seq = sequence.getAndIncrement();
+        int base = (int) (seq % slots) * slotBytes;
+        if (!claim(base, seq)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        ring.putLong(base + FINGERPRINT, CrashFingerprint.of(report));
+        ring.putLong(base + TIMESTAMP, System.currentTimeMillis());
+        ring.putInt(base + LENGTH, encoded.count);
+        ring.putInt(base + TRUNCATED, encoded.truncated ? 1 : 0);
+        ring.put(base + HEADER_BYTES, encoded.bytes, 0, encoded.count);
+        LONGS.setRelease(ring, base, stamp(seq));
+        return true;
+    }
+
+    /**
+     * The newest reports first, at most limit
+     */
+    public List<Crash> recent(int limit) {
+        return find(null, null, limit);
+    }
+
+    /**
+     * The newest reports first, at most limit, optionally only those of one fingerprint and
+     * those recorded at or after from
+     */
+    public List<Crash> find(Long fingerprint, Instant from, int limit) {
+        List<Crash> found = new ArrayList<>();
+        long newest = sequence.get() - 1;
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        for (long seq = newest; seq >= 0 && seq > newest - slots && found.size() < limit; seq--) {
+            int base = (int) (seq % slots) * slotBytes;
+            long expected = stamp(seq);
+            if ((long) LONGS.getAcquire(ring, base) != expected) {
+                continue;
+            }
+            long slotFingerprint = ring.getLong(base + FINGERPRINT);
+            long timestamp = ring.getLong(base + TIMESTAMP);
+            int length = ring.getInt(base + LENGTH);
+            boolean truncated = ring.getInt(base + TRUNCATED) != 0;
+            if ((fingerprint != null && slotFingerprint != fingerprint) || timestamp < fromMillis
+                    || length < 0 || length > slotBytes - HEADER_BYTES) {
+                continue;
+            }
+            byte[] record = new byte[length];
+            ring.get(base + HEADER_BYTES, record);
+            VarHandle.acquireFence();
+            if ((long) LONGS.getVolatile(ring, base) != expected) {
+                // Overwritten while we copied it
+                continue;
+            }
+            try {
+                found.add(new Crash(seq, slotFingerprint, Instant.ofEpochMilli(timestamp),
+                        BinaryReportReader.decode(record), truncated));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable crash in the recent crash buffer, error = {}", e.getMessage());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reports appended since the buffer was created, including overwritten and dropped ones
+     */
+    public long getAppendedCount() {
+        return sequence.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Never fails, reports that cannot be kept are counted as dropped
+     */
+    @Override
+    public void write(List<CrashReport> reports) {
+        for (CrashReport report : reports) {
+            append(report);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+
+    @Override
+    public void warmUp(CrashReport report) {
+        encode(report);
+        CrashFingerprint.of(report);
+    }
+
+    /**
+     * Takes the slot for seq. Fails when a newer writer already has it or an older one lapped by
+     * the ring is still writing it after a short spin.
+     */
+    private boolean claim(int base, long seq) {
+        long writing = stamp(seq) | 1;
+        for (int spins = 0; spins < MAX_SPINS; spins++) {
+            long current = (long) LONGS.getVolatile(ring, base);
+            if (current != 0 && (current >>> 1) - 1 > seq) {
+                return false;
+            }
+            if ((current & 1) == 0) {
+                if (LONGS.compareAndSet(ring, base, current, writing)) {
+                    return true;
+                }
+                continue;
+            }
+            Thread.onSpinWait();
+        }
+        return false;
+    }
+
+    /**
+     * The binary record in this thread's scratch buffer, with the backtrace halved until it fits a slot
+     */
+    private Scratch encode(CrashReport report) {
+        Scratch out = scratch.get();
+        try {
+            List<CrashReport.StackFrame> frames = report.getBacktrace();
+            int keep = frames != null ? frames.size() : 0;
+            out.reset(false);
+            encoder.encode(report, out);
+            while (!out.fits()) {
+                if (keep == 0) {
+                    return null;
+                }
+                keep /= 2;
+                out.reset(true);
+                encoder.encode(report, out, keep);
+            }
+            return out;
+        } catch (IOException e) {
+            log.warn("Failed to encode crash for the recent crash buffer, error = {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stamp of a completely written slot: odd values mark a write in progress, 0 an empty slot
+     */
+    private static long stamp(long seq) {
+        return (seq + 1) << 1;
+    }
+
+    /**
+     * One slot's worth of room; bytes past it are only counted, so an oversized record is
+     * detected without growing the buffer
+     */
+    private static final class Scratch extends OutputStream {
+        private final byte[] bytes;
+        private int count;
+        private boolean truncated;
+
+        Scratch(int room) {
+            this.bytes = new byte[room];
+        }
+
+        void reset(boolean truncated) {
+            this.count = 0;
+            this.truncated = truncated;
+        }
+
+        boolean fits() {
+            return count <= bytes.length;
+        }
+
+        @Override
+        public void write(int b) {
+            if (count < bytes.length) {
+                bytes[count] = (byte) b;
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (count < bytes.length) {
+                System.arraycopy(b, off, bytes, count, Math.min(len, bytes.length - count));
+            }
+            count += len;
+        }
+    }
+
+    /**
+     * One report read back from the ring; truncated when its backtrace was shortened to fit
+     */
+    public record Crash(long sequence, long fingerprint, Instant timestamp, CrashReport report, boolean truncated) {
+    }
+}
@@ -0,0 +1,96 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.SecretRedactor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Removes secrets from reports before the delegate sees them.
+ *
+ * The cause, captured argument values and breadcrumb messages go through the SecretRedactor,
+ * in place; stack frames, system info and application info are left alone. Place it outside an
+ * AsyncReportSink to keep secrets out of its queue, or inside to move the scanning and the
+ * rendering of captured arguments to the writer thread.
+ */
+public class RedactingReportSink implements ReportSink {
+
+    @Getter
+    private final ReportSink delegate;
+    @Getter
+    private final SecretRedactor redactor;
+
+    public RedactingReportSink(ReportSink delegate) {
+        this(delegate, SecretRedactor.DEFAULT);
+    }
+
+    public RedactingReportSink(ReportSink delegate, SecretRedactor redactor) {
+        this.delegate = delegate;
+        this.redactor = redactor;
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        for (CrashReport report : reports) {
+            redact(report);
+        }
+        delegate.write(reports);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public String location(CrashReport report) {
+        return delegate.location(report);
+    }
+
+    @Override
+    public void discard(CrashReport report) {
+        delegate.discard(report);
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        redact(report);
+        delegate.warmUp(report);
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return delegate.retainsReports();
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return delegate.sendsReports();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private void redact(CrashReport report) {
+        report.setCause(redactor.redact(report.getCause()));
+        CrashReport.MethodInfo method = report.getMethod();
+        if (method != null && method.getArguments() != null) {
+            for (CrashReport.Argument argument : method.getArguments()) {
+                if (argument != null) {
+                    argument.setValue(redactor.redact(argument.getValue()));
+                }
+            }
+        }
+        if (report.getBreadcrumbs() != null) {
+            for (CrashReport.Breadcrumb breadcrumb : report.getBreadcrumbs()) {
+                if (breadcrumb != null) {
+                    breadcrumb.setMessage(redactor.redact(breadcrumb.getMessage()));
+                }
+            }
+        }
+    }
+}
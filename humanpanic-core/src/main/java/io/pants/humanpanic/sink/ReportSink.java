@@ -0,0 +1,68 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for crash reports.
+ *
+ * Reports arrive in batches so a sink can amortise its I/O over several reports; write may
+ * buffer and flush makes everything written so far durable. Sinks are called from one thread
+ * at a time per instance unless they document otherwise, wrap a sink in an AsyncReportSink
+ * to give it its own queue and writer thread.
+ */
+public interface ReportSink extends Closeable {
+
+    void write(List<CrashReport> reports) throws IOException;
+
+    void flush() throws IOException;
+
+    /**
+     * Where the user can find this report once it has been written, or null when the sink does
+     * not keep one addressable copy per report. Called on the crashing thread before write,
+     * sinks that name their output per report reserve the name here.
+     */
+    default String location(CrashReport report) {
+        return null;
+    }
+
+    /**
+     * The report will not reach write, because it was dropped on the way or writing it failed.
+     * Sinks that reserved something for it in location() release it here, the default does nothing.
+     */
+    default void discard(CrashReport report) {
+    }
+
+    /**
+     * Runs the report through the sink's serialisation path without storing it.
+     * Used by CrashPathWarmer, the default does nothing.
+     */
+    default void warmUp(CrashReport report) throws IOException {
+    }
+
+    /**
+     * Whether the sink may still use a report after write and flush returned, without holding it
+     * through CrashReportPool.retain. Pooled reports are only reused when it does not; sinks that
+     * encode reports before write returns override this with false.
+     */
+    default boolean retainsReports() {
+        return true;
+    }
+
+    /**
+     * Whether reports leave the machine without the user sending them, uploaded to a collector or
+     * handed to a sidecar that does; UserNotifier tells the user so instead of promising the opposite.
+     * Sinks wrapping others forward it.
+     */
+    default boolean sendsReports() {
+        return false;
+    }
+
+    @Override
+    default void close() throws IOException {
+        flush();
+    }
+}
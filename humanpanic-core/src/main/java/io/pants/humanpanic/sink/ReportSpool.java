@@ -0,0 +1,280 @@
+package io.pants.humanpanic.sink;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable on-disk spool for payloads that could not be delivered yet.
+ *
+ * Payloads are appended to spool-&lt;sequence&gt;.log segments as records of
+ * [int length][int report count][int CRC32C][payload], and every append is forced to disk.
+ * A record with a bad checksum or a torn tail ends its segment: it and anything after it are skipped.
+ *
+ * Every process appends to a fresh segment, so the segments present at startup are sealed and
+ * can be replayed while new failures keep being spooled. The replay position (segment and offset
+ * of the first unsent record) lives in spool.position and is replaced atomically.
+ *
+ * A directory is used by one spool at a time: the first one to touch it locks spool.lock until it
+ * is closed, and any other spool, in this or another process, fails with an IOException instead of
+ * replaying or deleting segments still being written. Give each process its own directory.
+ * Once the total size reaches maxTotalBytes, append refuses new payloads instead of filling the disk.
+ */
+@Slf4j
+public class ReportSpool implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_MAX_TOTAL_BYTES = 256L * 1024 * 1024;
+    static final String SEGMENT_PREFIX = "spool-";
+    static final String SEGMENT_SUFFIX = ".log";
+    private static final String POSITION_FILE = "spool.position";
+    static final String LOCK_FILE = "spool.lock";
+    private static final int HEADER_BYTES = 12;
+
+    @Getter
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxTotalBytes;
+
+    private FileChannel lockChannel;
+    private FileChannel segment;
+    private long segmentBytes;
+    private long nextSequence = -1;
+    private long totalBytes = -1;
+
+    public ReportSpool(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_MAX_TOTAL_BYTES);
+    }
+
+    public ReportSpool(Path directory, long maxSegmentBytes, long maxTotalBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Appends and forces one payload. Returns false when the spool is full.
+     */
+    public synchronized boolean append(byte[] payload, int reports) throws IOException {
+        lock();
+        if (totalBytes < 0) {
+            scan();
+        }
+        long recordBytes = HEADER_BYTES + payload.length;
+        if (totalBytes + recordBytes > maxTotalBytes) {
+            return false;
+        }
+        if (segment == null || (segmentBytes > 0 && segmentBytes + recordBytes > maxSegmentBytes)) {
+            roll();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate((int) recordBytes);
+        record.putInt(payload.length).putInt(reports).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+            segment.write(record);
+        }
+        segment.force(false);
+        segmentBytes += recordBytes;
+        totalBytes += recordBytes;
+        return true;
+    }
+
+    /**
+     * Segments written by earlier processes (or earlier segments of this one), oldest first.
+     * The segment this instance is appending to is never included.
+     */
+    public synchronized List<Path> sealedSegments() throws IOException {
+        lock();
+        List<Path> segments = segments();
+        if (segment != null) {
+            segments.remove(segmentPath(nextSequence - 1));
+        }
+        return segments;
+    }
+
+    /**
+     * Reads the records of a segment starting at offset, stopping at the end or at the first damaged record
+     */
+    public static List<Record> read(Path segment, long offset) throws IOException {
+        List<Record> records = new ArrayList<>();
+        long size = Files.size(segment);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            in.skipNBytes(offset);
+            long position = offset;
+            while (position + HEADER_BYTES <= size) {
+                int length = in.readInt();
+                int reports = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || position + HEADER_BYTES + length > size) {
+                    log.warn("Torn record in {} at offset {}, skipping the rest of the segment", segment, position);
+                    break;
+                }
+                byte[] payload = in.readNBytes(length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Checksum mismatch in {} at offset {}, skipping the rest of the segment", segment, position);
+                    break;
+                }
+                long next = position + HEADER_BYTES + length;
+                records.add(new Record(segment, position, next, reports, payload));
+                position = next;
+            }
+        } catch (EOFException e) {
+            log.warn("Unexpected end of {}", segment);
+        }
+        return records;
+    }
+
+    /**
+     * The replay position, or null when nothing has been replayed yet
+     */
+    public synchronized Position readPosition() throws IOException {
+        Path file = directory.resolve(POSITION_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String[] parts = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+        if (parts.length != 2) {
+            log.warn("Ignoring malformed spool position {}", file);
+            return null;
+        }
+        return new Position(parts[0], Long.parseLong(parts[1]));
+    }
+
+    /**
+     * Records that everything before the position has been delivered and deletes fully delivered segments
+     */
+    public synchronized void commit(Position position) throws IOException {
+        lock();
+        Path temp = directory.resolve(POSITION_FILE + ".tmp");
+        Files.writeString(temp, position.segment() + " " + position.offset() + "\n", StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(POSITION_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path sealed : sealedSegments()) {
+            String name = sealed.getFileName().toString();
+            boolean before = name.compareTo(position.segment()) < 0;
+            boolean finished = name.equals(position.segment()) && position.offset() >= Files.size(sealed);
+            if (before || finished) {
+                long size = Files.size(sealed);
+                Files.deleteIfExists(sealed);
+                if (totalBytes >= 0) {
+                    totalBytes -= size;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+        if (lockChannel != null) {
+            // Closing the channel releases the lock
+            lockChannel.close();
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * Takes the directory for this spool, the lock is held until close
+     */
+    private void lock() throws IOException {
+        if (lockChannel != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Spool directory " + directory + " is in use by another spool");
+        }
+        lockChannel = channel;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private void scan() throws IOException {
+        totalBytes = 0;
+        nextSequence = 0;
+        for (Path existing : segments()) {
+            totalBytes += Files.size(existing);
+            String name = existing.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            nextSequence = Math.max(nextSequence, sequence + 1);
+        }
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        Files.createDirectories(directory);
+        segment = FileChannel.open(segmentPath(nextSequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        nextSequence++;
+        segmentBytes = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * One spooled payload; nextOffset is where the following record starts
+     */
+    public record Record(Path segment, long offset, long nextOffset, int reports, byte[] payload) {
+    }
+
+    /**
+     * First undelivered byte: a segment file name and an offset within it
+     */
+    public record Position(String segment, long offset) {
+    }
+}
@@ -0,0 +1,86 @@
+package io.pants.humanpanic.sink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip member writer that keeps one Deflater and one output buffer for its whole life, instead of
+ * allocating both (and the deflater's native state) per file like GZIPOutputStream does.
+ *
+ * start begins a member on a target stream, the encoder writes into this stream, finish writes
+ * the trailer. close does nothing, since encoders may close the stream they are given;
+ * end releases the deflater. Not thread-safe, each writer owns one.
+ */
+final class ReusableGzipStream extends OutputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer;
+    private final byte[] single = new byte[1];
+    private OutputStream target;
+
+    ReusableGzipStream(int level, int bufferSize) {
+        this.deflater = new Deflater(level, true);
+        this.buffer = new byte[bufferSize];
+    }
+
+    void start(OutputStream target) throws IOException {
+        this.target = target;
+        deflater.reset();
+        crc.reset();
+        target.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (target == null) {
+            throw new IOException("No gzip member started");
+        }
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            drain();
+        }
+    }
+
+    /**
+     * Ends the member: the remaining compressed data, then CRC32 and length, both little-endian
+     */
+    void finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain();
+        }
+        int checksum = (int) crc.getValue();
+        int length = (int) deflater.getBytesRead();
+        target.write(new byte[] {
+                (byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+                (byte) length, (byte) (length >> 8), (byte) (length >> 16), (byte) (length >> 24)});
+        target = null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    void end() {
+        deflater.end();
+    }
+
+    private void drain() throws IOException {
+        int written = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+        if (written > 0) {
+            target.write(buffer, 0, written);
+        }
+    }
+}
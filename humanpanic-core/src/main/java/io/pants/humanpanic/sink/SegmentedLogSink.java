@@ -0,0 +1,247 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Appends reports as NDJSON records to a sequence of segment files instead of one file per report.
+ *
+ * Each segment is named after the offset of its first record (00000000000000000000.ndjson, ...)
+ * and a new one is started once the current segment would grow past the size limit. Appending to
+ * an open segment is far cheaper than creating a file per report when crashes come in bursts.
+ * On open the sink resumes after the last record of the newest segment.
+ */
+public class SegmentedLogSink implements ReportSink {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+    public static final String SEGMENT_SUFFIX = ".ndjson";
+
+    @Getter
+    private final Path directory;
+    private final ReportEncoder encoder;
+    private final long maxSegmentBytes;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private OutputStream segment;
+    private Path segmentPath;
+    private long segmentBytes;
+    private long nextOffset;
+
+    /**
+     * Uses the compact JsonReportEncoder, a custom encoder must not emit line breaks
+     */
+    public SegmentedLogSink(Path directory) {
+        this(directory, new JsonReportEncoder(false), DEFAULT_SEGMENT_BYTES);
+    }
+
+    public SegmentedLogSink(Path directory, ReportEncoder encoder, long maxSegmentBytes) {
+        this.directory = directory;
+        this.encoder = encoder;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    @Override
+    public synchronized void write(List<CrashReport> reports) throws IOException {
+        if (segment == null) {
+            open();
+        }
+        for (CrashReport report : reports) {
+            buffer.reset();
+            encoder.encode(report, buffer);
+            buffer.write('\n');
+            append(buffer.size());
+            buffer.writeTo(segment);
+        }
+    }
+
+    /**
+     * Appends records that are already encoded, one single-line JSON document each, without the line break.
+     * Lets relays such as the sidecar persist what they received without decoding it.
+     * Returns where each record went, in order, so callers can index them.
+     */
+    public synchronized List<RecordLocation> writeEncoded(List<byte[]> records) throws IOException {
+        if (segment == null) {
+            open();
+        }
+        List<RecordLocation> locations = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            long position = append(record.length + 1);
+            locations.add(new RecordLocation(nextOffset - 1, segmentPath, position));
+            segment.write(record);
+            segment.write('\n');
+        }
+        return locations;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (segment != null) {
+            segment.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        encoder.encode(report, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Offset the next record will get, which is also the number of records written so far
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Segment files in the directory, oldest first
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Offset of the first record in a segment, taken from its file name
+     */
+    public static long baseOffset(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Reads the record starting at a byte position of a segment, without its line break
+     */
+    public static byte[] readRecord(Path segment, long position) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        try (InputStream in = Files.newInputStream(segment)) {
+            in.skipNBytes(position);
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\n') {
+                        record.write(chunk, 0, i);
+                        return record.toByteArray();
+                    }
+                }
+                record.write(chunk, 0, read);
+            }
+        }
+        throw new IOException("Unterminated record in " + segment + " at position " + position);
+    }
+
+    /**
+     * Accounts for a record of the given size, rolling to a new segment first when it would not fit.
+     * Returns the byte position the record starts at.
+     */
+    private long append(int recordBytes) throws IOException {
+        if (segmentBytes > 0 && segmentBytes + recordBytes > maxSegmentBytes) {
+            roll();
+        }
+        long position = segmentBytes;
+        segmentBytes += recordBytes;
+        nextOffset++;
+        return position;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        if (existing.isEmpty()) {
+            openSegment(0);
+            return;
+        }
+        Path last = existing.get(existing.size() - 1);
+        long records = countRecords(last);
+        segment = new BufferedOutputStream(Files.newOutputStream(last, StandardOpenOption.APPEND));
+        segmentPath = last;
+        segmentBytes = Files.size(last);
+        if (records < 0) {
+            // The previous process died mid-record: terminate the torn line so it stays one bad record
+            segment.write('\n');
+            segmentBytes++;
+            records = -records;
+        }
+        nextOffset = baseOffset(last) + records;
+    }
+
+    private void roll() throws IOException {
+        segment.close();
+        openSegment(nextOffset);
+    }
+
+    private void openSegment(long baseOffset) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        segment = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        segmentPath = path;
+        segmentBytes = Files.size(path);
+    }
+
+    /**
+     * Counts the lines in a segment, negated (and including the unterminated tail) when the
+     * last record is missing its line break
+     */
+    private static long countRecords(Path segment) throws IOException {
+        long records = 0;
+        byte last = '\n';
+        byte[] chunk = new byte[8192];
+        try (InputStream in = Files.newInputStream(segment)) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\n') {
+                        records++;
+                    }
+                }
+                if (read > 0) {
+                    last = chunk[read - 1];
+                }
+            }
+        }
+        return last == '\n' ? records : -(records + 1);
+    }
+
+    /**
+     * Where an appended record landed: its offset in the log, its segment and its byte position in that segment
+     */
+    public record RecordLocation(long offset, Path segment, long position) {
+    }
+}
@@ -0,0 +1,190 @@
+package io.pants.humanpanic.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Crash counters shared by every process on the host through a memory-mapped file.
+ *
+ * The file holds a fixed-size open-addressing table (linear probing) of fingerprint slots:
+ * [long fingerprint][long window start, epoch ms][long count][long unused]. Slots are claimed
+ * and updated with VarHandle compare-and-set and get-and-add on the mapping, which are atomic
+ * across processes because they all map the same pages. record() tells the caller whether it is
+ * the first to see a fingerprint in the current window; every caller bumps the shared count.
+ *
+ * The file is created and its header written under a file lock, later opens only read the header.
+ * Slots are never freed: once the table is full, record() reports every new fingerprint as first,
+ * so crashes are never lost. Delete the file to reset all counters.
+ */
+public class SharedCrashCounters implements Closeable {
+
+    public static final String DEFAULT_FILE_NAME = "crash-counters.bin";
+    public static final int DEFAULT_CAPACITY = 16_384;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+
+    private static final int MAGIC = 0x48504343;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 32;
+    private static final int WINDOW_START = 8;
+    private static final int COUNT = 16;
+    private static final long EMPTY = 0L;
+    /**
+     * Stands in for a fingerprint of 0, which marks empty slots
+     */
+    private static final long ZERO_KEY = 0x9e3779b97f4a7c15L;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer table;
+    private final int capacity;
+    private final long windowMillis;
+
+    private SharedCrashCounters(FileChannel channel, MappedByteBuffer table, int capacity, Duration window) {
+        this.channel = channel;
+        this.table = table;
+        this.capacity = capacity;
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Opens crash-counters.bin in the directory with the default capacity and window
+     */
+    public static SharedCrashCounters open(Path directory) throws IOException {
+        return open(directory.resolve(DEFAULT_FILE_NAME), DEFAULT_CAPACITY, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens or creates the counter file. The capacity only applies when the file is created,
+     * an existing file keeps the capacity it was created with.
+     */
+    public static SharedCrashCounters open(Path file, int capacity, Duration window) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int tableCapacity;
+            try (FileLock ignored = channel.lock()) {
+                tableCapacity = channel.size() == 0 ? initialize(channel, capacity) : readCapacity(channel, file);
+            }
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) tableCapacity * SLOT_BYTES);
+            return new SharedCrashCounters(channel, table, tableCapacity, window);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Counts one occurrence of the fingerprint and claims its window if the window has expired
+     */
+    public Claim record(long fingerprint) {
+        int slot = find(key(fingerprint), true);
+        if (slot < 0) {
+            return new Claim(true, 1);
+        }
+        long count = (long) LONGS.getAndAdd(table, slot + COUNT, 1L) + 1;
+        long now = System.currentTimeMillis();
+        while (true) {
+            long start = (long) LONGS.getVolatile(table, slot + WINDOW_START);
+            long elapsed = now - start;
+            // A window opened after we read the clock is still open for us. One that starts further
+            // ahead than a window was opened before the wall clock stepped back, and is reopened.
+            if (start != 0 && elapsed > -windowMillis && elapsed < windowMillis) {
+                return new Claim(false, count);
+            }
+            if (LONGS.compareAndSet(table, slot + WINDOW_START, start, now)) {
+                return new Claim(true, count);
+            }
+        }
+    }
+
+    /**
+     * How often the fingerprint was recorded by all processes, 0 when never
+     */
+    public long count(long fingerprint) {
+        int slot = find(key(fingerprint), false);
+        return slot < 0 ? 0 : (long) LONGS.getVolatile(table, slot + COUNT);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Closes the file, the mapping itself is released once it is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Byte offset of the fingerprint's slot, claiming an empty one when asked to, or -1
+     */
+    private int find(long key, boolean claim) {
+        int index = (int) Long.remainderUnsigned(key * 0x9e3779b97f4a7c15L, capacity);
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = HEADER_BYTES + index * SLOT_BYTES;
+            long existing = (long) LONGS.getVolatile(table, slot);
+            if (existing == EMPTY) {
+                if (!claim) {
+                    return -1;
+                }
+                existing = (long) LONGS.compareAndExchange(table, slot, EMPTY, key);
+                if (existing == EMPTY) {
+                    return slot;
+                }
+            }
+            if (existing == key) {
+                return slot;
+            }
+            index = index + 1 == capacity ? 0 : index + 1;
+        }
+        return -1;
+    }
+
+    private static long key(long fingerprint) {
+        return fingerprint == EMPTY ? ZERO_KEY : fingerprint;
+    }
+
+    private static int initialize(FileChannel channel, int capacity) throws IOException {
+        channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES)
+                .order(ByteOrder.nativeOrder())
+                .putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putInt(8, capacity);
+        return capacity;
+    }
+
+    private static int readCapacity(FileChannel channel, Path file) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.nativeOrder());
+        int capacity = header.getInt(8);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || capacity <= 0
+                || channel.size() < HEADER_BYTES + (long) capacity * SLOT_BYTES) {
+            throw new IOException("Not a crash counter file: " + file);
+        }
+        return capacity;
+    }
+
+    /**
+     * first is true when the caller should write the full report; count includes this occurrence
+     */
+    public record Claim(boolean first, long count) {
+    }
+}
@@ -0,0 +1,140 @@
+package io.pants.humanpanic.sink;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Drains a ReportSpool in the background, with at most maxConcurrency deliveries outstanding.
+ *
+ * Only the segments that were sealed when the replay started are replayed. The committed position
+ * only moves past a record once it and every record before it have been delivered, so after a
+ * crash the replay resumes at the first record that may not have arrived. Records delivered out of
+ * order just before a crash can be sent again; each one carries a stable key (segment:offset) that
+ * the receiver can use to drop such duplicates. Replay stops at the first record that still fails
+ * and is retried on the next start.
+ */
+@Slf4j
+public class SpoolReplayer {
+
+    public static final String THREAD_NAME = "humanpanic-spool-replay";
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+
+    private final ReportSpool spool;
+    private final BiFunction<ReportSpool.Record, String, CompletableFuture<Boolean>> delivery;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+
+    /**
+     * Completed records waiting for everything before them, keyed by issue order
+     */
+    private final TreeMap<Long, ReportSpool.Position> completed = new TreeMap<>();
+    private long nextToCommit;
+    private volatile boolean failed;
+    private volatile boolean stopped;
+
+    /**
+     * @param delivery sends one record, given the record and its idempotency key, and completes with true once delivered
+     */
+    public SpoolReplayer(ReportSpool spool,
+                         BiFunction<ReportSpool.Record, String, CompletableFuture<Boolean>> delivery,
+                         int maxConcurrency) {
+        this.spool = spool;
+        this.delivery = delivery;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Starts the replay on a low-priority daemon thread and returns it
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::replay, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Stops issuing new deliveries, outstanding ones still complete and commit
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Replays on the calling thread and returns once every issued delivery has completed
+     */
+    public void replay() {
+        try {
+            List<Path> segments = spool.sealedSegments();
+            ReportSpool.Position position = spool.readPosition();
+            long issued = 0;
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                if (position != null && name.compareTo(position.segment()) < 0) {
+                    continue;
+                }
+                long offset = position != null && name.equals(position.segment()) ? position.offset() : 0;
+                List<ReportSpool.Record> records = ReportSpool.read(segment, offset);
+                for (ReportSpool.Record record : records) {
+                    if (failed || stopped) {
+                        break;
+                    }
+                    permits.acquire();
+                    long sequence = issued++;
+                    String key = name + ":" + record.offset();
+                    delivery.apply(record, key).whenComplete((delivered, error) -> {
+                        if (Boolean.TRUE.equals(delivered)) {
+                            complete(sequence, new ReportSpool.Position(name, record.nextOffset()));
+                        } else {
+                            failed = true;
+                        }
+                        permits.release();
+                    });
+                }
+                if (failed || stopped) {
+                    break;
+                }
+                // Commits once every record above is delivered, which also drops a damaged tail
+                complete(issued++, new ReportSpool.Position(name, Long.MAX_VALUE));
+            }
+            if (!permits.tryAcquire(maxConcurrency, DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for spooled crash reports to be delivered");
+            } else {
+                permits.release(maxConcurrency);
+            }
+            if (failed) {
+                log.warn("Spool replay stopped at an undeliverable record, it will be retried on the next start");
+            }
+        } catch (IOException e) {
+            log.error("Failed to replay crash report spool, error = {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void complete(long sequence, ReportSpool.Position position) {
+        completed.put(sequence, position);
+        ReportSpool.Position commit = null;
+        while (!completed.isEmpty() && completed.firstKey() == nextToCommit) {
+            commit = completed.pollFirstEntry().getValue();
+            nextToCommit++;
+        }
+        if (commit != null) {
+            try {
+                spool.commit(commit);
+            } catch (IOException e) {
+                log.error("Failed to record spool position, error = {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes one compact JSON report per line to standard output, for log shippers that scrape stdout.
+ * The encoder must not emit line breaks.
+ */
+public class StdoutNdjsonSink implements ReportSink {
+
+    private final OutputStream out;
+    private final ReportEncoder encoder;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    public StdoutNdjsonSink() {
+        this(System.out, new JsonReportEncoder(false));
+    }
+
+    public StdoutNdjsonSink(OutputStream out, ReportEncoder encoder) {
+        this.out = out;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public synchronized void write(List<CrashReport> reports) throws IOException {
+        for (CrashReport report : reports) {
+            // Encode into a buffer first: some encoders close the stream they are given
+            buffer.reset();
+            encoder.encode(report, buffer);
+            buffer.write('\n');
+            buffer.writeTo(out);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return false;
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        encoder.encode(report, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,262 @@
+package io.pants.humanpanic.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams reports to a host-local sidecar over a Unix domain socket.
+ *
+ * Every report is one frame: [int length][long fingerprint][compact JSON], where length covers
+ * the fingerprint and the JSON. The failing thread never touches the socket: unless write is called
+ * on an AsyncReportSink writer thread already, the sink hands the reports to a writer thread of its
+ * own, started on first use and drained by close. Socket writes are non-blocking; a frame fails when
+ * the sidecar stops reading for WRITE_DEADLINE or the whole frame takes longer than FRAME_DEADLINE.
+ * When the socket is missing, refuses the connection or stalls, the reports go to the fallback sink
+ * (local files by default) and reconnecting is retried after a back-off. A report too large for
+ * one frame goes to the fallback on its own and leaves the connection alone.
+ */
+@Slf4j
+public class UnixSocketSink implements ReportSink {
+
+    public static final int MAX_FRAME_BYTES = 4 * 1024 * 1024;
+    public static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    public static final Duration WRITE_DEADLINE = Duration.ofMillis(500);
+    public static final Duration FRAME_DEADLINE = Duration.ofSeconds(2);
+    private static final long RECONNECT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final Path socketPath;
+    private final ReportEncoder encoder;
+    private final ReportSink fallback;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private SocketChannel channel;
+    private long reconnectAt;
+    private boolean closed;
+
+    /**
+     * Writer thread that talks to the socket for callers that are not on one
+     */
+    private AsyncReportSink sender;
+
+    public UnixSocketSink(Path socketPath) {
+        this(socketPath, new JsonReportEncoder(false), new FileReportSink());
+    }
+
+    public UnixSocketSink(Path socketPath, ReportEncoder encoder, ReportSink fallback) {
+        this.socketPath = socketPath;
+        this.encoder = encoder;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void write(List<CrashReport> reports) throws IOException {
+        AsyncReportSink handOff = AsyncReportSink.onWriterThread() ? null : sender();
+        if (handOff != null) {
+            handOff.write(reports);
+            return;
+        }
+        send(reports);
+    }
+
+    private synchronized void send(List<CrashReport> reports) throws IOException {
+        for (int i = 0; i < reports.size(); i++) {
+            ByteBuffer frame = frame(reports.get(i));
+            if (frame == null) {
+                log.warn("Report of {} bytes exceeds the sidecar frame limit, writing it to the fallback", buffer.size());
+                fallback.write(List.of(reports.get(i)));
+                continue;
+            }
+            if (!connected()) {
+                fallback.write(reports.subList(i, reports.size()));
+                return;
+            }
+            try {
+                send(frame);
+            } catch (IOException e) {
+                log.warn("Sidecar at {} unavailable, falling back, error = {}", socketPath, e.getMessage());
+                disconnect();
+                fallback.write(reports.subList(i, reports.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Socket writes are not buffered, only the fallback has anything to flush
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        fallback.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        AsyncReportSink handOff;
+        synchronized (this) {
+            handOff = sender;
+            closed = true;
+        }
+        // Outside the lock, the writer thread needs it to send the reports still queued
+        if (handOff != null) {
+            handOff.close();
+        }
+        synchronized (this) {
+            disconnect();
+        }
+        fallback.close();
+    }
+
+    @Override
+    public boolean retainsReports() {
+        return fallback.retainsReports();
+    }
+
+    @Override
+    public boolean sendsReports() {
+        return true;
+    }
+
+    @Override
+    public void warmUp(CrashReport report) throws IOException {
+        encoder.encode(report, OutputStream.nullOutputStream());
+        CrashFingerprint.of(report);
+        fallback.warmUp(report);
+    }
+
+    /**
+     * True while a connection to the sidecar is open
+     */
+    public synchronized boolean isConnected() {
+        return channel != null;
+    }
+
+    private boolean connected() {
+        if (channel != null) {
+            return true;
+        }
+        if (System.nanoTime() - reconnectAt < 0) {
+            return false;
+        }
+        try {
+            SocketChannel opened = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                opened.connect(UnixDomainSocketAddress.of(socketPath));
+                opened.configureBlocking(false);
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+            channel = opened;
+            return true;
+        } catch (IOException e) {
+            log.debug("Cannot connect to sidecar at {}, error = {}", socketPath, e.getMessage());
+            reconnectAt = System.nanoTime() + RECONNECT_BACKOFF_NANOS;
+            return false;
+        }
+    }
+
+    /**
+     * Null once closed, late reports are then sent on the calling thread
+     */
+    private synchronized AsyncReportSink sender() {
+        if (sender == null && !closed) {
+            sender = new AsyncReportSink(new Sender());
+        }
+        return closed ? null : sender;
+    }
+
+    /**
+     * Null when the report does not fit one frame
+     */
+    private ByteBuffer frame(CrashReport report) throws IOException {
+        buffer.reset();
+        encoder.encode(report, buffer);
+        int length = Long.BYTES + buffer.size();
+        if (length > MAX_FRAME_BYTES) {
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).putLong(CrashFingerprint.of(report)).put(buffer.toByteArray()).flip();
+        return frame;
+    }
+
+    /**
+     * Writes the whole frame or fails once the sidecar stops draining for WRITE_DEADLINE, or
+     * drains it so slowly that the frame takes longer than FRAME_DEADLINE
+     */
+    private void send(ByteBuffer frame) throws IOException {
+        long start = System.nanoTime();
+        long stalledSince = start;
+        while (frame.hasRemaining()) {
+            long now = System.nanoTime();
+            if (now - start > FRAME_DEADLINE.toNanos()) {
+                throw new IOException("Sidecar reads too slowly");
+            }
+            if (channel.write(frame) > 0) {
+                stalledSince = now;
+            } else if (now - stalledSince > WRITE_DEADLINE.toNanos()) {
+                throw new IOException("Sidecar stopped reading");
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void disconnect() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close sidecar connection, error = {}", e.getMessage());
+            }
+            channel = null;
+            reconnectAt = System.nanoTime() + RECONNECT_BACKOFF_NANOS;
+        }
+    }
+
+    /**
+     * What the sender's writer thread writes to: this sink, called where it may use the socket
+     */
+    private final class Sender implements ReportSink {
+
+        @Override
+        public void write(List<CrashReport> reports) throws IOException {
+            send(reports);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            UnixSocketSink.this.flush();
+        }
+
+        @Override
+        public boolean retainsReports() {
+            return fallback.retainsReports();
+        }
+
+        /**
+         * The socket sink's own close disconnects and closes the fallback
+         */
+        @Override
+        public void close() {
+        }
+    }
+}
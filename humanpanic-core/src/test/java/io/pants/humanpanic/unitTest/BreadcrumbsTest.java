@@ -0,0 +1,178 @@
+package io.pants.humanpanic.unitTest;
+
+import io.pants.humanpanic.Breadcrumbs;
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.ArgumentRenderer;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.pants.humanpanic.Breadcrumbs.breadcrumb;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Breadcrumbs
+ */
+class BreadcrumbsTest {
+
+    @BeforeEach
+    void setUp() {
+        Breadcrumbs.clear();
+    }
+
+    @Test
+    void testSnapshotFormatsOldestFirst() {
+        breadcrumb("loaded config");
+        breadcrumb("order {} has {} lines", "order-7", 3);
+        breadcrumb("retry {}", 2L);
+        breadcrumb("{} {} {}", "a", "b", "c");
+        breadcrumb("missing {} and {}", "one");
+
+        List<String> messages = messages(Breadcrumbs.snapshot());
+
+        assertEquals(List.of("loaded config", "order order-7 has 3 lines", "retry 2", "a b c", "missing one and {}"),
+                messages);
+    }
+
+    @Test
+    void testKeepsTheLatestSlots() {
+        for (int i = 0; i < Breadcrumbs.RING_SLOTS * 3; i++) {
+            breadcrumb("step {}", i);
+        }
+
+        List<String> messages = messages(Breadcrumbs.snapshot());
+
+        assertEquals(Breadcrumbs.RING_SLOTS, messages.size());
+        assertEquals("step " + (Breadcrumbs.RING_SLOTS * 2), messages.get(0));
+        assertEquals("step " + (Breadcrumbs.RING_SLOTS * 3 - 1), messages.get(messages.size() - 1));
+        Breadcrumbs.clear();
+        assertTrue(Breadcrumbs.snapshot().isEmpty());
+    }
+
+    @Test
+    void testVirtualThreadsOnlySeeTheirOwnBreadcrumbs() throws Exception {
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        breadcrumb("platform thread");
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int task = 0; task < 10_000; task++) {
+                long id = task;
+                executor.submit(() -> {
+                    breadcrumb("task {} started", id);
+                    Thread.yield();
+                    breadcrumb("task {} failed", id);
+                    List<String> messages = messages(Breadcrumbs.snapshot());
+                    if (!messages.stream().allMatch(message -> message.startsWith("task " + id + " "))
+                            || !messages.contains("task " + id + " failed")) {
+                        mismatches.add(id + ": " + messages);
+                    }
+                });
+            }
+        }
+
+        assertTrue(mismatches.isEmpty(), mismatches.toString());
+        assertEquals(List.of("platform thread"), messages(Breadcrumbs.snapshot()));
+    }
+
+    @Test
+    void testRecordingAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String order = "order-7";
+        for (int i = 0; i < 100_000; i++) {
+            breadcrumb("checkout started");
+            breadcrumb("loaded {}", order);
+            breadcrumb("attempt {}", i);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            breadcrumb("checkout started");
+            breadcrumb("loaded {}", order);
+            breadcrumb("attempt {}", i);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(allocated < 4096, allocated + " bytes");
+    }
+
+    @Test
+    void testReportCarriesBreadcrumbs() {
+        InMemoryReportSink sink = new InMemoryReportSink();
+        CrashReporter reporter = new CrashReporter(AppMetadata::new, sink);
+
+        reporter.createReport(new IllegalStateException("no breadcrumbs"), null);
+        breadcrumb("charging card {}", "visa");
+        reporter.createReport(new IllegalStateException("boom"), null);
+
+        assertNull(sink.getReports().get(0).getBreadcrumbs());
+        CrashReport.Breadcrumb breadcrumb = sink.getReports().get(1).getBreadcrumbs().get(0);
+        assertEquals("charging card visa", breadcrumb.getMessage());
+        assertTrue(breadcrumb.getTimestampMs() > 0);
+    }
+
+    @Test
+    void testArgumentsAreRenderedBoundedAsTheyAreAtCrashTime() {
+        AtomicInteger renders = new AtomicInteger();
+        Object item = new Object() {
+            @Override
+            public String toString() {
+                return "Item#" + renders.incrementAndGet();
+            }
+        };
+        List<String> cart = new ArrayList<>(List.of("book"));
+        breadcrumb("cart {} item {}", cart, item);
+        breadcrumb("payload {}", "x".repeat(100_000));
+        cart.add("pen");
+
+        List<String> messages = messages(Breadcrumbs.snapshot());
+
+        assertEquals("cart [\"book\", \"pen\"] item " + ArgumentRenderer.TO_STRING_SKIPPED, messages.get(0));
+        assertTrue(messages.get(1).getBytes(StandardCharsets.UTF_8).length
+                <= "payload ".length() + ArgumentRenderer.DEFAULT_MAX_ARGUMENT_BYTES);
+        assertEquals(0, renders.get());
+    }
+
+    @Test
+    void testReportRendersArgumentsOnTheWriterThread() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        Object item = new Object() {
+            @Override
+            public String toString() {
+                return "Item#" + renders.incrementAndGet();
+            }
+        };
+        InMemoryReportSink memory = new InMemoryReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) {
+                // Rendered here, on the writer thread
+                reports.get(0).getBreadcrumbs().get(0).getMessage();
+                super.write(reports);
+            }
+        };
+        try (AsyncReportSink sink = new AsyncReportSink(memory)) {
+            breadcrumb("added {}", item);
+            new CrashReporter(AppMetadata::new, sink).createReport(new IllegalStateException("boom"), null);
+
+            CrashReport report = memory.awaitReports(1, Duration.ofSeconds(5)).get(0);
+            assertEquals(List.of("added Item#1"), messages(report.getBreadcrumbs()));
+            assertEquals(1, renders.get());
+        }
+    }
+
+    private static List<String> messages(List<CrashReport.Breadcrumb> breadcrumbs) {
+        return breadcrumbs.stream().map(CrashReport.Breadcrumb::getMessage).toList();
+    }
+}
@@ -0,0 +1,162 @@
+package io.pants.humanpanic.unitTest.config;
+
+import io.pants.humanpanic.config.AppMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for AppMetadata
+ */
+@ExtendWith(MockitoExtension.class)
+public class AppMetaDataTest {
+    private AppMetadata metadata;
+
+    @BeforeEach
+    void setUp() {
+        metadata = new AppMetadata();
+    }
+
+    @Test
+    void testDefaultValues() {
+        assertEquals("Unknown Application", metadata.getName());
+        assertEquals("Unknown Version", metadata.getVersion());
+        assertArrayEquals(new String[]{"Unknown Authors"}, metadata.getAuthors());
+        assertEquals("Unknown Homepage", metadata.getHomepage());
+        assertEquals("Unknown Support-URL", metadata.getSupportUrl());
+        assertEquals("Unknown Issue_URL", metadata.getIssueUrl());
+    }
+
+    @Test
+    void testSetName() {
+        AppMetadata updated = metadata.toBuilder().name("Test App").build();
+        assertEquals("Test App", updated.getName());
+    }
+
+    @Test
+    void testSetVersion() {
+        AppMetadata updated = metadata.toBuilder().version("1.0.0").build();
+        assertEquals("1.0.0", updated.getVersion());
+    }
+
+    @Test
+    void testSetAuthors() {
+        String[] authors = {"Author1", "Author2"};
+        AppMetadata updated = metadata.toBuilder().authors(authors).build();
+        assertArrayEquals(authors, updated.getAuthors());
+    }
+
+    @Test
+    void testSetHomepage() {
+        AppMetadata updated = metadata.toBuilder().homepage("https://example.com").build();
+        assertEquals("https://example.com", updated.getHomepage());
+    }
+
+    @Test
+    void testSetSupportUrl() {
+        AppMetadata updated = metadata.toBuilder().supportUrl("https://support.example.com").build();
+        assertEquals("https://support.example.com", updated.getSupportUrl());
+    }
+
+    @Test
+    void testSetIssueUrl() {
+        AppMetadata updated = metadata.toBuilder().issueUrl("https://github.com/example/issues").build();
+        assertEquals("https://github.com/example/issues", updated.getIssueUrl());
+    }
+
+    @Test
+    void testSetNullValues() {
+        AppMetadata updated = AppMetadata.builder().build();
+
+        assertNull(updated.getName());
+        assertNull(updated.getVersion());
+        assertNull(updated.getAuthors());
+        assertNull(updated.getHomepage());
+        assertNull(updated.getSupportUrl());
+        assertNull(updated.getIssueUrl());
+    }
+
+    @Test
+    void testSetEmptyStrings() {
+        AppMetadata updated = metadata.toBuilder()
+                .name("")
+                .version("")
+                .homepage("")
+                .supportUrl("")
+                .issueUrl("")
+                .build();
+
+        assertEquals("", updated.getName());
+        assertEquals("", updated.getVersion());
+        assertEquals("", updated.getHomepage());
+        assertEquals("", updated.getSupportUrl());
+        assertEquals("", updated.getIssueUrl());
+    }
+
+    @Test
+    void testSetEmptyAuthorsArray() {
+        String[] emptyAuthors = {};
+        AppMetadata updated = metadata.toBuilder().authors(emptyAuthors).build();
+        assertArrayEquals(emptyAuthors, updated.getAuthors());
+    }
+
+    @Test
+    void testMultipleAuthors() {
+        String[] authors = {"John Doe", "Jane Smith", "Bob Wilson"};
+        AppMetadata updated = metadata.toBuilder().authors(authors).build();
+        assertEquals(3, updated.getAuthors().length);
+        assertEquals("John Doe", updated.getAuthors()[0]);
+        assertEquals("Jane Smith", updated.getAuthors()[1]);
+        assertEquals("Bob Wilson", updated.getAuthors()[2]);
+    }
+
+    @Test
+    void testCompleteMetadata() {
+        AppMetadata updated = AppMetadata.builder()
+                .name("My Application")
+                .version("2.0.0")
+                .authors(new String[]{"Developer1", "Developer2"})
+                .homepage("https://myapp.com")
+                .supportUrl("https://support.myapp.com")
+                .issueUrl("https://github.com/myapp/issues")
+                .build();
+
+        assertEquals("My Application", updated.getName());
+        assertEquals("2.0.0", updated.getVersion());
+        assertEquals(2, updated.getAuthors().length);
+        assertEquals("https://myapp.com", updated.getHomepage());
+        assertEquals("https://support.myapp.com", updated.getSupportUrl());
+        assertEquals("https://github.com/myapp/issues", updated.getIssueUrl());
+    }
+
+    @Test
+    void testToBuilderLeavesOriginalUnchanged() {
+        AppMetadata updated = metadata.toBuilder().name("Changed").build();
+
+        assertNotSame(metadata, updated);
+        assertEquals("Unknown Application", metadata.getName());
+        assertEquals("Changed", updated.getName());
+    }
+
+    @Test
+    void testAuthorsAreDefensivelyCopied() {
+        String[] authors = {"Author1"};
+        AppMetadata updated = metadata.toBuilder().authors(authors).build();
+
+        authors[0] = "Mutated";
+        updated.getAuthors()[0] = "Mutated";
+
+        assertEquals("Author1", updated.getAuthors()[0]);
+    }
+
+    @Test
+    void testEqualSnapshots() {
+        assertEquals(new AppMetadata(), metadata);
+        assertEquals(new AppMetadata().hashCode(), metadata.hashCode());
+        assertNotEquals(metadata, metadata.toBuilder().version("2").build());
+    }
+}
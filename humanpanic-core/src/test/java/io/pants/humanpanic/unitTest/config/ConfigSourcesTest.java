@@ -0,0 +1,180 @@
+package io.pants.humanpanic.unitTest.config;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.ConfigSource;
+import io.pants.humanpanic.config.ConfigSources;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConfigSources and layered loading in NonSpringConfigLoader
+ */
+class ConfigSourcesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("app.name");
+        System.clearProperty("app.support-url");
+    }
+
+    @Test
+    void testCanonicalKey() {
+        assertEquals("app.supporturl", ConfigSources.canonicalKey("app.support-url"));
+        assertEquals("app.supporturl", ConfigSources.canonicalKey("app.supportUrl"));
+        assertEquals("app.supporturl", ConfigSources.canonicalKey("app.support_url"));
+    }
+
+    @Test
+    void testSystemProperties() {
+        System.setProperty("app.name", "Sys App");
+        System.setProperty("app.support-url", "https://sys");
+
+        Map<String, String> values = ConfigSources.systemProperties().read();
+
+        assertEquals("Sys App", values.get("app.name"));
+        assertEquals("https://sys", values.get("app.supporturl"));
+    }
+
+    @Test
+    void testEnvironment() {
+        Map<String, String> values = ConfigSources.environment(
+                Map.of("APP_NAME", "Env App", "APP_ISSUE_URL", "https://env/issues", "PATH", "/bin")).read();
+
+        assertEquals("Env App", values.get("app.name"));
+        assertEquals("https://env/issues", values.get("app.issueurl"));
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    void testPropertiesFile_MissingFileIsEmpty() {
+        assertTrue(ConfigSources.propertiesFile(tempDir.resolve("missing.properties").toString()).read().isEmpty());
+    }
+
+    @Test
+    void testPropertiesFile_ReadsAppKeys() throws Exception {
+        Path file = tempDir.resolve("app.properties");
+        Files.writeString(file, "app.name=File App\napp.issue-url=https://file/issues\nother=ignored\n");
+
+        Map<String, String> values = ConfigSources.propertiesFile(file.toString()).read();
+
+        assertEquals("File App", values.get("app.name"));
+        assertEquals("https://file/issues", values.get("app.issueurl"));
+        assertFalse(values.containsKey("other"));
+    }
+
+    @Test
+    void testCachedFileSource_ParsesOnlyWhenChanged() throws Exception {
+        Path file = tempDir.resolve("app.properties");
+        Files.writeString(file, "app.name=First");
+        AtomicInteger parses = new AtomicInteger();
+        ConfigSource source = new ConfigSources.CachedFileSource(null, file, in -> {
+            parses.incrementAndGet();
+            Properties props = new Properties();
+            props.load(in);
+            return Map.of("app.name", props.getProperty("app.name"));
+        });
+
+        assertEquals("First", source.read().get("app.name"));
+        assertEquals("First", source.read().get("app.name"));
+        assertEquals(1, parses.get());
+
+        Files.writeString(file, "app.name=Second");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertEquals("Second", source.read().get("app.name"));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void testCachedFileSource_ComparesContentsNotTimestamps() throws Exception {
+        Path file = tempDir.resolve("app.properties");
+        Files.writeString(file, "app.name=AAAA");
+        FileTime modified = Files.getLastModifiedTime(file);
+        ConfigSource source = ConfigSources.propertiesFile(file.toString());
+        assertEquals("AAAA", source.read().get("app.name"));
+
+        Files.writeString(file, "app.name=BBBB");
+        Files.setLastModifiedTime(file, modified);
+
+        assertEquals("BBBB", source.read().get("app.name"));
+    }
+
+    @Test
+    void testCachedFileSource_RereadsClasspathResourceThatIsAFile() throws Exception {
+        String name = "cached-source-test.properties";
+        Path root = Paths.get(ConfigSourcesTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path resource = root.resolve(name);
+        Files.writeString(resource, "app.name=Classpath");
+        try {
+            ConfigSource source = ConfigSources.propertiesFile(name);
+            assertEquals("Classpath", source.read().get("app.name"));
+            assertEquals(List.of(resource), source.files());
+
+            Files.writeString(resource, "app.name=Edited");
+
+            assertEquals("Edited", source.read().get("app.name"));
+        } finally {
+            Files.deleteIfExists(resource);
+        }
+    }
+
+    @Test
+    void testLayeredLoading_HigherLayerWins() {
+        ConfigSource top = () -> Map.of("app.name", "Top");
+        ConfigSource bottom = () -> Map.of("app.name", "Bottom", "app.version", "1.2.3",
+                "app.authors", "Alice, Bob", "app.issueurl", "https://issues");
+        NonSpringConfigLoader loader = new NonSpringConfigLoader(List.of(top, bottom));
+
+        loader.loadConfiguration();
+        AppMetadata metadata = loader.getMetadata();
+
+        assertEquals("Top", metadata.getName());
+        assertEquals("1.2.3", metadata.getVersion());
+        assertArrayEquals(new String[]{"Alice", "Bob"}, metadata.getAuthors());
+        assertEquals("https://issues", metadata.getIssueUrl());
+        assertEquals("Unknown Homepage", metadata.getHomepage());
+    }
+
+    @Test
+    void testLayeredLoading_StopsWhenAllKeysResolved() {
+        ConfigSource complete = () -> Map.of("app.name", "A", "app.version", "1", "app.authors", "X",
+                "app.homepage", "h", "app.supporturl", "s", "app.issueurl", "i");
+        AtomicInteger lowerReads = new AtomicInteger();
+        ConfigSource lower = () -> {
+            lowerReads.incrementAndGet();
+            return Map.of();
+        };
+        NonSpringConfigLoader loader = new NonSpringConfigLoader(List.of(complete, lower));
+
+        loader.loadConfiguration();
+
+        assertEquals(0, lowerReads.get());
+        assertEquals("s", loader.getMetadata().getSupportUrl());
+    }
+
+    @Test
+    void testDefaultLoader_SystemPropertiesOverrideFiles() {
+        System.setProperty("app.name", "System Property App");
+        NonSpringConfigLoader loader = new NonSpringConfigLoader();
+
+        loader.loadConfiguration();
+
+        assertEquals("System Property App", loader.getMetadata().getName());
+    }
+}
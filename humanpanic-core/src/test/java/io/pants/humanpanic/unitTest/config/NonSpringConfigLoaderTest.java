@@ -0,0 +1,175 @@
+package io.pants.humanpanic.unitTest.config;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.ConfigSource;
+import io.pants.humanpanic.config.MetadataFileWatcher;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NonSpringConfigLoader
+ */
+class NonSpringConfigLoaderTest {
+
+    private NonSpringConfigLoader configLoader;
+    private AppMetadata metadata;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        metadata = new AppMetadata();
+        configLoader = new NonSpringConfigLoader();
+        configLoader.setMetadata(metadata);
+    }
+
+    @Test
+    void testGetAndSetMetadata() {
+        AppMetadata newMetadata = new AppMetadata().toBuilder().name("Test").build();
+
+        configLoader.setMetadata(newMetadata);
+
+        assertSame(newMetadata, configLoader.getMetadata());
+    }
+
+    @Test
+    void testLoadConfiguration_WithNoFiles() {
+        // Should not throw exception when no config files exist
+        assertDoesNotThrow(() -> {
+            // Simulate loading (private method, so we just verify no crash)
+            assertNotNull(configLoader.getMetadata());
+        });
+    }
+
+    @Test
+    void testLoadConfiguration_WithoutYamlSupport() {
+        configLoader.loadConfiguration();
+
+        assertNotNull(configLoader.getMetadata());
+        assertNotSame(metadata, configLoader.getMetadata());
+        assertEquals("Unknown Application", configLoader.getMetadata().getName());
+    }
+
+    @Test
+    void testMetadataDefaults() {
+        assertNotNull(configLoader.getMetadata());
+    }
+
+    @Test
+    void testSetMetadata_Null() {
+        configLoader.setMetadata(null);
+        assertNull(configLoader.getMetadata());
+    }
+
+    @Test
+    void testConfigLoader_WithSystemProperties() {
+        System.setProperty("app.name", "System Property App");
+        System.setProperty("app.version", "2.0.0");
+
+        // The loader should be able to read system properties as fallback
+        assertNotNull(metadata);
+
+        System.clearProperty("app.name");
+        System.clearProperty("app.version");
+    }
+
+    @Test
+    void testConfigLoader_CreatesNewMetadata() {
+        NonSpringConfigLoader newLoader = new NonSpringConfigLoader();
+
+        // Should have metadata set through autowiring or manual setting
+        assertDoesNotThrow(() -> newLoader.setMetadata(new AppMetadata()));
+    }
+
+    @Test
+    void testMultipleLoaders() {
+        NonSpringConfigLoader loader1 = new NonSpringConfigLoader();
+        NonSpringConfigLoader loader2 = new NonSpringConfigLoader();
+
+        AppMetadata metadata1 = new AppMetadata().toBuilder().name("Loader1").build();
+        AppMetadata metadata2 = new AppMetadata().toBuilder().name("Loader2").build();
+
+        loader1.setMetadata(metadata1);
+        loader2.setMetadata(metadata2);
+
+        assertEquals("Loader1", loader1.getMetadata().getName());
+        assertEquals("Loader2", loader2.getMetadata().getName());
+    }
+
+    @Test
+    void testLoadConfiguration_PublishesNewSnapshot() {
+        configLoader.loadConfiguration();
+        AppMetadata first = configLoader.getMetadata();
+
+        configLoader.loadConfiguration();
+
+        assertNotSame(first, configLoader.getMetadata());
+        assertEquals(first, configLoader.getMetadata());
+    }
+
+    @Test
+    void testFileWatcher_ReloadsOnChange() throws Exception {
+        Path configFile = tempDir.resolve("application.properties");
+        Files.writeString(configFile, "app.name=Before");
+        CountDownLatch reloaded = new CountDownLatch(1);
+
+        try (MetadataFileWatcher ignored = new MetadataFileWatcher(tempDir,
+                Set.of("application.properties"), reloaded::countDown)) {
+            Files.writeString(configFile, "app.name=After");
+            Files.writeString(tempDir.resolve("unrelated.txt"), "ignored");
+
+            assertTrue(reloaded.await(30, TimeUnit.SECONDS), "Watcher should reload on change");
+        }
+    }
+
+    @Test
+    void testConstructorsLoadTheConfiguration() {
+        ConfigSource source = () -> Map.of("app.name", "Loaded");
+
+        assertEquals("Loaded", new NonSpringConfigLoader(List.of(source)).getMetadata().getName());
+        assertNotNull(new NonSpringConfigLoader().getMetadata());
+    }
+
+    @Test
+    void testFileWatcher_WatchesFilesInSeveralDirectories() throws Exception {
+        Path other = Files.createDirectory(tempDir.resolve("classes"));
+        Path configFile = other.resolve("application.properties");
+        Files.writeString(configFile, "app.name=Before");
+        CountDownLatch reloaded = new CountDownLatch(1);
+
+        try (MetadataFileWatcher ignored = new MetadataFileWatcher(
+                List.of(tempDir.resolve("application.yml"), configFile), reloaded::countDown)) {
+            Files.writeString(configFile, "app.name=After");
+
+            assertTrue(reloaded.await(30, TimeUnit.SECONDS), "Watcher should reload on change");
+        }
+    }
+
+    @Test
+    void testFileWatcher_IgnoresOtherFiles() throws Exception {
+        AtomicInteger reloads = new AtomicInteger();
+
+        try (MetadataFileWatcher ignored = new MetadataFileWatcher(tempDir,
+                Set.of("application.yml"), reloads::incrementAndGet)) {
+            Files.writeString(tempDir.resolve("other.yml"), "app: {}");
+            Thread.sleep(500);
+        }
+
+        assertEquals(0, reloads.get());
+    }
+}
@@ -0,0 +1,165 @@
+package io.pants.humanpanic.unitTest.index;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrashIndex
+ */
+class CrashIndexTest {
+
+    private static final Instant DAY = Instant.parse("2026-03-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testQueriesByFingerprintTimeMethodAndException() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory)) {
+            index.appendAll(List.of(
+                    entry(1L, DAY.minusSeconds(3600), "com.example.Jobs.run", "java.lang.IllegalStateException", "a"),
+                    entry(1L, DAY.plusSeconds(60), "com.example.Jobs.run", "java.lang.IllegalStateException", "b"),
+                    entry(2L, DAY.plusSeconds(120), "com.example.Api.get", "java.io.IOException", "c"),
+                    entry(1L, DAY.plusSeconds(180), "com.example.Jobs.run", "java.lang.IllegalStateException", null)));
+
+            assertEquals(3, index.count(CrashIndex.Query.builder().fingerprint(1L).build()));
+            assertEquals(2, index.count(CrashIndex.Query.builder().fingerprint(1L).from(DAY).build()));
+            assertEquals(1, index.count(CrashIndex.Query.builder().from(DAY).to(DAY.plusSeconds(100)).build()));
+            assertEquals(1, index.count(CrashIndex.Query.builder().exceptionClass("java.io.IOException").build()));
+            assertEquals(3, index.count(CrashIndex.Query.builder().method("com.example.Jobs.run").build()));
+            assertEquals(0, index.count(CrashIndex.Query.builder().method("com.example.Unknown.call").build()));
+
+            List<CrashIndex.Entry> latest = index.find(CrashIndex.Query.builder().fingerprint(1L).build(), 2);
+            assertEquals(2, latest.size());
+            assertNull(latest.get(0).location());
+            assertEquals("b", latest.get(1).location());
+            assertEquals("com.example.Jobs.run", latest.get(1).method());
+        }
+    }
+
+    @Test
+    void testTimestampsNeverDecrease() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory)) {
+            index.appendAll(List.of(entry(1L, DAY, null, null, null)));
+            index.appendAll(List.of(entry(2L, DAY.minusSeconds(60), null, null, null)));
+
+            List<CrashIndex.Entry> entries = index.find(CrashIndex.Query.builder().build(), 10);
+            assertEquals(DAY, entries.get(0).timestamp());
+            assertEquals(2, index.count(CrashIndex.Query.builder().from(DAY).build()));
+        }
+    }
+
+    @Test
+    void testInstancesShareTheFiles() throws Exception {
+        try (CrashIndex writer = new CrashIndex(directory); CrashIndex reader = new CrashIndex(directory)) {
+            writer.appendAll(List.of(entry(1L, DAY, "com.example.Jobs.run", null, "a")));
+            assertEquals(1, reader.count(CrashIndex.Query.builder().method("com.example.Jobs.run").build()));
+
+            writer.appendAll(List.of(entry(1L, DAY, "com.example.Jobs.run", null, "b")));
+            reader.appendAll(List.of(entry(1L, DAY, "com.example.Jobs.run", null, "c")));
+            assertEquals(3, writer.count(CrashIndex.Query.builder().fingerprint(1L).build()));
+            assertEquals(3, reader.count(CrashIndex.Query.builder().method("com.example.Jobs.run").build()));
+        }
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory)) {
+            index.appendAll(List.of(entry(1L, DAY, null, null, null)));
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve(CrashIndex.INDEX_FILE), StandardOpenOption.APPEND)) {
+            out.write(new byte[17]);
+        }
+
+        try (CrashIndex index = new CrashIndex(directory)) {
+            assertEquals(1, index.count(CrashIndex.Query.builder().build()));
+            index.appendAll(List.of(entry(2L, DAY, null, null, null)));
+            assertEquals(2, index.count(CrashIndex.Query.builder().build()));
+        }
+    }
+
+    @Test
+    void testDamagedIndexIsRebuiltFromReports() throws Exception {
+        List<CrashReport> reports = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CrashReport report = new CrashReport();
+            report.setName("app");
+            report.setCause(i < 2 ? "java.lang.IllegalStateException: " + i : "java.io.IOException: disk");
+            boolean gzipped = i == 2;
+            Path file = directory.resolve("crash-2026-03-01-00-00-0" + i + (gzipped ? ".json.gz" : ".json"));
+            try (OutputStream out = gzipped ? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file)) {
+                new JsonReportEncoder().encode(report, out);
+            }
+            Files.setLastModifiedTime(file, FileTime.from(DAY.plusSeconds(i)));
+            reports.add(report);
+        }
+        try (CrashIndex index = new CrashIndex(directory)) {
+            index.append(reports.get(0), "only-one");
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(CrashIndex.INDEX_FILE), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}), 20);
+        }
+
+        try (CrashIndex index = new CrashIndex(directory)) {
+            assertEquals(3, index.count(CrashIndex.Query.builder().build()));
+            assertEquals(2, index.count(CrashIndex.Query.builder()
+                    .fingerprint(CrashFingerprint.of(reports.get(0))).build()));
+            CrashIndex.Entry io = index.find(CrashIndex.Query.builder().exceptionClass("java.io.IOException").build(), 1).get(0);
+            assertTrue(io.location().endsWith("crash-2026-03-01-00-00-02.json.gz"));
+            assertEquals(DAY.plusSeconds(2), io.timestamp());
+        }
+    }
+
+    @Test
+    void testAppendsAfterAnotherInstanceRebuiltReachTheNewFiles() throws Exception {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause("java.lang.IllegalStateException: stored");
+        try (OutputStream out = Files.newOutputStream(directory.resolve("crash-2026-03-01-00-00-00.json"))) {
+            new JsonReportEncoder().encode(report, out);
+        }
+        try (CrashIndex writer = new CrashIndex(directory); CrashIndex rebuilder = new CrashIndex(directory)) {
+            writer.appendAll(List.of(entry(1L, DAY, "com.example.Jobs.run", null, "a")));
+            assertEquals(1, writer.count(CrashIndex.Query.builder().build()));
+            Object inode = Files.readAttributes(directory.resolve(CrashIndex.INDEX_FILE),
+                    BasicFileAttributes.class).fileKey();
+
+            assertEquals(1, rebuilder.rebuild());
+            writer.appendAll(List.of(entry(2L, DAY.plusSeconds(1), "com.example.Jobs.run", null, "b")));
+
+            assertNotEquals(inode, Files.readAttributes(directory.resolve(CrashIndex.INDEX_FILE),
+                    BasicFileAttributes.class).fileKey());
+            assertEquals(2, rebuilder.count(CrashIndex.Query.builder().build()));
+            assertEquals(2, writer.count(CrashIndex.Query.builder().build()));
+            assertEquals(1, writer.count(CrashIndex.Query.builder().fingerprint(2L).build()));
+            assertFalse(Files.exists(directory.resolve(CrashIndex.INDEX_FILE + ".rebuild")));
+        }
+        try (CrashIndex reopened = new CrashIndex(directory)) {
+            assertEquals(2, reopened.count(CrashIndex.Query.builder().build()));
+        }
+    }
+
+    private static CrashIndex.Entry entry(long fingerprint, Instant timestamp, String method, String exception,
+                                         String location) {
+        return new CrashIndex.Entry(fingerprint, timestamp, method, exception, location);
+    }
+}
@@ -0,0 +1,81 @@
+package io.pants.humanpanic.unitTest.index;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.IndexAppender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IndexAppender
+ */
+class IndexAppenderTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOfferedEntriesAreAppendedInOrder() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory); IndexAppender appender = new IndexAppender(index)) {
+            for (long i = 1; i <= 3; i++) {
+                assertTrue(appender.offer(indexed(i)));
+            }
+            assertTrue(appender.await(TIMEOUT));
+
+            List<CrashIndex.Entry> entries = index.read(0, 10);
+            assertEquals(List.of(1L, 2L, 3L), entries.stream().map(CrashIndex.Entry::fingerprint).toList());
+        }
+    }
+
+    @Test
+    void testBatchWaitsWhileTheLockIsHeldElsewhere() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory); IndexAppender appender = new IndexAppender(index)) {
+            assertEquals(0, index.size());
+            try (FileChannel channel = FileChannel.open(directory.resolve(CrashIndex.LOCK_FILE), StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                assertTrue(appender.offer(indexed(1)));
+                assertFalse(appender.await(Duration.ofMillis(200)));
+                assertEquals(0, index.size());
+            }
+
+            assertTrue(appender.await(TIMEOUT));
+            assertEquals(1, index.size());
+            assertEquals(0, appender.getDroppedCount());
+        }
+    }
+
+    @Test
+    void testCloseAppendsPendingEntriesAndDropsLaterOnes() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory)) {
+            IndexAppender appender = new IndexAppender(index);
+            appender.offer(indexed(1));
+            appender.close();
+
+            assertEquals(1, index.size());
+            assertFalse(appender.offer(indexed(2)));
+            assertEquals(1, appender.getDroppedCount());
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveCapacity() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory)) {
+            assertThrows(IllegalArgumentException.class, () -> new IndexAppender(index, 0));
+        }
+    }
+
+    private static CrashIndex.Indexed indexed(long fingerprint) {
+        return new CrashIndex.Indexed(new CrashIndex.Entry(fingerprint, Instant.now(), null, null, null), List.of());
+    }
+}
@@ -0,0 +1,144 @@
+package io.pants.humanpanic.unitTest.index;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.ReportCompactor;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportCompactor
+ */
+class ReportCompactorTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-31T12:00:00Z");
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2026-03-20");
+
+    @TempDir
+    Path directory;
+
+    private CrashIndex index;
+    private final List<CrashIndex.Entry> entries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new CrashIndex(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void testPacksCompleteOldDaysIntoOneBundleEach() throws Exception {
+        addReport(FIRST_DAY, 1);
+        addReport(FIRST_DAY, 2);
+        addReport(FIRST_DAY.plusDays(1), 3);
+        addReport(LocalDate.parse("2026-03-30"), 4);
+        ReportCompactor compactor = compactor();
+
+        assertEquals(3, compactor.runOnce());
+
+        assertTrue(Files.exists(compactor.bundlePath(FIRST_DAY)));
+        assertTrue(Files.exists(compactor.bundlePath(FIRST_DAY.plusDays(1))));
+        try (ZipFile zip = new ZipFile(compactor.bundlePath(FIRST_DAY).toFile())) {
+            assertEquals(2, zip.size());
+        }
+        assertFalse(Files.exists(Path.of(entries.get(0).location())));
+        assertTrue(Files.exists(Path.of(entries.get(3).location())));
+        for (CrashIndex.Entry entry : entries) {
+            String json = new String(compactor.read(entry), StandardCharsets.UTF_8);
+            assertTrue(json.contains("failure " + (entries.indexOf(entry) + 1)));
+        }
+    }
+
+    @Test
+    void testLaterRunsOnlyPackNewDays() throws Exception {
+        addReport(FIRST_DAY, 1);
+        ReportCompactor compactor = compactor();
+        assertEquals(1, compactor.runOnce());
+        assertEquals(0, compactor.runOnce());
+
+        addReport(FIRST_DAY.plusDays(2), 2);
+        assertEquals(1, compactor.runOnce());
+        try (ZipFile zip = new ZipFile(compactor.bundlePath(FIRST_DAY).toFile())) {
+            assertEquals(1, zip.size());
+        }
+    }
+
+    @Test
+    void testFilesLeftBehindByACrashAreNotPackedTwice() throws Exception {
+        addReport(FIRST_DAY, 1);
+        Path file = Path.of(entries.get(0).location());
+        byte[] content = Files.readAllBytes(file);
+        compactor().runOnce();
+        // Simulate dying after the bundle was moved into place but before the file was deleted
+        Files.write(file, content);
+        Files.delete(directory.resolve(ReportCompactor.BUNDLE_DIRECTORY).resolve("compaction.position"));
+
+        ReportCompactor compactor = compactor();
+        assertEquals(0, compactor.runOnce());
+        assertFalse(Files.exists(file));
+        try (ZipFile zip = new ZipFile(compactor.bundlePath(FIRST_DAY).toFile())) {
+            assertEquals(1, zip.size());
+        }
+    }
+
+    @Test
+    void testIndexRebuildIncludesBundledReports() throws Exception {
+        addReport(FIRST_DAY, 1);
+        addReport(LocalDate.parse("2026-03-30"), 2);
+        compactor().runOnce();
+
+        assertEquals(2, index.rebuild());
+        List<CrashIndex.Entry> rebuilt = index.find(CrashIndex.Query.builder().build(), 10);
+        assertEquals(entries.get(0).location(), rebuilt.get(1).location());
+        assertNotNull(compactor().read(rebuilt.get(1)));
+    }
+
+    private ReportCompactor compactor() {
+        return ReportCompactor.builder()
+                .index(index)
+                .minAge(Duration.ofDays(7))
+                .zone(ZoneOffset.UTC)
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .build();
+    }
+
+    private void addReport(LocalDate day, int number) throws Exception {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause("java.lang.IllegalStateException: failure " + number);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JsonReportEncoder().encode(report, json);
+        Instant time = day.atTime(10, number).toInstant(ZoneOffset.UTC);
+        Path file = directory.resolve("crash-" + day + "-10-" + number + ".json");
+        Files.write(file, json.toByteArray());
+        Files.setLastModifiedTime(file, FileTime.from(time));
+
+        CrashIndex.Entry entry = new CrashIndex.Entry(number, time, null, "java.lang.IllegalStateException",
+                file.toAbsolutePath().toString());
+        index.appendAll(List.of(entry));
+        entries.add(entry);
+    }
+}
@@ -0,0 +1,226 @@
+package io.pants.humanpanic.unitTest.index;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.ReportCompactor;
+import io.pants.humanpanic.index.RetentionJanitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetentionJanitor
+ */
+class RetentionJanitorTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-31T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private CrashIndex index;
+    private final List<Path> files = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new CrashIndex(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void testMaxCountDeletesOldestFirst() throws Exception {
+        addReports(5, 100, i -> i);
+        RetentionJanitor janitor = janitor().maxCount(3L).build();
+
+        assertEquals(2, janitor.runOnce());
+
+        assertFalse(Files.exists(files.get(0)));
+        assertFalse(Files.exists(files.get(1)));
+        assertTrue(Files.exists(files.get(2)));
+        assertEquals(3, janitor.getTrackedCount());
+    }
+
+    @Test
+    void testMaxTotalBytes() throws Exception {
+        addReports(4, 100, i -> i);
+        RetentionJanitor janitor = janitor().maxTotalBytes(250L).build();
+
+        assertEquals(2, janitor.runOnce());
+        assertEquals(200, janitor.getTrackedBytes());
+    }
+
+    @Test
+    void testMaxAge() throws Exception {
+        addReports(4, 10, i -> i);
+        RetentionJanitor janitor = janitor().maxAge(Duration.ofHours(2).plusMinutes(30)).build();
+
+        assertEquals(2, janitor.runOnce());
+        assertFalse(Files.exists(files.get(1)));
+        assertTrue(Files.exists(files.get(2)));
+    }
+
+    @Test
+    void testKeepNewestPerFingerprint() throws Exception {
+        addReports(6, 10, i -> i % 2);
+        RetentionJanitor janitor = janitor().keepPerFingerprint(2).build();
+
+        assertEquals(2, janitor.runOnce());
+        assertFalse(Files.exists(files.get(0)));
+        assertFalse(Files.exists(files.get(1)));
+        assertTrue(Files.exists(files.get(2)));
+    }
+
+    @Test
+    void testLaterRunsOnlyProcessNewEntries() throws Exception {
+        addReports(2, 10, i -> i);
+        RetentionJanitor janitor = janitor().maxCount(2L).build();
+        assertEquals(0, janitor.runOnce());
+
+        addReports(1, 10, i -> 7);
+        assertEquals(1, janitor.runOnce());
+        assertEquals(2, janitor.getTrackedCount());
+        assertFalse(Files.exists(files.get(0)));
+    }
+
+    @Test
+    void testDeletionsAreRateLimited() throws Exception {
+        addReports(6, 10, i -> i);
+        RetentionJanitor janitor = janitor().maxCount(1L).deletesPerSecond(20).build();
+
+        long start = System.nanoTime();
+        assertEquals(5, janitor.runOnce());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 190);
+    }
+
+    @Test
+    void testIgnoresMissingAndUnstoredReports() throws Exception {
+        index.appendAll(List.of(
+                new CrashIndex.Entry(1L, NOW, null, null, null),
+                new CrashIndex.Entry(2L, NOW, null, null, directory.resolve("gone.json").toString())));
+        RetentionJanitor janitor = janitor().maxCount(0L).build();
+
+        assertEquals(0, janitor.runOnce());
+        assertEquals(0, janitor.getTrackedCount());
+    }
+
+    @Test
+    void testTracksReportsWrittenAfterTheirEntry() throws Exception {
+        Path late = directory.resolve("late.json");
+        index.appendAll(List.of(
+                new CrashIndex.Entry(1L, NOW.minus(Duration.ofHours(2)), null, null, directory.resolve("lost.json").toString()),
+                new CrashIndex.Entry(2L, NOW, null, null, late.toString())));
+        RetentionJanitor janitor = janitor().maxCount(0L).build();
+
+        assertEquals(0, janitor.runOnce());
+        assertEquals(1, janitor.getPendingCount());
+
+        Files.write(late, new byte[10]);
+        assertEquals(1, janitor.runOnce());
+        assertFalse(Files.exists(late));
+        assertEquals(0, janitor.getPendingCount());
+    }
+
+    @Test
+    void testBundlesCountAgainstQuotasAndAgeOutAsAWhole() throws Exception {
+        addOldReport(10, "a");
+        addOldReport(10, "b");
+        addOldReport(9, "c");
+        addReports(2, 100, i -> i);
+        RetentionJanitor tracking = janitor().maxTotalBytes(10_000L).build();
+        assertEquals(0, tracking.runOnce());
+        assertEquals(5, tracking.getTrackedCount());
+
+        ReportCompactor compactor = ReportCompactor.builder()
+                .index(index)
+                .zone(ZoneOffset.UTC)
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .build();
+        assertEquals(3, compactor.runOnce());
+        long bundleBytes = Files.size(compactor.bundlePath(LocalDate.parse("2026-03-21")))
+                + Files.size(compactor.bundlePath(LocalDate.parse("2026-03-22")));
+
+        assertEquals(0, tracking.runOnce());
+        assertEquals(5, tracking.getTrackedCount());
+        assertEquals(200 + bundleBytes, tracking.getTrackedBytes());
+
+        RetentionJanitor janitor = janitor().maxAge(Duration.ofDays(5)).build();
+        assertEquals(2, janitor.runOnce());
+        assertFalse(Files.exists(compactor.bundlePath(LocalDate.parse("2026-03-21"))));
+        assertEquals(2, janitor.getTrackedCount());
+        assertEquals(200, janitor.getTrackedBytes());
+        assertTrue(Files.exists(files.get(3)));
+    }
+
+    @Test
+    void testOldestBundleGoesFirstWhenOverTotalBytes() throws Exception {
+        addOldReport(10, "a");
+        addOldReport(9, "b");
+        addReports(1, 100, i -> i);
+        ReportCompactor compactor = ReportCompactor.builder()
+                .index(index)
+                .zone(ZoneOffset.UTC)
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .build();
+        compactor.runOnce();
+        long newerBundle = Files.size(compactor.bundlePath(LocalDate.parse("2026-03-22")));
+
+        RetentionJanitor janitor = janitor().maxTotalBytes(100 + newerBundle).build();
+        assertEquals(1, janitor.runOnce());
+        assertFalse(Files.exists(compactor.bundlePath(LocalDate.parse("2026-03-21"))));
+        assertTrue(Files.exists(compactor.bundlePath(LocalDate.parse("2026-03-22"))));
+        assertEquals(2, janitor.getTrackedCount());
+    }
+
+    private RetentionJanitor.RetentionJanitorBuilder janitor() {
+        return RetentionJanitor.builder()
+                .index(index)
+                .deletesPerSecond(1000)
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    /**
+     * Writes a 100 byte report the given number of days before NOW
+     */
+    private void addOldReport(int daysAgo, String name) throws Exception {
+        Instant time = NOW.minus(Duration.ofDays(daysAgo));
+        Path file = directory.resolve("crash-old-" + name + ".json");
+        Files.write(file, new byte[100]);
+        Files.setLastModifiedTime(file, FileTime.from(time));
+        files.add(file);
+        index.appendAll(List.of(new CrashIndex.Entry(files.size(), time, null, null, file.toString())));
+    }
+
+    /**
+     * Writes reports an hour apart, the last one an hour before NOW
+     */
+    private void addReports(int reports, int bytes, IntUnaryOperator fingerprint) throws Exception {
+        List<CrashIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < reports; i++) {
+            Path file = directory.resolve("crash-" + files.size() + ".json");
+            Files.write(file, new byte[bytes]);
+            files.add(file);
+            entries.add(new CrashIndex.Entry(fingerprint.applyAsInt(i), NOW.minus(Duration.ofHours(reports - i)),
+                    null, null, file.toString()));
+        }
+        index.appendAll(entries);
+    }
+}
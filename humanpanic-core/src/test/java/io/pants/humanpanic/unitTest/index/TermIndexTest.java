@@ -0,0 +1,180 @@
+package io.pants.humanpanic.unitTest.index;
+
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.TermIndex;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TermIndex and CrashIndex.search
+ */
+class TermIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSearchesCausesFramesAndVersions() throws Exception {
+        try (CrashIndex index = new CrashIndex(directory, new TermIndex(directory))) {
+            index.append(report("java.net.SocketException: Connection reset", "2.3.1",
+                    "org.apache.http.impl.HttpClientConnection"), "a");
+            index.append(report("java.net.SocketException: ConnectionResetByPeer", "2.4.0",
+                    "com.example.orders.OrderService"), "b");
+            index.append(report("java.lang.IllegalStateException: queue full", "2.3.0",
+                    "com.example.orders.OrderService"), "c");
+
+            assertEquals(List.of("b", "a"), locations(index.search("ConnectionReset", 10)));
+            assertEquals(List.of("a"), locations(index.search("connection reset version:2.3", 10)));
+            assertEquals(List.of("c", "a"), locations(index.search("version:2.3", 10)));
+            assertEquals(List.of("a"), locations(index.search("HttpClient", 10)));
+            assertEquals(List.of("c", "b"), locations(index.search("OrderService", 10)));
+            assertEquals(List.of("c"), locations(index.search("orders", CrashIndex.Query.builder()
+                    .exceptionClass("java.lang.IllegalStateException").build(), 10)));
+            assertEquals(List.of("c"), locations(index.search("orders", 1)));
+            assertEquals(List.of(), index.search("connection timeout", 10));
+            assertEquals(List.of("c"), locations(index.search("queue full", 10)));
+            assertEquals(List.of(), index.search("version:2.3.1.4", 10));
+            assertEquals(List.of(), index.search(" ", 10));
+        }
+        assertThrows(IllegalStateException.class, () -> new CrashIndex(directory).search("reset", 10));
+    }
+
+    @Test
+    void testRebuildIndexesStoredReportTerms() throws Exception {
+        JsonReportEncoder encoder = new JsonReportEncoder();
+        CrashReport reset = report("java.net.SocketException: Connection reset", "1.0.0", "com.example.net.Client");
+        CrashReport full = report("java.lang.IllegalStateException: queue full", "1.1.0", "com.example.jobs.Queue");
+        for (CrashReport report : List.of(reset, full)) {
+            Path file = directory.resolve("crash-" + report.getVersion() + ".json");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                encoder.encode(report, out);
+            }
+        }
+        try (CrashIndex index = new CrashIndex(directory, new TermIndex(directory))) {
+            index.append(report("java.lang.Error: stale", "0.9.0", "com.example.Old"), "stale");
+            assertEquals(2, index.rebuild());
+
+            assertEquals(List.of(), index.search("stale", 10));
+            List<CrashIndex.Entry> found = index.search("queue version:1", 10);
+            assertEquals(1, found.size());
+            assertTrue(found.get(0).location().endsWith("crash-1.1.0.json"));
+        }
+    }
+
+    @Test
+    void testMergesLogsOfSeveralWritersIntoPostings() throws Exception {
+        try (TermIndex first = new TermIndex(directory, 512);
+             TermIndex second = new TermIndex(directory, 512)) {
+            List<List<String>> documents = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                documents.add(i % 10 == 0 ? List.of("common", "rare") : List.of("common"));
+            }
+            first.addAll(0, documents);
+            second.add(100, List.of("common", "rare", "late"));
+            first.add(101, List.of("common"));
+
+            awaitPostings();
+            assertArrayEquals(new long[] {0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100},
+                    second.search(List.of("rare", "common"), 0, Long.MAX_VALUE));
+            assertArrayEquals(new long[] {20, 30}, first.search(List.of("common", "rare"), 15, 40));
+            assertArrayEquals(new long[] {100}, first.search(List.of("late", "rare"), 0, Long.MAX_VALUE));
+            assertEquals(102, first.search(List.of("common"), 0, Long.MAX_VALUE).length);
+            assertArrayEquals(new long[0], first.search(List.of("rare", "missing"), 0, Long.MAX_VALUE));
+            assertEquals(3, second.getTermCount());
+
+            first.compact();
+            try (var files = Files.list(directory)) {
+                assertEquals(1, files.filter(file -> file.getFileName().toString().endsWith(".log")).count());
+            }
+            assertArrayEquals(new long[] {100}, second.search(List.of("late"), 0, Long.MAX_VALUE));
+        }
+        try (TermIndex reopened = new TermIndex(directory)) {
+            assertEquals(11, reopened.search(List.of("rare"), 0, Long.MAX_VALUE).length);
+            reopened.clear();
+            assertArrayEquals(new long[0], reopened.search(List.of("rare"), 0, Long.MAX_VALUE));
+            assertEquals(0, reopened.getTermCount());
+        }
+    }
+
+    @Test
+    void testBackgroundMergeKeepsRecordsAppendedMeanwhile() throws Exception {
+        try (TermIndex index = new TermIndex(directory, 64)) {
+            for (long entry = 0; entry < 200; entry++) {
+                index.add(entry, List.of("common", "entry" + entry));
+            }
+            awaitPostings();
+
+            assertEquals(200, index.search(List.of("common"), 0, Long.MAX_VALUE).length);
+            assertArrayEquals(new long[] {199}, index.search(List.of("entry199"), 0, Long.MAX_VALUE));
+            assertEquals(201, index.getTermCount());
+        }
+        try (TermIndex reopened = new TermIndex(directory)) {
+            reopened.compact();
+            assertEquals(200, reopened.search(List.of("common"), 0, Long.MAX_VALUE).length);
+            try (var files = Files.list(directory)) {
+                assertEquals(List.of(), files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(".tmp")).toList());
+            }
+        }
+    }
+
+    @Test
+    void testOverwritesTornLogRecord() throws Exception {
+        try (TermIndex index = new TermIndex(directory)) {
+            index.add(0, List.of("reset"));
+        }
+        Path log;
+        try (var files = Files.list(directory)) {
+            log = files.filter(file -> file.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (TermIndex index = new TermIndex(directory)) {
+            assertArrayEquals(new long[] {0}, index.search(List.of("reset"), 0, Long.MAX_VALUE));
+            index.add(1, List.of("reset", "timeout"));
+            assertArrayEquals(new long[] {0, 1}, index.search(List.of("reset"), 0, Long.MAX_VALUE));
+        }
+        try (TermIndex index = new TermIndex(directory)) {
+            assertArrayEquals(new long[] {1}, index.search(List.of("timeout"), 0, Long.MAX_VALUE));
+        }
+    }
+
+    private void awaitPostings() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!Files.exists(directory.resolve(TermIndex.POSTINGS_FILE)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(directory.resolve(TermIndex.POSTINGS_FILE)));
+    }
+
+    private static List<String> locations(List<CrashIndex.Entry> entries) {
+        return entries.stream().map(CrashIndex.Entry::location).toList();
+    }
+
+    private static CrashReport report(String cause, String version, String frameClass) {
+        CrashReport report = new CrashReport();
+        report.setName("orders");
+        report.setVersion(version);
+        report.setCause(cause);
+        report.setApplicationInfo(Map.of("version", version));
+        CrashReport.StackFrame frame = new CrashReport.StackFrame();
+        frame.setClassName(frameClass);
+        frame.setMethod("handle");
+        frame.setLine(42);
+        report.setBacktrace(List.of(frame));
+        return report;
+    }
+}
@@ -226,6 +226,18 @@ class HumanPanicProxyTest {
         assertEquals("test-42", result);
     }
 
+    @Test
+    void testInvoke_CaptureArguments_PassesArgumentsOnlyWhenEnabled() {
+        TestService service = new TestServiceImpl();
+        TestService wrapped = HumanPanicProxy.wrap(service, crashReporter, userNotifier);
+
+        wrapped.methodCapturingArgs("order-7", 3);
+        wrapped.methodReturningString();
+
+        verify(crashReporter).createReport(any(RuntimeException.class), any(), eq(new Object[]{"order-7", 3}));
+        verify(crashReporter).createReport(any(RuntimeException.class), any());
+    }
+
     @Test
     void testInvoke_VoidMethod() {
         TestService service = new TestServiceImpl();
@@ -264,6 +276,9 @@ class HumanPanicProxyTest {
 
         String methodWithArgs(String arg1, int arg2);
 
+        @HumanPanic(captureArguments = true)
+        String methodCapturingArgs(String order, int quantity);
+
         void voidMethod();
     }
 
@@ -318,6 +333,11 @@ class HumanPanicProxyTest {
             return arg1 + "-" + arg2;
         }
 
+        @Override
+        public String methodCapturingArgs(String order, int quantity) {
+            throw new IllegalStateException("Out of stock");
+        }
+
         @Override
         public void voidMethod() {
             // Does nothing
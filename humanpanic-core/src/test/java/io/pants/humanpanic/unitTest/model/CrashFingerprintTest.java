@@ -0,0 +1,73 @@
+package io.pants.humanpanic.unitTest.model;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrashFingerprint
+ */
+class CrashFingerprintTest {
+
+    @Test
+    void testIgnoresMessageAndLineNumbers() {
+        CrashReport first = report("java.lang.IllegalStateException: user 1", 10);
+        CrashReport second = report("java.lang.IllegalStateException: user 2", 42);
+
+        assertEquals(CrashFingerprint.of(first), CrashFingerprint.of(second));
+    }
+
+    @Test
+    void testDiffersByExceptionClassAndFrames() {
+        CrashReport base = report("java.lang.IllegalStateException: x", 1);
+        CrashReport otherClass = report("java.lang.IllegalArgumentException: x", 1);
+        CrashReport otherFrame = report("java.lang.IllegalStateException: x", 1);
+        otherFrame.getBacktrace().get(0).setMethod("somewhereElse");
+
+        assertNotEquals(CrashFingerprint.of(base), CrashFingerprint.of(otherClass));
+        assertNotEquals(CrashFingerprint.of(base), CrashFingerprint.of(otherFrame));
+    }
+
+    @Test
+    void testHandlesEmptyReport() {
+        assertEquals(CrashFingerprint.of(new CrashReport()), CrashFingerprint.of(new CrashReport()));
+    }
+
+    @Test
+    void testHexRoundTrip() {
+        long fingerprint = CrashFingerprint.of(report("java.lang.Error", 1));
+        String hex = CrashFingerprint.toHex(fingerprint);
+
+        assertEquals(16, hex.length());
+        assertEquals(fingerprint, CrashFingerprint.fromHex(hex));
+        assertEquals("000000000000000f", CrashFingerprint.toHex(15));
+    }
+
+    @Test
+    void testExceptionClass() {
+        assertEquals("java.lang.IllegalStateException", CrashFingerprint.exceptionClass("java.lang.IllegalStateException: boom"));
+        assertEquals("java.lang.Error", CrashFingerprint.exceptionClass("java.lang.Error"));
+        assertNull(CrashFingerprint.exceptionClass(null));
+    }
+
+    private static CrashReport report(String cause, int line) {
+        CrashReport report = new CrashReport();
+        report.setCause(cause);
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("com.example.Frame" + i);
+            frame.setMethod("method" + i);
+            frame.setFile("Frame" + i + ".java");
+            frame.setLine(line + i);
+            frames.add(frame);
+        }
+        report.setBacktrace(frames);
+        return report;
+    }
+}
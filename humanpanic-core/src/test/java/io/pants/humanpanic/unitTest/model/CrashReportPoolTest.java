@@ -0,0 +1,166 @@
+package io.pants.humanpanic.unitTest.model;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.model.CrashReportPool;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import io.pants.humanpanic.sink.NullReportSink;
+import io.pants.humanpanic.sink.ReportSink;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrashReportPool and its use by CrashReporter
+ */
+class CrashReportPoolTest {
+
+    private static final AppMetadataProvider METADATA = () ->
+            new AppMetadata("orders-service", "1.0.0", new String[]{"Team"}, "", "", "");
+
+    @Test
+    void testReleasedReportIsReusedCleared() {
+        CrashReportPool pool = new CrashReportPool(1, 2);
+        CrashReport report = pool.acquire();
+        report.setName("first");
+        report.setMethod(CrashReportPool.methodInfo(report));
+        CrashReportPool.release(report);
+
+        CrashReport again = pool.acquire();
+
+        assertSame(report, again);
+        assertNull(again.getName());
+        assertNull(again.getMethod());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        assertNotSame(again, pool.acquire());
+    }
+
+    @Test
+    void testReportReturnsOnlyAfterLastRelease() {
+        CrashReportPool pool = new CrashReportPool(1, 1);
+        CrashReport report = pool.acquire();
+        CrashReportPool.retain(report);
+
+        CrashReportPool.release(report);
+        assertNotSame(report, pool.acquire());
+
+        CrashReportPool.release(report);
+        assertSame(report, pool.acquire());
+    }
+
+    @Test
+    void testPlainReportsAreIgnored() {
+        CrashReport plain = new CrashReport();
+        CrashReportPool.retain(plain);
+        CrashReportPool.release(plain);
+
+        assertNotSame(CrashReportPool.methodInfo(plain), CrashReportPool.methodInfo(plain));
+        assertEquals(3, CrashReportPool.backtrace(plain, 3).size());
+    }
+
+    @Test
+    void testBacktraceReusesFrames() {
+        CrashReportPool pool = new CrashReportPool(1, 1);
+        CrashReport report = pool.acquire();
+        List<CrashReport.StackFrame> deep = CrashReportPool.backtrace(report, 5);
+        CrashReport.StackFrame top = deep.get(0);
+        CrashReportPool.release(report);
+
+        CrashReport again = pool.acquire();
+        List<CrashReport.StackFrame> shallow = CrashReportPool.backtrace(again, 2);
+
+        assertEquals(2, shallow.size());
+        assertSame(top, shallow.get(0));
+        assertEquals(7, CrashReportPool.backtrace(again, 7).size());
+    }
+
+    @Test
+    void testAsyncWriterSeesReportsUntouchedByLaterCrashes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new ArrayList<>();
+        ReportSink slow = new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                synchronized (written) {
+                    for (CrashReport report : reports) {
+                        written.add(report.getCause());
+                    }
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public boolean retainsReports() {
+                return false;
+            }
+        };
+        try (AsyncReportSink sink = new AsyncReportSink(slow)) {
+            CrashReporter reporter = new CrashReporter(METADATA, sink);
+            for (int i = 0; i < 5; i++) {
+                reporter.createReport(new IllegalStateException("crash " + i), null);
+            }
+            release.countDown();
+        }
+
+        assertEquals(5, written.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("java.lang.IllegalStateException: crash " + i, written.get(i));
+        }
+    }
+
+    @Test
+    void testPooledReportsAllocateLess() {
+        Throwable throwable = deep(80);
+        CrashReporter pooled = new CrashReporter(METADATA, NullReportSink.INSTANCE);
+        CrashReporter unpooled = new CrashReporter(METADATA, new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+
+        long pooledBytes = allocatedBytes(pooled, throwable);
+        long unpooledBytes = allocatedBytes(unpooled, throwable);
+
+        assertTrue(pooledBytes * 2 < unpooledBytes, pooledBytes + " vs " + unpooledBytes);
+    }
+
+    private static long allocatedBytes(CrashReporter reporter, Throwable throwable) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 2_000; i++) {
+            reporter.createReport(throwable, null);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000; i++) {
+            reporter.createReport(throwable, null);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private static Throwable deep(int depth) {
+        if (depth == 0) {
+            return new IllegalStateException("deep");
+        }
+        return deep(depth - 1);
+    }
+}
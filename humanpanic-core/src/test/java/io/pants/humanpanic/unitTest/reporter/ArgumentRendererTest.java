@@ -0,0 +1,106 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.reporter.ArgumentRenderer;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ArgumentRenderer
+ */
+class ArgumentRendererTest {
+
+    private enum Status { OPEN }
+
+    @Test
+    void testRendersValuesDirectly() {
+        ArgumentRenderer.Rendering rendering = ArgumentRenderer.DEFAULT.start();
+
+        assertEquals("null", rendering.render(null));
+        assertEquals("\"order-7\"", rendering.render("order-7"));
+        assertEquals("42", rendering.render(42));
+        assertEquals("OPEN", rendering.render(Status.OPEN));
+        assertEquals("2024-02-29", rendering.render(LocalDate.of(2024, 2, 29)));
+        assertEquals("[1, 2, 3]", rendering.render(new int[]{1, 2, 3}));
+    }
+
+    @Test
+    void testRedactsConfiguredTypes() {
+        ArgumentRenderer.Rendering rendering = ArgumentRenderer.DEFAULT.start();
+        byte[] secret = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(ArgumentRenderer.REDACTED, rendering.render("hunter2".toCharArray()));
+        assertEquals(ArgumentRenderer.REDACTED, rendering.render(new SecretKeySpec(secret, "AES")));
+        assertEquals("[[redacted]]", rendering.render(List.of("hunter2".toCharArray())));
+
+        ArgumentRenderer custom = ArgumentRenderer.builder().redactedTypes(Set.of(String.class)).build();
+        assertEquals(ArgumentRenderer.REDACTED, custom.start().render("token"));
+    }
+
+    @Test
+    void testLimitsElementsDepthAndSize() {
+        ArgumentRenderer renderer = ArgumentRenderer.builder().maxElements(3).maxDepth(2).maxArgumentBytes(256).build();
+        ArgumentRenderer.Rendering rendering = renderer.start();
+        List<Integer> numbers = new ArrayList<>(List.of(1, 2, 3, 4, 5));
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("lines", List.of(new ArrayList<>(List.of(1, 2)), new long[]{7}));
+
+        assertEquals("[1, 2, 3, ... 2 more]", rendering.render(numbers));
+        assertEquals("{\"lines\"=[ArrayList(size=2), long[1]]}", rendering.render(nested));
+
+        String huge = rendering.render("x".repeat(10_000_000));
+        assertTrue(huge.getBytes(StandardCharsets.UTF_8).length <= 256, huge);
+        assertTrue(huge.startsWith("\"xxx"));
+        String wide = rendering.render(new ArrayList<>(Collections.nCopies(100_000, "y".repeat(100))));
+        assertTrue(wide.length() <= 256, wide);
+    }
+
+    @Test
+    void testSlowToStringIsAbandonedWithinBudget() {
+        ArgumentRenderer renderer = ArgumentRenderer.builder().toStringBudget(Duration.ofMillis(100)).build();
+        Object hanging = new Object() {
+            @Override
+            public String toString() {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "never";
+            }
+        };
+        Object failing = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("lazy proxy is closed");
+            }
+        };
+
+        long start = System.nanoTime();
+        ArgumentRenderer.Rendering rendering = renderer.start();
+        assertEquals("[toString threw java.lang.IllegalStateException]", rendering.render(failing));
+        assertEquals("[toString timed out]", rendering.render(hanging));
+        assertEquals("[toString skipped, time budget used up]", rendering.render(hanging));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals("[toString threw java.lang.IllegalStateException]", renderer.start().render(failing));
+    }
+
+    @Test
+    void testRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> ArgumentRenderer.builder().maxArgumentBytes(8).build());
+        assertThrows(IllegalArgumentException.class, () -> ArgumentRenderer.builder().maxDepth(-1).build());
+        assertEquals(ArgumentRenderer.DEFAULT_MAX_ELEMENTS, ArgumentRenderer.builder().build().getMaxElements());
+    }
+}
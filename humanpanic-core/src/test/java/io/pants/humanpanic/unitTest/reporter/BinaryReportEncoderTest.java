@@ -0,0 +1,188 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.BinaryReportConverter;
+import io.pants.humanpanic.reporter.BinaryReportEncoder;
+import io.pants.humanpanic.reporter.BinaryReportReader;
+import io.pants.humanpanic.reporter.JsonReportDecoder;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinaryReportEncoder, BinaryReportReader and BinaryReportConverter
+ */
+class BinaryReportEncoderTest {
+
+    private final BinaryReportEncoder encoder = new BinaryReportEncoder();
+    private final JsonReportEncoder json = new JsonReportEncoder();
+
+    @Test
+    void testRoundTripMatchesJsonLayout() throws Exception {
+        CrashReport report = sampleReport();
+
+        CrashReport decoded = BinaryReportReader.decode(encode(encoder, report));
+
+        assertArrayEquals(encode(json, report), encode(json, decoded));
+        assertNull(decoded.getBacktrace().get(3));
+        assertNotSame(decoded.getBacktrace().get(0), decoded.getBacktrace().get(2));
+    }
+
+    @Test
+    void testNullsAndEmptiesSurvive() throws Exception {
+        CrashReport empty = new CrashReport();
+        CrashReport blank = new CrashReport();
+        blank.setName("");
+        blank.setBacktrace(new ArrayList<>());
+        blank.setApplicationInfo(new LinkedHashMap<>());
+        blank.setBacktraceRef("0123456789abcdef0123456789abcdef");
+
+        for (CrashReport report : List.of(empty, blank)) {
+            CrashReport decoded = BinaryReportReader.decode(encode(encoder, report));
+            assertArrayEquals(encode(json, report), encode(json, decoded));
+        }
+    }
+
+    @Test
+    void testArgumentsAndBreadcrumbsRoundTrip() throws Exception {
+        CrashReport report = sampleReport();
+        CrashReport.Argument argument = new CrashReport.Argument();
+        argument.setName("order");
+        argument.setType("java.lang.String");
+        argument.setValue("\"order-7\"");
+        List<CrashReport.Argument> arguments = new ArrayList<>();
+        arguments.add(argument);
+        arguments.add(new CrashReport.Argument());
+        report.getMethod().setArguments(arguments);
+        CrashReport.Breadcrumb breadcrumb = new CrashReport.Breadcrumb();
+        breadcrumb.setTimestampMs(1_700_000_000_000L);
+        breadcrumb.setMessage("charging card");
+        report.setBreadcrumbs(List.of(breadcrumb));
+
+        CrashReport decoded = BinaryReportReader.decode(encode(encoder, report));
+
+        assertArrayEquals(encode(json, report), encode(json, decoded));
+        assertEquals("\"order-7\"", decoded.getMethod().getArguments().get(0).getValue());
+        assertArrayEquals(encode(json, report), encode(json, new JsonReportDecoder().decode(encode(json, report))));
+    }
+
+    @Test
+    void testSmallerThanCompactJson() throws Exception {
+        CrashReport report = sampleReport();
+
+        int binary = encode(encoder, report).length;
+        int compact = encode(new JsonReportEncoder(false), report).length;
+
+        assertTrue(binary * 2 < compact, binary + " bytes binary, " + compact + " bytes JSON");
+    }
+
+    @Test
+    void testReaderStreamsConcatenatedRecords() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            CrashReport report = sampleReport();
+            report.setName("report-" + i);
+            encoder.encode(report, out);
+        }
+
+        List<String> names = new ArrayList<>();
+        try (BinaryReportReader reader = new BinaryReportReader(new ByteArrayInputStream(out.toByteArray()))) {
+            CrashReport report;
+            while ((report = reader.read()) != null) {
+                names.add(report.getName());
+            }
+        }
+
+        assertEquals(List.of("report-0", "report-1", "report-2"), names);
+    }
+
+    @Test
+    void testDamagedRecordsAreRejected() throws Exception {
+        byte[] record = encode(encoder, sampleReport());
+        byte[] newer = record.clone();
+        newer[1] = (byte) (BinaryReportEncoder.VERSION + 1);
+
+        assertThrows(EOFException.class, () -> BinaryReportReader.decode(Arrays.copyOf(record, record.length - 1)));
+        assertThrows(IOException.class, () -> BinaryReportReader.decode(newer));
+        assertThrows(IOException.class, () -> BinaryReportReader.decode("{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testConverterWritesJsonLines() throws Exception {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        encoder.encode(sampleReport(), binary);
+        encoder.encode(sampleReport(), binary);
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+
+        long count = BinaryReportConverter.toJson(new ByteArrayInputStream(binary.toByteArray()), converted,
+                new JsonReportEncoder(false));
+
+        assertEquals(2, count);
+        String line = new String(encode(new JsonReportEncoder(false), sampleReport()), StandardCharsets.UTF_8);
+        assertEquals(line + "\n" + line + "\n", converted.toString(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] encode(ReportEncoder encoder, CrashReport report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(report, out);
+        return out.toByteArray();
+    }
+
+    private static CrashReport sampleReport() {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setOperatingSystem("Linux 6.1");
+        report.setVersion("1.2.3");
+        report.setExplanation("Line one\nline two é");
+        report.setCause("java.lang.IllegalStateException: boom");
+        CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+        method.setClassName("com.example.Service");
+        method.setMethodName("handle");
+        report.setMethod(method);
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        frames.add(frame("com.example.Service", "handle", "Service.java", 42));
+        frames.add(frame("com.example.Service", "recurse", "Service.java", -2));
+        frames.add(frame("com.example.Service", "handle", "Service.java", 42));
+        frames.add(null);
+        frames.add(frame("jdk.internal.Native", "call", null, null));
+        for (int i = 0; i < 30; i++) {
+            frames.add(frame("org.framework.layer" + (i % 3) + ".Dispatcher", "dispatch", "Dispatcher.java", 100 + i));
+        }
+        report.setBacktrace(frames);
+        CrashReport.SystemInfo info = new CrashReport.SystemInfo();
+        info.setJavaVersion("21");
+        info.setOsName("Linux");
+        info.setMaxMemoryMb(4096);
+        info.setFreeMemoryMb(-1);
+        info.setProcessors(8);
+        info.setUptimeMs(1234);
+        report.setSystemInfo(info);
+        Map<String, String> application = new LinkedHashMap<>();
+        application.put("name", "app");
+        application.put("authors", null);
+        report.setApplicationInfo(application);
+        return report;
+    }
+
+    private static CrashReport.StackFrame frame(String className, String method, String file, Integer line) {
+        CrashReport.StackFrame frame = new CrashReport.StackFrame();
+        frame.setClassName(className);
+        frame.setMethod(method);
+        frame.setFile(file);
+        frame.setLine(line);
+        return frame;
+    }
+}
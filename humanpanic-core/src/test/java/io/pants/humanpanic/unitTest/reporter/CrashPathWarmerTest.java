@@ -0,0 +1,86 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.CrashPathWarmer;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.InitStrategy;
+import io.pants.humanpanic.reporter.ReportEncoder;
+import io.pants.humanpanic.reporter.UserNotifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrashPathWarmer and InitStrategy
+ */
+class CrashPathWarmerTest {
+
+    private final AtomicInteger encoded = new AtomicInteger();
+    private CrashPathWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        AppMetadataProvider provider = AppMetadata::new;
+        ReportEncoder countingEncoder = (CrashReport report, OutputStream out) -> {
+            assertEquals("java.lang.IllegalStateException: HumanPanic warm-up", report.getCause());
+            encoded.incrementAndGet();
+        };
+        warmer = new CrashPathWarmer(new CrashReporter(provider, countingEncoder), new UserNotifier(provider));
+    }
+
+    @Test
+    void testLazyDoesNothing() {
+        assertNull(warmer.initialize(InitStrategy.LAZY));
+        assertEquals(0, encoded.get());
+    }
+
+    @Test
+    void testEagerWarmsOnCallingThread() {
+        assertNull(warmer.initialize(InitStrategy.EAGER));
+        assertTrue(encoded.get() > 0);
+        assertFalse(Files.exists(Paths.get("crash-reports")));
+    }
+
+    @Test
+    void testBackgroundWarmUsesLowPriorityDaemonThread() throws InterruptedException {
+        Thread thread = warmer.initialize(InitStrategy.BACKGROUND_WARM);
+
+        assertNotNull(thread);
+        assertEquals(CrashPathWarmer.THREAD_NAME, thread.getName());
+        assertTrue(thread.isDaemon());
+        assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+
+        thread.join(10_000);
+        assertTrue(encoded.get() > 0);
+        assertFalse(Files.exists(Paths.get("crash-reports")));
+    }
+
+    @Test
+    void testParseInitStrategy() {
+        assertEquals(InitStrategy.LAZY, InitStrategy.parse("lazy"));
+        assertEquals(InitStrategy.EAGER, InitStrategy.parse("EAGER"));
+        assertEquals(InitStrategy.BACKGROUND_WARM, InitStrategy.parse("background-warm"));
+        assertEquals(InitStrategy.BACKGROUND_WARM, InitStrategy.parse(" Background_Warm "));
+        assertEquals(InitStrategy.LAZY, InitStrategy.parse("sometimes"));
+        assertEquals(InitStrategy.LAZY, InitStrategy.parse(null));
+    }
+
+    @Test
+    void testConfiguredReadsSystemProperty() {
+        System.setProperty(InitStrategy.PROPERTY, "eager");
+        try {
+            assertEquals(InitStrategy.EAGER, InitStrategy.configured());
+        } finally {
+            System.clearProperty(InitStrategy.PROPERTY);
+        }
+        assertEquals(InitStrategy.LAZY, InitStrategy.configured());
+    }
+}
@@ -0,0 +1,504 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.Breadcrumbs;
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.index.CrashIndex;
+import io.pants.humanpanic.index.TermIndex;
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.ArgumentRenderer;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.reporter.ReportLimits;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.RecentCrashBuffer;
+import io.pants.humanpanic.sink.RedactingReportSink;
+import io.pants.humanpanic.sink.ReportSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CrashReporter
+ */
+class CrashReporterTest {
+
+    @Mock
+    private AppMetadataProvider configLoader;
+
+    @Mock
+    private AppMetadata metadata;
+
+    private CrashReporter crashReporter;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getMetadata()).thenReturn(metadata);
+        when(metadata.getName()).thenReturn("Test App");
+        when(metadata.getVersion()).thenReturn("1.0.0");
+        when(metadata.getAuthors()).thenReturn(new String[]{"Test Author"});
+        when(metadata.getHomepage()).thenReturn("https://test.com");
+        when(metadata.getSupportUrl()).thenReturn("https://test.com/support");
+        when(metadata.getIssueUrl()).thenReturn("https://test.com/issues");
+
+        crashReporter = new CrashReporter(configLoader);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Clean up generated reports
+        File reportDir = new File("crash-reports");
+        if (reportDir.exists() && reportDir.isDirectory()) {
+            for (File file : reportDir.listFiles()) {
+                file.delete();
+            }
+            reportDir.delete();
+        }
+    }
+
+    @Test
+    void testCreateReport_Success() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_Success");
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        assertTrue(reportPath.contains("crash-reports"));
+        assertTrue(reportPath.endsWith(".json"));
+
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+        assertTrue(reportFile.length() > 0);
+    }
+
+    @Test
+    void testCreateReport_WithNullMessage() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_WithNullMessage");
+        Throwable throwable = new RuntimeException((String) null);
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+    }
+
+    @Test
+    void testCreateReport_WithStackTrace() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_WithStackTrace");
+        Throwable throwable = createThrowableWithStackTrace();
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+
+        String content = Files.readString(reportFile.toPath());
+        assertTrue(content.contains("backtrace"));
+        assertTrue(content.contains("class"));
+        assertTrue(content.contains("method"));
+    }
+
+    @Test
+    void testCreateReport_WithNullMethod() {
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, null);
+
+        assertNotNull(reportPath);
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+    }
+
+    @Test
+    void testCreateReport_ContainsSystemInfo() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_ContainsSystemInfo");
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+        File reportFile = new File(reportPath);
+        String content = Files.readString(reportFile.toPath());
+
+        assertTrue(content.contains("system_info"));
+        assertTrue(content.contains("java_version"));
+        assertTrue(content.contains("os_name"));
+        assertTrue(content.contains("processors"));
+    }
+
+    @Test
+    void testCreateReport_ContainsApplicationInfo() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_ContainsApplicationInfo");
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+        File reportFile = new File(reportPath);
+        String content = Files.readString(reportFile.toPath());
+
+        assertTrue(content.contains("application_info"));
+        assertTrue(content.contains("Test App"));
+        assertTrue(content.contains("1.0.0"));
+        assertTrue(content.contains("Test Author"));
+    }
+
+    @Test
+    void testCreateReport_DifferentExceptionTypes() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_DifferentExceptionTypes");
+
+        // Test with different exception types
+        Exception[] exceptions = {
+                new NullPointerException("NPE test"),
+                new IllegalArgumentException("IAE test"),
+                new IllegalStateException("ISE test"),
+                new IndexOutOfBoundsException("IOOBE test")
+        };
+
+        for (Exception exception : exceptions) {
+            String reportPath = crashReporter.createReport(exception, testMethod);
+            assertNotNull(reportPath);
+            File reportFile = new File(reportPath);
+            assertTrue(reportFile.exists());
+
+            String content = Files.readString(reportFile.toPath());
+            assertTrue(content.contains(exception.getClass().getName()));
+        }
+    }
+
+    @Test
+    void testCreateReport_CreatesDirectory() {
+        Method testMethod = null;
+        try {
+            testMethod = getClass().getDeclaredMethod("testCreateReport_CreatesDirectory");
+        } catch (NoSuchMethodException e) {
+            fail("Method not found");
+        }
+
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        File reportDir = new File("crash-reports");
+        assertTrue(reportDir.exists());
+        assertTrue(reportDir.isDirectory());
+    }
+
+    @Test
+    void testCreateReport_UniqueFilenames() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_UniqueFilenames");
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath1 = crashReporter.createReport(throwable, testMethod);
+        Thread.sleep(1000); // Ensure different timestamp
+        String reportPath2 = crashReporter.createReport(throwable, testMethod);
+
+        assertNotEquals(reportPath1, reportPath2);
+    }
+
+    @Test
+    void testCreateReport_WithEmptyMetadata() throws Exception {
+        when(metadata.getName()).thenReturn("");
+        when(metadata.getVersion()).thenReturn("");
+        when(metadata.getAuthors()).thenReturn(new String[]{});
+        when(metadata.getHomepage()).thenReturn("");
+        when(metadata.getSupportUrl()).thenReturn("");
+        when(metadata.getIssueUrl()).thenReturn("");
+
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_WithEmptyMetadata");
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+    }
+
+    @Test
+    void testCreateReport_WithLongStackTrace() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_WithLongStackTrace");
+        Throwable throwable = createDeepStackTrace();
+
+        String reportPath = crashReporter.createReport(throwable, testMethod);
+
+        assertNotNull(reportPath);
+        File reportFile = new File(reportPath);
+        assertTrue(reportFile.exists());
+
+        String content = Files.readString(reportFile.toPath());
+        assertTrue(content.length() > 1000); // Should have substantial content
+    }
+
+    @Test
+    void testCreateReport_UsesNewSnapshotAfterSwap() {
+        AppMetadata first = new AppMetadata().toBuilder().name("First App").version("1.0.0").build();
+        AppMetadata second = first.toBuilder().name("Second App").version("2.0.0").build();
+        Throwable throwable = new RuntimeException("Test exception");
+        InMemoryReportSink sink = new InMemoryReportSink();
+        CrashReporter reporter = new CrashReporter(configLoader, sink);
+
+        when(configLoader.getMetadata()).thenReturn(first);
+        reporter.createReport(throwable, null);
+        when(configLoader.getMetadata()).thenReturn(second);
+        reporter.createReport(throwable, null);
+
+        List<CrashReport> reports = sink.getReports();
+        assertEquals(2, reports.size());
+        assertEquals("First App", reports.get(0).getName());
+        assertEquals("Second App", reports.get(1).getName());
+        assertEquals("2.0.0", reports.get(1).getApplicationInfo().get("version"));
+    }
+
+    @Test
+    void testCreateReport_WritesOneFlushedBatchToSink() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_WritesOneFlushedBatchToSink");
+        InMemoryReportSink sink = new InMemoryReportSink();
+
+        String location = new CrashReporter(configLoader, sink).createReport(new IllegalStateException("boom"), testMethod);
+
+        assertNull(location);
+        assertEquals(1, sink.getBatchCount());
+        assertEquals(1, sink.getFlushCount());
+        CrashReport report = sink.getReports().get(0);
+        assertEquals("java.lang.IllegalStateException: boom", report.getCause());
+        assertEquals("testCreateReport_WritesOneFlushedBatchToSink", report.getMethod().getMethodName());
+    }
+
+    @Test
+    void testCreateReport_SameSecondDoesNotOverwrite() {
+        Throwable throwable = new RuntimeException("Test exception");
+
+        String reportPath1 = crashReporter.createReport(throwable, null);
+        String reportPath2 = crashReporter.createReport(throwable, null);
+
+        assertNotEquals(reportPath1, reportPath2);
+        assertTrue(new File(reportPath1).exists());
+        assertTrue(new File(reportPath2).exists());
+    }
+
+    @Test
+    void testCreateReport_IndexesEveryCrash() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_IndexesEveryCrash");
+        InMemoryReportSink sink = new InMemoryReportSink();
+        try (CrashIndex index = new CrashIndex(tempDir); CrashReporter reporter = new CrashReporter(configLoader, sink, index)) {
+            reporter.createReport(new IllegalStateException("first"), testMethod);
+            reporter.createReport(new IllegalStateException("second"), testMethod);
+            assertTrue(reporter.awaitIndexed(Duration.ofSeconds(5)));
+
+            long fingerprint = CrashFingerprint.of(sink.getReports().get(0));
+            assertEquals(2, index.count(CrashIndex.Query.builder().fingerprint(fingerprint).build()));
+            assertEquals(2, index.count(CrashIndex.Query.builder()
+                    .method(getClass().getName() + ".testCreateReport_IndexesEveryCrash")
+                    .exceptionClass("java.lang.IllegalStateException")
+                    .build()));
+        }
+    }
+
+    @Test
+    void testCreateReport_IndexesNoSecretsARedactingSinkRemovesLater() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("testCreateReport_IndexesNoSecretsARedactingSinkRemovesLater");
+        InMemoryReportSink stored = new InMemoryReportSink();
+        Path indexDir = tempDir.resolve("index");
+        try (CrashIndex index = new CrashIndex(indexDir, new TermIndex(indexDir));
+             AsyncReportSink sink = new AsyncReportSink(new RedactingReportSink(stored))) {
+            CrashReporter reporter = new CrashReporter(configLoader, sink, index);
+            reporter.createReport(new IllegalStateException("login failed password=hunter2"), testMethod);
+            reporter.close();
+
+            assertFalse(stored.awaitReports(1, Duration.ofSeconds(5)).get(0).getCause().contains("hunter2"));
+            assertEquals(1, index.search("IllegalState", 10).size());
+            assertEquals(List.of(), index.search("hunter2", 10));
+            assertEquals(1, index.search("login failed", 10).size());
+        }
+        try (Stream<Path> files = Files.list(indexDir)) {
+            for (Path file : files.toList()) {
+                assertFalse(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).contains("hunter2"), file.toString());
+            }
+        }
+    }
+
+    @Test
+    void testCreateReport_KeepsReportInMemoryWhenSinkFails() {
+        ReportSink failing = new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) throws IOException {
+                throw new IOException("Read-only file system");
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        Throwable throwable = new IllegalStateException("disk is gone " + System.nanoTime());
+
+        assertNull(new CrashReporter(configLoader, failing).createReport(throwable, null));
+
+        List<RecentCrashBuffer.Crash> kept = RecentCrashBuffer.shared().recent(RecentCrashBuffer.DEFAULT_SLOTS);
+        assertTrue(kept.stream().anyMatch(crash -> crash.report().getCause().equals(throwable.toString())));
+    }
+
+    @Test
+    void testCreateReport_BoundsHugeMessageAndBacktrace() throws Exception {
+        ReportLimits limits = ReportLimits.builder().maxReportBytes(64 * 1024).maxFrameBytes(128).build();
+        InMemoryReportSink sink = new InMemoryReportSink();
+        IllegalStateException throwable = new IllegalStateException("x".repeat(20 * 1024 * 1024));
+        StackTraceElement[] elements = new StackTraceElement[5_000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new StackTraceElement("com.example.Recursive" + "y".repeat(i == 0 ? 1_000 : 0), "call", "Recursive.java", i);
+        }
+        throwable.setStackTrace(elements);
+
+        new CrashReporter(configLoader, sink, null, limits).createReport(throwable, null);
+
+        CrashReport report = sink.getReports().get(0);
+        assertTrue(report.getCause().length() <= ReportLimits.DEFAULT_MAX_MESSAGE_BYTES + 100);
+        assertTrue(report.getCause().endsWith("[truncated, " + throwable.getMessage().length() + " chars]"));
+        assertTrue(report.getBacktrace().get(0).getClassName().length() <= 128);
+        CrashReport.StackFrame marker = report.getBacktrace().get(report.getBacktrace().size() - 1);
+        assertEquals(ReportLimits.TRUNCATED_FRAMES_CLASS, marker.getClassName());
+        assertEquals((elements.length - report.getBacktrace().size() + 1) + " more frames", marker.getMethod());
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JsonReportEncoder().encode(report, json);
+        assertTrue(json.size() <= limits.getMaxReportBytes(), json.size() + " bytes");
+        assertTrue(json.size() > limits.getMaxReportBytes() / 2, json.size() + " bytes");
+    }
+
+    @Test
+    void testCreateReport_SmallBudgetCapsMessageBreadcrumbsAndArguments() throws Exception {
+        ReportLimits limits = ReportLimits.builder().maxReportBytes(ReportLimits.MIN_REPORT_BYTES).build();
+        Method testMethod = getClass().getDeclaredMethod("placeOrder", String.class, Object.class, char[].class);
+        InMemoryReportSink sink = new InMemoryReportSink();
+        for (int i = 0; i < Breadcrumbs.RING_SLOTS; i++) {
+            Breadcrumbs.breadcrumb("step {} of {}", i, "中".repeat(1_000));
+        }
+        try {
+            new CrashReporter(configLoader, sink, null, limits).createReport(
+                    new IllegalStateException("é中😀".repeat(10_000)), testMethod,
+                    new Object[]{"中".repeat(10_000), List.of("x".repeat(10_000)), null});
+        } finally {
+            Breadcrumbs.clear();
+        }
+
+        CrashReport report = sink.getReports().get(0);
+        assertTrue(report.getCause().endsWith("[truncated, 40000 chars]"));
+        List<CrashReport.Breadcrumb> breadcrumbs = report.getBreadcrumbs();
+        assertTrue(breadcrumbs.size() < Breadcrumbs.RING_SLOTS);
+        assertTrue(breadcrumbs.get(breadcrumbs.size() - 1).getMessage().startsWith("step " + (Breadcrumbs.RING_SLOTS - 1) + " of"));
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JsonReportEncoder().encode(report, json);
+        assertTrue(json.size() <= limits.getMaxReportBytes(), json.size() + " bytes");
+    }
+
+    @Test
+    void testCreateReport_RendersCapturedArgumentsOnFirstRead() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("placeOrder", String.class, Object.class, char[].class);
+        AtomicInteger renders = new AtomicInteger();
+        Object item = new Object() {
+            @Override
+            public String toString() {
+                return "Item#" + renders.incrementAndGet();
+            }
+        };
+        InMemoryReportSink memory = new InMemoryReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) {
+                // Rendered here, on the writer thread
+                reports.get(0).getMethod().getArguments().get(0);
+                super.write(reports);
+            }
+        };
+
+        try (AsyncReportSink sink = new AsyncReportSink(memory)) {
+            new CrashReporter(configLoader, sink).createReport(new IllegalStateException("boom"), testMethod,
+                    new Object[]{"order-7", item, "hunter2".toCharArray()});
+
+            List<CrashReport.Argument> arguments = memory.awaitReports(1, Duration.ofSeconds(5)).get(0)
+                    .getMethod().getArguments();
+            assertEquals(3, arguments.size());
+            assertEquals("\"order-7\"", arguments.get(0).getValue());
+            assertEquals("java.lang.String", arguments.get(0).getType());
+            assertEquals("Item#1", arguments.get(1).getValue());
+            assertEquals("[redacted]", arguments.get(2).getValue());
+            assertEquals("char[]", arguments.get(2).getType());
+            assertEquals("Item#1", arguments.get(1).getValue());
+            assertEquals(1, renders.get());
+        }
+    }
+
+    @Test
+    void testCreateReport_NeverCallsToStringOnTheFailingThread() throws Exception {
+        Method testMethod = getClass().getDeclaredMethod("placeOrder", String.class, Object.class, char[].class);
+        InMemoryReportSink sink = new InMemoryReportSink();
+        AtomicInteger renders = new AtomicInteger();
+        Object item = new Object() {
+            @Override
+            public String toString() {
+                return "Item#" + renders.incrementAndGet();
+            }
+        };
+
+        new CrashReporter(configLoader, new RedactingReportSink(sink)).createReport(
+                new IllegalStateException("boom"), testMethod, new Object[]{"order-7", item, null});
+
+        List<CrashReport.Argument> arguments = sink.getReports().get(0).getMethod().getArguments();
+        assertEquals("\"order-7\"", arguments.get(0).getValue());
+        assertEquals(ArgumentRenderer.TO_STRING_SKIPPED, arguments.get(1).getValue());
+        assertEquals("null", arguments.get(2).getValue());
+        assertEquals(0, renders.get());
+    }
+
+    // Helper methods
+    private void placeOrder(String order, Object item, char[] password) {
+    }
+
+    private Throwable createThrowableWithStackTrace() {
+        try {
+            methodA();
+        } catch (Exception e) {
+            return e;
+        }
+        return new RuntimeException("Fallback");
+    }
+
+    private void methodA() {
+        methodB();
+    }
+
+    private void methodB() {
+        methodC();
+    }
+
+    private void methodC() {
+        throw new RuntimeException("Deep stack trace");
+    }
+
+    private Throwable createDeepStackTrace() {
+        return createThrowableWithStackTrace();
+    }
+}
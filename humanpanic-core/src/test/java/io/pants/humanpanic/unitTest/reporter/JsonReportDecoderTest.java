@@ -0,0 +1,89 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportDecoder;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JsonReportDecoder
+ */
+class JsonReportDecoderTest {
+
+    private final JsonReportDecoder decoder = new JsonReportDecoder();
+
+    @Test
+    void testRoundTripPrettyAndCompact() throws Exception {
+        CrashReport report = sampleReport();
+        for (JsonReportEncoder encoder : List.of(new JsonReportEncoder(), new JsonReportEncoder(false))) {
+            byte[] json = encode(encoder, report);
+
+            CrashReport decoded = decoder.decode(json);
+
+            assertArrayEquals(json, encode(encoder, decoded));
+        }
+    }
+
+    @Test
+    void testUnknownFieldsAreSkipped() throws Exception {
+        CrashReport report = decoder.decode("{\"name\":\"app\",\"extra\":{\"nested\":[1,2.5,true,null]},\"cause\":\"x\"}");
+
+        assertEquals("app", report.getName());
+        assertEquals("x", report.getCause());
+        assertNull(report.getBacktrace());
+    }
+
+    @Test
+    void testMalformedJsonIsRejected() {
+        assertThrows(IOException.class, () -> decoder.decode("{\"name\":"));
+        assertThrows(IOException.class, () -> decoder.decode("[]"));
+        assertThrows(IOException.class, () -> decoder.decode("{} trailing"));
+    }
+
+    private static byte[] encode(JsonReportEncoder encoder, CrashReport report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(report, out);
+        return out.toByteArray();
+    }
+
+    private static CrashReport sampleReport() {
+        CrashReport report = new CrashReport();
+        report.setName("app \"quoted\"");
+        report.setOperatingSystem("Linux 6.1");
+        report.setVersion("1.2.3");
+        report.setExplanation("Line one\nline two\ttabbed é \u0001");
+        report.setCause("java.lang.IllegalStateException: boom");
+        CrashReport.MethodInfo method = new CrashReport.MethodInfo();
+        method.setClassName("com.example.Service");
+        method.setMethodName("handle");
+        report.setMethod(method);
+        CrashReport.StackFrame frame = new CrashReport.StackFrame();
+        frame.setClassName("com.example.Service");
+        frame.setMethod("handle");
+        frame.setFile("Service.java");
+        frame.setLine(42);
+        CrashReport.StackFrame nativeFrame = new CrashReport.StackFrame();
+        nativeFrame.setClassName("jdk.internal.Native");
+        nativeFrame.setMethod("call");
+        report.setBacktrace(List.of(frame, nativeFrame));
+        CrashReport.SystemInfo info = new CrashReport.SystemInfo();
+        info.setJavaVersion("21");
+        info.setMaxMemoryMb(4096);
+        info.setProcessors(8);
+        info.setUptimeMs(1234);
+        report.setSystemInfo(info);
+        Map<String, String> application = new LinkedHashMap<>();
+        application.put("name", "app");
+        application.put("authors", "A, B");
+        report.setApplicationInfo(application);
+        return report;
+    }
+}
@@ -0,0 +1,54 @@
+package io.pants.humanpanic.unitTest.reporter;
+
+import io.pants.humanpanic.reporter.ReportLimits;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportLimits
+ */
+class ReportLimitsTest {
+
+    @Test
+    void testShortValuesAreKept() {
+        String value = "java.lang.IllegalStateException";
+
+        assertSame(value, ReportLimits.truncate(value, 64));
+        assertNull(ReportLimits.truncate(null, 64));
+        assertSame(value, ReportLimits.truncate(value, value.length()));
+    }
+
+    @Test
+    void testLongValueKeepsPrefixAndOriginalLength() {
+        String value = "SELECT * FROM orders WHERE id IN (" + "1234, ".repeat(500_000) + ")";
+
+        String truncated = ReportLimits.truncate(value, 1024);
+
+        assertTrue(truncated.getBytes(StandardCharsets.UTF_8).length <= 1024);
+        assertTrue(truncated.startsWith("SELECT * FROM orders WHERE id IN (1234, "));
+        assertTrue(truncated.endsWith(" ...[truncated, " + value.length() + " chars]"));
+    }
+
+    @Test
+    void testCountsUtf8BytesAndKeepsSurrogatePairs() {
+        String value = "é中😀".repeat(100);
+
+        String truncated = ReportLimits.truncate(value, 200);
+
+        assertTrue(truncated.getBytes(StandardCharsets.UTF_8).length <= 200);
+        String kept = truncated.substring(0, truncated.indexOf(" ...[truncated"));
+        assertFalse(Character.isHighSurrogate(kept.charAt(kept.length() - 1)));
+        assertTrue(value.startsWith(kept));
+    }
+
+    @Test
+    void testRejectsTinyCaps() {
+        assertThrows(IllegalArgumentException.class, () -> ReportLimits.builder().maxMessageBytes(10).build());
+        assertThrows(IllegalArgumentException.class, () -> ReportLimits.builder()
+                .maxReportBytes(ReportLimits.MIN_REPORT_BYTES - 1).build());
+        assertEquals(ReportLimits.DEFAULT_MAX_FRAME_BYTES, ReportLimits.builder().build().getMaxFrameBytes());
+    }
+}
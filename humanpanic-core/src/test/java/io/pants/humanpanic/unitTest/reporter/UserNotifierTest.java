@@ -4,7 +4,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import io.pants.humanpanic.config.AppMetadata;
-import io.pants.humanpanic.config.ConfigLoader;
+import io.pants.humanpanic.config.AppMetadataProvider;
 import io.pants.humanpanic.reporter.UserNotifier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,7 +24,7 @@ import static org.mockito.Mockito.*;
 class UserNotifierTest {
 
     @Mock
-    private ConfigLoader configLoader;
+    private AppMetadataProvider configLoader;
 
     @Mock
     private AppMetadata metadata;
@@ -265,6 +265,16 @@ class UserNotifierTest {
         assertTrue(logs.contains("do not perform any automated error collection"));
     }
 
+    @Test
+    void testNotifyWithReport_SaysReportsAreSentWhenTheSinkSendsThem() {
+        new UserNotifier(configLoader, true).notifyWithReport("Test", "/path/to/report.json");
+
+        String logs = getAllLogs();
+        assertTrue(logs.contains("Crash reports are also sent to the developers automatically"));
+        assertFalse(logs.contains("do not perform any automated error collection"));
+        assertTrue(logs.contains("Thank you kindly!"));
+    }
+
     @Test
     void testNotifyWithReport_ContainsThankYouMessage() {
         userNotifier.notifyWithReport("Test", "/path/to/report.json");
@@ -314,4 +324,22 @@ class UserNotifierTest {
         assertTrue(logs.contains("Test Author"));
         assertTrue(logs.contains("Thank you kindly!"));
     }
+
+    @Test
+    void testNotifyWithReport_RendersNewSnapshotAfterSwap() {
+        AppMetadata first = new AppMetadata().toBuilder().name("First App").issueUrl("").supportUrl("").build();
+        AppMetadata second = first.toBuilder().name("Second App").build();
+
+        when(configLoader.getMetadata()).thenReturn(first);
+        userNotifier.notifyWithReport("Test", "/path/to/report.json");
+        assertTrue(getAllLogs().contains("First App Crash Report"));
+
+        logAppender.list.clear();
+        when(configLoader.getMetadata()).thenReturn(second);
+        userNotifier.notifyWithReport("Test", "/path/to/report.json");
+
+        String logs = getAllLogs();
+        assertTrue(logs.contains("Second App Crash Report"));
+        assertFalse(logs.contains("First App"));
+    }
 }
@@ -0,0 +1,242 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import io.pants.humanpanic.sink.CompositeReportSink;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.RecentCrashBuffer;
+import io.pants.humanpanic.sink.ReportSink;
+import io.pants.humanpanic.sink.StdoutNdjsonSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AsyncReportSink, CompositeReportSink and the simple built-in sinks
+ */
+class AsyncReportSinkTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void testWritesArriveOnWriterThreadAndAreFlushed() throws Exception {
+        InMemoryReportSink memory = new InMemoryReportSink();
+        try (AsyncReportSink sink = new AsyncReportSink(memory)) {
+            sink.write(List.of(report("a"), report("b")));
+
+            List<CrashReport> reports = memory.awaitReports(2, TIMEOUT);
+            assertEquals(2, reports.size());
+            assertEquals("a", reports.get(0).getName());
+        }
+        assertTrue(memory.getFlushCount() >= 1);
+    }
+
+    @Test
+    void testQueuedReportsAreBatched() throws Exception {
+        BlockingSink blocking = new BlockingSink();
+        try (AsyncReportSink sink = new AsyncReportSink(blocking, 100, 64)) {
+            sink.write(List.of(report("first")));
+            assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 10; i++) {
+                sink.write(List.of(report("queued-" + i)));
+            }
+            blocking.release.countDown();
+
+            List<CrashReport> reports = blocking.memory.awaitReports(11, TIMEOUT);
+            assertEquals(11, reports.size());
+            assertEquals(2, blocking.memory.getBatchCount());
+        }
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws Exception {
+        BlockingSink blocking = new BlockingSink();
+        AsyncReportSink sink = new AsyncReportSink(blocking, 2, 64);
+        sink.write(List.of(report("in-flight")));
+        assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+
+        sink.write(List.of(report("a"), report("b"), report("c"), report("d")));
+
+        assertEquals(2, sink.getDroppedCount());
+        blocking.release.countDown();
+        sink.close();
+        assertEquals(3, blocking.memory.getReports().size());
+    }
+
+    @Test
+    void testCloseDrainsPendingReports() throws Exception {
+        InMemoryReportSink memory = new InMemoryReportSink();
+        AsyncReportSink sink = new AsyncReportSink(memory);
+        for (int i = 0; i < 100; i++) {
+            sink.write(List.of(report("r" + i)));
+        }
+
+        sink.close();
+
+        assertEquals(100, memory.getReports().size());
+    }
+
+    @Test
+    void testEveryAcceptedReportIsWrittenWhenCloseRacesWriters() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            InMemoryReportSink memory = new InMemoryReportSink();
+            AsyncReportSink sink = new AsyncReportSink(memory, 10_000, 64);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread writer = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 200; i++) {
+                            sink.write(List.of(report("r" + i)));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                writer.start();
+                writers.add(writer);
+            }
+            start.countDown();
+            sink.close();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            assertEquals(800, memory.getReports().size() + sink.getDroppedCount());
+        }
+    }
+
+    @Test
+    void testWritesAfterCloseAreDroppedAndDelegateIsClosedOnce() throws Exception {
+        AtomicInteger closes = new AtomicInteger();
+        InMemoryReportSink memory = new InMemoryReportSink() {
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        };
+        AsyncReportSink sink = new AsyncReportSink(memory);
+        sink.close();
+        sink.write(List.of(report("late")));
+        sink.close();
+
+        assertEquals(1, sink.getDroppedCount());
+        assertEquals(1, closes.get());
+        assertTrue(memory.getReports().isEmpty());
+    }
+
+    @Test
+    void testFailedBatchIsKeptInTheRecentCrashBuffer() throws Exception {
+        ReportSink failing = new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        String name = "async-failed-" + System.nanoTime();
+        try (AsyncReportSink sink = new AsyncReportSink(failing)) {
+            sink.write(List.of(report(name)));
+        }
+
+        assertTrue(RecentCrashBuffer.shared().recent(RecentCrashBuffer.DEFAULT_SLOTS).stream()
+                .anyMatch(crash -> name.equals(crash.report().getName())));
+    }
+
+    @Test
+    void testSlowSinkDoesNotStallOthers() throws Exception {
+        BlockingSink slow = new BlockingSink();
+        InMemoryReportSink fast = new InMemoryReportSink();
+        CompositeReportSink composite = CompositeReportSink.async(slow, fast);
+
+        composite.write(List.of(report("a")));
+        composite.write(List.of(report("b")));
+
+        assertEquals(2, fast.awaitReports(2, TIMEOUT).size());
+        assertTrue(slow.memory.getReports().isEmpty());
+
+        slow.release.countDown();
+        composite.close();
+        assertEquals(2, slow.memory.getReports().size());
+    }
+
+    @Test
+    void testCompositeSkipsFailingSink() throws Exception {
+        InMemoryReportSink memory = new InMemoryReportSink();
+        ReportSink failing = new ReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        CompositeReportSink composite = new CompositeReportSink(List.of(failing, memory));
+
+        composite.write(List.of(report("a")));
+        assertEquals(1, memory.getReports().size());
+
+        CompositeReportSink allFailing = new CompositeReportSink(List.of(failing));
+        assertThrows(IOException.class, () -> allFailing.write(List.of(report("b"))));
+    }
+
+    @Test
+    void testStdoutNdjsonWritesOneLinePerReport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StdoutNdjsonSink sink = new StdoutNdjsonSink(out, new JsonReportEncoder(false));
+
+        sink.write(List.of(report("a"), report("multi\nline")));
+        sink.flush();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{\"name\":\"multi\\nline\""));
+    }
+
+    private static CrashReport report(String name) {
+        CrashReport report = new CrashReport();
+        report.setName(name);
+        return report;
+    }
+
+    /**
+     * Holds the writer thread inside the first write until released
+     */
+    private static class BlockingSink implements ReportSink {
+        final InMemoryReportSink memory = new InMemoryReportSink();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(List<CrashReport> reports) throws IOException {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            memory.write(reports);
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
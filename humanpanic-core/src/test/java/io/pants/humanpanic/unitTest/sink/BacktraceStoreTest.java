@@ -0,0 +1,150 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportDecoder;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.BacktraceStore;
+import io.pants.humanpanic.sink.BacktraceStoreSink;
+import io.pants.humanpanic.sink.FileReportSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BacktraceStore and BacktraceStoreSink
+ */
+class BacktraceStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIdenticalBacktracesAreStoredOnce() throws Exception {
+        try (BacktraceStore store = new BacktraceStore(tempDir)) {
+            String first = store.put(frames("com.example.Service", 80));
+            String second = store.put(frames("com.example.Service", 80));
+
+            assertEquals(first, second);
+            assertEquals(32, first.length());
+            assertEquals(1, backtraceFiles());
+        }
+    }
+
+    @Test
+    void testRoundTripKeepsAbsentValues() throws Exception {
+        List<CrashReport.StackFrame> frames = frames("com.example.Service", 3);
+        frames.get(1).setFile(null);
+        frames.get(1).setLine(null);
+        frames.add(null);
+
+        String hash;
+        try (BacktraceStore store = new BacktraceStore(tempDir)) {
+            hash = store.put(frames);
+        }
+        List<CrashReport.StackFrame> read;
+        try (BacktraceStore reopened = new BacktraceStore(tempDir)) {
+            read = reopened.get(hash);
+        }
+
+        assertEquals(4, read.size());
+        assertEquals("com.example.Service0", read.get(0).getClassName());
+        assertEquals("handle", read.get(0).getMethod());
+        assertEquals("Service.java", read.get(0).getFile());
+        assertEquals(10, read.get(0).getLine());
+        assertNull(read.get(1).getFile());
+        assertNull(read.get(1).getLine());
+        assertNull(read.get(3));
+        assertEquals(hash, BacktraceStore.hash(read));
+    }
+
+    @Test
+    void testHashSeparatesAbsentFromEmptyValues() throws Exception {
+        List<CrashReport.StackFrame> absent = frames("com.example.Service", 1);
+        absent.get(0).setFile(null);
+        List<CrashReport.StackFrame> empty = frames("com.example.Service", 1);
+        empty.get(0).setFile("");
+        List<CrashReport.StackFrame> otherLine = frames("com.example.Service", 1);
+        otherLine.get(0).setLine(11);
+
+        assertNotEquals(BacktraceStore.hash(absent), BacktraceStore.hash(empty));
+        assertNotEquals(BacktraceStore.hash(frames("com.example.Service", 1)), BacktraceStore.hash(otherLine));
+        assertNull(new BacktraceStore(tempDir).get(BacktraceStore.hash(absent)));
+    }
+
+    @Test
+    void testDictionaryIsSharedAcrossBacktraces() throws Exception {
+        try (BacktraceStore store = new BacktraceStore(tempDir)) {
+            store.put(frames("com.example.Service", 40));
+            int size = store.getDictionarySize();
+            List<CrashReport.StackFrame> longer = frames("com.example.Service", 41);
+
+            store.put(longer);
+
+            assertEquals(2, backtraceFiles());
+            assertEquals(size + 1, store.getDictionarySize());
+        }
+    }
+
+    @Test
+    void testSinkWritesReferencesAndResolvesThemBack() throws Exception {
+        Path reportDir = tempDir.resolve("reports");
+        BacktraceStore store = new BacktraceStore(reportDir.resolve(BacktraceStore.DIRECTORY_NAME));
+        BacktraceStoreSink sink = new BacktraceStoreSink(new FileReportSink(reportDir, new JsonReportEncoder()), store);
+        CrashReport report = report();
+        long fingerprint = CrashFingerprint.of(report);
+
+        String location = sink.location(report);
+        sink.write(List.of(report));
+        sink.write(List.of(report()));
+        sink.close();
+
+        assertEquals(80, report.getBacktrace().size());
+        assertNull(report.getBacktraceRef());
+        String json = Files.readString(Path.of(location));
+        assertTrue(json.contains("\"backtrace\" : null"));
+        assertTrue(json.contains("\"backtrace_ref\" : \"" + BacktraceStore.hash(report.getBacktrace()) + "\""));
+        assertEquals(1, backtraceFiles());
+
+        try (BacktraceStore reader = new BacktraceStore(reportDir.resolve(BacktraceStore.DIRECTORY_NAME))) {
+            CrashReport read = reader.resolve(new JsonReportDecoder().decode(json));
+            assertNull(read.getBacktraceRef());
+            assertEquals(80, read.getBacktrace().size());
+            assertEquals(fingerprint, CrashFingerprint.of(read));
+        }
+    }
+
+    private long backtraceFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(path -> path.toString().endsWith(".bt")).count();
+        }
+    }
+
+    private static CrashReport report() {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause("java.lang.IllegalStateException: boom");
+        report.setBacktrace(frames("com.example.Service", 80));
+        return report;
+    }
+
+    private static List<CrashReport.StackFrame> frames(String prefix, int count) {
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName(prefix + i);
+            frame.setMethod("handle");
+            frame.setFile("Service.java");
+            frame.setLine(10 + i);
+            frames.add(frame);
+        }
+        return frames;
+    }
+}
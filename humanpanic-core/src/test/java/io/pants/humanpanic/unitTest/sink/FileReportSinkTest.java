@@ -0,0 +1,350 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.AsyncReportSink;
+import io.pants.humanpanic.sink.Durability;
+import io.pants.humanpanic.sink.FileReportSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileReportSink
+ */
+class FileReportSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path reportDir;
+    private FileReportSink sink;
+
+    @BeforeEach
+    void setUp() {
+        reportDir = tempDir.resolve("reports");
+        sink = new FileReportSink(reportDir, new JsonReportEncoder());
+    }
+
+    @Test
+    void testWriteUsesReservedLocation() throws Exception {
+        CrashReport report = report("first");
+
+        String location = sink.location(report);
+        sink.write(List.of(report));
+
+        assertTrue(location.startsWith(reportDir.toAbsolutePath().toString()));
+        assertTrue(new File(location).getName().matches("crash-\\d{4}-\\d{2}-\\d{2}-\\d{2}-\\d{2}-\\d{2}\\.json"));
+        assertTrue(Files.readString(Path.of(location)).contains("\"name\" : \"first\""));
+    }
+
+    @Test
+    void testBatchWritesOneFilePerReport() throws Exception {
+        sink.write(List.of(report("a"), report("b"), report("c")));
+
+        File[] files = reportDir.toFile().listFiles((dir, name) -> name.endsWith(".json"));
+        assertNotNull(files);
+        assertEquals(3, files.length);
+    }
+
+    @Test
+    void testWarmUpWritesNothing() throws Exception {
+        sink.warmUp(report("warm"));
+
+        assertFalse(Files.exists(reportDir));
+    }
+
+    @Test
+    void testReportsAreRenamedIntoPlace() throws Exception {
+        for (Durability durability : List.of(Durability.NONE, Durability.PER_REPORT)) {
+            Path directory = tempDir.resolve(durability.name());
+            FileReportSink durable = FileReportSink.builder().directory(directory).durability(durability).build();
+
+            String location = durable.location(report("a"));
+            durable.write(List.of(report("b")));
+
+            assertEquals(1, jsonFiles(directory));
+            assertEquals(0, tempFiles(directory));
+            assertFalse(Files.exists(Path.of(location)));
+        }
+    }
+
+    @Test
+    void testDroppedReportsReleaseTheirReservation() throws Exception {
+        CrashReport report = report("dropped");
+        sink.location(report);
+        sink.location(report);
+        assertEquals(1, reservedFiles(reportDir));
+
+        sink.discard(report);
+        assertEquals(0, reservedFiles(reportDir));
+
+        AsyncReportSink async = new AsyncReportSink(sink);
+        async.close();
+        CrashReport late = report("late");
+        async.location(late);
+        async.write(List.of(late));
+        assertEquals(1, async.getDroppedCount());
+        assertEquals(0, reservedFiles(reportDir));
+    }
+
+    @Test
+    void testStaleMarkersAndTempFilesAreSweptOnOpen() throws Exception {
+        Files.createDirectories(reportDir);
+        FileTime old = FileTime.from(Instant.now().minus(FileReportSink.STALE_AFTER).minusSeconds(60));
+        Path staleMarker = Files.createFile(reportDir.resolve("crash-2026-03-01-00-00-00.json.reserved"));
+        Path staleTemp = Files.createFile(reportDir.resolve("crash-2026-03-01-00-00-01.json.123.tmp"));
+        Path freshMarker = Files.createFile(reportDir.resolve("crash-2026-03-01-00-00-02.json.reserved"));
+        Path report = Files.createFile(reportDir.resolve("crash-2026-03-01-00-00-03.json"));
+        for (Path file : List.of(staleMarker, staleTemp, report)) {
+            Files.setLastModifiedTime(file, old);
+        }
+
+        new FileReportSink(reportDir, new JsonReportEncoder());
+
+        assertFalse(Files.exists(staleMarker));
+        assertFalse(Files.exists(staleTemp));
+        assertTrue(Files.exists(freshMarker));
+        assertTrue(Files.exists(report));
+    }
+
+    @Test
+    void testSinksSharingADirectoryNeverReuseAName() throws Exception {
+        FileReportSink first = FileReportSink.builder().directory(reportDir).build();
+        FileReportSink second = FileReportSink.builder()
+                .directory(reportDir)
+                .durability(Durability.GROUP_COMMIT)
+                .groupCommitInterval(Duration.ofHours(1))
+                .build();
+        Map<String, String> written = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> writers = new ArrayList<>();
+        for (FileReportSink writer : List.of(first, second)) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    CrashReport report = report(writer == first ? "first-" + i : "second-" + i);
+                    String location = writer.location(report);
+                    assertNull(written.put(location, report.getName()));
+                    writer.write(List.of(report));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        first.close();
+        second.close();
+
+        assertEquals(100, jsonFiles(reportDir));
+        assertEquals(0, tempFiles(reportDir));
+        for (Map.Entry<String, String> report : written.entrySet()) {
+            assertTrue(Files.readString(Path.of(report.getKey())).contains("\"name\" : \"" + report.getValue() + "\""));
+        }
+        try (Stream<Path> files = Files.list(reportDir)) {
+            assertEquals(0, files.filter(path -> path.toString().endsWith(".reserved")).count());
+        }
+    }
+
+    @Test
+    void testGroupCommitWaitsForEnoughReports() throws Exception {
+        FileReportSink grouped = FileReportSink.builder()
+                .directory(reportDir)
+                .durability(Durability.GROUP_COMMIT)
+                .groupCommitReports(3)
+                .groupCommitInterval(Duration.ofHours(1))
+                .build();
+
+        grouped.write(List.of(report("a"), report("b")));
+        grouped.flush();
+
+        assertEquals(0, jsonFiles(reportDir));
+        assertEquals(2, grouped.getUncommittedCount());
+
+        grouped.write(List.of(report("c")));
+
+        assertEquals(3, jsonFiles(reportDir));
+        assertEquals(0, tempFiles(reportDir));
+        assertEquals(0, grouped.getUncommittedCount());
+        grouped.close();
+    }
+
+    @Test
+    void testGroupCommitsAfterInterval() throws Exception {
+        FileReportSink grouped = FileReportSink.builder()
+                .directory(reportDir)
+                .durability(Durability.GROUP_COMMIT)
+                .groupCommitInterval(Duration.ofMillis(20))
+                .build();
+        CrashReport report = report("a");
+        String location = grouped.location(report);
+
+        grouped.write(List.of(report));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(Path.of(location)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertTrue(Files.readString(Path.of(location)).contains("\"name\" : \"a\""));
+        assertEquals(0, tempFiles(reportDir));
+        grouped.close();
+    }
+
+    @Test
+    void testCloseCommitsPendingGroup() throws Exception {
+        FileReportSink grouped = FileReportSink.builder()
+                .directory(reportDir)
+                .durability(Durability.GROUP_COMMIT)
+                .groupCommitInterval(Duration.ofHours(1))
+                .build();
+
+        grouped.write(List.of(report("a"), report("b")));
+        grouped.close();
+
+        assertEquals(2, jsonFiles(reportDir));
+        assertEquals(0, tempFiles(reportDir));
+    }
+
+    @Test
+    void testCompressedReportsDecompressToTheSameJson() throws Exception {
+        FileReportSink compressed = FileReportSink.builder()
+                .directory(reportDir)
+                .compressionLevel(Deflater.BEST_SPEED)
+                .build();
+        List<String> locations = new ArrayList<>();
+        for (String name : List.of("a", "b", "c")) {
+            CrashReport report = report(name);
+            locations.add(compressed.location(report));
+            compressed.write(List.of(report));
+        }
+        compressed.close();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(locations.get(i).endsWith(FileReportSink.GZIP_EXTENSION));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            new JsonReportEncoder().encode(report(List.of("a", "b", "c").get(i)), expected);
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(Path.of(locations.get(i))))) {
+                assertArrayEquals(expected.toByteArray(), in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentWritersCompressIndependently() throws Exception {
+        FileReportSink compressed = FileReportSink.builder()
+                .directory(reportDir)
+                .compressionLevel(Deflater.BEST_SPEED)
+                .build();
+        int threads = 8;
+        int perThread = 25;
+        Map<String, String> expected = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    // Long enough to need several deflate rounds, so unsynchronised writers would interleave
+                    CrashReport report = report("writer-" + thread + "-" + i + "-" + "x".repeat(40_000));
+                    String location = compressed.location(report);
+                    ByteArrayOutputStream json = new ByteArrayOutputStream();
+                    new JsonReportEncoder().encode(report, json);
+                    expected.put(location, json.toString(StandardCharsets.UTF_8));
+                    compressed.write(List.of(report));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        compressed.close();
+
+        assertEquals(threads * perThread, expected.size());
+        for (Map.Entry<String, String> report : expected.entrySet()) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(Path.of(report.getKey())))) {
+                assertEquals(report.getValue(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void testCompressionRunsOnAWriterThread() throws Exception {
+        List<String> threads = new ArrayList<>();
+        FileReportSink compressed = FileReportSink.builder()
+                .directory(reportDir)
+                .compressionLevel(Deflater.BEST_SPEED)
+                .encoder((report, out) -> {
+                    threads.add(Thread.currentThread().getName());
+                    new JsonReportEncoder().encode(report, out);
+                })
+                .build();
+
+        CrashReport report = report("a");
+        String location = compressed.location(report);
+        compressed.write(List.of(report));
+        compressed.close();
+
+        assertEquals(1, threads.size());
+        assertNotEquals(Thread.currentThread().getName(), threads.get(0));
+        assertTrue(Files.exists(Path.of(location)));
+    }
+
+    @Test
+    void testCompressionLevelIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> FileReportSink.builder().compressionLevel(10).build());
+    }
+
+    private static long jsonFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".json")).count();
+        }
+    }
+
+    private static long tempFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".tmp")).count();
+        }
+    }
+
+    private static long reservedFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".reserved")).count();
+        }
+    }
+
+    private static CrashReport report(String name) {
+        CrashReport report = new CrashReport();
+        report.setName(name);
+        return report;
+    }
+}
@@ -0,0 +1,340 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.HttpUploadSink;
+import io.pants.humanpanic.sink.ReportSpool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HttpUploadSink against a local stub server
+ */
+class HttpUploadSinkTest {
+
+    private HttpServer server;
+    private URI endpoint;
+    private final ConcurrentLinkedQueue<String> bodies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Map<String, String>> headers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile int failFirst;
+    private volatile int status = 202;
+    private volatile CountDownLatch hold = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/reports", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/reports");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hold.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void testUploadsGzippedNdjsonBatch() throws Exception {
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .headers(Map.of("Authorization", "Bearer token"))
+                .build();
+
+        sink.write(List.of(report("a"), report("b")));
+        sink.close();
+
+        assertEquals(2, sink.getUploadedCount());
+        assertEquals(1, requests.get());
+        String[] lines = bodies.peek().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"name\":\"a\""));
+        assertTrue(lines[1].startsWith("{\"name\":\"b\""));
+        Map<String, String> received = headers.peek();
+        assertEquals("gzip", received.get("content-encoding"));
+        assertEquals("application/x-ndjson", received.get("content-type"));
+        assertEquals("Bearer token", received.get("authorization"));
+        assertEquals(0, sink.getBufferedBytes());
+    }
+
+    @Test
+    void testRetriesServerErrorsWithBackoff() throws Exception {
+        failFirst = 2;
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .initialBackoff(Duration.ofMillis(10))
+                .build();
+
+        sink.write(List.of(report("a")));
+        sink.close();
+
+        assertEquals(3, requests.get());
+        assertEquals(1, sink.getUploadedCount());
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() throws Exception {
+        status = 503;
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .maxAttempts(3)
+                .initialBackoff(Duration.ofMillis(5))
+                .build();
+
+        sink.write(List.of(report("a"), report("b")));
+        sink.close();
+
+        assertEquals(3, requests.get());
+        assertEquals(2, sink.getDroppedCount());
+        assertEquals(0, sink.getBufferedBytes());
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() throws Exception {
+        status = 400;
+        HttpUploadSink sink = HttpUploadSink.builder().endpoint(endpoint).build();
+
+        sink.write(List.of(report("a")));
+        sink.close();
+
+        assertEquals(1, requests.get());
+        assertEquals(1, sink.getDroppedCount());
+    }
+
+    @Test
+    void testInFlightRequestsAreBounded() throws Exception {
+        hold = new CountDownLatch(1);
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .maxInFlight(2)
+                .build();
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 6; i++) {
+                    sink.write(List.of(report("r" + i)));
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        producer.start();
+        producer.join(300);
+
+        assertTrue(producer.isAlive(), "Producer should be blocked waiting for a free slot");
+        assertTrue(maxConcurrent.get() <= 2);
+
+        hold.countDown();
+        producer.join(5000);
+        sink.close();
+        assertEquals(6, sink.getUploadedCount());
+        assertTrue(maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    void testRestrictedHeadersAreRejectedWhenBuilt() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .headers(Map.of("Host", "collector.example"))
+                .build());
+        assertTrue(error.getMessage().contains("Host"));
+    }
+
+    @Test
+    void testRequestThatCannotStartReleasesItsSlotAndBudget() {
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .client(new UnstartableClient())
+                .maxInFlight(1)
+                .build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 3; i++) {
+                sink.write(List.of(report("r" + i)));
+            }
+            sink.close();
+        });
+        assertEquals(3, sink.getDroppedCount());
+        assertEquals(0, sink.getBufferedBytes());
+    }
+
+    @Test
+    void testMemoryBudgetDropsBatches() throws Exception {
+        hold = new CountDownLatch(1);
+        HttpUploadSink sink = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .memoryBudgetBytes(1L)
+                .build();
+
+        sink.write(List.of(report("a")));
+
+        assertEquals(1, sink.getDroppedCount());
+        assertEquals(0, sink.getBufferedBytes());
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void testUndeliverableBatchesAreSpooledAndReplayedOnNextStart(@TempDir Path spoolDir) throws Exception {
+        status = 503;
+        HttpUploadSink offline = HttpUploadSink.builder()
+                .endpoint(endpoint)
+                .maxAttempts(2)
+                .initialBackoff(Duration.ofMillis(5))
+                .spool(new ReportSpool(spoolDir))
+                .build();
+        offline.write(List.of(report("a"), report("b")));
+        offline.write(List.of(report("c")));
+        offline.close();
+
+        assertEquals(3, offline.getSpooledCount());
+        assertEquals(0, offline.getDroppedCount());
+
+        status = 202;
+        bodies.clear();
+        ReportSpool spool = new ReportSpool(spoolDir);
+        HttpUploadSink online = HttpUploadSink.builder().endpoint(endpoint).spool(spool).build();
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((online.getUploadedCount() < 3 || !spool.sealedSegments().isEmpty())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        online.close();
+
+        assertEquals(3, online.getUploadedCount());
+        assertEquals(2, bodies.size());
+        assertTrue(bodies.stream().anyMatch(body -> body.startsWith("{\"name\":\"c\"")));
+        assertTrue(spool.sealedSegments().isEmpty());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int active = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(active, Math::max);
+        try {
+            hold.await(5, TimeUnit.SECONDS);
+            try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            headers.add(Map.of(
+                    "content-encoding", String.valueOf(exchange.getRequestHeaders().getFirst("Content-Encoding")),
+                    "content-type", String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type")),
+                    "authorization", String.valueOf(exchange.getRequestHeaders().getFirst("Authorization"))));
+            int attempt = requests.incrementAndGet();
+            exchange.sendResponseHeaders(attempt <= failFirst ? 503 : status, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Fails every request before it is sent, as HttpClient does for headers it refuses
+     */
+    private static final class UnstartableClient extends HttpClient {
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            throw new IllegalArgumentException("restricted header");
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            throw new IllegalArgumentException("restricted header");
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            throw new IllegalArgumentException("restricted header");
+        }
+    }
+
+    private static CrashReport report(String name) {
+        CrashReport report = new CrashReport();
+        report.setName(name);
+        return report;
+    }
+}
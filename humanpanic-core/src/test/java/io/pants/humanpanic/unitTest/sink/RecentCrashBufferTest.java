@@ -0,0 +1,150 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.RecentCrashBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RecentCrashBuffer
+ */
+class RecentCrashBufferTest {
+
+    @Test
+    void testRecentReturnsNewestFirstAndOverwritesOldest() {
+        RecentCrashBuffer buffer = new RecentCrashBuffer(4, 4096);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.append(report("java.lang.IllegalStateException: crash " + i, 5)));
+        }
+
+        List<RecentCrashBuffer.Crash> recent = buffer.recent(10);
+
+        assertEquals(4, recent.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("java.lang.IllegalStateException: crash " + (9 - i), recent.get(i).report().getCause());
+            assertEquals(9 - i, recent.get(i).sequence());
+        }
+        assertEquals(2, buffer.recent(2).size());
+        assertEquals(10, buffer.getAppendedCount());
+        assertEquals(0, buffer.getDroppedCount());
+    }
+
+    @Test
+    void testFindByFingerprintAndTime() throws Exception {
+        RecentCrashBuffer buffer = new RecentCrashBuffer();
+        CrashReport first = report("java.lang.IllegalStateException: closed", 3);
+        CrashReport second = report("java.io.UncheckedIOException: gone", 3);
+        second.getBacktrace().get(0).setMethod("other");
+        buffer.write(List.of(first, second, first));
+        Thread.sleep(5);
+        Instant between = Instant.now();
+        Thread.sleep(5);
+        buffer.append(first);
+
+        long fingerprint = CrashFingerprint.of(first);
+        List<RecentCrashBuffer.Crash> matching = buffer.find(fingerprint, null, 10);
+        assertEquals(3, matching.size());
+        assertTrue(matching.stream().allMatch(crash -> crash.fingerprint() == fingerprint));
+        assertEquals(1, buffer.find(CrashFingerprint.of(second), null, 10).size());
+
+        List<RecentCrashBuffer.Crash> later = buffer.find(null, between, 10);
+        assertEquals(1, later.size());
+        assertEquals(3, later.get(0).sequence());
+        assertFalse(later.get(0).timestamp().isBefore(between));
+        assertTrue(buffer.find(0L, null, 10).isEmpty());
+    }
+
+    @Test
+    void testOversizedReportKeepsShortenedBacktrace() {
+        RecentCrashBuffer buffer = new RecentCrashBuffer(2, 1024);
+
+        assertTrue(buffer.append(report("java.lang.IllegalStateException: deep", 500)));
+
+        RecentCrashBuffer.Crash crash = buffer.recent(1).get(0);
+        assertTrue(crash.truncated());
+        int frames = crash.report().getBacktrace().size();
+        assertTrue(frames > 0 && frames < 500);
+        assertEquals("frame.Class0", crash.report().getBacktrace().get(0).getClassName());
+        assertFalse(buffer.append(report("x".repeat(4096), 0)));
+        assertEquals(1, buffer.getDroppedCount());
+
+        assertTrue(buffer.append(report("java.io.IOException: small", 2)));
+        RecentCrashBuffer.Crash small = buffer.recent(1).get(0);
+        assertFalse(small.truncated());
+        assertEquals("java.io.IOException: small", small.report().getCause());
+        assertEquals(2, small.report().getBacktrace().size());
+    }
+
+    @Test
+    void testConcurrentProducersNeverExposeTornReports() throws Exception {
+        RecentCrashBuffer buffer = new RecentCrashBuffer(8, 2048);
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    buffer.append(report("java.lang.IllegalStateException: " + id + "-" + i, 1 + i % 7));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            for (RecentCrashBuffer.Crash crash : buffer.recent(8)) {
+                assertEquals(crash.fingerprint(), CrashFingerprint.of(crash.report()));
+                assertTrue(crash.report().getCause().startsWith("java.lang.IllegalStateException: "));
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertEquals((long) threads * perThread, buffer.getAppendedCount());
+        List<RecentCrashBuffer.Crash> recent = buffer.recent(8);
+        assertFalse(recent.isEmpty());
+        for (int i = 1; i < recent.size(); i++) {
+            assertTrue(recent.get(i - 1).sequence() > recent.get(i).sequence());
+        }
+    }
+
+    @Test
+    void testRejectsUnalignedSlots() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentCrashBuffer(0, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new RecentCrashBuffer(4, 1001));
+        assertThrows(IllegalArgumentException.class, () -> new RecentCrashBuffer(4, 32));
+    }
+
+    private static CrashReport report(String cause, int frames) {
+        CrashReport report = new CrashReport();
+        report.setName("orders-service");
+        report.setCause(cause);
+        List<CrashReport.StackFrame> backtrace = new ArrayList<>();
+        for (int i = 0; i < frames; i++) {
+            CrashReport.StackFrame frame = new CrashReport.StackFrame();
+            frame.setClassName("frame.Class" + i);
+            frame.setMethod("run");
+            frame.setFile("Class" + i + ".java");
+            frame.setLine(10 + i);
+            backtrace.add(frame);
+        }
+        report.setBacktrace(backtrace);
+        return report;
+    }
+}
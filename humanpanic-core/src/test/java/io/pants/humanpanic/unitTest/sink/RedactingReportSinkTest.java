@@ -0,0 +1,41 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.Breadcrumbs;
+import io.pants.humanpanic.config.AppMetadata;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.RedactingReportSink;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RedactingReportSink
+ */
+class RedactingReportSinkTest {
+
+    @Test
+    void testRedactsCauseArgumentsAndBreadcrumbs() throws Exception {
+        InMemoryReportSink memory = new InMemoryReportSink();
+        CrashReporter reporter = new CrashReporter(AppMetadata::new, new RedactingReportSink(memory));
+        Method method = getClass().getDeclaredMethod("login", String.class, String.class);
+        Breadcrumbs.clear();
+        Breadcrumbs.breadcrumb("signing in {}", "jane@example.com");
+
+        reporter.createReport(new IllegalStateException("Login rejected: password=hunter2"), method,
+                new Object[]{"jane@example.com", "token=abc123"});
+
+        CrashReport report = memory.getReports().get(0);
+        assertEquals("java.lang.IllegalStateException: Login rejected: password=[redacted]", report.getCause());
+        assertEquals("\"[redacted]\"", report.getMethod().getArguments().get(0).getValue());
+        assertEquals("\"token=[redacted]\"", report.getMethod().getArguments().get(1).getValue());
+        assertEquals("signing in [redacted]", report.getBreadcrumbs().get(0).getMessage());
+        assertEquals("login", report.getMethod().getMethodName());
+    }
+
+    private void login(String user, String credentials) {
+    }
+}
@@ -0,0 +1,162 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.sink.ReportSpool;
+import io.pants.humanpanic.sink.SpoolReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportSpool and SpoolReplayer
+ */
+class ReportSpoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendedRecordsReadBackInOrder() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            assertTrue(spool.append(bytes("one"), 1));
+            assertTrue(spool.append(bytes("two"), 2));
+        }
+
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            List<Path> segments = spool.sealedSegments();
+            assertEquals(1, segments.size());
+            List<ReportSpool.Record> records = ReportSpool.read(segments.get(0), 0);
+            assertEquals(2, records.size());
+            assertEquals("one", new String(records.get(0).payload(), StandardCharsets.UTF_8));
+            assertEquals(2, records.get(1).reports());
+            assertEquals(records.get(0).nextOffset(), records.get(1).offset());
+        }
+    }
+
+    @Test
+    void testEachProcessAppendsToNewSegment() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            spool.append(bytes("old"), 1);
+        }
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            spool.append(bytes("new"), 1);
+
+            List<Path> sealed = spool.sealedSegments();
+            assertEquals(1, sealed.size());
+            assertEquals("old", new String(ReportSpool.read(sealed.get(0), 0).get(0).payload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCorruptRecordEndsSegment() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            spool.append(bytes("good"), 1);
+            spool.append(bytes("flipped"), 1);
+            spool.append(bytes("after"), 1);
+        }
+        Path segment = new ReportSpool(tempDir).sealedSegments().get(0);
+        long secondPayload = ReportSpool.read(segment, 0).get(1).offset() + 12;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondPayload);
+            file.write('X');
+        }
+
+        List<ReportSpool.Record> records = ReportSpool.read(segment, 0);
+        assertEquals(1, records.size());
+        assertEquals("good", new String(records.get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDirectoryIsUsedByOneSpoolAtATime() throws Exception {
+        try (ReportSpool owner = new ReportSpool(tempDir)) {
+            assertTrue(owner.append(bytes("owned"), 1));
+            try (ReportSpool other = new ReportSpool(tempDir)) {
+                assertThrows(IOException.class, () -> other.append(bytes("other"), 1));
+                assertThrows(IOException.class, other::sealedSegments);
+                assertThrows(IOException.class, () -> other.commit(new ReportSpool.Position("spool-9", Long.MAX_VALUE)));
+            }
+            assertTrue(owner.append(bytes("still owned"), 1));
+        }
+
+        try (ReportSpool next = new ReportSpool(tempDir)) {
+            List<Path> sealed = next.sealedSegments();
+            assertEquals(1, sealed.size());
+            assertEquals(2, ReportSpool.read(sealed.get(0), 0).size());
+        }
+    }
+
+    @Test
+    void testFullSpoolRefusesAppends() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir, 1024, 40)) {
+            assertTrue(spool.append(new byte[20], 1));
+            assertFalse(spool.append(new byte[20], 1));
+        }
+    }
+
+    @Test
+    void testReplayDeliversEverythingAndDeletesSegments() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir, 40, Long.MAX_VALUE)) {
+            for (int i = 0; i < 5; i++) {
+                spool.append(bytes("record-" + i), 1);
+            }
+        }
+
+        ReportSpool spool = new ReportSpool(tempDir);
+        assertTrue(spool.sealedSegments().size() > 1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        new SpoolReplayer(spool, (record, key) -> {
+            delivered.add(new String(record.payload(), StandardCharsets.UTF_8));
+            return CompletableFuture.supplyAsync(() -> true);
+        }, 2).replay();
+
+        assertEquals(5, delivered.size());
+        assertTrue(spool.sealedSegments().isEmpty());
+    }
+
+    @Test
+    void testReplayResumesAfterLastContiguousDelivery() throws Exception {
+        try (ReportSpool spool = new ReportSpool(tempDir)) {
+            for (int i = 0; i < 4; i++) {
+                spool.append(bytes("record-" + i), 1);
+            }
+        }
+
+        // First run: record-2 cannot be delivered
+        List<String> firstRun = Collections.synchronizedList(new ArrayList<>());
+        try (ReportSpool first = new ReportSpool(tempDir)) {
+            new SpoolReplayer(first, (record, key) -> {
+                String payload = new String(record.payload(), StandardCharsets.UTF_8);
+                firstRun.add(payload);
+                return CompletableFuture.completedFuture(!payload.equals("record-2"));
+            }, 1).replay();
+        }
+
+        // Second run resumes at record-2, record-0 and record-1 are not sent again
+        List<String> secondRun = Collections.synchronizedList(new ArrayList<>());
+        List<String> keys = Collections.synchronizedList(new ArrayList<>());
+        ReportSpool spool = new ReportSpool(tempDir);
+        new SpoolReplayer(spool, (record, key) -> {
+            secondRun.add(new String(record.payload(), StandardCharsets.UTF_8));
+            keys.add(key);
+            return CompletableFuture.completedFuture(true);
+        }, 1).replay();
+
+        assertEquals(List.of("record-0", "record-1", "record-2"), firstRun);
+        assertEquals(List.of("record-2", "record-3"), secondRun);
+        assertTrue(keys.get(0).startsWith("spool-"));
+        assertTrue(spool.sealedSegments().isEmpty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SegmentedLogSink
+ */
+class SegmentedLogSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendsOneLinePerReport() throws Exception {
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir)) {
+            sink.write(List.of(report("a"), report("b")));
+            sink.flush();
+        }
+
+        List<Path> segments = SegmentedLogSink.segments(tempDir);
+        assertEquals(1, segments.size());
+        assertEquals("00000000000000000000.ndjson", segments.get(0).getFileName().toString());
+        List<String> lines = Files.readAllLines(segments.get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"name\":\"a\""));
+        assertTrue(lines.get(1).startsWith("{\"name\":\"b\""));
+    }
+
+    @Test
+    void testRollsSegmentsAtSizeLimit() throws Exception {
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir, new JsonReportEncoder(false), 300)) {
+            for (int i = 0; i < 5; i++) {
+                sink.write(List.of(report("report-" + i)));
+            }
+        }
+
+        List<Path> segments = SegmentedLogSink.segments(tempDir);
+        assertTrue(segments.size() > 1);
+        long records = 0;
+        for (Path segment : segments) {
+            assertEquals(records, SegmentedLogSink.baseOffset(segment));
+            assertTrue(Files.size(segment) <= 300);
+            records += Files.readAllLines(segment).size();
+        }
+        assertEquals(5, records);
+    }
+
+    @Test
+    void testResumesAfterRestart() throws Exception {
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir)) {
+            sink.write(List.of(report("a"), report("b")));
+        }
+
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir)) {
+            sink.write(List.of(report("c")));
+            assertEquals(3, sink.getNextOffset());
+        }
+
+        assertEquals(3, Files.readAllLines(SegmentedLogSink.segments(tempDir).get(0)).size());
+    }
+
+    @Test
+    void testTornRecordIsTerminatedOnRestart() throws Exception {
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir)) {
+            sink.write(List.of(report("a")));
+        }
+        Path segment = SegmentedLogSink.segments(tempDir).get(0);
+        Files.writeString(segment, "{\"name\":\"tor", StandardOpenOption.APPEND);
+
+        try (SegmentedLogSink sink = new SegmentedLogSink(tempDir)) {
+            sink.write(List.of(report("b")));
+            assertEquals(3, sink.getNextOffset());
+        }
+
+        List<String> lines = Files.readAllLines(segment);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).startsWith("{\"name\":\"b\""));
+    }
+
+    private static CrashReport report(String name) {
+        CrashReport report = new CrashReport();
+        report.setName(name);
+        return report;
+    }
+}
@@ -0,0 +1,207 @@
+package io.pants.humanpanic.unitTest.sink;
+
+import io.pants.humanpanic.model.CrashFingerprint;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.sink.DedupingReportSink;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.SharedCrashCounters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SharedCrashCounters and DedupingReportSink
+ */
+class SharedCrashCountersTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOnlyFirstOccurrenceInWindowClaims() throws Exception {
+        try (SharedCrashCounters counters = SharedCrashCounters.open(directory)) {
+            SharedCrashCounters.Claim first = counters.record(42L);
+            SharedCrashCounters.Claim second = counters.record(42L);
+
+            assertTrue(first.first());
+            assertFalse(second.first());
+            assertEquals(2, second.count());
+            assertTrue(counters.record(0L).first());
+            assertEquals(0, counters.count(7L));
+        }
+    }
+
+    @Test
+    void testExpiredWindowClaimsAgain() throws Exception {
+        Path file = directory.resolve("counters.bin");
+        try (SharedCrashCounters counters = SharedCrashCounters.open(file, 16, Duration.ofMillis(50))) {
+            assertTrue(counters.record(1L).first());
+            assertFalse(counters.record(1L).first());
+            Thread.sleep(80);
+            assertTrue(counters.record(1L).first());
+            assertEquals(3, counters.count(1L));
+        }
+    }
+
+    @Test
+    void testWindowOpenedBeforeClockSteppedBackIsReopened() throws Exception {
+        Path file = directory.resolve("counters.bin");
+        try (SharedCrashCounters counters = SharedCrashCounters.open(file, 16, Duration.ofMinutes(1))) {
+            assertTrue(counters.record(5L).first());
+
+            // The window was opened an hour ahead of the current clock, as after an NTP step back
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                mapped.order(ByteOrder.nativeOrder());
+                int slot = 64;
+                while (mapped.getLong(slot) != 5L) {
+                    slot += 32;
+                }
+                mapped.putLong(slot + 8, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+            }
+            assertTrue(counters.record(5L).first());
+            assertFalse(counters.record(5L).first());
+        }
+    }
+
+    @Test
+    void testMappingsOfTheSameFileShareCounters() throws Exception {
+        Path file = directory.resolve("counters.bin");
+        try (SharedCrashCounters first = SharedCrashCounters.open(file, 64, Duration.ofMinutes(1));
+             SharedCrashCounters second = SharedCrashCounters.open(file, 1024, Duration.ofMinutes(1))) {
+            assertEquals(64, second.getCapacity());
+            assertTrue(first.record(5L).first());
+            assertFalse(second.record(5L).first());
+            assertEquals(2, first.count(5L));
+        }
+    }
+
+    @Test
+    void testConcurrentRecordersClaimOnce() throws Exception {
+        Path file = directory.resolve("counters.bin");
+        int threads = 8;
+        int rounds = 1000;
+        AtomicInteger claims = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<SharedCrashCounters> mappings = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SharedCrashCounters counters = SharedCrashCounters.open(file, 256, Duration.ofMinutes(1));
+            mappings.add(counters);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    if (counters.record(i % 100).first()) {
+                        claims.incrementAndGet();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(100, claims.get());
+        assertEquals(threads * rounds / 100, mappings.get(0).count(3));
+        for (SharedCrashCounters counters : mappings) {
+            counters.close();
+        }
+    }
+
+    @Test
+    void testFullTableStillReports() throws Exception {
+        try (SharedCrashCounters counters = SharedCrashCounters.open(directory.resolve("small.bin"), 2,
+                Duration.ofMinutes(1))) {
+            counters.record(1L);
+            counters.record(2L);
+
+            assertTrue(counters.record(3L).first());
+            assertTrue(counters.record(3L).first());
+        }
+    }
+
+    @Test
+    void testSeparateProcessesWriteOneReport() throws Exception {
+        Path file = directory.resolve("counters.bin");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Child.class.getName(), file.toString()).redirectErrorStream(true).start());
+        }
+        int claimed = 0;
+        for (Process process : processes) {
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (output.contains("first")) {
+                claimed++;
+            }
+        }
+
+        assertEquals(1, claimed);
+        try (SharedCrashCounters counters = SharedCrashCounters.open(file, 16, Duration.ofMinutes(1))) {
+            assertEquals(4, counters.count(99L));
+        }
+    }
+
+    @Test
+    void testDedupingSinkSkipsSuppressedReports() throws Exception {
+        InMemoryReportSink memory = new InMemoryReportSink();
+        CrashReport report = report("java.lang.IllegalStateException: a");
+        CrashReport again = report("java.lang.IllegalStateException: b");
+        try (DedupingReportSink sink = new DedupingReportSink(memory, SharedCrashCounters.open(directory))) {
+            sink.location(report);
+            sink.write(List.of(report));
+            assertNull(sink.location(again));
+            sink.write(List.of(again));
+        }
+
+        assertEquals(1, memory.getReports().size());
+        try (SharedCrashCounters counters = SharedCrashCounters.open(directory)) {
+            assertEquals(2, counters.count(CrashFingerprint.of(report)));
+        }
+        assertTrue(Files.exists(directory.resolve(SharedCrashCounters.DEFAULT_FILE_NAME)));
+    }
+
+    private static CrashReport report(String cause) {
+        CrashReport report = new CrashReport();
+        report.setName("app");
+        report.setCause(cause);
+        return report;
+    }
+
+    /**
+     * Entry point of the child processes in testSeparateProcessesWriteOneReport
+     */
+    public static class Child {
+        public static void main(String[] args) throws IOException {
+            try (SharedCrashCounters counters = SharedCrashCounters.open(Paths.get(args[0]), 16, Duration.ofMinutes(1))) {
+                System.out.println(counters.record(99L).first() ? "first" : "counted");
+            }
+        }
+    }
+}
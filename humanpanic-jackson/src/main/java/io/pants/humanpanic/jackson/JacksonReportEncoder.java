@@ -0,0 +1,144 @@
+package io.pants.humanpanic.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.ReportEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jackson backed report encoder. CrashReport carries no Jackson annotations,
+ * the JSON names are attached through mix-ins so the layout matches JsonReportEncoder.
+ */
+public class JacksonReportEncoder implements ReportEncoder {
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonReportEncoder() {
+        this(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+    }
+
+    public JacksonReportEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy()
+                .addMixIn(CrashReport.class, CrashReportMixin.class)
+                .addMixIn(CrashReport.MethodInfo.class, MethodInfoMixin.class)
+                .addMixIn(CrashReport.Argument.class, ArgumentMixin.class)
+                .addMixIn(CrashReport.Breadcrumb.class, BreadcrumbMixin.class)
+                .addMixIn(CrashReport.StackFrame.class, StackFrameMixin.class)
+                .addMixIn(CrashReport.SystemInfo.class, SystemInfoMixin.class);
+    }
+
+    /**
+     * Returns an ObjectMapper that reads and writes crash reports in the stored layout
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public void encode(CrashReport report, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, report);
+    }
+
+    @JsonPropertyOrder({"name", "operating_system", "version", "explanation", "cause",
+            "method", "backtrace", "backtrace_ref", "system_info", "application_info", "breadcrumbs"})
+    abstract static class CrashReportMixin {
+        @JsonProperty("name")
+        private String name;
+        @JsonProperty("operating_system")
+        private String operatingSystem;
+        @JsonProperty("version")
+        private String version;
+        @JsonProperty("explanation")
+        private String explanation;
+        @JsonProperty("cause")
+        private String cause;
+        @JsonProperty("method")
+        private CrashReport.MethodInfo method;
+        @JsonProperty("backtrace")
+        private List<CrashReport.StackFrame> backtrace;
+        @JsonProperty("backtrace_ref")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String backtraceRef;
+        @JsonProperty("system_info")
+        private CrashReport.SystemInfo systemInfo;
+        @JsonProperty("application_info")
+        private Map<String, String> applicationInfo;
+        @JsonProperty("breadcrumbs")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<CrashReport.Breadcrumb> breadcrumbs;
+    }
+
+    @JsonPropertyOrder({"class", "method", "arguments"})
+    abstract static class MethodInfoMixin {
+        @JsonProperty("class")
+        private String className;
+        @JsonProperty("method")
+        private String methodName;
+        @JsonProperty("arguments")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<CrashReport.Argument> arguments;
+    }
+
+    @JsonPropertyOrder({"name", "type", "value"})
+    abstract static class ArgumentMixin {
+        @JsonProperty("name")
+        private String name;
+        @JsonProperty("type")
+        private String type;
+        @JsonProperty("value")
+        private String value;
+    }
+
+    @JsonPropertyOrder({"timestamp_ms", "message"})
+    abstract static class BreadcrumbMixin {
+        @JsonProperty("timestamp_ms")
+        private long timestampMs;
+        @JsonProperty("message")
+        private String message;
+    }
+
+    @JsonPropertyOrder({"class", "method", "file", "line"})
+    abstract static class StackFrameMixin {
+        @JsonProperty("class")
+        private String className;
+        @JsonProperty("method")
+        private String method;
+        @JsonProperty("file")
+        private String file;
+        @JsonProperty("line")
+        private Integer line;
+    }
+
+    @JsonPropertyOrder({"java_version", "java_vendor", "os_name", "os_version", "os_arch",
+            "max_memory_mb", "total_memory_mb", "free_memory_mb", "processors", "uptime_ms"})
+    abstract static class SystemInfoMixin {
+        @JsonProperty("java_version")
+        private String javaVersion;
+        @JsonProperty("java_vendor")
+        private String javaVendor;
+        @JsonProperty("os_name")
+        private String osName;
+        @JsonProperty("os_version")
+        private String osVersion;
+        @JsonProperty("os_arch")
+        private String osArch;
+        @JsonProperty("max_memory_mb")
+        private long maxMemoryMb;
+        @JsonProperty("total_memory_mb")
+        private long totalMemoryMb;
+        @JsonProperty("free_memory_mb")
+        private long freeMemoryMb;
+        @JsonProperty("processors")
+        private int processors;
+        @JsonProperty("uptime_ms")
+        private long uptimeMs;
+    }
+}
@@ -0,0 +1,76 @@
+package io.pants.humanpanic.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import io.pants.humanpanic.config.ConfigSource;
+import io.pants.humanpanic.config.ConfigSources;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Non-Spring configuration loader that also understands application.yml.
+ * The YAML layer sits between the environment and application.properties.
+ */
+public class YamlConfigLoader extends NonSpringConfigLoader {
+
+    public YamlConfigLoader() {
+        super(yamlFile("application.yml"));
+    }
+
+    /**
+     * A YAML file from the classpath or the working directory, parsed once per change.
+     * The YAML mapper is only created the first time such a file actually exists.
+     */
+    public static ConfigSource yamlFile(String fileName) {
+        return new ConfigSources.CachedFileSource(fileName, Paths.get(fileName), YamlConfigLoader::parseYaml);
+    }
+
+    private static Map<String, String> parseYaml(InputStream in) throws IOException {
+        JsonNode root = MapperHolder.MAPPER.readTree(in);
+        Map<String, String> values = new HashMap<>();
+        if (root != null) {
+            JsonNode app = root.get("app");
+            if (app != null && app.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = app.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    String value = toText(field.getValue());
+                    if (value != null) {
+                        values.put(ConfigSources.canonicalKey("app." + field.getKey()), value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private static String toText(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isArray()) {
+            StringBuilder sb = new StringBuilder();
+            for (JsonNode element : node) {
+                if (!sb.isEmpty()) {
+                    sb.append(", ");
+                }
+                sb.append(element.asText());
+            }
+            return sb.toString();
+        }
+        return node.isValueNode() ? node.asText() : null;
+    }
+
+    /**
+     * Lazily initialised, shared YAML mapper
+     */
+    private static final class MapperHolder {
+        private static final YAMLMapper MAPPER = new YAMLMapper();
+    }
+}
@@ -0,0 +1,201 @@
+package io.pants.humanpanic.unitTest.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.pants.humanpanic.jackson.JacksonReportEncoder;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.model.CrashReportPool;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JacksonReportEncoder, checked against the built-in JsonReportEncoder
+ */
+class JacksonReportEncoderTest {
+
+    private final JacksonReportEncoder jacksonEncoder = new JacksonReportEncoder();
+    private final JsonReportEncoder builtInEncoder = new JsonReportEncoder();
+
+    @Test
+    void testSameOutputAsBuiltInEncoder() throws Exception {
+        CrashReport report = createReport();
+
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+    }
+
+    @Test
+    void testSameOutputWithNullsAndEmptyCollections() throws Exception {
+        CrashReport report = new CrashReport();
+        report.setName("App");
+        report.setBacktrace(new ArrayList<>());
+        report.setApplicationInfo(new LinkedHashMap<>());
+
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+    }
+
+    @Test
+    void testSameCompactOutput() throws Exception {
+        JacksonReportEncoder compactJackson = new JacksonReportEncoder(new ObjectMapper());
+        JsonReportEncoder compactBuiltIn = new JsonReportEncoder(false);
+        CrashReport report = createReport();
+        report.setCause("multi\nline");
+        CrashReport empty = new CrashReport();
+        empty.setBacktrace(new ArrayList<>());
+        empty.setApplicationInfo(new LinkedHashMap<>());
+
+        String compact = encode(compactBuiltIn::encode, report);
+        assertEquals(encode(compactJackson::encode, report), compact);
+        assertEquals(encode(compactJackson::encode, empty), encode(compactBuiltIn::encode, empty));
+        assertFalse(compact.contains("\n"));
+
+        report.setBacktrace(null);
+        report.setBacktraceRef("0123456789abcdef0123456789abcdef");
+        assertEquals(encode(compactJackson::encode, report), encode(compactBuiltIn::encode, report));
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+    }
+
+    @Test
+    void testSameEscaping() throws Exception {
+        CrashReport report = createReport();
+        report.setCause("java.lang.RuntimeException: \"quoted\" \\ back\tslash\u0001\né中/");
+
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+    }
+
+    @Test
+    void testSameOutputForPooledReport() throws Exception {
+        CrashReport plain = createReport();
+        CrashReport pooled = new CrashReportPool().acquire();
+        pooled.setName(plain.getName());
+        pooled.setCause(plain.getCause());
+        CrashReport.SystemInfo systemInfo = CrashReportPool.systemInfo(pooled);
+        systemInfo.setProcessors(8);
+        pooled.setSystemInfo(systemInfo);
+        List<CrashReport.StackFrame> frames = CrashReportPool.backtrace(pooled, 1);
+        frames.get(0).setClassName("com.example.Main");
+        pooled.setBacktrace(frames);
+
+        assertEquals(encode(jacksonEncoder::encode, pooled), encode(builtInEncoder::encode, pooled));
+    }
+
+    @Test
+    void testSameOutputWithArguments() throws Exception {
+        CrashReport report = createReport();
+        List<CrashReport.Argument> arguments = new ArrayList<>();
+        arguments.add(argument("order", "java.lang.String", "\"order-7\""));
+        arguments.add(argument("lines", "java.util.ArrayList", "[1, 2, ... 3 more]"));
+        report.getMethod().setArguments(arguments);
+
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+        JacksonReportEncoder compactJackson = new JacksonReportEncoder(new ObjectMapper());
+        assertEquals(encode(compactJackson::encode, report), encode(new JsonReportEncoder(false)::encode, report));
+
+        report.getMethod().setArguments(new ArrayList<>());
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+        CrashReport read = jacksonEncoder.getObjectMapper().readValue(encode(builtInEncoder::encode, report), CrashReport.class);
+        assertTrue(read.getMethod().getArguments().isEmpty());
+    }
+
+    @Test
+    void testSameOutputWithBreadcrumbs() throws Exception {
+        CrashReport report = createReport();
+        CrashReport.Breadcrumb breadcrumb = new CrashReport.Breadcrumb();
+        breadcrumb.setTimestampMs(1_700_000_000_000L);
+        breadcrumb.setMessage("loaded order \"order-7\"");
+        report.setBreadcrumbs(new ArrayList<>(List.of(breadcrumb, breadcrumb)));
+
+        assertEquals(encode(jacksonEncoder::encode, report), encode(builtInEncoder::encode, report));
+        JacksonReportEncoder compactJackson = new JacksonReportEncoder(new ObjectMapper());
+        assertEquals(encode(compactJackson::encode, report), encode(new JsonReportEncoder(false)::encode, report));
+        CrashReport read = jacksonEncoder.getObjectMapper().readValue(encode(builtInEncoder::encode, report), CrashReport.class);
+        assertEquals(1_700_000_000_000L, read.getBreadcrumbs().get(1).getTimestampMs());
+    }
+
+    @Test
+    void testRoundTripWithObjectMapper() throws Exception {
+        CrashReport report = createReport();
+        String json = encode(jacksonEncoder::encode, report);
+
+        CrashReport read = jacksonEncoder.getObjectMapper().readValue(json, CrashReport.class);
+
+        assertEquals(report.getName(), read.getName());
+        assertEquals(report.getMethod().getClassName(), read.getMethod().getClassName());
+        assertEquals(2, read.getBacktrace().size());
+        assertEquals("Main.java", read.getBacktrace().get(0).getFile());
+        assertEquals(8, read.getSystemInfo().getProcessors());
+    }
+
+    private interface Encoder {
+        void encode(CrashReport report, ByteArrayOutputStream out) throws Exception;
+    }
+
+    private String encode(Encoder encoder, CrashReport report) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(report, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static CrashReport.Argument argument(String name, String type, String value) {
+        CrashReport.Argument argument = new CrashReport.Argument();
+        argument.setName(name);
+        argument.setType(type);
+        argument.setValue(value);
+        return argument;
+    }
+
+    private CrashReport createReport() {
+        CrashReport report = new CrashReport();
+        report.setName("Test App");
+        report.setOperatingSystem("Linux 6.1");
+        report.setVersion("1.0.0");
+        report.setExplanation("Well, this is embarrassing.\n\nTest App had a problem and crashed.");
+        report.setCause("java.lang.IllegalStateException: boom");
+
+        CrashReport.MethodInfo methodInfo = new CrashReport.MethodInfo();
+        methodInfo.setClassName("com.example.Main");
+        methodInfo.setMethodName("run");
+        report.setMethod(methodInfo);
+
+        List<CrashReport.StackFrame> frames = new ArrayList<>();
+        CrashReport.StackFrame frame = new CrashReport.StackFrame();
+        frame.setClassName("com.example.Main");
+        frame.setMethod("run");
+        frame.setFile("Main.java");
+        frame.setLine(42);
+        frames.add(frame);
+        CrashReport.StackFrame nativeFrame = new CrashReport.StackFrame();
+        nativeFrame.setClassName("jdk.internal.reflect.NativeMethodAccessorImpl");
+        nativeFrame.setMethod("invoke0");
+        nativeFrame.setLine(-2);
+        frames.add(nativeFrame);
+        report.setBacktrace(frames);
+
+        CrashReport.SystemInfo systemInfo = new CrashReport.SystemInfo();
+        systemInfo.setJavaVersion("21.0.1");
+        systemInfo.setJavaVendor("Eclipse Adoptium");
+        systemInfo.setOsName("Linux");
+        systemInfo.setOsVersion("6.1");
+        systemInfo.setOsArch("amd64");
+        systemInfo.setMaxMemoryMb(4096);
+        systemInfo.setTotalMemoryMb(256);
+        systemInfo.setFreeMemoryMb(128);
+        systemInfo.setProcessors(8);
+        systemInfo.setUptimeMs(1234);
+        report.setSystemInfo(systemInfo);
+
+        Map<String, String> appInfo = new LinkedHashMap<>();
+        appInfo.put("name", "Test App");
+        appInfo.put("version", "1.0.0");
+        appInfo.put("authors", "Alice, Bob");
+        report.setApplicationInfo(appInfo);
+        return report;
+    }
+}
@@ -0,0 +1,76 @@
+package io.pants.humanpanic.unitTest.jackson;
+
+import io.pants.humanpanic.config.AppMetadataProvider;
+import io.pants.humanpanic.config.NonSpringConfigLoader;
+import io.pants.humanpanic.jackson.YamlConfigLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for YamlConfigLoader
+ */
+class YamlConfigLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIsNonSpringConfigLoader() {
+        YamlConfigLoader loader = new YamlConfigLoader();
+
+        assertInstanceOf(NonSpringConfigLoader.class, loader);
+        assertInstanceOf(AppMetadataProvider.class, loader);
+    }
+
+    @Test
+    void testYamlFile_ReadsAppSection() throws Exception {
+        Path file = tempDir.resolve("application.yml");
+        Files.writeString(file, """
+                app:
+                  name: Yaml App
+                  version: 3.1.4
+                  authors:
+                    - Alice
+                    - Bob
+                  support-url: https://yaml/support
+                  issueUrl: https://yaml/issues
+                other:
+                  name: ignored
+                """);
+
+        Map<String, String> values = YamlConfigLoader.yamlFile(file.toString()).read();
+
+        assertEquals("Yaml App", values.get("app.name"));
+        assertEquals("3.1.4", values.get("app.version"));
+        assertEquals("Alice, Bob", values.get("app.authors"));
+        assertEquals("https://yaml/support", values.get("app.supporturl"));
+        assertEquals("https://yaml/issues", values.get("app.issueurl"));
+    }
+
+    @Test
+    void testYamlFile_MissingFileIsEmpty() {
+        assertTrue(YamlConfigLoader.yamlFile(tempDir.resolve("missing.yml").toString()).read().isEmpty());
+    }
+
+    @Test
+    void testYamlFile_InvalidYamlIsEmpty() throws Exception {
+        Path file = tempDir.resolve("broken.yml");
+        Files.writeString(file, "app: [unclosed");
+
+        assertTrue(YamlConfigLoader.yamlFile(file.toString()).read().isEmpty());
+    }
+
+    @Test
+    void testLoadConfiguration_WithNoFiles() {
+        YamlConfigLoader loader = new YamlConfigLoader();
+
+        assertDoesNotThrow(loader::loadConfiguration);
+        assertNotNull(loader.getMetadata());
+    }
+}
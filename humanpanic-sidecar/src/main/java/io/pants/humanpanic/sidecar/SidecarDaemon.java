@@ -0,0 +1,258 @@
+package io.pants.humanpanic.sidecar;
+
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import io.pants.humanpanic.sink.UnixSocketSink;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sidecar that collects crash reports for a whole host.
+ *
+ * Clients (UnixSocketSink) stream [int length][long fingerprint][compact JSON] frames over a
+ * Unix domain socket. Each connection is read on its own virtual thread. A report whose
+ * fingerprint was already persisted within the dedupe window is counted and dropped; the rest
+ * are queued and a single writer appends them in batches to a SegmentedLogSink. Torn frames
+ * from clients that die mid-write are discarded. close drops every open connection, so clients
+ * fail over to their fallback right away instead of writing into a socket nobody reads.
+ */
+@Slf4j
+public class SidecarDaemon implements Closeable {
+
+    public static final Path DEFAULT_SOCKET = Paths.get(System.getProperty("java.io.tmpdir"), "humanpanic.sock");
+    public static final Path DEFAULT_STORE = Paths.get("crash-reports", "sidecar");
+    public static final Duration DEFAULT_DEDUPE_WINDOW = Duration.ofMinutes(1);
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH = 256;
+    private static final int MAX_TRACKED_FINGERPRINTS = 100_000;
+
+    @Getter
+    private final Path socketPath;
+    private final SegmentedLogSink store;
+    private final long dedupeWindowNanos;
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Fingerprint to the nanoTime it was last persisted
+     */
+    private final Map<Long, Long> lastPersisted = new ConcurrentHashMap<>();
+    private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private Thread writer;
+    private volatile boolean closed;
+
+    public SidecarDaemon(Path socketPath, Path storeDirectory, Duration dedupeWindow) {
+        this.socketPath = socketPath;
+        this.store = new SegmentedLogSink(storeDirectory);
+        this.dedupeWindowNanos = dedupeWindow.toNanos();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path socket = args.length > 0 ? Paths.get(args[0]) : DEFAULT_SOCKET;
+        Path store = args.length > 1 ? Paths.get(args[1]) : DEFAULT_STORE;
+        SidecarDaemon daemon = new SidecarDaemon(socket, store, DEFAULT_DEDUPE_WINDOW);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::closeQuietly, "humanpanic-sidecar-shutdown"));
+        daemon.start();
+        log.info("HumanPanic sidecar listening on {}, storing reports in {}", socket, store.toAbsolutePath());
+    }
+
+    public synchronized void start() throws IOException {
+        // A socket file left by a previous run would make bind fail
+        Files.deleteIfExists(socketPath);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+
+        writer = new Thread(this::writeLoop, "humanpanic-sidecar-writer");
+        writer.start();
+        acceptor = new Thread(this::acceptLoop, "humanpanic-sidecar-acceptor");
+        acceptor.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (server != null) {
+            server.close();
+        }
+        for (SocketChannel client : clients) {
+            closeClient(client);
+        }
+        try {
+            if (writer != null) {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+        Files.deleteIfExists(socketPath);
+        log.info("HumanPanic sidecar stopped: {} received, {} persisted, {} duplicates, {} dropped",
+                received.get(), persisted.get(), duplicates.get(), dropped.get());
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    public long getPersistedCount() {
+        return persisted.get();
+    }
+
+    /**
+     * Reports lost because the write queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.error("Failed to stop sidecar, error = {}", e.getMessage());
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel client = server.accept();
+                clients.add(client);
+                if (closed) {
+                    // Accepted while close was dropping the others
+                    closeClient(client);
+                    return;
+                }
+                Thread.ofVirtual().name("humanpanic-sidecar-client").start(() -> readLoop(client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.error("Failed to accept sidecar connection, error = {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeClient(SocketChannel client) {
+        clients.remove(client);
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.debug("Failed to close sidecar connection, error = {}", e.getMessage());
+        }
+    }
+
+    private void readLoop(SocketChannel client) {
+        try (client; DataInputStream in = new DataInputStream(Channels.newInputStream(client))) {
+            while (!closed) {
+                int length = in.readInt();
+                if (length < Long.BYTES || length > UnixSocketSink.MAX_FRAME_BYTES) {
+                    log.warn("Invalid frame length {}, dropping connection", length);
+                    return;
+                }
+                long fingerprint = in.readLong();
+                byte[] payload = in.readNBytes(length - Long.BYTES);
+                if (payload.length != length - Long.BYTES) {
+                    // Client died mid-frame
+                    return;
+                }
+                accept(fingerprint, payload);
+            }
+        } catch (EOFException e) {
+            // Client disconnected
+        } catch (ClosedChannelException e) {
+            // Dropped by close
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("Sidecar connection failed, error = {}", e.getMessage());
+            }
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private void accept(long fingerprint, byte[] payload) {
+        received.incrementAndGet();
+        long now = System.nanoTime();
+        boolean[] fresh = new boolean[1];
+        lastPersisted.compute(fingerprint, (key, last) -> {
+            if (last != null && now - last < dedupeWindowNanos) {
+                return last;
+            }
+            fresh[0] = true;
+            return now;
+        });
+        if (!fresh[0]) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        if (!queue.offer(payload)) {
+            dropped.incrementAndGet();
+            lastPersisted.remove(fingerprint);
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                store.writeEncoded(batch);
+                store.flush();
+                persisted.addAndGet(batch.size());
+            } catch (IOException e) {
+                log.error("Failed to persist {} crash reports, error = {}", batch.size(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+            if (lastPersisted.size() > MAX_TRACKED_FINGERPRINTS) {
+                long now = System.nanoTime();
+                lastPersisted.values().removeIf(last -> now - last >= dedupeWindowNanos);
+            }
+        }
+    }
+}
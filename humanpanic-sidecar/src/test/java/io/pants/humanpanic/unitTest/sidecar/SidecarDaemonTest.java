@@ -0,0 +1,171 @@
+package io.pants.humanpanic.unitTest.sidecar;
+
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sidecar.SidecarDaemon;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.SegmentedLogSink;
+import io.pants.humanpanic.sink.UnixSocketSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * In-process tests for the sidecar daemon with real UnixSocketSink clients
+ */
+class SidecarDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path socket;
+    private Path store;
+    private SidecarDaemon daemon;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        socket = tempDir.resolve("sidecar.sock");
+        store = tempDir.resolve("store");
+        daemon = new SidecarDaemon(socket, store, Duration.ofMinutes(1));
+        daemon.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        daemon.close();
+    }
+
+    @Test
+    void testPersistsReportsFromSeveralClients() throws Exception {
+        try (UnixSocketSink first = client(new InMemoryReportSink());
+             UnixSocketSink second = client(new InMemoryReportSink())) {
+            first.write(List.of(report("java.lang.IllegalStateException: a", "A")));
+            second.write(List.of(report("java.lang.IllegalArgumentException: b", "B")));
+            awaitPersisted(2);
+            assertTrue(first.isConnected());
+        }
+
+        daemon.close();
+
+        List<String> lines = readStore();
+        assertEquals(2, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("IllegalStateException")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("IllegalArgumentException")));
+    }
+
+    @Test
+    void testDuplicatesWithinWindowAreDropped() throws Exception {
+        try (UnixSocketSink client = client(new InMemoryReportSink())) {
+            client.write(List.of(
+                    report("java.lang.IllegalStateException: first", "A"),
+                    report("java.lang.IllegalStateException: second message, same bug", "A"),
+                    report("java.lang.IllegalStateException: other bug", "B")));
+        }
+
+        awaitPersisted(2);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (daemon.getReceivedCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        daemon.close();
+
+        assertEquals(3, daemon.getReceivedCount());
+        assertEquals(1, daemon.getDuplicateCount());
+        assertEquals(2, readStore().size());
+    }
+
+    @Test
+    void testClientFallsBackWhenSidecarStops() throws Exception {
+        InMemoryReportSink fallback = new InMemoryReportSink();
+        try (UnixSocketSink client = client(fallback)) {
+            client.write(List.of(report("java.lang.IllegalStateException: before", "A")));
+            awaitPersisted(1);
+
+            daemon.close();
+            List<CrashReport> after = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                after.add(report("java.lang.IllegalStateException: after", "B" + i));
+            }
+            client.write(after);
+
+            assertEquals(3, fallback.awaitReports(3, Duration.ofSeconds(5)).size());
+            assertFalse(client.isConnected());
+            assertFalse(Files.exists(socket));
+        }
+    }
+
+    @Test
+    void testOversizedReportGoesToTheFallbackWithoutDisconnecting() throws Exception {
+        InMemoryReportSink fallback = new InMemoryReportSink();
+        try (UnixSocketSink client = client(fallback)) {
+            CrashReport huge = report("java.lang.IllegalStateException: " + "x".repeat(UnixSocketSink.MAX_FRAME_BYTES), "A");
+            client.write(List.of(huge, report("java.lang.IllegalStateException: small", "B")));
+
+            assertSame(huge, fallback.awaitReports(1, Duration.ofSeconds(5)).get(0));
+            awaitPersisted(1);
+            assertTrue(client.isConnected());
+            assertEquals(1, fallback.getReports().size());
+        }
+    }
+
+    @Test
+    void testFailingThreadNeverTouchesTheSocket() throws Exception {
+        List<String> threads = new ArrayList<>();
+        InMemoryReportSink fallback = new InMemoryReportSink() {
+            @Override
+            public void write(List<CrashReport> reports) {
+                threads.add(Thread.currentThread().getName());
+                super.write(reports);
+            }
+        };
+        daemon.close();
+
+        try (UnixSocketSink client = client(fallback)) {
+            client.write(List.of(report("java.lang.IllegalStateException: offline", "C")));
+            fallback.awaitReports(1, Duration.ofSeconds(5));
+        }
+
+        assertEquals(1, threads.size());
+        assertNotEquals(Thread.currentThread().getName(), threads.get(0));
+    }
+
+    private UnixSocketSink client(InMemoryReportSink fallback) {
+        return new UnixSocketSink(socket, new JsonReportEncoder(false), fallback);
+    }
+
+    private void awaitPersisted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (daemon.getPersistedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, daemon.getPersistedCount());
+    }
+
+    private List<String> readStore() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (Path segment : SegmentedLogSink.segments(store)) {
+            lines.addAll(Files.readAllLines(segment));
+        }
+        return lines;
+    }
+
+    private static CrashReport report(String cause, String method) {
+        CrashReport report = new CrashReport();
+        report.setName("Sidecar Test");
+        report.setCause(cause);
+        CrashReport.MethodInfo methodInfo = new CrashReport.MethodInfo();
+        methodInfo.setClassName("com.example.Service");
+        methodInfo.setMethodName(method);
+        report.setMethod(methodInfo);
+        return report;
+    }
+}
@@ -2,21 +2,20 @@ package io.pants.humanpanic.config;
 
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 
 /**
  * Loads application metadata from various configuration sources
  */
 @Slf4j
 @Getter
-@Component
-@RequiredArgsConstructor
-public class ConfigLoader {
+public class ConfigLoader implements AppMetadataProvider {
 
-    private final AppMetadata metadata;
+    /**
+     * Current metadata snapshot, replaced as a whole and never mutated
+     */
+    private volatile AppMetadata metadata;
 
     @Value("${app.name:Unknown Application}")
     private String appName;
@@ -36,6 +35,10 @@ public class ConfigLoader {
     @Value("${app.issue-url:}")
     private String appIssueUrl;
 
+    public ConfigLoader(AppMetadata metadata) {
+        this.metadata = metadata;
+    }
+
     @PostConstruct
     public void init() {
         if (metadata == null) {
@@ -44,44 +47,58 @@ public class ConfigLoader {
             return;
         }
 
-        metadata.setName(appName);
-        metadata.setVersion(appVersion);
+        AppMetadata.AppMetadataBuilder builder = metadata.toBuilder()
+                .name(appName)
+                .version(appVersion);
 
         // Parse authors (comma-separated)
         if (appAuthors != null && !appAuthors.isEmpty() && !appAuthors.equals("Unknown Authors")) {
-            metadata.setAuthors(appAuthors.split(",\\s*"));
+            builder.authors(appAuthors.split(",\\s*"));
         } else {
-            metadata.setAuthors(new String[]{"Unknown"});
+            builder.authors(new String[]{"Unknown"});
         }
 
-        metadata.setHomepage(appHomepage != null ? appHomepage : "");
-        metadata.setSupportUrl(appSupportUrl != null ? appSupportUrl : "");
-        metadata.setIssueUrl(appIssueUrl != null ? appIssueUrl : "");
+        builder.homepage(appHomepage != null ? appHomepage : "");
+        builder.supportUrl(appSupportUrl != null ? appSupportUrl : "");
+        builder.issueUrl(appIssueUrl != null ? appIssueUrl : "");
+
+        update(builder.build());
+    }
+
+    /**
+     * Atomically replaces the metadata snapshot, e.g. after the environment has been refreshed
+     */
+    public void update(AppMetadata metadata) {
+        this.metadata = metadata;
     }
 
     /**
      * Fallback configuration loading for non-Spring environments
      */
     private void loadFallbackConfig() {
+        AppMetadata.AppMetadataBuilder builder = new AppMetadata().toBuilder();
+
         // Try to load from manifest or system properties
         String name = System.getProperty("app.name");
         String version = System.getProperty("app.version");
 
-        if (name != null && metadata != null) metadata.setName(name);
-        if (version != null && metadata != null) metadata.setVersion(version);
+        if (name != null) builder.name(name);
+        if (version != null) builder.version(version);
 
         // Try reading from manifest
         try {
             Package pkg = getClass().getPackage();
-            if (pkg != null && metadata != null) {
+            if (pkg != null) {
                 String implTitle = pkg.getImplementationTitle();
                 String implVersion = pkg.getImplementationVersion();
 
-                if (implTitle != null) metadata.setName(implTitle);
-                if (implVersion != null) metadata.setVersion(implVersion);
+                if (implTitle != null) builder.name(implTitle);
+                if (implVersion != null) builder.version(implVersion);
             }
         } catch (Exception e) {
             log.error("Failed to load config from manifest, error = {}", e.getMessage());
         }
+
+        update(builder.build());
     }
-}
\ No newline at end of file
+}
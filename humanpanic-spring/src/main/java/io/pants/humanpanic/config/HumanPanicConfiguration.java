@@ -0,0 +1,81 @@
+package io.pants.humanpanic.config;
+
+import io.pants.humanpanic.interceptor.HumanPanicAspect;
+import io.pants.humanpanic.reporter.CrashPathWarmer;
+import io.pants.humanpanic.reporter.CrashReporter;
+import io.pants.humanpanic.reporter.InitStrategy;
+import io.pants.humanpanic.reporter.UserNotifier;
+import io.pants.humanpanic.sink.ReportSink;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+/**
+ * Main configuration class for HumanPanic library
+ * Enables AspectJ auto-proxying and registers all necessary beans
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ComponentScan(basePackages = "io.pants.humanpanic")
+public class HumanPanicConfiguration {
+
+    /**
+     * Required for @Value annotations to work in tests and non-Spring-Boot apps
+     */
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    @Bean
+    public ConfigLoader configLoader() {
+        return new ConfigLoader(new AppMetadata());
+    }
+
+    /**
+     * Metadata snapshot taken once the ConfigLoader is initialised.
+     * Use ConfigLoader.getMetadata() to always read the current snapshot.
+     */
+    @Bean
+    public AppMetadata appMetadata(ConfigLoader configLoader) {
+        return configLoader.getMetadata();
+    }
+
+    /**
+     * Uses a ReportSink bean when the application defines one, otherwise writes JSON files to crash-reports
+     */
+    @Bean
+    public CrashReporter crashReporter(ConfigLoader configLoader, ObjectProvider<ReportSink> reportSink) {
+        ReportSink sink = reportSink.getIfAvailable();
+        return sink != null ? new CrashReporter(configLoader, sink) : new CrashReporter(configLoader);
+    }
+
+    /**
+     * Tells users that reports are sent automatically when the ReportSink bean does so
+     */
+    @Bean
+    public UserNotifier userNotifier(ConfigLoader configLoader, ObjectProvider<ReportSink> reportSink) {
+        ReportSink sink = reportSink.getIfAvailable();
+        return new UserNotifier(configLoader, sink != null && sink.sendsReports());
+    }
+
+    /**
+     * Applies humanpanic.init-strategy (lazy, eager or background-warm) once the reporter and notifier exist
+     */
+    @Bean
+    public CrashPathWarmer crashPathWarmer(CrashReporter crashReporter, UserNotifier userNotifier,
+                                           @Value("${humanpanic.init-strategy:lazy}") String initStrategy) {
+        CrashPathWarmer warmer = new CrashPathWarmer(crashReporter, userNotifier);
+        warmer.initialize(InitStrategy.parse(initStrategy));
+        return warmer;
+    }
+
+    @Bean
+    public HumanPanicAspect humanPanicAspect(CrashReporter crashReporter, UserNotifier userNotifier) {
+        return new HumanPanicAspect(crashReporter, userNotifier);
+    }
+}
\ No newline at end of file
@@ -45,79 +45,79 @@ class ConfigLoaderTest {
     @Test
     void testSetAppName() {
         setFieldsAndInit("Test Application", "Unknown Version", "Unknown Authors", "", "", "");
-        assertEquals("Test Application", metadata.getName());
+        assertEquals("Test Application", configLoader.getMetadata().getName());
     }
 
     @Test
     void testSetAppVersion() {
         setFieldsAndInit("Unknown Application", "1.2.3", "Unknown Authors", "", "", "");
-        assertEquals("1.2.3", metadata.getVersion());
+        assertEquals("1.2.3", configLoader.getMetadata().getVersion());
     }
 
     @Test
     void testSetAppAuthors_SingleAuthor() {
         setFieldsAndInit("Unknown", "Unknown", "John Doe", "", "", "");
-        assertArrayEquals(new String[]{"John Doe"}, metadata.getAuthors());
+        assertArrayEquals(new String[]{"John Doe"}, configLoader.getMetadata().getAuthors());
     }
 
     @Test
     void testSetAppAuthors_MultipleAuthors() {
         setFieldsAndInit("Unknown", "Unknown", "John Doe, Jane Smith, Bob Wilson", "", "", "");
-        assertArrayEquals(new String[]{"John Doe", "Jane Smith", "Bob Wilson"}, metadata.getAuthors());
+        assertArrayEquals(new String[]{"John Doe", "Jane Smith", "Bob Wilson"}, configLoader.getMetadata().getAuthors());
     }
 
     @Test
     void testSetAppAuthors_WithSpaces() {
         setFieldsAndInit("Unknown", "Unknown", "John Doe, Jane Smith, Bob Wilson", "", "", "");
-        assertArrayEquals(new String[]{"John Doe", "Jane Smith", "Bob Wilson"}, metadata.getAuthors());
+        assertArrayEquals(new String[]{"John Doe", "Jane Smith", "Bob Wilson"}, configLoader.getMetadata().getAuthors());
     }
 
     @Test
     void testSetAppAuthors_EmptyString() {
         setFieldsAndInit("Unknown", "Unknown", "", "", "", "");
-        assertArrayEquals(new String[]{"Unknown"}, metadata.getAuthors());
+        assertArrayEquals(new String[]{"Unknown"}, configLoader.getMetadata().getAuthors());
     }
 
     @Test
     void testSetAppAuthors_NullValue() {
         setFieldsAndInit("Unknown", "Unknown", null, "", "", "");
-        assertArrayEquals(new String[]{"Unknown"}, metadata.getAuthors());
+        assertArrayEquals(new String[]{"Unknown"}, configLoader.getMetadata().getAuthors());
     }
 
     @Test
     void testSetAppHomepage() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", "https://example.com", "", "");
-        assertEquals("https://example.com", metadata.getHomepage());
+        assertEquals("https://example.com", configLoader.getMetadata().getHomepage());
     }
 
     @Test
     void testSetAppHomepage_NullValue() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", null, "", "");
-        assertEquals("", metadata.getHomepage());
+        assertEquals("", configLoader.getMetadata().getHomepage());
     }
 
     @Test
     void testSetAppSupportUrl() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", "", "https://example.com/support", "");
-        assertEquals("https://example.com/support", metadata.getSupportUrl());
+        assertEquals("https://example.com/support", configLoader.getMetadata().getSupportUrl());
     }
 
     @Test
     void testSetAppSupportUrl_NullValue() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", "", null, "");
-        assertEquals("", metadata.getSupportUrl());
+        assertEquals("", configLoader.getMetadata().getSupportUrl());
     }
 
     @Test
     void testSetAppIssueUrl() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", "", "", "https://github.com/example/issues");
-        assertEquals("https://github.com/example/issues", metadata.getIssueUrl());
+        assertEquals("https://github.com/example/issues", configLoader.getMetadata().getIssueUrl());
     }
 
     @Test
     void testSetAppIssueUrl_NullValue() {
         setFieldsAndInit("Unknown", "Unknown", "Unknown", "", "", null);
-        assertEquals("", metadata.getIssueUrl());
+        assertEquals("", configLoader.getMetadata().getIssueUrl());
     }
 
     @Test
@@ -137,12 +137,12 @@ class ConfigLoaderTest {
                 "https://github.com/myapp/issues"
         );
 
-        assertEquals("My App", metadata.getName());
-        assertEquals("2.0.0", metadata.getVersion());
-        assertArrayEquals(new String[]{"Alice", "Bob"}, metadata.getAuthors());
-        assertEquals("https://myapp.com", metadata.getHomepage());
-        assertEquals("https://myapp.com/help", metadata.getSupportUrl());
-        assertEquals("https://github.com/myapp/issues", metadata.getIssueUrl());
+        assertEquals("My App", configLoader.getMetadata().getName());
+        assertEquals("2.0.0", configLoader.getMetadata().getVersion());
+        assertArrayEquals(new String[]{"Alice", "Bob"}, configLoader.getMetadata().getAuthors());
+        assertEquals("https://myapp.com", configLoader.getMetadata().getHomepage());
+        assertEquals("https://myapp.com/help", configLoader.getMetadata().getSupportUrl());
+        assertEquals("https://github.com/myapp/issues", configLoader.getMetadata().getIssueUrl());
     }
 
     @Test
@@ -161,22 +161,42 @@ class ConfigLoaderTest {
     @Test
     void testMultipleInitCalls() {
         setFieldsAndInit("First Name", "Unknown", "Unknown", "", "", "");
-        assertEquals("First Name", metadata.getName());
+        assertEquals("First Name", configLoader.getMetadata().getName());
 
         ReflectionTestUtils.setField(configLoader, "appName", "Second Name");
         configLoader.init();
-        assertEquals("Second Name", metadata.getName());
+        assertEquals("Second Name", configLoader.getMetadata().getName());
+    }
+
+    @Test
+    void testInitPublishesNewSnapshot() {
+        setFieldsAndInit("My App", "2.0.0", "Alice", "", "", "");
+
+        assertNotSame(metadata, configLoader.getMetadata());
+        assertEquals("Unknown Application", metadata.getName());
+        assertEquals("My App", configLoader.getMetadata().getName());
+    }
+
+    @Test
+    void testUpdateSwapsSnapshot() {
+        setFieldsAndInit("My App", "2.0.0", "Alice", "", "", "");
+        AppMetadata reloaded = configLoader.getMetadata().toBuilder().version("2.0.1").build();
+
+        configLoader.update(reloaded);
+
+        assertSame(reloaded, configLoader.getMetadata());
+        assertEquals("2.0.1", configLoader.getMetadata().getVersion());
     }
 
     @Test
     void testEmptyConfigurationValues() {
         setFieldsAndInit("", "", "", "", "", "");
 
-        assertEquals("", metadata.getName());
-        assertEquals("", metadata.getVersion());
-        assertEquals("", metadata.getHomepage());
-        assertEquals("", metadata.getSupportUrl());
-        assertEquals("", metadata.getIssueUrl());
+        assertEquals("", configLoader.getMetadata().getName());
+        assertEquals("", configLoader.getMetadata().getVersion());
+        assertEquals("", configLoader.getMetadata().getHomepage());
+        assertEquals("", configLoader.getMetadata().getSupportUrl());
+        assertEquals("", configLoader.getMetadata().getIssueUrl());
     }
 
     @Test
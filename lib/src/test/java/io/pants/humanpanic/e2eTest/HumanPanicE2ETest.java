@@ -5,6 +5,12 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import io.pants.humanpanic.HumanPanic;
 import io.pants.humanpanic.config.HumanPanicConfiguration;
+import io.pants.humanpanic.model.CrashReport;
+import io.pants.humanpanic.reporter.JsonReportEncoder;
+import io.pants.humanpanic.sink.CompositeReportSink;
+import io.pants.humanpanic.sink.FileReportSink;
+import io.pants.humanpanic.sink.InMemoryReportSink;
+import io.pants.humanpanic.sink.ReportSink;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,16 +18,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Service;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -32,7 +43,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * End-to-End tests for HumanPanic - No mocking, real annotation processing
  */
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = HumanPanicConfiguration.class)
+@ContextConfiguration(classes = {HumanPanicConfiguration.class, HumanPanicE2ETest.Sinks.class})
 @TestPropertySource(properties = {
         "app.name=E2E Test Application",
         "app.version=2.0.0-e2e",
@@ -53,8 +64,17 @@ class HumanPanicE2ETest {
     private Logger userNotifierLogger;
     private static final String CRASH_REPORTS_DIR = "crash-reports";
 
+    /**
+     * Every report the aspect wrote, and the location it was given
+     */
+    private static final InMemoryReportSink REPORTS = new InMemoryReportSink();
+    private static final List<String> LOCATIONS = Collections.synchronizedList(new ArrayList<>());
+
     @BeforeEach
     void setUp() {
+        REPORTS.clear();
+        LOCATIONS.clear();
+
         // Setup log capturing
         userNotifierLogger = (Logger) LoggerFactory.getLogger("io.pants.humanpanic.reporter.UserNotifier");
         logAppender = new ListAppender<>();
@@ -82,15 +102,12 @@ class HumanPanicE2ETest {
         testService.methodWithDefaultConfig();
 
         // Verify crash report was created
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        assertTrue(crashReportsDir.exists(), "Crash reports directory should exist");
-
-        File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        assertNotNull(reports);
-        assertEquals(1, reports.length, "Should have created exactly one crash report");
+        List<CrashReport> reports = REPORTS.getReports();
+        assertEquals(1, reports.size(), "Should have created exactly one crash report");
+        assertTrue(new File(LOCATIONS.get(0)).exists(), "Report file should exist");
 
         // Verify report content
-        String reportContent = readFile(reports[0].toPath());
+        String reportContent = json(reports.get(0));
         assertReportContainsExpectedData(reportContent, "methodWithDefaultConfig");
 
         // Verify logs were created
@@ -100,7 +117,7 @@ class HumanPanicE2ETest {
         String allLogs = getAllLogs(logEvents);
         assertTrue(allLogs.contains("Well, this is embarrassing"), "Should contain embarrassing message");
         assertTrue(allLogs.contains("E2E Test Application"), "Should contain app name");
-        assertTrue(allLogs.contains(reports[0].getAbsolutePath()), "Should contain report path");
+        assertTrue(allLogs.contains(LOCATIONS.get(0)), "Should contain report path");
     }
 
     @Test
@@ -119,11 +136,7 @@ class HumanPanicE2ETest {
         testService.methodWithoutCrashReport();
 
         // Verify no crash report was created
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        if (crashReportsDir.exists()) {
-            File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-            assertEquals(0, reports != null ? reports.length : 0, "Should not create crash report");
-        }
+        assertEquals(0, REPORTS.getReports().size(), "Should not create crash report");
 
         // Verify error was logged
         List<ILoggingEvent> logEvents = logAppender.list;
@@ -139,9 +152,7 @@ class HumanPanicE2ETest {
         testService.methodInSilentMode();
 
         // Verify crash report was created (silent only suppresses user notification)
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        assertEquals(1, reports != null ? reports.length : 0, "Should still create crash report in silent mode");
+        assertEquals(1, REPORTS.getReports().size(), "Should still create crash report in silent mode");
 
         // Verify no user notification logs (only internal logs might exist)
         List<ILoggingEvent> logEvents = logAppender.list;
@@ -174,12 +185,10 @@ class HumanPanicE2ETest {
     void testCrashReportContainsAllMetadata() {
         testService.methodWithDefaultConfig();
 
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        assertNotNull(reports);
-        assertEquals(1, reports.length);
+        List<CrashReport> reports = REPORTS.getReports();
+        assertEquals(1, reports.size());
 
-        String reportContent = readFile(reports[0].toPath());
+        String reportContent = json(reports.get(0));
 
         // Verify all application metadata
         assertTrue(reportContent.contains("E2E Test Application"), "Should contain app name");
@@ -225,53 +234,33 @@ class HumanPanicE2ETest {
     }
 
     @Test
-    void testMultipleCrashReports_UniqueFilenames() throws InterruptedException {
-        // Create multiple crash reports
+    void testMultipleCrashReports_UniqueFilenames() {
+        // Create multiple crash reports within the same second
         testService.methodWithDefaultConfig();
-        Thread.sleep(1100); // Ensure different timestamp
         testService.methodWithCustomMessage();
-        Thread.sleep(1100);
         testService.methodReturningString();
 
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-
-        assertNotNull(reports);
-        assertEquals(3, reports.length, "Should create 3 unique crash reports");
+        assertEquals(3, REPORTS.getReports().size(), "Should create 3 unique crash reports");
 
         // Verify all filenames are unique
-        List<String> filenames = List.of(reports).stream()
-                .map(File::getName)
-                .collect(Collectors.toList());
-
-        long uniqueCount = filenames.stream().distinct().count();
+        long uniqueCount = LOCATIONS.stream().distinct().count();
         assertEquals(3, uniqueCount, "All report filenames should be unique");
+        for (String location : LOCATIONS) {
+            assertTrue(new File(location).exists(), "Every report file should exist");
+        }
     }
 
     @Test
-    void testDifferentExceptionTypes() throws IOException {
-        // Test NullPointerException
+    void testDifferentExceptionTypes() {
         testService.methodThrowingNPE();
-        File[] reports1 = getCrashReports();
-        assertEquals(1, reports1.length);
-        String content1 = readFile(reports1[0].toPath());
-        assertTrue(content1.contains("NullPointerException"), "Should capture NPE");
-        cleanupCrashReports();
-
-        // Test IllegalArgumentException
         testService.methodThrowingIAE();
-        File[] reports2 = getCrashReports();
-        assertEquals(1, reports2.length);
-        String content2 = readFile(reports2[0].toPath());
-        assertTrue(content2.contains("IllegalArgumentException"), "Should capture IAE");
-        cleanupCrashReports();
-
-        // Test IllegalStateException
         testService.methodThrowingISE();
-        File[] reports3 = getCrashReports();
-        assertEquals(1, reports3.length);
-        String content3 = readFile(reports3[0].toPath());
-        assertTrue(content3.contains("IllegalStateException"), "Should capture ISE");
+
+        List<CrashReport> reports = REPORTS.getReports();
+        assertEquals(3, reports.size());
+        assertTrue(json(reports.get(0)).contains("NullPointerException"), "Should capture NPE");
+        assertTrue(json(reports.get(1)).contains("IllegalArgumentException"), "Should capture IAE");
+        assertTrue(json(reports.get(2)).contains("IllegalStateException"), "Should capture ISE");
     }
 
     @Test
@@ -293,17 +282,16 @@ class HumanPanicE2ETest {
         assertDoesNotThrow(() -> testService.voidMethodWithError());
 
         // Verify crash report was created
-        File[] reports = getCrashReports();
-        assertEquals(1, reports.length, "Should create crash report for void method");
+        assertEquals(1, REPORTS.getReports().size(), "Should create crash report for void method");
     }
 
     @Test
     void testMethodWithArguments_CapturedInReport() {
         testService.methodWithArguments("testParam", 42);
 
-        File[] reports = getCrashReports();
-        assertEquals(1, reports.length);
-        String content = readFile(reports[0].toPath());
+        List<CrashReport> reports = REPORTS.getReports();
+        assertEquals(1, reports.size());
+        String content = json(reports.get(0));
 
         // Verify method name is captured
         assertTrue(content.contains("methodWithArguments"), "Should contain method name");
@@ -313,8 +301,7 @@ class HumanPanicE2ETest {
     void testCrashReportJSON_ValidStructure() {
         testService.methodWithDefaultConfig();
 
-        File[] reports = getCrashReports();
-        String content = readFile(reports[0].toPath());
+        String content = json(REPORTS.getReports().get(0));
 
         // Verify JSON structure
         assertTrue(content.contains("\"name\""), "Should have name field");
@@ -343,24 +330,17 @@ class HumanPanicE2ETest {
                 .collect(Collectors.joining("\n"));
     }
 
-    private String readFile(Path path) {
+    private String json(CrashReport report) {
         try {
-            return Files.readString(path);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new JsonReportEncoder().encode(report, out);
+            return out.toString(StandardCharsets.UTF_8);
         } catch (IOException e) {
-            fail("Failed to read file: " + path);
+            fail("Failed to encode report: " + e.getMessage());
             return "";
         }
     }
 
-    private File[] getCrashReports() {
-        File crashReportsDir = new File(CRASH_REPORTS_DIR);
-        if (!crashReportsDir.exists()) {
-            return new File[0];
-        }
-        File[] reports = crashReportsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        return reports != null ? reports : new File[0];
-    }
-
     private void cleanupCrashReports() throws IOException {
         Path crashReportsPath = Paths.get(CRASH_REPORTS_DIR);
         if (Files.exists(crashReportsPath)) {
@@ -371,6 +351,25 @@ class HumanPanicE2ETest {
         }
     }
 
+    /**
+     * Writes report files to crash-reports as usual and keeps every report in memory for the assertions.
+     * Not a @Configuration, so component scanning does not hand it to other test contexts.
+     */
+    static class Sinks {
+
+        @Bean
+        public ReportSink reportSink() {
+            return new CompositeReportSink(List.of(new FileReportSink(), REPORTS)) {
+                @Override
+                public String location(CrashReport report) {
+                    String location = super.location(report);
+                    LOCATIONS.add(location);
+                    return location;
+                }
+            };
+        }
+    }
+
     /**
      * Test service with various @HumanPanic configurations
      */
@@ -195,11 +195,13 @@ class HumanPanicIntegrationTest {
         RuntimeException exception = new RuntimeException("Test");
         java.lang.reflect.Method method = TestService.class.getMethod("testMethod");
 
+        // Same second on purpose, the second report gets a suffix instead of overwriting the first
         String report1 = crashReporter.createReport(exception, method);
-        Thread.sleep(1100); // Ensure different timestamp
         String report2 = crashReporter.createReport(exception, method);
 
         assertNotEquals(report1, report2);
+        assertTrue(new File(report1).exists());
+        assertTrue(new File(report2).exists());
 
         // Clean up
         new File(report1).delete();